@@ -1,11 +1,17 @@
 package software.sebastian.mondragon.battleship.game;
 
 import software.sebastian.mondragon.battleship.game.client.GameClientSession;
+import software.sebastian.mondragon.battleship.game.model.ArenaTableros;
+import software.sebastian.mondragon.battleship.game.repo.ArchivoBloquesIds;
+import software.sebastian.mondragon.battleship.game.repo.FuenteBloquesIds;
+import software.sebastian.mondragon.battleship.game.repo.InMemoryRepo;
+import software.sebastian.mondragon.battleship.game.repo.RepoEnDisco;
 import software.sebastian.mondragon.battleship.game.server.TcpServer;
 import software.sebastian.mondragon.battleship.ui.MainMenuFrame;
 
 import javax.swing.SwingUtilities;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.function.Consumer;
@@ -15,9 +21,17 @@ import java.util.logging.Logger;
 public class Main {
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
     private static final int DEFAULT_PORT = 9090;
+    // directorio del journal del servidor; sin la propiedad el estado solo vive en memoria
+    static final String JOURNAL_PROPERTY = "battleship.journal";
+    // con valor true los tableros pequenos del servidor se guardan fuera del heap
+    static final String OFF_HEAP_PROPERTY = "battleship.offheap";
+    // directorio donde el servidor guarda el historico de partidas terminadas en lugar de en memoria
+    static final String HISTORY_PROPERTY = "battleship.history";
+    // archivo compartido del que varios servidores toman bloques de ids sin repetirlos
+    static final String IDS_PROPERTY = "battleship.ids";
     private static Consumer<Runnable> uiExecutor = SwingUtilities::invokeLater;
     private static ClientLauncher clientLauncher = Main::launchDefaultClient;
-    private static TcpServerFactory serverFactory = TcpServer::new;
+    private static TcpServerFactory serverFactory = Main::createDefaultServer;
     private static final String DEFAULT_HOST = "localhost";
 
     public static void main(String[] args) {
@@ -81,6 +95,33 @@ public class Main {
         }
     }
 
+    private static TcpServer createDefaultServer(int port) throws IOException {
+        InMemoryRepo repo = createDefaultRepo();
+        String journal = System.getProperty(JOURNAL_PROPERTY);
+        if (journal == null || journal.isBlank()) {
+            return new TcpServer(port, repo);
+        }
+        LOGGER.log(Level.INFO, "Usando journal en {0}", journal);
+        return new TcpServer(port, repo, Path.of(journal));
+    }
+
+    private static InMemoryRepo createDefaultRepo() throws IOException {
+        ArenaTableros arena = Boolean.getBoolean(OFF_HEAP_PROPERTY) ? new ArenaTableros() : null;
+        String idsFile = System.getProperty(IDS_PROPERTY);
+        FuenteBloquesIds ids = null;
+        if (idsFile != null && !idsFile.isBlank()) {
+            LOGGER.log(Level.INFO, "Bloques de ids desde {0}", idsFile);
+            ids = ArchivoBloquesIds.abrir(Path.of(idsFile));
+        }
+        String history = System.getProperty(HISTORY_PROPERTY);
+        if (history != null && !history.isBlank()) {
+            LOGGER.log(Level.INFO, "Historico de partidas en {0}", history);
+            return RepoEnDisco.abrir(Path.of(history), RepoEnDisco.PARTIDOS_EN_CACHE_POR_DEFECTO, arena, ids);
+        }
+        return new InMemoryRepo(InMemoryRepo.MAX_MAPAS_LIBRES_POR_TAMANO, InMemoryRepo.FRANJAS_POR_DEFECTO,
+                System::currentTimeMillis, arena, ids);
+    }
+
     private static int parsePort(String raw) {
         try {
             int port = Integer.parseInt(raw);
@@ -112,7 +153,7 @@ public class Main {
 
 
     static void overrideServerFactory(TcpServerFactory factory) {
-        serverFactory = factory != null ? factory : TcpServer::new;
+        serverFactory = factory != null ? factory : Main::createDefaultServer;
     }
 
     static void resetTestHooks() {
@@ -1,5 +1,6 @@
 package software.sebastian.mondragon.battleship.game.client;
 
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
 import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
 
 import java.io.Closeable;
@@ -23,14 +24,33 @@ public interface ClientSession extends Closeable {
 
     int unirsePartido(int gameId) throws IOException, TcpClientException;
 
+    /**
+     * Board dimensions of the current game.
+     */
+    int getFilas();
+
+    int getColumnas();
+
     TcpClient.ShipPlacementResult colocarBarco(List<int[]> coords) throws IOException, TcpClientException;
 
+    /**
+     * Places the whole fleet in one request: either every ship is placed or none is.
+     */
+    List<TcpClient.ShipPlacementResult> colocarFlota(List<List<int[]>> barcos) throws IOException, TcpClientException;
+
     ResultadoDisparo disparar(int fila, int columna) throws IOException, TcpClientException;
 
     void agregarSuscriptorNotificaciones(Consumer<String> listener);
 
     void quitarSuscriptorNotificaciones(Consumer<String> listener);
 
+    /**
+     * Typed game events; notification subscribers also receive their rendered text.
+     */
+    void agregarSuscriptorEventos(Consumer<EventoPartida> listener);
+
+    void quitarSuscriptorEventos(Consumer<EventoPartida> listener);
+
     List<String> getWelcomeMessages();
 
     Integer getJugadorId();
@@ -1,5 +1,6 @@
 package software.sebastian.mondragon.battleship.game.client;
 
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
 import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
 
 import java.io.IOException;
@@ -15,6 +16,7 @@ import java.util.function.Consumer;
 public class GameClientSession implements ClientSession {
     private final TcpClient client;
     private final List<Consumer<String>> notificationSubscribers = new CopyOnWriteArrayList<>();
+    private final List<Consumer<EventoPartida>> eventSubscribers = new CopyOnWriteArrayList<>();
     private final String host;
     private final int port;
 
@@ -38,6 +40,7 @@ public class GameClientSession implements ClientSession {
         this.host = host;
         this.port = port;
         this.client.setNotificationListener(this::dispatchNotification);
+        this.client.setEventListener(this::dispatchEvent);
     }
 
     @Override
@@ -73,6 +76,12 @@ public class GameClientSession implements ClientSession {
         return partidoId;
     }
 
+    public int crearPartido(int filas, int columnas) throws IOException, TcpClientException {
+        ensureJugador();
+        partidoId = client.createGame(filas, columnas);
+        return partidoId;
+    }
+
     @Override
     public int unirsePartido(int gameId) throws IOException, TcpClientException {
         ensureJugador();
@@ -80,12 +89,28 @@ public class GameClientSession implements ClientSession {
         return partidoId;
     }
 
+    @Override
+    public int getFilas() {
+        return client.getBoardRows();
+    }
+
+    @Override
+    public int getColumnas() {
+        return client.getBoardColumns();
+    }
+
     @Override
     public TcpClient.ShipPlacementResult colocarBarco(List<int[]> coords) throws IOException, TcpClientException {
         ensureJugador();
         return client.placeShip(coords);
     }
 
+    @Override
+    public List<TcpClient.ShipPlacementResult> colocarFlota(List<List<int[]>> barcos) throws IOException, TcpClientException {
+        ensureJugador();
+        return client.placeFleet(barcos);
+    }
+
     @Override
     public ResultadoDisparo disparar(int fila, int columna) throws IOException, TcpClientException {
         if (partidoId == null) {
@@ -107,6 +132,18 @@ public class GameClientSession implements ClientSession {
         notificationSubscribers.remove(listener);
     }
 
+    @Override
+    public void agregarSuscriptorEventos(Consumer<EventoPartida> listener) {
+        if (listener != null) {
+            eventSubscribers.add(listener);
+        }
+    }
+
+    @Override
+    public void quitarSuscriptorEventos(Consumer<EventoPartida> listener) {
+        eventSubscribers.remove(listener);
+    }
+
     /**
      * Returns server welcome banner lines captured during handshake.
      */
@@ -141,6 +178,15 @@ public class GameClientSession implements ClientSession {
         }
     }
 
+    private void dispatchEvent(EventoPartida evento) {
+        for (Consumer<EventoPartida> subscriber : eventSubscribers) {
+            subscriber.accept(evento);
+        }
+        // text rendered from this player's point of view, for notification areas
+        Integer jugador = jugadorId;
+        dispatchNotification(evento.texto(jugador != null ? jugador : 0));
+    }
+
     @Override
     public void close() {
         try {
@@ -1,5 +1,6 @@
 package software.sebastian.mondragon.battleship.game.client;
 
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
 import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
 
 import java.io.*;
@@ -21,8 +22,10 @@ public class TcpClient implements Closeable {
     // ---------------- Constants ----------------
     private static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofSeconds(5);
     private static final Duration DEFAULT_HANDSHAKE_TIMEOUT = Duration.ofMillis(500);
+    private static final int DEFAULT_BOARD_SIZE = 10;
 
     private static final String PREFIX_NOTIFY = "NOTIFY ";
+    private static final String PREFIX_EVENT = EventoPartida.PREFIJO;
     private static final String PREFIX_ERROR = "ERROR ";
 
     // Commands
@@ -30,9 +33,12 @@ public class TcpClient implements Closeable {
     private static final String CMD_USE_PLAYER = "USE_PLAYER";
     private static final String CMD_CREATE_GAME = "CREATE_GAME";
     private static final String CMD_JOIN_GAME = "JOIN_GAME";
+    private static final String CMD_JOIN_ANY = "JOIN_ANY";
     private static final String CMD_LIST_GAMES = "LIST_GAMES";
     private static final String CMD_PLACE_SHIP = "PLACE_SHIP";
+    private static final String CMD_PLACE_FLEET = "PLACE_FLEET";
     private static final String CMD_SHOOT = "SHOOT";
+    private static final String CMD_SALVO = "SALVO";
     private static final String CMD_QUIT = "QUIT";
 
     // Response types
@@ -41,7 +47,9 @@ public class TcpClient implements Closeable {
     private static final String RESP_JOINED = "JOINED";
     private static final String RESP_GAMES = "GAMES";
     private static final String RESP_SHIP = "SHIP";
+    private static final String RESP_FLEET = "FLEET";
     private static final String RESP_RESULT = "RESULT";
+    private static final String RESP_RESULTS = "RESULTS";
     private static final String RESP_BYE = "BYE";
 
     // ---------------- Fields ----------------
@@ -55,6 +63,10 @@ public class TcpClient implements Closeable {
     private final Object sendLock = new Object();
     private final AtomicBoolean connected = new AtomicBoolean(false);
     private final AtomicReference<Consumer<String>> notificationListener = new AtomicReference<>(msg -> { });
+    private final AtomicReference<Consumer<EventoPartida>> eventListener = new AtomicReference<>(evento -> { });
+
+    private volatile int boardRows = DEFAULT_BOARD_SIZE;
+    private volatile int boardColumns = DEFAULT_BOARD_SIZE;
 
     private Socket socket;
     private BufferedReader reader;
@@ -105,6 +117,13 @@ public class TcpClient implements Closeable {
         notificationListener.set(listener != null ? listener : msg -> {});
     }
 
+    /**
+     * Registers the listener for typed game events, decoded from the server's EVENT lines.
+     */
+    public void setEventListener(Consumer<EventoPartida> listener) {
+        eventListener.set(listener != null ? listener : evento -> {});
+    }
+
     public List<String> getWelcomeMessages() {
         return Collections.unmodifiableList(new ArrayList<>(welcomeMessages));
     }
@@ -122,11 +141,40 @@ public class TcpClient implements Closeable {
     }
 
     public int createGame() throws  TcpClientException {
-        return executeCommandInt(CMD_CREATE_GAME, RESP_GAME, "game id");
+        return executeGameCommand(CMD_CREATE_GAME, RESP_GAME);
+    }
+
+    public int createGame(int rows, int columns) throws TcpClientException {
+        return executeGameCommand(CMD_CREATE_GAME + " " + rows + " " + columns, RESP_GAME);
+    }
+
+    /**
+     * Creates a salvo-mode game; each turn is fired with {@link #salvo}.
+     */
+    public int createSalvoGame(int rows, int columns) throws TcpClientException {
+        return executeGameCommand(CMD_CREATE_GAME + " " + rows + " " + columns + " " + CMD_SALVO, RESP_GAME);
     }
 
     public int joinGame(int gameId) throws TcpClientException {
-        return executeCommandInt(CMD_JOIN_GAME + " " + gameId, RESP_JOINED, "game id");
+        return executeGameCommand(CMD_JOIN_GAME + " " + gameId, RESP_JOINED);
+    }
+
+    /**
+     * Joins the oldest open game and returns its id.
+     */
+    public int joinAnyGame() throws TcpClientException {
+        return executeGameCommand(CMD_JOIN_ANY, RESP_JOINED);
+    }
+
+    /**
+     * Board dimensions of the last game created or joined (10x10 if the server did not report them).
+     */
+    public int getBoardRows() {
+        return boardRows;
+    }
+
+    public int getBoardColumns() {
+        return boardColumns;
     }
 
     public List<String> listGames() throws  TcpClientException {
@@ -157,6 +205,39 @@ public class TcpClient implements Closeable {
         return new ShipPlacementResult(parseInt(parts[0], "ship id"), parseInt(parts[2], "ship size"));
     }
 
+    /**
+     * Places every ship in a single request. The server places all of them or none.
+     */
+    public List<ShipPlacementResult> placeFleet(List<List<int[]>> ships) throws TcpClientException {
+        if (ships == null || ships.isEmpty())
+            throw new IllegalArgumentException("At least one ship is required");
+
+        StringBuilder cmd = new StringBuilder(CMD_PLACE_FLEET);
+        for (List<int[]> ship : ships) {
+            if (ship == null || ship.isEmpty()) throw new IllegalArgumentException("Ships need at least one coordinate");
+            char separator = ' ';
+            for (int[] c : ship) {
+                if (c == null || c.length != 2) throw new IllegalArgumentException("Coordinates must have row,col");
+                cmd.append(separator).append(c[0]).append(',').append(c[1]);
+                separator = ';';
+            }
+        }
+
+        TcpResponse resp = sendCommand(cmd.toString());
+        ensureType(resp, RESP_FLEET);
+        String[] parts = resp.payload().trim().split("\\s+");
+        if (parts.length != ships.size())
+            throw new TcpClientException("Unexpected FLEET response: " + resp.raw());
+        List<ShipPlacementResult> results = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            String[] idSize = part.split(":");
+            if (idSize.length != 2)
+                throw new TcpClientException("Unexpected FLEET response: " + resp.raw());
+            results.add(new ShipPlacementResult(parseInt(idSize[0], "ship id"), parseInt(idSize[1], "ship size")));
+        }
+        return results;
+    }
+
     public ResultadoDisparo shoot(int gameId, int row, int col) throws  TcpClientException {
         TcpResponse resp = sendCommand(CMD_SHOOT + " " + gameId + " " + row + " " + col);
         ensureType(resp, RESP_RESULT);
@@ -167,6 +248,35 @@ public class TcpClient implements Closeable {
         }
     }
 
+    /**
+     * Fires every shot of the turn in a single request. Results come back in the order of the shots.
+     */
+    public List<ResultadoDisparo> salvo(int gameId, List<int[]> shots) throws TcpClientException {
+        if (shots == null || shots.isEmpty())
+            throw new IllegalArgumentException("At least one shot is required");
+
+        StringBuilder cmd = new StringBuilder(CMD_SALVO).append(' ').append(gameId);
+        for (int[] s : shots) {
+            if (s == null || s.length != 2) throw new IllegalArgumentException("Shots must have row,col");
+            cmd.append(' ').append(s[0]).append(',').append(s[1]);
+        }
+
+        TcpResponse resp = sendCommand(cmd.toString());
+        ensureType(resp, RESP_RESULTS);
+        String[] parts = resp.payload().trim().split("\\s+");
+        if (parts.length != shots.size())
+            throw new TcpClientException("Unexpected RESULTS response: " + resp.raw());
+        List<ResultadoDisparo> results = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            try {
+                results.add(ResultadoDisparo.valueOf(part));
+            } catch (IllegalArgumentException ex) {
+                throw new TcpClientException("Unknown shot result: " + part, ex);
+            }
+        }
+        return results;
+    }
+
     public void quit() throws  TcpClientException {
         TcpResponse resp = sendCommand(CMD_QUIT);
         ensureType(resp, RESP_BYE);
@@ -237,6 +347,8 @@ public class TcpClient implements Closeable {
                 if (line.isBlank()) continue;
                 if (line.startsWith(PREFIX_NOTIFY)) {
                     notificationListener.get().accept(line.substring(PREFIX_NOTIFY.length()));
+                } else if (line.startsWith(PREFIX_EVENT)) {
+                    dispatchEvent(line);
                 } else {
                     enqueueResponseSafely(line);
                 }
@@ -250,6 +362,17 @@ public class TcpClient implements Closeable {
         }
     }
 
+    private void dispatchEvent(String line) {
+        EventoPartida evento;
+        try {
+            evento = EventoPartida.decodificar(line);
+        } catch (IllegalArgumentException ex) {
+            LOGGER.warning("Ignoring malformed event: " + line);
+            return;
+        }
+        eventListener.get().accept(evento);
+    }
+
     private void enqueueResponseSafely(String line) {
         try {
             responseQueue.put(line);
@@ -271,6 +394,22 @@ public class TcpClient implements Closeable {
         return parseInt(resp.payload(), label);
     }
 
+    /* GAME/JOINED <gameId> [rows cols] */
+    private int executeGameCommand(String cmd, String respType) throws TcpClientException {
+        TcpResponse resp = sendCommand(cmd);
+        ensureType(resp, respType);
+        String[] parts = resp.payload().trim().split("\\s+");
+        int gameId = parseInt(parts[0], "game id");
+        if (parts.length >= 3) {
+            boardRows = parseInt(parts[1], "board rows");
+            boardColumns = parseInt(parts[2], "board columns");
+        } else {
+            boardRows = DEFAULT_BOARD_SIZE;
+            boardColumns = DEFAULT_BOARD_SIZE;
+        }
+        return gameId;
+    }
+
     private static void ensureType(TcpResponse resp, String expected) throws TcpClientException {
         if (!expected.equalsIgnoreCase(resp.type()))
             throw new TcpClientException("Expected " + expected + ", got: " + resp.raw());
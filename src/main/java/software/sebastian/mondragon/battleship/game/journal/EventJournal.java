@@ -0,0 +1,44 @@
+package software.sebastian.mondragon.battleship.game.journal;
+
+/**
+ * Registro de eventos de {@code GameService}. {@link #registrar} se llama con los cerrojos de
+ * la operacion tomados, para que el orden del journal sea el orden en que se aplicaron los
+ * cambios, y solo copia el evento; {@link #confirmar} se llama despues, sin cerrojos, y espera
+ * a que todo lo registrado por el hilo este en disco.
+ */
+public interface EventJournal {
+
+    void registrar(Evento evento);
+
+    /* bloquea hasta que los eventos registrados por este hilo sean duraderos */
+    void confirmar();
+
+    /* posicion del ultimo evento registrado por este hilo, para confirmarlo desde otro */
+    default long marca() {
+        return 0;
+    }
+
+    /* bloquea hasta que sea duradero todo lo registrado hasta la marca, sea cual sea el hilo que la tomo */
+    default void confirmarHasta(long marca) {
+        confirmar();
+    }
+
+    /* journal que no guarda nada: el repositorio es solo memoria */
+    static EventJournal ninguno() {
+        return Ninguno.INSTANCIA;
+    }
+
+    enum Ninguno implements EventJournal {
+        INSTANCIA;
+
+        @Override
+        public void registrar(Evento evento) {
+            // sin persistencia
+        }
+
+        @Override
+        public void confirmar() {
+            // sin persistencia
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package software.sebastian.mondragon.battleship.game.journal;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Operacion de {@code GameService} que cambia el estado, en el formato binario del journal:
+ * un byte de tipo seguido de enteros de 32 bits. Solo se registran operaciones que tuvieron
+ * exito, con los ids que asigno el repositorio, de modo que reproducirlas en orden reconstruye
+ * el mismo estado.
+ */
+public sealed interface Evento {
+    byte JUGADOR_CREADO = 1;
+    byte PARTIDO_CREADO = 2;
+    byte JUGADOR_UNIDO = 3;
+    byte BARCO_COLOCADO = 4;
+    byte DISPARO = 5;
+    byte PARTIDO_CREADO_CON_MODO = 6;
+    byte SALVA = 7;
+
+    /* bytes que ocupa codificado, tipo incluido */
+    int tamano();
+
+    void escribir(ByteBuffer destino);
+
+    /* lee un evento completo desde la posicion actual; IllegalArgumentException si el tipo no existe */
+    static Evento leer(ByteBuffer origen) {
+        byte tipo = origen.get();
+        return switch (tipo) {
+            case JUGADOR_CREADO -> new JugadorCreado(origen.getInt());
+            case PARTIDO_CREADO -> new PartidoCreado(origen.getInt(), origen.getInt(), origen.getInt(), origen.getInt());
+            case PARTIDO_CREADO_CON_MODO -> new PartidoCreado(origen.getInt(), origen.getInt(), origen.getInt(),
+                    origen.getInt(), origen.getInt());
+            case JUGADOR_UNIDO -> new JugadorUnido(origen.getInt(), origen.getInt());
+            case BARCO_COLOCADO -> {
+                int jugadorId = origen.getInt();
+                yield new BarcoColocado(jugadorId, leerPosiciones(origen));
+            }
+            case DISPARO -> new Disparo(origen.getInt(), origen.getInt(), origen.getInt(), origen.getInt());
+            case SALVA -> {
+                int jugadorId = origen.getInt();
+                int partidoId = origen.getInt();
+                yield new Salva(jugadorId, partidoId, leerPosiciones(origen));
+            }
+            default -> throw new IllegalArgumentException("Tipo de evento desconocido: " + tipo);
+        };
+    }
+
+    /* numero de pares y luego fila, columna de cada uno */
+    private static int[] leerPosiciones(ByteBuffer origen) {
+        int[] posiciones = new int[origen.getInt() * 2];
+        for (int i = 0; i < posiciones.length; i++) {
+            posiciones[i] = origen.getInt();
+        }
+        return posiciones;
+    }
+
+    private static void escribirPosiciones(ByteBuffer destino, int[] posiciones) {
+        destino.putInt(posiciones.length / 2);
+        for (int p : posiciones) {
+            destino.putInt(p);
+        }
+    }
+
+    private static int[] aplanar(List<int[]> posiciones) {
+        int[] planas = new int[posiciones.size() * 2];
+        for (int i = 0; i < posiciones.size(); i++) {
+            planas[2 * i] = posiciones.get(i)[0];
+            planas[2 * i + 1] = posiciones.get(i)[1];
+        }
+        return planas;
+    }
+
+    private static List<int[]> enPares(int[] posiciones) {
+        int[][] pares = new int[posiciones.length / 2][];
+        for (int i = 0; i < pares.length; i++) {
+            pares[i] = new int[]{posiciones[2 * i], posiciones[2 * i + 1]};
+        }
+        return List.of(pares);
+    }
+
+    record JugadorCreado(int jugadorId) implements Evento {
+        public int tamano() { return 1 + 4; }
+
+        public void escribir(ByteBuffer destino) {
+            destino.put(JUGADOR_CREADO).putInt(jugadorId);
+        }
+    }
+
+    /* modo es el ordinal de ModoJuego; los partidos clasicos (0) se escriben en el formato de siempre */
+    record PartidoCreado(int partidoId, int jugadorId, int filas, int columnas, int modo) implements Evento {
+        public PartidoCreado(int partidoId, int jugadorId, int filas, int columnas) {
+            this(partidoId, jugadorId, filas, columnas, 0);
+        }
+
+        public int tamano() { return modo == 0 ? 1 + 4 * 4 : 1 + 5 * 4; }
+
+        public void escribir(ByteBuffer destino) {
+            destino.put(modo == 0 ? PARTIDO_CREADO : PARTIDO_CREADO_CON_MODO)
+                    .putInt(partidoId).putInt(jugadorId).putInt(filas).putInt(columnas);
+            if (modo != 0) {
+                destino.putInt(modo);
+            }
+        }
+    }
+
+    record JugadorUnido(int partidoId, int jugadorId) implements Evento {
+        public int tamano() { return 1 + 2 * 4; }
+
+        public void escribir(ByteBuffer destino) {
+            destino.put(JUGADOR_UNIDO).putInt(partidoId).putInt(jugadorId);
+        }
+    }
+
+    /* posiciones aplanadas como fila0, col0, fila1, col1... */
+    record BarcoColocado(int jugadorId, int[] posiciones) implements Evento {
+        public BarcoColocado {
+            if (posiciones.length % 2 != 0) {
+                throw new IllegalArgumentException("Las posiciones deben ser pares fila,columna");
+            }
+        }
+
+        public static BarcoColocado de(int jugadorId, List<int[]> posiciones) {
+            return new BarcoColocado(jugadorId, aplanar(posiciones));
+        }
+
+        public List<int[]> getPosiciones() {
+            return enPares(posiciones);
+        }
+
+        public int tamano() { return 1 + 2 * 4 + posiciones.length * 4; }
+
+        public void escribir(ByteBuffer destino) {
+            destino.put(BARCO_COLOCADO).putInt(jugadorId);
+            escribirPosiciones(destino, posiciones);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BarcoColocado otro && jugadorId == otro.jugadorId
+                    && Arrays.equals(posiciones, otro.posiciones);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * jugadorId + Arrays.hashCode(posiciones);
+        }
+
+        @Override
+        public String toString() {
+            return "BarcoColocado[jugadorId=" + jugadorId + ", posiciones=" + Arrays.toString(posiciones) + "]";
+        }
+    }
+
+    record Disparo(int jugadorId, int partidoId, int fila, int columna) implements Evento {
+        public int tamano() { return 1 + 4 * 4; }
+
+        public void escribir(ByteBuffer destino) {
+            destino.put(DISPARO).putInt(jugadorId).putInt(partidoId).putInt(fila).putInt(columna);
+        }
+    }
+
+    /* una salva completa, disparos en el orden pedido, aplanados como en BarcoColocado */
+    record Salva(int jugadorId, int partidoId, int[] disparos) implements Evento {
+        public Salva {
+            if (disparos.length % 2 != 0) {
+                throw new IllegalArgumentException("Los disparos deben ser pares fila,columna");
+            }
+        }
+
+        public static Salva de(int jugadorId, int partidoId, List<int[]> disparos) {
+            return new Salva(jugadorId, partidoId, aplanar(disparos));
+        }
+
+        public List<int[]> getDisparos() {
+            return enPares(disparos);
+        }
+
+        public int tamano() { return 1 + 3 * 4 + disparos.length * 4; }
+
+        public void escribir(ByteBuffer destino) {
+            destino.put(SALVA).putInt(jugadorId).putInt(partidoId);
+            escribirPosiciones(destino, disparos);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Salva otra && jugadorId == otra.jugadorId && partidoId == otra.partidoId
+                    && Arrays.equals(disparos, otra.disparos);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * jugadorId + partidoId) + Arrays.hashCode(disparos);
+        }
+
+        @Override
+        public String toString() {
+            return "Salva[jugadorId=" + jugadorId + ", partidoId=" + partidoId + ", disparos="
+                    + Arrays.toString(disparos) + "]";
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package software.sebastian.mondragon.battleship.game.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal de solo anadir en segmentos {@code journal-NNNNNNNN.log} de un directorio local.
+ * Cada registro es {@code longitud, crc32c, evento}; un registro incompleto o con crc
+ * incorrecto al final del ultimo segmento es una escritura cortada por una caida y se trunca
+ * al abrir.
+ * <p>
+ * Escritura con group commit: {@link #registrar} solo copia el evento a un buffer en memoria.
+ * El primer hilo que llama a {@link #confirmar} con datos pendientes se convierte en lider,
+ * escribe todo el buffer con un unico {@code write + force} y despierta a los demas; los que
+ * llegan mientras tanto se acumulan en el siguiente lote. Un fsync se reparte asi entre todos
+ * los comandos concurrentes.
+ */
+public final class FileEventJournal implements EventJournal, Closeable {
+    private static final Logger LOGGER = Logger.getLogger(FileEventJournal.class.getName());
+
+    public static final long TAMANO_SEGMENTO_POR_DEFECTO = 64L << 20;
+    static final int CABECERA = 8;   // longitud + crc del evento
+    private static final String PREFIJO = "journal-";
+    private static final String SUFIJO = ".log";
+
+    private final Path directorio;
+    private final long tamanoSegmento;
+    private final ThreadLocal<long[]> ultimoDelHilo = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition loteVolcado = cerrojo.newCondition();
+    // todo lo que sigue, bajo el cerrojo salvo el canal y el lote en vuelo, que solo usa el lider
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer pendiente = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer enVuelo = ByteBuffer.allocate(64 * 1024);
+    private long registrados;
+    private long durables;
+    private long lotes;
+    private boolean volcando;
+    private boolean cerrado;
+    private IOException fallo;
+    private FileChannel canal;
+    private int segmento;
+    // final del ultimo lote con fsync; lo fija el lider bajo el cerrojo
+    private PuntoJournal finDurable;
+    private long finEscrito;   // solo el lider
+
+    private FileEventJournal(Path directorio, long tamanoSegmento, int segmento, FileChannel canal, long posicion) {
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.segmento = segmento;
+        this.canal = canal;
+        this.finDurable = new PuntoJournal(segmento, posicion);
+    }
+
+    public static FileEventJournal abrir(Path directorio, Consumer<Evento> reproductor) throws IOException {
+        return abrir(directorio, PuntoJournal.INICIO, TAMANO_SEGMENTO_POR_DEFECTO, reproductor);
+    }
+
+    public static FileEventJournal abrir(Path directorio, long tamanoSegmento, Consumer<Evento> reproductor)
+            throws IOException {
+        return abrir(directorio, PuntoJournal.INICIO, tamanoSegmento, reproductor);
+    }
+
+    /**
+     * Abre o crea el journal del directorio, pasando antes a {@code reproductor} en orden cada
+     * evento guardado a partir de {@code desde}. Deja el ultimo segmento listo para anadir tras
+     * su ultimo registro valido.
+     */
+    public static FileEventJournal abrir(Path directorio, PuntoJournal desde, long tamanoSegmento,
+                                         Consumer<Evento> reproductor) throws IOException {
+        if (tamanoSegmento < CABECERA) {
+            throw new IllegalArgumentException("Tamaño de segmento demasiado pequeño: " + tamanoSegmento);
+        }
+        Files.createDirectories(directorio);
+        List<Integer> segmentos = listarSegmentos(directorio);
+        segmentos.removeIf(n -> n < desde.segmento());
+        if (segmentos.isEmpty()) {
+            // nada escrito tras el punto: se empieza en su segmento
+            segmentos.add(desde.segmento());
+            Files.write(ruta(directorio, desde.segmento()), new byte[0], StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } else if (segmentos.get(0) != desde.segmento()) {
+            throw new IOException("Falta el segmento " + ruta(directorio, desde.segmento()));
+        }
+        long finValido = 0;
+        for (int i = 0; i < segmentos.size(); i++) {
+            Path ruta = ruta(directorio, segmentos.get(i));
+            boolean ultimo = i == segmentos.size() - 1;
+            long inicio = i == 0 ? desde.posicion() : 0;
+            try (FileChannel lector = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (inicio > lector.size()) {
+                    throw new IOException("El punto " + desde + " esta fuera de " + ruta);
+                }
+                finValido = reproducir(lector, inicio, reproductor);
+                if (finValido < lector.size()) {
+                    if (!ultimo) {
+                        throw new IOException("Journal corrupto en " + ruta + " a partir del byte " + finValido);
+                    }
+                    LOGGER.log(Level.WARNING, "Truncando {0} bytes incompletos al final de {1}",
+                            new Object[]{lector.size() - finValido, ruta});
+                    lector.truncate(finValido);
+                    lector.force(true);
+                }
+            }
+        }
+        int actual = segmentos.get(segmentos.size() - 1);
+        FileChannel canal = FileChannel.open(ruta(directorio, actual), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.position(finValido);
+        forzarDirectorio(directorio);
+        return new FileEventJournal(directorio, tamanoSegmento, actual, canal, finValido);
+    }
+
+    /* lee el segmento proyectado en memoria; devuelve el final del ultimo registro valido */
+    private static long reproducir(FileChannel lector, long desde, Consumer<Evento> reproductor) throws IOException {
+        MappedByteBuffer datos = lector.map(FileChannel.MapMode.READ_ONLY, 0, lector.size());
+        datos.position(Math.toIntExact(desde));
+        CRC32C crc = new CRC32C();
+        while (datos.remaining() >= CABECERA) {
+            int inicio = datos.position();
+            int longitud = datos.getInt();
+            int esperado = datos.getInt();
+            if (longitud <= 0 || longitud > datos.remaining()) {
+                return inicio;
+            }
+            ByteBuffer cuerpo = datos.slice(datos.position(), longitud);
+            crc.reset();
+            crc.update(cuerpo.duplicate());
+            if ((int) crc.getValue() != esperado) {
+                return inicio;
+            }
+            Evento evento;
+            try {
+                evento = Evento.leer(cuerpo);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                return inicio;
+            }
+            if (cuerpo.hasRemaining()) {
+                return inicio;
+            }
+            datos.position(inicio + CABECERA + longitud);
+            reproductor.accept(evento);
+        }
+        return datos.position();
+    }
+
+    @Override
+    public void registrar(Evento evento) {
+        int longitud = evento.tamano();
+        long secuencia;
+        cerrojo.lock();
+        try {
+            comprobarDisponible();
+            if (pendiente.remaining() < CABECERA + longitud) {
+                int capacidad = Math.max(pendiente.capacity() * 2, pendiente.position() + CABECERA + longitud);
+                pendiente = ByteBuffer.allocate(capacidad).put(pendiente.flip());
+            }
+            int inicio = pendiente.position();
+            pendiente.position(inicio + CABECERA);
+            evento.escribir(pendiente);
+            crc.reset();
+            crc.update(pendiente.array(), inicio + CABECERA, longitud);
+            pendiente.putInt(inicio, longitud).putInt(inicio + 4, (int) crc.getValue());
+            secuencia = ++registrados;
+        } finally {
+            cerrojo.unlock();
+        }
+        ultimoDelHilo.get()[0] = secuencia;
+    }
+
+    @Override
+    public void confirmar() {
+        confirmarHasta(marca());
+    }
+
+    @Override
+    public long marca() {
+        return ultimoDelHilo.get()[0];
+    }
+
+    @Override
+    public void confirmarHasta(long objetivo) {
+        cerrojo.lock();
+        try {
+            while (durables < objetivo) {
+                if (fallo != null) {
+                    throw new UncheckedIOException("No se pudo escribir el journal", fallo);
+                }
+                if (volcando) {
+                    loteVolcado.awaitUninterruptibly();
+                } else {
+                    volcarComoLider();
+                }
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /* con el cerrojo tomado; lo suelta mientras escribe para que otros sigan registrando */
+    private void volcarComoLider() {
+        volcando = true;
+        ByteBuffer lote = pendiente;
+        pendiente = enVuelo.clear();
+        enVuelo = lote;
+        long hasta = registrados;
+        IOException error = null;
+        cerrojo.unlock();
+        try {
+            escribir(lote.flip());
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            cerrojo.lock();
+            volcando = false;
+            if (error == null) {
+                durables = hasta;
+                lotes++;
+                finDurable = new PuntoJournal(segmento, finEscrito);
+            } else {
+                LOGGER.log(Level.SEVERE, "Fallo escribiendo el journal", error);
+                fallo = error;
+            }
+            loteVolcado.signalAll();
+        }
+    }
+
+    private void escribir(ByteBuffer lote) throws IOException {
+        if (canal.position() > 0 && canal.position() + lote.remaining() > tamanoSegmento) {
+            rotar();
+        }
+        while (lote.hasRemaining()) {
+            canal.write(lote);
+        }
+        canal.force(false);
+        finEscrito = canal.position();
+    }
+
+    /* un lote nunca se parte: un segmento puede pasarse del tamano en lo que ocupe su ultimo lote */
+    private void rotar() throws IOException {
+        canal.force(false);
+        canal.close();
+        segmento++;
+        canal = FileChannel.open(ruta(directorio, segmento), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        forzarDirectorio(directorio);
+    }
+
+    /**
+     * Vuelca todo lo registrado hasta ahora y devuelve el punto donde termina: un snapshot que
+     * empiece a capturar despues ya contiene todos los eventos anteriores a ese punto.
+     */
+    public PuntoJournal puntoDeControl() {
+        cerrojo.lock();
+        try {
+            long objetivo = registrados;
+            while (durables < objetivo) {
+                if (fallo != null) {
+                    throw new UncheckedIOException("No se pudo escribir el journal", fallo);
+                }
+                if (volcando) {
+                    loteVolcado.awaitUninterruptibly();
+                } else {
+                    volcarComoLider();
+                }
+            }
+            return finDurable;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /* borra los segmentos completos anteriores a {@code segmento}; ya estan cubiertos por un snapshot */
+    public int eliminarSegmentosAnteriores(int segmento) throws IOException {
+        int eliminados = 0;
+        for (int n : listarSegmentos(directorio)) {
+            if (n < segmento && Files.deleteIfExists(ruta(directorio, n))) {
+                eliminados++;
+            }
+        }
+        return eliminados;
+    }
+
+    private void comprobarDisponible() {
+        if (cerrado) {
+            throw new IllegalStateException("Journal cerrado");
+        }
+        if (fallo != null) {
+            throw new UncheckedIOException("Journal no disponible", fallo);
+        }
+    }
+
+    /* eventos registrados desde que se abrio y lotes escritos con fsync para ellos */
+    long getEventosRegistrados() {
+        cerrojo.lock();
+        try {
+            return registrados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    long getLotesVolcados() {
+        cerrojo.lock();
+        try {
+            return lotes;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /* vuelca lo pendiente de cualquier hilo y cierra el segmento actual */
+    @Override
+    public void close() throws IOException {
+        cerrojo.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            while (volcando) {
+                loteVolcado.awaitUninterruptibly();
+            }
+            if (fallo == null && durables < registrados) {
+                volcarComoLider();
+            }
+            cerrado = true;
+            canal.close();
+            if (fallo != null) {
+                throw fallo;
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private static List<Integer> listarSegmentos(Path directorio) throws IOException {
+        List<Integer> numeros = new ArrayList<>();
+        try (Stream<Path> rutas = Files.list(directorio)) {
+            rutas.map(r -> r.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIJO) && n.endsWith(SUFIJO))
+                    .forEach(n -> {
+                        try {
+                            numeros.add(Integer.parseInt(n.substring(PREFIJO.length(), n.length() - SUFIJO.length())));
+                        } catch (NumberFormatException ignored) {
+                            // Intentionally ignored: not a journal segment
+                        }
+                    });
+        }
+        numeros.sort(null);
+        return numeros;
+    }
+
+    static Path ruta(Path directorio, int segmento) {
+        return directorio.resolve(String.format("%s%08d%s", PREFIJO, segmento, SUFIJO));
+    }
+
+    /* hace duradera la entrada del directorio de un segmento nuevo; no todos los sistemas lo permiten */
+    private static void forzarDirectorio(Path directorio) {
+        try (FileChannel dir = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ignored) {
+            // Intentionally ignored: directory fsync is not supported on every platform
+        }
+    }
+}
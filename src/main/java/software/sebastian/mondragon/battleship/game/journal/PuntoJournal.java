@@ -0,0 +1,15 @@
+package software.sebastian.mondragon.battleship.game.journal;
+
+/**
+ * Posicion en el journal: segmento y byte dentro de el. Un snapshot guarda el punto a partir
+ * del cual hay que reproducir eventos.
+ */
+public record PuntoJournal(int segmento, long posicion) {
+    public static final PuntoJournal INICIO = new PuntoJournal(1, 0);
+
+    public PuntoJournal {
+        if (segmento < 1 || posicion < 0) {
+            throw new IllegalArgumentException("Punto de journal invalido: " + segmento + "@" + posicion);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoria fuera del heap para los tableros en modo {@link ModoCeldas#FUERA_DE_HEAP}. Reparte
+ * ranuras de tamano fijo dentro de bloques de {@code ByteBuffer} directos de
+ * {@value #TAMANO_BLOQUE} bytes, con una clase de bloques por tamano de ranura, y recicla las
+ * ranuras que se liberan: los bloques no se devuelven al sistema, se reutilizan.
+ * <p>
+ * Reservar y liberar se serializan con el monitor de la arena. Cada ranura solo la lee y
+ * escribe su mapa, con lecturas y escrituras absolutas bajo el monitor del mapa.
+ */
+public final class ArenaTableros {
+    static final int TAMANO_BLOQUE = 1 << 20;
+
+    private final Map<Integer, Clase> clases = new HashMap<>();
+    private long bytesReservados;
+    private int ranurasEnUso;
+
+    /* ranura de al menos {@code bytes} bytes, a cero */
+    synchronized Ranura reservar(int bytes) {
+        int tamano = (bytes + 7) & ~7;
+        Ranura ranura = clases.computeIfAbsent(tamano, Clase::new).reservar();
+        ranurasEnUso++;
+        return ranura;
+    }
+
+    synchronized void liberar(Ranura ranura) {
+        clases.get(ranura.tamano()).liberar(ranura.numero());
+        ranurasEnUso--;
+    }
+
+    /* memoria directa reservada por los bloques, en uso o no */
+    public synchronized long getBytesReservados() {
+        return bytesReservados;
+    }
+
+    public synchronized int getRanurasEnUso() {
+        return ranurasEnUso;
+    }
+
+    /* zona de un bloque asignada a un mapa: [base, base + tamano) */
+    record Ranura(ByteBuffer bloque, int base, int tamano, int numero) {
+    }
+
+    private final class Clase {
+        private final int tamano;
+        private final int porBloque;
+        private final List<ByteBuffer> bloques = new ArrayList<>();
+        private int[] libres = new int[16];
+        private int numeroLibres;
+        private int siguiente;   // primera ranura nunca usada
+
+        Clase(int tamano) {
+            this.tamano = tamano;
+            this.porBloque = Math.max(1, TAMANO_BLOQUE / tamano);
+        }
+
+        Ranura reservar() {
+            int numero;
+            if (numeroLibres > 0) {
+                numero = libres[--numeroLibres];
+            } else {
+                numero = siguiente++;
+                if (numero / porBloque == bloques.size()) {
+                    long bytes = (long) porBloque * tamano;
+                    bloques.add(ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder()));
+                    bytesReservados += bytes;
+                }
+            }
+            ByteBuffer bloque = bloques.get(numero / porBloque);
+            int base = (numero % porBloque) * tamano;
+            for (int i = 0; i < tamano; i += 8) {
+                bloque.putLong(base + i, 0L);
+            }
+            return new Ranura(bloque, base, tamano, numero);
+        }
+
+        void liberar(int numero) {
+            if (numeroLibres == libres.length) {
+                libres = Arrays.copyOf(libres, libres.length * 2);
+            }
+            libres[numeroLibres++] = numero;
+        }
+    }
+}
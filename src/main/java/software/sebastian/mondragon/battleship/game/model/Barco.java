@@ -1,27 +1,78 @@
 package software.sebastian.mondragon.battleship.game.model;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
 
 public class Barco {
-    private final int id;
-    private final List<Integer> coordenadaIds; // ids de Coordenada
+    private int id;
+    private int[] coordenadaIds; // ids de Coordenada, las primeras 'tamano' posiciones
+    private int tamano;
+    private int celdasRestantes; // celdas aun sin tocar
     private boolean hundido;
 
     public Barco(int id) {
         this.id = id;
-        this.coordenadaIds = new ArrayList<>();
+        this.coordenadaIds = new int[4];
         this.hundido = false;
     }
 
     public int getId() { return id; }
-    public List<Integer> getCoordenadaIds() { return coordenadaIds; }
-    public void addCoordenada(int coordId) { coordenadaIds.add(coordId); }
+    public int getTamano() { return tamano; }
+    public int getCoordenadaId(int indice) {
+        Objects.checkIndex(indice, tamano);
+        return coordenadaIds[indice];
+    }
+    /* vista de solo lectura sobre las celdas; para recorridos sin boxing usar getTamano/getCoordenadaId */
+    public List<Integer> getCoordenadaIds() { return new VistaIds(); }
+    public void addCoordenada(int coordId) {
+        if (tamano == coordenadaIds.length) {
+            coordenadaIds = Arrays.copyOf(coordenadaIds, tamano * 2);
+        }
+        coordenadaIds[tamano++] = coordId;
+        celdasRestantes++;
+    }
+    public int getCeldasRestantes() { return celdasRestantes; }
     public boolean isHundido() { return hundido; }
     public void setHundido(boolean hundido) { this.hundido = hundido; }
 
+    /* descuenta una celda tocada; devuelve true si con este impacto el barco queda hundido */
+    public boolean registrarImpacto() {
+        if (celdasRestantes == 0) {
+            return false;
+        }
+        celdasRestantes--;
+        if (celdasRestantes == 0) {
+            hundido = true;
+            return true;
+        }
+        return false;
+    }
+
+    /* deja el barco vacio y con otro id para reutilizarlo en un mapa reciclado */
+    void reiniciar(int nuevoId) {
+        this.id = nuevoId;
+        tamano = 0;
+        celdasRestantes = 0;
+        hundido = false;
+    }
+
     @Override
     public String toString() {
-        return "Barco{" + "id=" + id + ", coordenadas=" + coordenadaIds + ", hundido=" + hundido + '}';
+        return "Barco{" + "id=" + id + ", coordenadas=" + Arrays.toString(Arrays.copyOf(coordenadaIds, tamano)) + ", restantes=" + celdasRestantes + ", hundido=" + hundido + '}';
+    }
+
+    private final class VistaIds extends AbstractList<Integer> implements RandomAccess {
+        @Override
+        public Integer get(int indice) {
+            return getCoordenadaId(indice);
+        }
+
+        @Override
+        public int size() {
+            return tamano;
+        }
     }
 }
@@ -0,0 +1,223 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de celdas de un {@link Mapa} guardado como bits: el bit {@code i} corresponde
+ * a la celda con indice fila-mayor {@code i}. Un tablero 10x10 ocupa dos {@code long}.
+ * <p>
+ * Los bits se agrupan en paginas de hasta 4096 celdas que se reservan al escribir el primer
+ * bit, de modo que en tableros grandes la memoria crece con las celdas marcadas y no con
+ * el tamaño del tablero. Las paginas cuelgan de un directorio de dos niveles, grupos de
+ * {@value #PAGINAS_POR_GRUPO} paginas, que tambien se reservan al escribir.
+ * <p>
+ * {@link #congelar()} devuelve una copia de solo lectura que comparte el directorio con este
+ * conjunto; la siguiente escritura copia solo el camino hasta la pagina tocada (raiz, grupo y
+ * pagina) antes de modificarlo (copy-on-write), asi la copia congelada nunca cambia y el coste
+ * de una escritura no depende del tamaño del tablero.
+ */
+final class CeldaBits {
+    private static final int BITS_POR_PAGINA = 12;             // 4096 celdas por pagina
+    private static final int PALABRAS_POR_PAGINA = 1 << (BITS_POR_PAGINA - 6);
+    private static final int BITS_POR_GRUPO = 6;
+    static final int PAGINAS_POR_GRUPO = 1 << BITS_POR_GRUPO;
+
+    private long[][][] grupos;
+    private final int numeroPaginas;
+    private final int palabrasPorPagina;
+    // copy-on-write: epoca en la que se copio la raiz, cada grupo y cada pagina; las de epocas
+    // anteriores estan compartidas con alguna copia congelada
+    private int epocaRaiz;
+    private int[] epocaGrupo;
+    private int[] epocaPagina;
+    private int epoca;
+    // ultima copia congelada; se reutiliza mientras no haya escrituras
+    private CeldaBits congelada;
+
+    CeldaBits(int celdas) {
+        int palabras = (celdas + 63) >>> 6;
+        this.palabrasPorPagina = Math.min(palabras, PALABRAS_POR_PAGINA);
+        this.numeroPaginas = (celdas + (1 << BITS_POR_PAGINA) - 1) >>> BITS_POR_PAGINA;
+        this.grupos = new long[(numeroPaginas + PAGINAS_POR_GRUPO - 1) >>> BITS_POR_GRUPO][][];
+    }
+
+    private CeldaBits(long[][][] grupos, int numeroPaginas, int palabrasPorPagina) {
+        this.grupos = grupos;
+        this.numeroPaginas = numeroPaginas;
+        this.palabrasPorPagina = palabrasPorPagina;
+    }
+
+    /* copia inmutable en O(1): solo cambia de epoca, con lo que todo lo actual queda compartido */
+    CeldaBits congelar() {
+        if (congelada == null) {
+            epoca++;
+            congelada = new CeldaBits(grupos, numeroPaginas, palabrasPorPagina);
+        }
+        return congelada;
+    }
+
+    boolean get(int indice) {
+        long[] pagina = pagina(indice >>> BITS_POR_PAGINA);
+        return pagina != null && (pagina[palabra(indice)] & (1L << indice)) != 0;
+    }
+
+    void set(int indice) {
+        int p = indice >>> BITS_POR_PAGINA;
+        long bit = 1L << indice;
+        long[] pagina = pagina(p);
+        if (pagina != null && (pagina[palabra(indice)] & bit) != 0) {
+            return;
+        }
+        paginaEscribible(p)[palabra(indice)] |= bit;
+    }
+
+    void clear(int indice) {
+        int p = indice >>> BITS_POR_PAGINA;
+        long bit = 1L << indice;
+        long[] pagina = pagina(p);
+        if (pagina == null || (pagina[palabra(indice)] & bit) == 0) {
+            return;
+        }
+        paginaEscribible(p)[palabra(indice)] &= ~bit;
+    }
+
+    /* desmarca todas las celdas; lo compartido con copias congeladas se suelta, no se borra */
+    void limpiar() {
+        congelada = null;
+        if (epocaRaiz != epoca) {
+            grupos = new long[grupos.length][][];
+            epocaRaiz = epoca;
+            return;
+        }
+        for (int g = 0; g < grupos.length; g++) {
+            long[][] grupo = grupos[g];
+            if (grupo == null) {
+                continue;
+            }
+            if (epocaGrupo[g] != epoca) {
+                grupos[g] = null;
+                continue;
+            }
+            for (int i = 0; i < grupo.length; i++) {
+                if (grupo[i] == null) {
+                    continue;
+                }
+                if (epocaPagina[(g << BITS_POR_GRUPO) + i] != epoca) {
+                    grupo[i] = null;
+                } else {
+                    Arrays.fill(grupo[i], 0L);
+                }
+            }
+        }
+    }
+
+    private long[] pagina(int p) {
+        long[][] grupo = grupos[p >>> BITS_POR_GRUPO];
+        return grupo == null ? null : grupo[p & (PAGINAS_POR_GRUPO - 1)];
+    }
+
+    private long[] paginaEscribible(int p) {
+        congelada = null;
+        if (epocaGrupo == null) {
+            epocaGrupo = new int[grupos.length];
+            epocaPagina = new int[numeroPaginas];
+        }
+        if (epocaRaiz != epoca) {
+            grupos = grupos.clone();
+            epocaRaiz = epoca;
+        }
+        int g = p >>> BITS_POR_GRUPO;
+        long[][] grupo = grupos[g];
+        if (grupo == null) {
+            grupo = new long[Math.min(PAGINAS_POR_GRUPO, numeroPaginas - (g << BITS_POR_GRUPO))][];
+        } else if (epocaGrupo[g] != epoca) {
+            grupo = grupo.clone();
+        }
+        grupos[g] = grupo;
+        epocaGrupo[g] = epoca;
+
+        int i = p & (PAGINAS_POR_GRUPO - 1);
+        long[] pagina = grupo[i];
+        if (pagina == null) {
+            pagina = new long[palabrasPorPagina];
+        } else if (epocaPagina[p] != epoca) {
+            pagina = pagina.clone();
+        } else {
+            return pagina;
+        }
+        grupo[i] = pagina;
+        epocaPagina[p] = epoca;
+        return pagina;
+    }
+
+    /* true si todas las celdas de este conjunto estan tambien en otro: (this & ~otro) == 0 */
+    boolean cubiertoPor(CeldaBits otro) {
+        for (int p = 0; p < numeroPaginas; p++) {
+            long[] propia = pagina(p);
+            if (propia == null) {
+                continue;
+            }
+            long[] ajena = otro.pagina(p);
+            for (int i = 0; i < propia.length; i++) {
+                long cubiertos = ajena != null ? ajena[i] : 0L;
+                if ((propia[i] & ~cubiertos) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    int cardinalidad() {
+        int total = 0;
+        for (int p = 0; p < numeroPaginas; p++) {
+            long[] pagina = pagina(p);
+            if (pagina == null) {
+                continue;
+            }
+            for (long palabra : pagina) {
+                total += Long.bitCount(palabra);
+            }
+        }
+        return total;
+    }
+
+    /* indice de la primera celda marcada en desde o despues, o -1; salta las paginas sin reservar */
+    int siguiente(int desde) {
+        int p = desde >>> BITS_POR_PAGINA;
+        int w = palabra(desde);
+        long mascara = -1L << desde;
+        for (; p < numeroPaginas; p++, w = 0, mascara = -1L) {
+            long[] pagina = pagina(p);
+            if (pagina == null) {
+                continue;
+            }
+            for (; w < pagina.length; w++, mascara = -1L) {
+                long bits = pagina[w] & mascara;
+                if (bits != 0) {
+                    return (p << BITS_POR_PAGINA) + (w << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+        return -1;
+    }
+
+    int paginasReservadas() {
+        int total = 0;
+        for (long[][] grupo : grupos) {
+            if (grupo == null) {
+                continue;
+            }
+            for (long[] pagina : grupo) {
+                if (pagina != null) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    private static int palabra(int indice) {
+        return (indice >>> 6) & (PALABRAS_POR_PAGINA - 1);
+    }
+}
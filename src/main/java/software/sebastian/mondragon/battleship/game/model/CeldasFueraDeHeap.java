@@ -0,0 +1,128 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Celdas y barcos de un {@link Mapa} en una ranura de {@link ArenaTableros}. Cada celda ocupa
+ * un {@code short}: id de barco (0 si no hay) y {@link EstadoCoordenada}. Detras van los
+ * barcos, {@value #BYTES_BARCO} bytes por barco: celda inicial con la orientacion en el bit
+ * alto, tamano y celdas sin tocar. Los barcos son rectos y contiguos, asi que eso basta para
+ * recorrer sus celdas; caben tantos como celdas tiene el tablero.
+ * <p>
+ * Sin sincronizacion propia: la usa el mapa bajo su monitor.
+ */
+final class CeldasFueraDeHeap {
+    static final int MAX_CELDAS = 64 * 64;   // el id de barco ocupa 13 bits del short de la celda
+    private static final int BYTES_CELDA = 2;
+    private static final int BYTES_BARCO = 8;
+    private static final int BITS_ESTADO = 2;
+    private static final int VERTICAL = 1 << 31;
+    private static final EstadoCoordenada[] ESTADOS = EstadoCoordenada.values();
+
+    private final ArenaTableros arena;
+    private final int celdas;
+    private final int columnas;
+    private final int base;
+    private final int baseBarcos;
+    private ArenaTableros.Ranura ranura;   // null tras liberar
+    private ByteBuffer bloque;
+    private int barcos;
+
+    CeldasFueraDeHeap(ArenaTableros arena, int filas, int columnas) {
+        this.celdas = filas * columnas;
+        if (celdas > MAX_CELDAS) {
+            throw new IllegalArgumentException("Tablero demasiado grande para guardarse fuera del heap: "
+                    + filas + "x" + columnas);
+        }
+        this.arena = arena;
+        this.columnas = columnas;
+        this.ranura = arena.reservar(celdas * (BYTES_CELDA + BYTES_BARCO));
+        this.bloque = ranura.bloque();
+        this.base = ranura.base();
+        this.baseBarcos = base + celdas * BYTES_CELDA;
+    }
+
+    int barcoDe(int indice) {
+        return celda(indice) >>> BITS_ESTADO;
+    }
+
+    EstadoCoordenada estadoDe(int indice) {
+        return ESTADOS[celda(indice) & ((1 << BITS_ESTADO) - 1)];
+    }
+
+    void setEstado(int indice, EstadoCoordenada estado) {
+        escribirCelda(indice, barcoDe(indice), estado);
+    }
+
+    /* registra un barco recto de {@code tamano} celdas desde {@code inicio}; devuelve su id */
+    int anadirBarco(int inicio, boolean vertical, int tamano) {
+        int barcoId = ++barcos;
+        int registro = registro(barcoId);
+        bloque.putInt(registro, inicio | (vertical ? VERTICAL : 0));
+        bloque.putShort(registro + 4, (short) tamano);
+        bloque.putShort(registro + 6, (short) tamano);
+        for (int i = 0; i < tamano; i++) {
+            int indice = celdaDeBarco(barcoId, i);
+            escribirCelda(indice, barcoId, estadoDe(indice));
+        }
+        return barcoId;
+    }
+
+    int numeroBarcos() {
+        return barcos;
+    }
+
+    int tamanoDe(int barcoId) {
+        return bloque.getShort(registro(barcoId) + 4);
+    }
+
+    int restantesDe(int barcoId) {
+        return bloque.getShort(registro(barcoId) + 6);
+    }
+
+    /* indice de la celda {@code i} del barco, en el orden en que se recorre el barco */
+    int celdaDeBarco(int barcoId, int i) {
+        int inicio = bloque.getInt(registro(barcoId));
+        int paso = (inicio & VERTICAL) != 0 ? columnas : 1;
+        return (inicio & ~VERTICAL) + i * paso;
+    }
+
+    /* descuenta una celda sin tocar; true si con este impacto el barco queda hundido */
+    boolean registrarImpacto(int barcoId) {
+        int posicion = registro(barcoId) + 6;
+        int restantes = bloque.getShort(posicion);
+        if (restantes == 0) {
+            return false;
+        }
+        bloque.putShort(posicion, (short) (restantes - 1));
+        return restantes == 1;
+    }
+
+    void limpiar() {
+        for (int i = 0; i < ranura.tamano(); i += 8) {
+            bloque.putLong(base + i, 0L);
+        }
+        barcos = 0;
+    }
+
+    /* devuelve la ranura a la arena; despues no puede usarse */
+    void liberar() {
+        if (ranura != null) {
+            arena.liberar(ranura);
+            ranura = null;
+            bloque = null;
+        }
+    }
+
+    private int celda(int indice) {
+        return bloque.getShort(base + indice * BYTES_CELDA) & 0xFFFF;
+    }
+
+    private void escribirCelda(int indice, int barcoId, EstadoCoordenada estado) {
+        bloque.putShort(base + indice * BYTES_CELDA, (short) (barcoId << BITS_ESTADO | estado.ordinal()));
+    }
+
+    private int registro(int barcoId) {
+        return baseBarcos + (barcoId - 1) * BYTES_BARCO;
+    }
+}
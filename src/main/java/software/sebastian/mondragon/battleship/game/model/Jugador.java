@@ -1,21 +1,69 @@
 package software.sebastian.mondragon.battleship.game.model;
 
+import java.util.Arrays;
+
 public class Jugador {
+    public static final int SIN_MAPA = 0; // los ids de mapa empiezan en 1
+    private static final int[] SIN_PARTIDOS = new int[0];
+
     private final int id;
-    private Integer mapaId; // id del mapa del jugador (cada jugador tiene su mapa)
+    private int mapaId; // id del mapa actual del jugador: el de la ultima partida a la que se unio
+    // ids de los partidos vivos en que participa, ordenados; se reemplaza entero al cambiar
+    private volatile int[] partidosActivos = SIN_PARTIDOS;
+    private volatile boolean conectado;
+    private volatile long ultimaActividad; // millis del ultimo cambio de conexion
 
     public Jugador(int id) {
         this.id = id;
-        this.mapaId = null;
+        this.mapaId = SIN_MAPA;
     }
 
     public int getId() { return id; }
-    public Integer getMapaId() { return mapaId; }
-    public void setMapaId(Integer mapaId) { this.mapaId = mapaId; }
+    public Integer getMapaId() { return mapaId != SIN_MAPA ? mapaId : null; }
+    public int getMapaIdAsInt() { return mapaId; }
+    public boolean tieneMapa() { return mapaId != SIN_MAPA; }
+    public void setMapaId(Integer mapaId) { this.mapaId = mapaId != null ? mapaId : SIN_MAPA; }
+    public void setMapaId(int mapaId) { this.mapaId = mapaId; }
+    public boolean isConectado() { return conectado; }
+    public long getUltimaActividad() { return ultimaActividad; }
+
+    public int[] getPartidosActivos() { return partidosActivos.clone(); }
+    public boolean tienePartidosActivos() { return partidosActivos.length > 0; }
+
+    /* lo mantiene el repositorio al unir al jugador a un partido vivo y al retirar el partido */
+    public synchronized void anadirPartidoActivo(int partidoId) {
+        int[] actuales = partidosActivos;
+        int pos = Arrays.binarySearch(actuales, partidoId);
+        if (pos >= 0) {
+            return;
+        }
+        int hueco = -pos - 1;
+        int[] nuevos = new int[actuales.length + 1];
+        System.arraycopy(actuales, 0, nuevos, 0, hueco);
+        nuevos[hueco] = partidoId;
+        System.arraycopy(actuales, hueco, nuevos, hueco + 1, actuales.length - hueco);
+        partidosActivos = nuevos;
+    }
+
+    public synchronized void quitarPartidoActivo(int partidoId) {
+        int[] actuales = partidosActivos;
+        int pos = Arrays.binarySearch(actuales, partidoId);
+        if (pos < 0) {
+            return;
+        }
+        int[] nuevos = actuales.length == 1 ? SIN_PARTIDOS : new int[actuales.length - 1];
+        System.arraycopy(actuales, 0, nuevos, 0, pos);
+        System.arraycopy(actuales, pos + 1, nuevos, pos, actuales.length - pos - 1);
+        partidosActivos = nuevos;
+    }
+
+    public void registrarConexion(boolean conectado, long millis) {
+        this.conectado = conectado;
+        this.ultimaActividad = millis;
+    }
 
     @Override
     public String toString() {
-        return "Jugador{id=" + id + ", mapaId=" + mapaId + '}';
+        return "Jugador{id=" + id + ", mapaId=" + getMapaId() + '}';
     }
 }
-
@@ -1,126 +1,637 @@
 package software.sebastian.mondragon.battleship.game.model;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
+/**
+ * Tablero de un jugador. Las escrituras se serializan con el monitor del mapa; tras cada
+ * cambio publica una {@link MapaInstantanea} inmutable que otros hilos leen sin bloqueos con
+ * {@link #getInstantanea()}.
+ * <p>
+ * En modo {@link ModoCeldas#FUERA_DE_HEAP} el mapa es una vista sobre una ranura de
+ * {@link ArenaTableros}: las {@link Coordenada} y {@link Barco} que devuelve son copias
+ * generadas al leer, y {@link #liberar()} devuelve la ranura a la arena.
+ */
 public class Mapa {
-    private final int id;
+    private int id;
     private final int rows;
     private final int cols;
-    // mapa de coordenadaId -> Coordenada
-    private final Map<Integer, Coordenada> coordenadas = new HashMap<>();
-    private final Map<Integer, Barco> barcos = new HashMap<>();
-    private final AtomicInteger coordIdGen = new AtomicInteger(1);
-    private final AtomicInteger barcoIdGen = new AtomicInteger(1);
+    private final ModoCeldas modo;
+    // celdas en orden fila-mayor: indice = fila * cols + columna, coordenadaId = indice + 1
+    private final Coordenada[] celdas;          // modo DENSO
+    private final TablaCeldas materializadas;   // modo PEREZOSO
+    private final CeldasFueraDeHeap fueraDeHeap; // modo FUERA_DE_HEAP
+    private final List<Coordenada> vistaCeldas;
+    // capas de bits por celda: ocupada por barco, disparada, tocada y hundida
+    private final CeldaBits ocupadas;
+    private final CeldaBits disparadas;
+    private final CeldaBits tocadas;
+    private final CeldaBits hundidas;
+    // barcos por id: el barco con id n esta en la posicion n - 1
+    private final List<Barco> barcos = new ArrayList<>();
+    private final ArrayDeque<Barco> barcosLibres = new ArrayDeque<>();
+    private int barcosAFlote;
+    private long version;
+    private volatile MapaInstantanea instantanea;
+    private boolean importando;   // bajo el monitor: importarEstado y crearBarcos publican una vez al terminar
 
     public Mapa(int id, int rows, int cols) {
+        this(id, rows, cols, ModoCeldas.DENSO);
+    }
+
+    public Mapa(int id, int rows, int cols, ModoCeldas modo) {
+        this(id, rows, cols, modo, null);
+    }
+
+    /* tablero fuera del heap, en una ranura de la arena */
+    public Mapa(int id, int rows, int cols, ArenaTableros arena) {
+        this(id, rows, cols, ModoCeldas.FUERA_DE_HEAP, Objects.requireNonNull(arena, "arena"));
+    }
+
+    private Mapa(int id, int rows, int cols, ModoCeldas modo, ArenaTableros arena) {
         this.id = id;
         this.rows = rows;
         this.cols = cols;
-        initCoordenadas();
+        this.modo = Objects.requireNonNull(modo, "modo");
+        int totalCeldas = rows * cols;
+        if (modo == ModoCeldas.DENSO) {
+            this.celdas = new Coordenada[totalCeldas];
+            this.materializadas = null;
+            this.fueraDeHeap = null;
+            this.vistaCeldas = Collections.unmodifiableList(Arrays.asList(celdas));
+            initCoordenadas();
+        } else if (modo == ModoCeldas.PEREZOSO) {
+            this.celdas = null;
+            this.materializadas = new TablaCeldas(16);
+            this.fueraDeHeap = null;
+            this.vistaCeldas = new VistaCeldas();
+        } else {
+            if (arena == null) {
+                throw new IllegalArgumentException("El modo " + modo + " necesita una ArenaTableros");
+            }
+            this.celdas = null;
+            this.materializadas = null;
+            this.fueraDeHeap = new CeldasFueraDeHeap(arena, rows, cols);
+            this.vistaCeldas = new VistaCeldas();
+        }
+        this.ocupadas = new CeldaBits(totalCeldas);
+        this.disparadas = new CeldaBits(totalCeldas);
+        this.tocadas = new CeldaBits(totalCeldas);
+        this.hundidas = new CeldaBits(totalCeldas);
+        publicar();
     }
 
     private void initCoordenadas() {
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < cols; c++) {
-                int coordId = coordIdGen.getAndIncrement();
-                coordenadas.put(coordId, new Coordenada(coordId, r, c));
+                int indice = indice(r, c);
+                celdas[indice] = new Coordenada(indice + 1, r, c);
+            }
+        }
+    }
+
+    private int indice(int fila, int col) {
+        return fila * cols + col;
+    }
+
+    private boolean dentroDelMapa(int fila, int col) {
+        return fila >= 0 && fila < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * Celda guardada o, en modo perezoso, una Coordenada transitoria SIN_DISPARAR y sin barco.
+     * Fuera del heap siempre es una copia transitoria del estado de la celda.
+     */
+    private Coordenada celda(int indice) {
+        if (celdas != null) {
+            return celdas[indice];
+        }
+        Coordenada guardada;
+        synchronized (this) {
+            if (fueraDeHeap != null) {
+                return leerFueraDeHeap(indice);
             }
+            guardada = materializadas.get(indice);
         }
+        return guardada != null ? guardada : new Coordenada(indice + 1, indice / cols, indice % cols);
+    }
+
+    private Coordenada leerFueraDeHeap(int indice) {
+        Coordenada coord = new Coordenada(indice + 1, indice / cols, indice % cols);
+        coord.setBarcoId(fueraDeHeap.barcoDe(indice));
+        coord.setEstado(fueraDeHeap.estadoDe(indice));
+        return coord;
+    }
+
+    private Coordenada materializar(int indice) {
+        if (celdas != null) {
+            return celdas[indice];
+        }
+        Coordenada guardada = materializadas.get(indice);
+        if (guardada == null) {
+            guardada = new Coordenada(indice + 1, indice / cols, indice % cols);
+            materializadas.put(indice, guardada);
+        }
+        return guardada;
+    }
+
+    /* garantiza que la celda queda guardada antes de mutarla; reutiliza la instancia recibida */
+    private Coordenada materializar(Coordenada coord) {
+        if (celdas != null) {
+            return coord;
+        }
+        int indice = coord.getId() - 1;
+        Coordenada guardada = materializadas.get(indice);
+        if (guardada != null) {
+            return guardada;
+        }
+        materializadas.put(indice, coord);
+        return coord;
+    }
+
+    /**
+     * Devuelve el mapa al estado de recien creado con un id nuevo, conservando las celdas,
+     * los barcos y las capas de bits ya reservados para reutilizarlos. Lo usa el pool de
+     * mapas del repositorio; las instantaneas publicadas antes no se ven afectadas.
+     */
+    public synchronized void reiniciar(int nuevoId) {
+        this.id = nuevoId;
+        if (celdas != null) {
+            for (Coordenada coord : celdas) {
+                coord.setBarcoId(Coordenada.SIN_BARCO);
+                coord.setEstado(EstadoCoordenada.SIN_DISPARAR);
+            }
+        } else if (fueraDeHeap != null) {
+            fueraDeHeap.limpiar();
+        } else {
+            materializadas.limpiar();
+        }
+        ocupadas.limpiar();
+        disparadas.limpiar();
+        tocadas.limpiar();
+        hundidas.limpiar();
+        barcosLibres.addAll(barcos);
+        barcos.clear();
+        barcosAFlote = 0;
+        version = 0;
+        publicar();
     }
 
     public int getId() { return id; }
     public int getRows() { return rows; }
     public int getCols() { return cols; }
+    public ModoCeldas getModo() { return modo; }
+
+    /* numero de objetos Coordenada retenidos por el mapa */
+    public synchronized int getCeldasMaterializadas() {
+        if (fueraDeHeap != null) {
+            return 0;
+        }
+        return celdas != null ? celdas.length : materializadas.size();
+    }
 
+    /* paginas de bits reservadas entre las capas de barcos, disparos, tocadas y hundidas */
+    public synchronized int getPaginasReservadas() {
+        return ocupadas.paginasReservadas() + disparadas.paginasReservadas()
+                + tocadas.paginasReservadas() + hundidas.paginasReservadas();
+    }
+
+    /**
+     * Devuelve la ranura de un mapa {@link ModoCeldas#FUERA_DE_HEAP} a su arena; el mapa no
+     * debe usarse despues. En los demas modos no hace nada.
+     */
+    public synchronized void liberar() {
+        if (fueraDeHeap != null) {
+            fueraDeHeap.liberar();
+        }
+    }
+
+    /**
+     * Devuelve la celda en (fila, col). En modo {@link ModoCeldas#PEREZOSO} las celdas sin barco
+     * ni disparos se generan al vuelo: sus cambios solo se conservan a traves de los metodos de
+     * {@code Mapa} ({@link #crearBarco}, {@link #marcarAgua}, {@link #marcarTocado}).
+     */
     public Optional<Coordenada> buscarPorFilaCol(int fila, int col) {
-        return coordenadas.values().stream()
-                .filter(cc -> cc.getFila() == fila && cc.getColumna() == col)
-                .findFirst();
+        if (!dentroDelMapa(fila, col)) {
+            return Optional.empty();
+        }
+        return Optional.of(celda(indice(fila, col)));
     }
 
     public Coordenada getCoordenadaById(int id) {
-        return coordenadas.get(id);
+        if (id < 1 || id > rows * cols) {
+            return null;
+        }
+        return celda(id - 1);
     }
 
     public Collection<Coordenada> getTodasCoordenadas() {
-        return Collections.unmodifiableCollection(coordenadas.values());
+        return vistaCeldas;
+    }
+
+    public synchronized Barco crearBarco(List<int[]> posiciones) {
+        validarColocacion(posiciones);
+        return anadirBarco(posiciones);
+    }
+
+    /**
+     * Coloca una flota como una sola operacion: valida todos los barcos, tambien entre si, antes
+     * de crear ninguno y publica una unica version del tablero. Si alguno no es valido lanza
+     * IllegalArgumentException y el mapa queda como estaba.
+     */
+    public synchronized List<Barco> crearBarcos(List<List<int[]>> flota) {
+        if (flota == null || flota.isEmpty()) {
+            throw new IllegalArgumentException("Debe proporcionar al menos un barco");
+        }
+        int validados = 0;
+        try {
+            for (int i = 0, n = flota.size(); i < n; i++) {
+                validarColocacion(flota.get(i));
+                // ocupadas de forma provisional: los barcos siguientes no pueden solaparse con este
+                marcarOcupadas(flota.get(i), true);
+                validados++;
+            }
+        } finally {
+            for (int i = 0; i < validados; i++) {
+                marcarOcupadas(flota.get(i), false);
+            }
+        }
+        List<Barco> creados = new ArrayList<>(flota.size());
+        importando = true;
+        try {
+            for (int i = 0, n = flota.size(); i < n; i++) {
+                creados.add(anadirBarco(flota.get(i)));
+            }
+        } finally {
+            importando = false;
+        }
+        publicar();
+        return creados;
+    }
+
+    private void marcarOcupadas(List<int[]> posiciones, boolean ocupada) {
+        for (int i = 0, n = posiciones.size(); i < n; i++) {
+            int[] pos = posiciones.get(i);
+            if (ocupada) {
+                ocupadas.set(indice(pos[0], pos[1]));
+            } else {
+                ocupadas.clear(indice(pos[0], pos[1]));
+            }
+        }
+    }
+
+    /* posiciones ya validadas */
+    private Barco anadirBarco(List<int[]> posiciones) {
+        if (fueraDeHeap != null) {
+            return crearBarcoFueraDeHeap(posiciones);
+        }
+
+        int barcoId = barcos.size() + 1;
+        Barco barco = barcosLibres.poll();
+        if (barco != null) {
+            barco.reiniciar(barcoId);
+        } else {
+            barco = new Barco(barcoId);
+        }
+        for (int i = 0, n = posiciones.size(); i < n; i++) {
+            int[] pos = posiciones.get(i);
+            int indice = indice(pos[0], pos[1]);
+            Coordenada coord = materializar(indice);
+            coord.setBarcoId(barcoId);
+            ocupadas.set(indice);
+            barco.addCoordenada(coord.getId());
+        }
+        barcos.add(barco);
+        barcosAFlote++;
+        publicar();
+        return barco;
+    }
+
+    /* ya validado: recto y contiguo, se guarda como celda inicial, orientacion y tamano */
+    private Barco crearBarcoFueraDeHeap(List<int[]> posiciones) {
+        int inicio = Integer.MAX_VALUE;
+        for (int i = 0, n = posiciones.size(); i < n; i++) {
+            int[] pos = posiciones.get(i);
+            int indice = indice(pos[0], pos[1]);
+            inicio = Math.min(inicio, indice);
+            ocupadas.set(indice);
+        }
+        boolean vertical = posiciones.size() > 1 && posiciones.get(0)[1] == posiciones.get(1)[1];
+        int barcoId = fueraDeHeap.anadirBarco(inicio, vertical, posiciones.size());
+        barcosAFlote++;
+        publicar();
+        return leerBarcoFueraDeHeap(barcoId);
+    }
+
+    private Barco leerBarcoFueraDeHeap(int barcoId) {
+        Barco barco = new Barco(barcoId);
+        int tamano = fueraDeHeap.tamanoDe(barcoId);
+        for (int i = 0; i < tamano; i++) {
+            barco.addCoordenada(fueraDeHeap.celdaDeBarco(barcoId, i) + 1);
+        }
+        for (int i = fueraDeHeap.restantesDe(barcoId); i < tamano; i++) {
+            barco.registrarImpacto();
+        }
+        return barco;
     }
 
-    public Barco crearBarco(List<int[]> posiciones) {
+    /**
+     * Valida limites, solapamiento, celdas ya disparadas, linea recta, duplicados y contiguidad en
+     * una sola pasada sobre las posiciones, usando solo primitivos: no reserva memoria salvo para
+     * la excepcion.
+     */
+    void validarColocacion(List<int[]> posiciones) {
         if (posiciones == null || posiciones.isEmpty()) {
             throw new IllegalArgumentException("Debe proporcionar al menos una coordenada");
         }
 
-        List<Coordenada> coords = new ArrayList<>();
-        Set<String> usados = new HashSet<>();
+        int n = posiciones.size();
+        int filaInicial = 0;
+        int colInicial = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        boolean mismaFila = true;
+        boolean mismaColumna = true;
 
-        for (int[] pos : posiciones) {
+        for (int i = 0; i < n; i++) {
+            int[] pos = posiciones.get(i);
             if (pos == null || pos.length != 2) {
                 throw new IllegalArgumentException("Coordenada inválida (esperado [fila,columna])");
             }
             int fila = pos[0];
             int col = pos[1];
-            String clave = fila + ":" + col;
-            if (!usados.add(clave)) {
-                throw new IllegalArgumentException("Coordenada duplicada: " + fila + "," + col);
-            }
-            Optional<Coordenada> oc = buscarPorFilaCol(fila, col);
-            if (!oc.isPresent()) {
+            if (!dentroDelMapa(fila, col)) {
                 throw new IllegalArgumentException("Posicion fuera de mapa: " + fila + "," + col);
             }
-            Coordenada coord = oc.get();
-            if (coord.getBarcoId() != null) {
+            if (ocupadas.get(indice(fila, col))) {
                 throw new IllegalArgumentException("Ya existe un barco en " + fila + "," + col);
             }
-            coords.add(coord);
+            if (disparadas.get(indice(fila, col))) {
+                throw new IllegalArgumentException("Ya se ha disparado en " + fila + "," + col);
+            }
+            if (i == 0) {
+                filaInicial = fila;
+                colInicial = col;
+            } else {
+                mismaFila &= fila == filaInicial;
+                mismaColumna &= col == colInicial;
+            }
         }
 
-        if (coords.size() > 1) {
-            validarAlineacionYContiguedad(coords);
+        if (n == 1) {
+            return;
+        }
+        if (mismaFila && mismaColumna) {
+            throw new IllegalArgumentException("Coordenada duplicada: " + filaInicial + "," + colInicial);
+        }
+        if (!mismaFila && !mismaColumna) {
+            throw new IllegalArgumentException("El barco debe colocarse en línea recta horizontal o vertical");
         }
 
-        int barcoId = barcoIdGen.getAndIncrement();
-        Barco barco = new Barco(barcoId);
-        for (Coordenada coord : coords) {
-            coord.setBarcoId(barcoId);
-            barco.addCoordenada(coord.getId());
+        // eje que varia: columnas si el barco es horizontal, filas si es vertical
+        int eje = mismaFila ? 1 : 0;
+        for (int i = 0; i < n; i++) {
+            int valor = posiciones.get(i)[eje];
+            min = Math.min(min, valor);
+            max = Math.max(max, valor);
+        }
+        verificarSinDuplicados(posiciones, eje, min, max);
+        if (max - min + 1 != n) {
+            throw new IllegalArgumentException("Las " + (mismaFila ? "columnas" : "filas") + " del barco deben ser contiguas");
+        }
+    }
+
+    private void verificarSinDuplicados(List<int[]> posiciones, int eje, int min, int max) {
+        int n = posiciones.size();
+        if (max - min < Long.SIZE) {
+            long vistos = 0L;
+            for (int i = 0; i < n; i++) {
+                int[] pos = posiciones.get(i);
+                long bit = 1L << (pos[eje] - min);
+                if ((vistos & bit) != 0) {
+                    throw new IllegalArgumentException("Coordenada duplicada: " + pos[0] + "," + pos[1]);
+                }
+                vistos |= bit;
+            }
+            return;
+        }
+        // barcos de mas de 64 celdas de largo: comparacion por pares, igualmente sin reservas
+        for (int i = 1; i < n; i++) {
+            int[] pos = posiciones.get(i);
+            for (int j = 0; j < i; j++) {
+                if (posiciones.get(j)[eje] == pos[eje]) {
+                    throw new IllegalArgumentException("Coordenada duplicada: " + pos[0] + "," + pos[1]);
+                }
+            }
         }
-        barcos.put(barcoId, barco);
-        return barco;
     }
 
-    private void validarAlineacionYContiguedad(List<Coordenada> coords) {
-        Set<Integer> filas = coords.stream().map(Coordenada::getFila).collect(Collectors.toSet());
-        Set<Integer> columnas = coords.stream().map(Coordenada::getColumna).collect(Collectors.toSet());
+    public synchronized boolean fueDisparada(int fila, int col) {
+        return dentroDelMapa(fila, col) && disparadas.get(indice(fila, col));
+    }
 
-        if (filas.size() == 1) {
-            List<Integer> ordenCols = columnas.stream().sorted().toList();
-            verificarConsecutivos(ordenCols, "columnas");
-        } else if (columnas.size() == 1) {
-            List<Integer> ordenFilas = filas.stream().sorted().toList();
-            verificarConsecutivos(ordenFilas, "filas");
-        } else {
-            throw new IllegalArgumentException("El barco debe colocarse en línea recta horizontal o vertical");
+    public synchronized void marcarAgua(Coordenada celda) {
+        if (fueraDeHeap != null) {
+            int indice = celda.getId() - 1;
+            disparadas.set(indice);
+            fueraDeHeap.setEstado(indice, EstadoCoordenada.AGUA);
+            celda.setEstado(EstadoCoordenada.AGUA);
+            publicar();
+            return;
+        }
+        Coordenada coord = materializar(celda);
+        disparadas.set(coord.getId() - 1);
+        coord.setEstado(EstadoCoordenada.AGUA);
+        publicar();
+    }
+
+    /**
+     * Marca la coordenada como tocada y descuenta la celda de su barco. Si el barco se queda
+     * sin celdas se marca hundido y se descuenta de los barcos a flote; el llamador puede
+     * consultarlo con {@link Barco#isHundido()}.
+     */
+    public synchronized void marcarTocado(Coordenada celda) {
+        if (fueraDeHeap != null) {
+            marcarTocadoFueraDeHeap(celda);
+            return;
+        }
+        Coordenada coord = materializar(celda);
+        int indice = coord.getId() - 1;
+        disparadas.set(indice);
+        coord.setEstado(EstadoCoordenada.TOCADO);
+        if (tocadas.get(indice)) {
+            return;
+        }
+        tocadas.set(indice);
+        Barco barco = coord.tieneBarco() ? getBarco(coord.getBarcoIdAsInt()) : null;
+        if (barco != null && barco.registrarImpacto()) {
+            marcarHundido(barco);
+            barcosAFlote--;
         }
+        publicar();
     }
 
-    private void verificarConsecutivos(List<Integer> valoresOrdenados, String tipo) {
-        for (int i = 1; i < valoresOrdenados.size(); i++) {
-            int anterior = valoresOrdenados.get(i - 1);
-            int actual = valoresOrdenados.get(i);
-            if (actual != anterior + 1) {
-                throw new IllegalArgumentException("Las " + tipo + " del barco deben ser contiguas");
+    private void marcarTocadoFueraDeHeap(Coordenada celda) {
+        int indice = celda.getId() - 1;
+        disparadas.set(indice);
+        fueraDeHeap.setEstado(indice, EstadoCoordenada.TOCADO);
+        celda.setEstado(EstadoCoordenada.TOCADO);
+        if (tocadas.get(indice)) {
+            return;
+        }
+        tocadas.set(indice);
+        int barcoId = fueraDeHeap.barcoDe(indice);
+        if (barcoId != Coordenada.SIN_BARCO && fueraDeHeap.registrarImpacto(barcoId)) {
+            for (int i = 0, n = fueraDeHeap.tamanoDe(barcoId); i < n; i++) {
+                int celdaBarco = fueraDeHeap.celdaDeBarco(barcoId, i);
+                hundidas.set(celdaBarco);
+                fueraDeHeap.setEstado(celdaBarco, EstadoCoordenada.HUNDIDO);
             }
+            celda.setEstado(EstadoCoordenada.HUNDIDO);
+            barcosAFlote--;
         }
+        publicar();
     }
 
-    public Barco getBarco(int id) {
-        return barcos.get(id);
+    private void marcarHundido(Barco barco) {
+        for (int i = 0, n = barco.getTamano(); i < n; i++) {
+            int coordId = barco.getCoordenadaId(i);
+            hundidas.set(coordId - 1);
+            getCoordenadaById(coordId).setEstado(EstadoCoordenada.HUNDIDO);
+        }
     }
 
-    public Collection<Barco> getBarcos() {
-        return Collections.unmodifiableCollection(barcos.values());
+    /**
+     * Estado del tablero como enteros, para guardarlo en un snapshot: numero de barcos; por cada
+     * barco en orden de id, su tamano y los indices de sus celdas; numero de celdas disparadas y
+     * sus indices. Los indices son {@code fila * columnas + columna}.
+     */
+    public synchronized int[] exportarEstado() {
+        int disparos = disparadas.cardinalidad();
+        List<Barco> todos = getBarcos();
+        int longitud = 2 + todos.size() + disparos;
+        for (Barco barco : todos) {
+            longitud += barco.getTamano();
+        }
+        int[] estado = new int[longitud];
+        int i = 0;
+        estado[i++] = todos.size();
+        for (Barco barco : todos) {
+            estado[i++] = barco.getTamano();
+            for (int c = 0, n = barco.getTamano(); c < n; c++) {
+                estado[i++] = barco.getCoordenadaId(c) - 1;
+            }
+        }
+        estado[i++] = disparos;
+        for (int celda = disparadas.siguiente(0); celda >= 0; celda = disparadas.siguiente(celda + 1)) {
+            estado[i++] = celda;
+        }
+        return estado;
+    }
+
+    /* reproduce sobre un mapa vacio el estado de exportarEstado: coloca los barcos y repite los disparos */
+    public synchronized void importarEstado(int[] estado) {
+        if (numeroBarcos() > 0 || disparadas.siguiente(0) >= 0) {
+            throw new IllegalStateException("Solo se importa sobre un mapa vacio");
+        }
+        // una sola version publicada al final en lugar de una por barco y disparo
+        importando = true;
+        try {
+            repetirEstado(estado);
+        } finally {
+            importando = false;
+        }
+        publicar();
+    }
+
+    private void repetirEstado(int[] estado) {
+        int i = 0;
+        int numeroBarcos = estado[i++];
+        for (int b = 0; b < numeroBarcos; b++) {
+            int tamano = estado[i++];
+            List<int[]> posiciones = new ArrayList<>(tamano);
+            for (int c = 0; c < tamano; c++, i++) {
+                posiciones.add(new int[]{estado[i] / cols, estado[i] % cols});
+            }
+            crearBarco(posiciones);
+        }
+        int disparos = estado[i++];
+        for (int d = 0; d < disparos; d++) {
+            Coordenada celda = celda(estado[i++]);
+            if (celda.tieneBarco()) {
+                marcarTocado(celda);
+            } else {
+                marcarAgua(celda);
+            }
+        }
+    }
+
+    /* congela las capas de bits y publica la nueva version para los lectores */
+    private void publicar() {
+        if (importando) {
+            return;
+        }
+        instantanea = new MapaInstantanea(id, version++, rows, cols,
+                ocupadas.congelar(), disparadas.congelar(), tocadas.congelar(), hundidas.congelar(),
+                numeroBarcos(), barcosAFlote);
+    }
+
+    /**
+     * Ultima version publicada del tablero. Es inmutable y segura para leer desde cualquier hilo
+     * sin sincronizacion; para ver cambios posteriores hay que volver a pedirla.
+     */
+    public MapaInstantanea getInstantanea() {
+        return instantanea;
+    }
+
+    public synchronized int getBarcosAFlote() {
+        return barcosAFlote;
+    }
+
+    public synchronized boolean todosLosBarcosHundidos() {
+        return barcosAFlote == 0;
+    }
+
+    public synchronized Barco getBarco(int id) {
+        if (id < 1 || id > numeroBarcos()) {
+            return null;
+        }
+        return fueraDeHeap != null ? leerBarcoFueraDeHeap(id) : barcos.get(id - 1);
+    }
+
+    /* fuera del heap, cada barco se genera al leerlo */
+    public List<Barco> getBarcos() {
+        if (fueraDeHeap == null) {
+            return Collections.unmodifiableList(barcos);
+        }
+        return new AbstractList<>() {
+            @Override
+            public Barco get(int indice) {
+                Objects.checkIndex(indice, size());
+                return getBarco(indice + 1);
+            }
+
+            @Override
+            public int size() {
+                return numeroBarcos();
+            }
+        };
+    }
+
+    private synchronized int numeroBarcos() {
+        return fueraDeHeap != null ? fueraDeHeap.numeroBarcos() : barcos.size();
+    }
+
+    /* vista generada de todas las celdas en modo perezoso; no retiene objetos */
+    private final class VistaCeldas extends AbstractList<Coordenada> implements RandomAccess {
+        @Override
+        public Coordenada get(int indice) {
+            Objects.checkIndex(indice, size());
+            return celda(indice);
+        }
+
+        @Override
+        public int size() {
+            return rows * cols;
+        }
     }
 }
@@ -0,0 +1,87 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+/**
+ * Estado inmutable de un {@link Mapa} en una version concreta. Se obtiene con
+ * {@link Mapa#getInstantanea()} y puede leerse desde cualquier hilo sin bloqueos mientras
+ * el mapa sigue recibiendo disparos: las capas de bits son copias congeladas que comparten
+ * paginas con el mapa hasta que este las modifica.
+ */
+public final class MapaInstantanea {
+    private final int mapaId;
+    private final long version;
+    private final int filas;
+    private final int columnas;
+    private final CeldaBits ocupadas;
+    private final CeldaBits disparadas;
+    private final CeldaBits tocadas;
+    private final CeldaBits hundidas;
+    private final int barcos;
+    private final int barcosAFlote;
+
+    MapaInstantanea(int mapaId, long version, int filas, int columnas,
+                    CeldaBits ocupadas, CeldaBits disparadas, CeldaBits tocadas, CeldaBits hundidas,
+                    int barcos, int barcosAFlote) {
+        this.mapaId = mapaId;
+        this.version = version;
+        this.filas = filas;
+        this.columnas = columnas;
+        this.ocupadas = ocupadas;
+        this.disparadas = disparadas;
+        this.tocadas = tocadas;
+        this.hundidas = hundidas;
+        this.barcos = barcos;
+        this.barcosAFlote = barcosAFlote;
+    }
+
+    public int getMapaId() { return mapaId; }
+    /* crece con cada cambio publicado por el mapa */
+    public long getVersion() { return version; }
+    public int getFilas() { return filas; }
+    public int getColumnas() { return columnas; }
+    public int getBarcos() { return barcos; }
+    public int getBarcosAFlote() { return barcosAFlote; }
+
+    public boolean todosLosBarcosHundidos() {
+        return barcosAFlote == 0;
+    }
+
+    public EstadoCoordenada getEstado(int fila, int columna) {
+        int indice = indice(fila, columna);
+        if (hundidas.get(indice)) {
+            return EstadoCoordenada.HUNDIDO;
+        }
+        if (tocadas.get(indice)) {
+            return EstadoCoordenada.TOCADO;
+        }
+        return disparadas.get(indice) ? EstadoCoordenada.AGUA : EstadoCoordenada.SIN_DISPARAR;
+    }
+
+    public boolean tieneBarco(int fila, int columna) {
+        return ocupadas.get(indice(fila, columna));
+    }
+
+    public boolean fueDisparada(int fila, int columna) {
+        return disparadas.get(indice(fila, columna));
+    }
+
+    public int getDisparosRecibidos() {
+        return disparadas.cardinalidad();
+    }
+
+    public int getImpactosRecibidos() {
+        return tocadas.cardinalidad();
+    }
+
+    private int indice(int fila, int columna) {
+        if (fila < 0 || fila >= filas || columna < 0 || columna >= columnas) {
+            throw new IndexOutOfBoundsException("Posicion fuera de mapa: " + fila + "," + columna);
+        }
+        return fila * columnas + columna;
+    }
+
+    @Override
+    public String toString() {
+        return "MapaInstantanea{mapaId=" + mapaId + ", version=" + version
+                + ", tablero=" + filas + "x" + columnas + ", barcosAFlote=" + barcosAFlote + "}";
+    }
+}
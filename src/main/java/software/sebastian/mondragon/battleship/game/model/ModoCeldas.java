@@ -0,0 +1,10 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+/**
+ * Como guarda un {@link Mapa} los objetos {@link Coordenada} de sus celdas.
+ */
+public enum ModoCeldas {
+    DENSO,     // una Coordenada por celda, creada al construir el mapa
+    PEREZOSO,  // solo las celdas con barco o disparadas tienen objeto; el resto es implicito
+    FUERA_DE_HEAP   // celdas y barcos en una ArenaTableros; los objetos se generan al leerlos
+}
@@ -0,0 +1,9 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+/**
+ * Reglas de disparo de un {@link Partido}.
+ */
+public enum ModoJuego {
+    CLASICO,   // un disparo por peticion; se repite turno al hundir
+    SALVA      // una salva por turno, con un disparo por cada barco propio a flote
+}
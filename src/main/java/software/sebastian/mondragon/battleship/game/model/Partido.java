@@ -3,36 +3,118 @@ package software.sebastian.mondragon.battleship.game.model;
 import java.util.Optional;
 
 public class Partido {
+    public static final int TAMANO_POR_DEFECTO = 10;
+    public static final int SIN_JUGADOR = 0; // los ids de jugador empiezan en 1
+
     private final int id;
-    private Integer jugador1Id;
-    private Integer jugador2Id;
-    private Integer turnoJugadorId; // id del jugador que tiene el turno
+    private int jugador1Id = SIN_JUGADOR;
+    private int jugador2Id = SIN_JUGADOR;
+    private int turnoJugadorId = SIN_JUGADOR; // id del jugador que tiene el turno
+    private int ganadorId = SIN_JUGADOR;
     private EstadoPartido estado;
-    
+    private int filas = TAMANO_POR_DEFECTO;      // dimensiones del tablero de cada jugador
+    private int columnas = TAMANO_POR_DEFECTO;
+    private ModoJuego modo = ModoJuego.CLASICO;
+    private int mapa1Id = Jugador.SIN_MAPA;       // tablero de cada jugador en este partido
+    private int mapa2Id = Jugador.SIN_MAPA;
+    private volatile long ultimaActividad;       // millis de la ultima operacion sobre el partido
+
     public Partido(int id) {
         this.id = id;
         this.estado = EstadoPartido.ESPERANDO_JUGADORES;
     }
 
     public int getId() { return id; }
-    public Integer getJugador1Id() { return jugador1Id; }
-    public Integer getJugador2Id() { return jugador2Id; }
-    public Integer getTurnoJugadorId() { return turnoJugadorId; }
+    public Integer getJugador1Id() { return caja(jugador1Id); }
+    public Integer getJugador2Id() { return caja(jugador2Id); }
+    public Integer getTurnoJugadorId() { return caja(turnoJugadorId); }
+    public int getJugador1IdAsInt() { return jugador1Id; }
+    public int getJugador2IdAsInt() { return jugador2Id; }
+    public int getTurnoJugadorIdAsInt() { return turnoJugadorId; }
+    public Integer getGanadorId() { return caja(ganadorId); }
+    public int getGanadorIdAsInt() { return ganadorId; }
     public EstadoPartido getEstado() { return estado; }
+    public int getFilas() { return filas; }
+    public int getColumnas() { return columnas; }
+    public ModoJuego getModo() { return modo; }
+    public long getUltimaActividad() { return ultimaActividad; }
+    public int getMapa1IdAsInt() { return mapa1Id; }
+    public int getMapa2IdAsInt() { return mapa2Id; }
+    public void registrarActividad(long millis) { this.ultimaActividad = millis; }
 
-    public void setJugador1Id(Integer jugador1Id) { this.jugador1Id = jugador1Id; }
-    public void setJugador2Id(Integer jugador2Id) { this.jugador2Id = jugador2Id; }
-    public void setTurnoJugadorId(Integer turnoJugadorId) { this.turnoJugadorId = turnoJugadorId; }
+    public void setJugador1Id(Integer jugador1Id) { this.jugador1Id = descaja(jugador1Id); }
+    public void setJugador2Id(Integer jugador2Id) { this.jugador2Id = descaja(jugador2Id); }
+    public void setTurnoJugadorId(Integer turnoJugadorId) { this.turnoJugadorId = descaja(turnoJugadorId); }
+    public void setJugador1Id(int jugador1Id) { this.jugador1Id = jugador1Id; }
+    public void setJugador2Id(int jugador2Id) { this.jugador2Id = jugador2Id; }
+    public void setTurnoJugadorId(int turnoJugadorId) { this.turnoJugadorId = turnoJugadorId; }
+    public void setGanadorId(int ganadorId) { this.ganadorId = ganadorId; }
     public void setEstado(EstadoPartido estado) { this.estado = estado; }
+    public void setDimensiones(int filas, int columnas) {
+        this.filas = filas;
+        this.columnas = columnas;
+    }
+    public void setModo(ModoJuego modo) { this.modo = modo; }
+    public void setMapas(int mapa1Id, int mapa2Id) {
+        this.mapa1Id = mapa1Id;
+        this.mapa2Id = mapa2Id;
+    }
+
+    /* tablero de jugadorId en este partido, o Jugador.SIN_MAPA si no participa o aun no lo tiene */
+    public int getMapaDe(int jugadorId) {
+        if (jugadorId == SIN_JUGADOR) return Jugador.SIN_MAPA;
+        if (jugador1Id == jugadorId) return mapa1Id;
+        if (jugador2Id == jugadorId) return mapa2Id;
+        return Jugador.SIN_MAPA;
+    }
+
+    public void setMapaDe(int jugadorId, int mapaId) {
+        if (jugadorId != SIN_JUGADOR && jugador1Id == jugadorId) {
+            mapa1Id = mapaId;
+        } else if (jugadorId != SIN_JUGADOR && jugador2Id == jugadorId) {
+            mapa2Id = mapaId;
+        } else {
+            throw new IllegalArgumentException("El jugador " + jugadorId + " no participa en el partido " + id);
+        }
+    }
+
+    public boolean tieneDosJugadores() {
+        return jugador1Id != SIN_JUGADOR && jugador2Id != SIN_JUGADOR;
+    }
+
+    public boolean participa(int jugadorId) {
+        return jugadorId != SIN_JUGADOR && (jugador1Id == jugadorId || jugador2Id == jugadorId);
+    }
+
+    public boolean esTurnoDe(int jugadorId) {
+        return turnoJugadorId != SIN_JUGADOR && turnoJugadorId == jugadorId;
+    }
+
+    /* id del rival de jugadorId, o SIN_JUGADOR si no participa o aun no tiene rival */
+    public int otroJugadorId(int jugadorId) {
+        if (!tieneDosJugadores()) return SIN_JUGADOR;
+        if (jugador1Id == jugadorId) return jugador2Id;
+        if (jugador2Id == jugadorId) return jugador1Id;
+        return SIN_JUGADOR;
+    }
 
     public Optional<Integer> otroJugador(Integer jugadorId) {
-        if (jugador1Id != null && jugador1Id.equals(jugadorId) && jugador2Id != null) return Optional.of(jugador2Id);
-        if (jugador2Id != null && jugador2Id.equals(jugadorId) && jugador1Id != null) return Optional.of(jugador1Id);
-        return Optional.empty();
+        int otro = jugadorId != null ? otroJugadorId(jugadorId) : SIN_JUGADOR;
+        return otro != SIN_JUGADOR ? Optional.of(otro) : Optional.empty();
+    }
+
+    private static Integer caja(int jugadorId) {
+        return jugadorId != SIN_JUGADOR ? jugadorId : null;
+    }
+
+    private static int descaja(Integer jugadorId) {
+        return jugadorId != null ? jugadorId : SIN_JUGADOR;
     }
 
     @Override
     public String toString() {
-        return "Partido{id=" + id + ", j1=" + jugador1Id + ", j2=" + jugador2Id + ", turno=" + turnoJugadorId + ", estado=" + estado + '}';
+        return "Partido{id=" + id + ", j1=" + caja(jugador1Id) + ", j2=" + caja(jugador2Id) + ", turno=" + caja(turnoJugadorId) + ", estado=" + estado + ", tablero=" + filas + "x" + columnas
+                + (modo != ModoJuego.CLASICO ? ", modo=" + modo : "")
+                + (ganadorId != SIN_JUGADOR ? ", ganador=" + ganadorId : "") + '}';
     }
 }
@@ -0,0 +1,86 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import java.util.Arrays;
+
+/**
+ * Tabla hash de direccionamiento abierto indice de celda -> {@link Coordenada}, sin boxing
+ * de claves. La usa {@link Mapa} en modo {@link ModoCeldas#PEREZOSO} para guardar solo las
+ * celdas materializadas.
+ */
+final class TablaCeldas {
+    private static final int VACIO = -1;
+
+    private int[] claves;
+    private Coordenada[] valores;
+    private int tamano;
+
+    TablaCeldas(int capacidadEsperada) {
+        int capacidad = Integer.highestOneBit(Math.max(8, capacidadEsperada * 2 - 1)) << 1;
+        this.claves = new int[capacidad];
+        this.valores = new Coordenada[capacidad];
+        Arrays.fill(claves, VACIO);
+    }
+
+    Coordenada get(int clave) {
+        int mascara = claves.length - 1;
+        for (int i = mezclar(clave) & mascara; ; i = (i + 1) & mascara) {
+            int actual = claves[i];
+            if (actual == clave) {
+                return valores[i];
+            }
+            if (actual == VACIO) {
+                return null;
+            }
+        }
+    }
+
+    void put(int clave, Coordenada valor) {
+        if ((tamano + 1) * 2 > claves.length) {
+            crecer();
+        }
+        int mascara = claves.length - 1;
+        for (int i = mezclar(clave) & mascara; ; i = (i + 1) & mascara) {
+            int actual = claves[i];
+            if (actual == clave) {
+                valores[i] = valor;
+                return;
+            }
+            if (actual == VACIO) {
+                claves[i] = clave;
+                valores[i] = valor;
+                tamano++;
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return tamano;
+    }
+
+    /* vacia la tabla conservando su capacidad */
+    void limpiar() {
+        Arrays.fill(claves, VACIO);
+        Arrays.fill(valores, null);
+        tamano = 0;
+    }
+
+    private void crecer() {
+        int[] clavesViejas = claves;
+        Coordenada[] valoresViejos = valores;
+        claves = new int[clavesViejas.length << 1];
+        valores = new Coordenada[clavesViejas.length << 1];
+        Arrays.fill(claves, VACIO);
+        tamano = 0;
+        for (int i = 0; i < clavesViejas.length; i++) {
+            if (clavesViejas[i] != VACIO) {
+                put(clavesViejas[i], valoresViejos[i]);
+            }
+        }
+    }
+
+    private static int mezclar(int clave) {
+        int h = clave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
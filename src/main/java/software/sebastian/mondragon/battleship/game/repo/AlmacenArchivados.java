@@ -0,0 +1,40 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.util.function.IntPredicate;
+
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+/**
+ * Historico de partidos terminados de un {@link InMemoryRepo}: {@link ArchivoPartidos} en
+ * memoria o {@link ArchivoPartidosEnDisco} en un archivo. Ambos guardan el mismo registro de
+ * {@value ArchivoPartidos#CAMPOS} enteros por partido y devuelven copias reconstruidas.
+ */
+interface AlmacenArchivados {
+
+    void archivar(Partido p, long finalizadoMillis);
+
+    /* copia del partido archivado, o null */
+    Partido get(int id);
+
+    boolean contiene(int id);
+
+    /* quita el partido moviendo el ultimo registro al hueco; devuelve el partido quitado o null */
+    Partido eliminar(int id);
+
+    /* partido en la posicion indicada (0..size-1), o null si el archivo ha encogido entretanto */
+    Partido enPosicion(int registro);
+
+    /**
+     * Copia a {@code destino} la fecha de fin y el id de los registros desde {@code desde}, como
+     * {@code segundosFin << 31 | id}, y devuelve cuantos se copiaron.
+     */
+    int leerFinalizaciones(int desde, long[] destino);
+
+    /* copia de todos los registros para un snapshot */
+    int[] copiarRegistros();
+
+    /* anade registros de copiarRegistros; se omiten los ids que {@code omitir} ya tiene vivos */
+    void restaurar(int[] copia, IntPredicate omitir);
+
+    int size();
+}
@@ -0,0 +1,100 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link FuenteBloquesIds} en un archivo local compartido por los nodos de una maquina o de un
+ * sistema de archivos con bloqueos. Guarda, por {@link TipoId}, el primer id aun no repartido
+ * como un {@code long}; cada reserva lo lee y lo avanza con el archivo bloqueado y lo fuerza a
+ * disco antes de devolver el bloque, asi que un bloque nunca se entrega dos veces aunque un
+ * nodo caiga.
+ * <p>
+ * El bloqueo de archivo es por proceso: los nodos de un mismo proceso se serializan ademas con
+ * un cerrojo por ruta.
+ */
+public final class ArchivoBloquesIds implements FuenteBloquesIds, Closeable {
+    private static final ConcurrentHashMap<Path, ReentrantLock> CERROJOS = new ConcurrentHashMap<>();
+
+    private final FileChannel canal;
+    private final ReentrantLock cerrojo;
+    private final ByteBuffer valor = ByteBuffer.allocate(Long.BYTES);
+    private long reservas;
+
+    private ArchivoBloquesIds(FileChannel canal, ReentrantLock cerrojo) {
+        this.canal = canal;
+        this.cerrojo = cerrojo;
+    }
+
+    public static ArchivoBloquesIds abrir(Path archivo) throws IOException {
+        Path ruta = archivo.toAbsolutePath().normalize();
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new ArchivoBloquesIds(canal, CERROJOS.computeIfAbsent(ruta, r -> new ReentrantLock()));
+    }
+
+    @Override
+    public int reservar(TipoId tipo, int tamano, int minimo) {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El bloque de ids debe tener al menos un id");
+        }
+        long posicion = (long) tipo.ordinal() * Long.BYTES;
+        cerrojo.lock();
+        try (FileLock bloqueo = canal.lock()) {
+            long inicio = Math.max(Math.max(leer(posicion), 1), minimo);
+            if (inicio + tamano > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Ids de " + tipo + " agotados");
+            }
+            escribir(posicion, inicio + tamano);
+            canal.force(false);
+            reservas++;
+            return (int) inicio;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo reservar un bloque de ids", ex);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /* bloques reservados por esta instancia */
+    public long getReservas() {
+        cerrojo.lock();
+        try {
+            return reservas;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /* 0 si el tipo aun no tiene valor en el archivo */
+    private long leer(long posicion) throws IOException {
+        valor.clear();
+        while (valor.hasRemaining()) {
+            if (canal.read(valor, posicion + valor.position()) < 0) {
+                return 0;
+            }
+        }
+        return valor.getLong(0);
+    }
+
+    private void escribir(long posicion, long siguiente) throws IOException {
+        valor.clear();
+        valor.putLong(0, siguiente);
+        while (valor.hasRemaining()) {
+            canal.write(valor, posicion + valor.position());
+        }
+    }
+}
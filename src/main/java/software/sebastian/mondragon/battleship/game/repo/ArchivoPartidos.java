@@ -0,0 +1,194 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+/**
+ * Almacen compacto de partidos terminados. Cada partido ocupa un registro fijo de
+ * {@value #CAMPOS} enteros en un unico {@code int[]} (28 bytes frente a los mas de 100 de
+ * un {@link Partido} vivo dentro de un {@code ConcurrentHashMap}), y un {@link IndicePorId}
+ * localiza el registro en O(1) aunque los ids lleguen en bloques dispersos de varios nodos.
+ * <p>
+ * Las lecturas devuelven un {@link Partido} nuevo reconstruido a partir del registro;
+ * modificarlo no cambia el archivo.
+ */
+final class ArchivoPartidos implements AlmacenArchivados {
+    static final int CAMPOS = 7;
+
+    private static final int ID = 0;
+    private static final int JUGADOR1 = 1;
+    private static final int JUGADOR2 = 2;
+    private static final int TURNO = 3;
+    private static final int GANADOR = 4;
+    private static final int META = 5;   // estado << 26 | filas << 13 | columnas
+    private static final int FIN = 6;    // segundos unix sin signo en que se archivo
+
+    private static final int BITS_DIMENSION = 13;
+    private static final int MASCARA_DIMENSION = (1 << BITS_DIMENSION) - 1;
+    private static final EstadoPartido[] ESTADOS = EstadoPartido.values();
+
+    private int[] registros = new int[16 * CAMPOS];
+    private final IndicePorId indice = new IndicePorId();
+    private int tamano;
+
+    @Override
+    public synchronized void archivar(Partido p, long finalizadoMillis) {
+        validar(p);
+        int id = p.getId();
+        int registro = indice.get(id);
+        if (registro < 0) {
+            registro = tamano++;
+            if (tamano * CAMPOS > registros.length) {
+                registros = Arrays.copyOf(registros, registros.length * 2);
+            }
+            indice.put(id, registro);
+        }
+        codificar(p, finalizadoMillis, registros, registro * CAMPOS);
+    }
+
+    /* rechaza los partidos que no caben en un registro */
+    static void validar(Partido p) {
+        if (p.getId() <= 0) {
+            throw new IllegalArgumentException("Id de partido invalido: " + p.getId());
+        }
+        if (p.getFilas() > MASCARA_DIMENSION || p.getColumnas() > MASCARA_DIMENSION) {
+            throw new IllegalArgumentException("Tablero demasiado grande para archivar: " + p.getFilas() + "x" + p.getColumnas());
+        }
+    }
+
+    /* escribe el registro de un partido ya validado en {@code destino[base..base+CAMPOS)} */
+    static void codificar(Partido p, long finalizadoMillis, int[] destino, int base) {
+        destino[base + ID] = p.getId();
+        destino[base + JUGADOR1] = p.getJugador1IdAsInt();
+        destino[base + JUGADOR2] = p.getJugador2IdAsInt();
+        destino[base + TURNO] = p.getTurnoJugadorIdAsInt();
+        destino[base + GANADOR] = p.getGanadorIdAsInt();
+        destino[base + META] = p.getEstado().ordinal() << (2 * BITS_DIMENSION)
+                | p.getFilas() << BITS_DIMENSION | p.getColumnas();
+        destino[base + FIN] = (int) (finalizadoMillis / 1000);
+    }
+
+    @Override
+    public synchronized Partido get(int id) {
+        int registro = registroDe(id);
+        return registro >= 0 ? leer(registro) : null;
+    }
+
+    @Override
+    public synchronized boolean contiene(int id) {
+        return registroDe(id) >= 0;
+    }
+
+    /* quita el partido moviendo el ultimo registro al hueco; devuelve el partido quitado o null */
+    @Override
+    public synchronized Partido eliminar(int id) {
+        int registro = registroDe(id);
+        if (registro < 0) {
+            return null;
+        }
+        Partido eliminado = leer(registro);
+        int ultimo = --tamano;
+        if (registro != ultimo) {
+            System.arraycopy(registros, ultimo * CAMPOS, registros, registro * CAMPOS, CAMPOS);
+            indice.put(registros[registro * CAMPOS + ID], registro);
+        }
+        indice.quitar(id);
+        return eliminado;
+    }
+
+    /* partido en la posicion indicada (0..size-1), o null si el archivo ha encogido entretanto */
+    @Override
+    public synchronized Partido enPosicion(int registro) {
+        return registro < tamano ? leer(registro) : null;
+    }
+
+    /**
+     * Copia a {@code destino} la fecha de fin y el id de los registros desde {@code desde}, como
+     * {@code segundosFin << 31 | id}: ordenar los valores ordena de mas antiguo a mas reciente.
+     * Devuelve cuantos se copiaron; asi se recorre el archivo por bloques sin retener el monitor.
+     */
+    @Override
+    public synchronized int leerFinalizaciones(int desde, long[] destino) {
+        int n = Math.max(0, Math.min(destino.length, tamano - desde));
+        for (int i = 0; i < n; i++) {
+            destino[i] = finalizacionDe(registros, (desde + i) * CAMPOS);
+        }
+        return n;
+    }
+
+    /* copia de todos los registros, {@value #CAMPOS} enteros cada uno, para un snapshot */
+    @Override
+    public synchronized int[] copiarRegistros() {
+        return Arrays.copyOf(registros, tamano * CAMPOS);
+    }
+
+    /* anade registros de copiarRegistros; se omiten los ids que {@code omitir} ya tiene vivos */
+    @Override
+    public synchronized void restaurar(int[] copia, IntPredicate omitir) {
+        if (copia.length % CAMPOS != 0) {
+            throw new IllegalArgumentException("Registros de archivo incompletos: " + copia.length);
+        }
+        for (int base = 0; base < copia.length; base += CAMPOS) {
+            int id = copia[base + ID];
+            if (id <= 0 || registroDe(id) >= 0) {
+                throw new IllegalStateException("Partido archivado repetido o invalido: " + id);
+            }
+            if (omitir.test(id)) {
+                continue;
+            }
+            int registro = tamano++;
+            if (tamano * CAMPOS > registros.length) {
+                registros = Arrays.copyOf(registros, Math.max(registros.length * 2, copia.length));
+            }
+            System.arraycopy(copia, base, registros, registro * CAMPOS, CAMPOS);
+            indice.put(id, registro);
+        }
+    }
+
+    static int idDeFinalizacion(long finalizacion) {
+        return (int) (finalizacion & Integer.MAX_VALUE);
+    }
+
+    static long millisDeFinalizacion(long finalizacion) {
+        return (finalizacion >>> 31) * 1000;
+    }
+
+    @Override
+    public synchronized int size() {
+        return tamano;
+    }
+
+    private int registroDe(int id) {
+        return id > 0 ? indice.get(id) : -1;
+    }
+
+    private Partido leer(int registro) {
+        return decodificar(registros, registro * CAMPOS);
+    }
+
+    /* partido nuevo reconstruido desde el registro en {@code origen[base..base+CAMPOS)} */
+    static Partido decodificar(int[] origen, int base) {
+        int meta = origen[base + META];
+        Partido p = new Partido(origen[base + ID]);
+        p.setJugador1Id(origen[base + JUGADOR1]);
+        p.setJugador2Id(origen[base + JUGADOR2]);
+        p.setTurnoJugadorId(origen[base + TURNO]);
+        p.setGanadorId(origen[base + GANADOR]);
+        p.setEstado(ESTADOS[meta >>> (2 * BITS_DIMENSION)]);
+        p.setDimensiones((meta >>> BITS_DIMENSION) & MASCARA_DIMENSION, meta & MASCARA_DIMENSION);
+        p.registrarActividad(Integer.toUnsignedLong(origen[base + FIN]) * 1000);
+        return p;
+    }
+
+    static int idDe(int[] origen, int base) {
+        return origen[base + ID];
+    }
+
+    /* valor de leerFinalizaciones para el registro en {@code origen[base..]} */
+    static long finalizacionDe(int[] origen, int base) {
+        return Integer.toUnsignedLong(origen[base + FIN]) << 31 | origen[base + ID];
+    }
+}
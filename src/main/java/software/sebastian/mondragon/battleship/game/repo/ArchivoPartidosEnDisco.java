@@ -0,0 +1,289 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+/**
+ * Historico de partidos terminados en un archivo de registros fijos, los mismos
+ * {@value ArchivoPartidos#CAMPOS} enteros por partido que {@link ArchivoPartidos}. En memoria
+ * solo quedan el {@link IndicePorId} (unos 4 bytes por id), los ultimos registros archivados aun sin
+ * escribir y una cache LRU de registros leidos.
+ * <p>
+ * Los registros nuevos se escriben en lotes de {@value #LOTE}; mientras tanto se leen desde
+ * memoria. Los recorridos por posicion leen el archivo por bloques. El archivo se trunca al
+ * abrirlo: la durabilidad corre a cargo del journal y los snapshots, que lo rellenan en el
+ * arranque.
+ */
+final class ArchivoPartidosEnDisco implements AlmacenArchivados, Closeable {
+    static final int LOTE = 256;
+    static final int PARTIDOS_EN_CACHE_POR_DEFECTO = 4096;
+    private static final int CAMPOS = ArchivoPartidos.CAMPOS;
+    private static final int BYTES_REGISTRO = CAMPOS * Integer.BYTES;
+
+    private final FileChannel canal;
+    private final Map<Integer, int[]> cache;
+    private final int[] pendientes = new int[LOTE * CAMPOS];
+    private final int[] ventana = new int[LOTE * CAMPOS];   // bloque leido para los recorridos
+    private final ByteBuffer bytes = ByteBuffer.allocate(LOTE * BYTES_REGISTRO).order(ByteOrder.LITTLE_ENDIAN);
+    private final IndicePorId indice = new IndicePorId();
+    private int tamano;
+    private int enDisco;   // registros [0, enDisco) en el archivo; [enDisco, tamano) en pendientes
+    private int ventanaInicio = -1;
+    private int ventanaRegistros;
+    private long lecturas;
+
+    ArchivoPartidosEnDisco(Path archivo, int partidosEnCache) throws IOException {
+        if (partidosEnCache < 0) {
+            throw new IllegalArgumentException("El tamaño de la cache no puede ser negativo");
+        }
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > partidosEnCache;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void archivar(Partido p, long finalizadoMillis) {
+        ArchivoPartidos.validar(p);
+        int[] registro = new int[CAMPOS];
+        ArchivoPartidos.codificar(p, finalizadoMillis, registro, 0);
+        int posicion = registroDe(p.getId());
+        if (posicion >= 0) {
+            escribir(posicion, registro);
+        } else {
+            anadir(registro);
+        }
+        cache.put(p.getId(), registro);
+    }
+
+    @Override
+    public synchronized Partido get(int id) {
+        int[] registro = cache.get(id);
+        if (registro == null) {
+            int posicion = registroDe(id);
+            if (posicion < 0) {
+                return null;
+            }
+            registro = leer(posicion);
+            cache.put(id, registro);
+        }
+        return ArchivoPartidos.decodificar(registro, 0);
+    }
+
+    @Override
+    public synchronized boolean contiene(int id) {
+        return registroDe(id) >= 0;
+    }
+
+    @Override
+    public synchronized Partido eliminar(int id) {
+        int posicion = registroDe(id);
+        if (posicion < 0) {
+            return null;
+        }
+        Partido eliminado = ArchivoPartidos.decodificar(leer(posicion), 0);
+        int ultimo = tamano - 1;
+        if (posicion != ultimo) {
+            int[] movido = leer(ultimo);
+            escribir(posicion, movido);
+            indice.put(ArchivoPartidos.idDe(movido, 0), posicion);
+        }
+        tamano--;
+        if (ultimo < enDisco) {
+            // sin pendientes: el ultimo registro estaba en el archivo
+            enDisco--;
+            truncar(enDisco);
+        }
+        indice.quitar(id);
+        cache.remove(id);
+        ventanaInicio = -1;
+        return eliminado;
+    }
+
+    @Override
+    public synchronized Partido enPosicion(int registro) {
+        if (registro < 0 || registro >= tamano) {
+            return null;
+        }
+        if (registro >= enDisco) {
+            return ArchivoPartidos.decodificar(pendientes, (registro - enDisco) * CAMPOS);
+        }
+        if (registro < ventanaInicio || registro >= ventanaInicio + ventanaRegistros) {
+            ventanaRegistros = leerDeDisco(registro, ventana, LOTE);
+            ventanaInicio = registro;
+        }
+        return ArchivoPartidos.decodificar(ventana, (registro - ventanaInicio) * CAMPOS);
+    }
+
+    @Override
+    public synchronized int leerFinalizaciones(int desde, long[] destino) {
+        int n = Math.max(0, Math.min(destino.length, tamano - desde));
+        int[] bloque = new int[Math.min(n, LOTE) * CAMPOS];
+        for (int hechos = 0; hechos < n; ) {
+            int leidos = leerBloque(desde + hechos, bloque, Math.min(n - hechos, LOTE));
+            for (int i = 0; i < leidos; i++) {
+                destino[hechos + i] = ArchivoPartidos.finalizacionDe(bloque, i * CAMPOS);
+            }
+            hechos += leidos;
+        }
+        return n;
+    }
+
+    @Override
+    public synchronized int[] copiarRegistros() {
+        int[] copia = new int[tamano * CAMPOS];
+        int[] bloque = new int[LOTE * CAMPOS];
+        for (int hechos = 0; hechos < tamano; ) {
+            int leidos = leerBloque(hechos, bloque, Math.min(tamano - hechos, LOTE));
+            System.arraycopy(bloque, 0, copia, hechos * CAMPOS, leidos * CAMPOS);
+            hechos += leidos;
+        }
+        return copia;
+    }
+
+    @Override
+    public synchronized void restaurar(int[] copia, IntPredicate omitir) {
+        if (copia.length % CAMPOS != 0) {
+            throw new IllegalArgumentException("Registros de archivo incompletos: " + copia.length);
+        }
+        for (int base = 0; base < copia.length; base += CAMPOS) {
+            int id = ArchivoPartidos.idDe(copia, base);
+            if (id <= 0 || registroDe(id) >= 0) {
+                throw new IllegalStateException("Partido archivado repetido o invalido: " + id);
+            }
+            if (!omitir.test(id)) {
+                anadir(Arrays.copyOfRange(copia, base, base + CAMPOS));
+            }
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return tamano;
+    }
+
+    /* lecturas del archivo hechas hasta ahora: las que no sirvieron la cache, los pendientes ni la ventana */
+    synchronized long getLecturas() {
+        return lecturas;
+    }
+
+    /* escribe los pendientes aunque el lote no este completo */
+    synchronized void volcar() {
+        int n = tamano - enDisco;
+        if (n == 0) {
+            return;
+        }
+        escribirEnDisco(enDisco, pendientes, n);
+        enDisco = tamano;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (canal.isOpen()) {
+            volcar();
+            canal.close();
+        }
+    }
+
+    private void anadir(int[] registro) {
+        if (tamano - enDisco == LOTE) {
+            volcar();
+        }
+        int posicion = tamano++;
+        System.arraycopy(registro, 0, pendientes, (posicion - enDisco) * CAMPOS, CAMPOS);
+        indice.put(ArchivoPartidos.idDe(registro, 0), posicion);
+    }
+
+    private int[] leer(int posicion) {
+        int[] registro = new int[CAMPOS];
+        leerBloque(posicion, registro, 1);
+        return registro;
+    }
+
+    /* n registros desde la posicion, del archivo y de los pendientes; devuelve cuantos leyo */
+    private int leerBloque(int desde, int[] destino, int n) {
+        int deDisco = Math.max(0, Math.min(n, enDisco - desde));
+        if (deDisco > 0) {
+            leerDeDisco(desde, destino, deDisco);
+        }
+        int dePendientes = n - deDisco;
+        if (dePendientes > 0) {
+            System.arraycopy(pendientes, (desde + deDisco - enDisco) * CAMPOS, destino, deDisco * CAMPOS,
+                    dePendientes * CAMPOS);
+        }
+        return n;
+    }
+
+    /* hasta n registros del archivo desde la posicion; devuelve cuantos leyo */
+    private int leerDeDisco(int desde, int[] destino, int n) {
+        int registros = Math.min(n, enDisco - desde);
+        bytes.clear().limit(registros * BYTES_REGISTRO);
+        try {
+            long posicion = (long) desde * BYTES_REGISTRO;
+            while (bytes.hasRemaining()) {
+                if (canal.read(bytes, posicion + bytes.position()) < 0) {
+                    throw new IOException("Archivo de partidos truncado");
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo leer el archivo de partidos", ex);
+        }
+        lecturas++;
+        bytes.flip();
+        bytes.asIntBuffer().get(destino, 0, registros * CAMPOS);
+        return registros;
+    }
+
+    private void escribir(int posicion, int[] registro) {
+        if (posicion >= enDisco) {
+            System.arraycopy(registro, 0, pendientes, (posicion - enDisco) * CAMPOS, CAMPOS);
+        } else {
+            escribirEnDisco(posicion, registro, 1);
+            ventanaInicio = -1;
+        }
+    }
+
+    private void escribirEnDisco(int desde, int[] origen, int registros) {
+        bytes.clear();
+        IntBuffer enteros = bytes.asIntBuffer();
+        enteros.put(origen, 0, registros * CAMPOS);
+        bytes.limit(registros * BYTES_REGISTRO);
+        try {
+            long posicion = (long) desde * BYTES_REGISTRO;
+            while (bytes.hasRemaining()) {
+                canal.write(bytes, posicion + bytes.position());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir el archivo de partidos", ex);
+        }
+    }
+
+    private void truncar(int registros) {
+        try {
+            canal.truncate((long) registros * BYTES_REGISTRO);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir el archivo de partidos", ex);
+        }
+    }
+
+    private int registroDe(int id) {
+        return id > 0 ? indice.get(id) : -1;
+    }
+}
@@ -0,0 +1,39 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Reglas de expulsion que aplica {@link Evictor}. Un plazo {@code null} desactiva esa regla.
+ *
+ * @param finalizados            tiempo que se conserva un partido archivado desde que termino
+ * @param esperando              inactividad maxima de un partido en ESPERANDO_JUGADORES
+ * @param enCurso                inactividad maxima de un partido EN_CURSO (abandonado)
+ * @param jugadoresDesconectados tiempo que se conserva un jugador sin conexion ni partidos vivos
+ * @param maxArchivados          tope de partidos archivados; por encima se expulsan los mas antiguos
+ * @param archivarAbandonados    si los partidos expulsados por inactividad pasan al archivo
+ * @param intervalo              cada cuanto se ejecuta un barrido en segundo plano
+ */
+public record EvictionPolicy(Duration finalizados,
+                             Duration esperando,
+                             Duration enCurso,
+                             Duration jugadoresDesconectados,
+                             int maxArchivados,
+                             boolean archivarAbandonados,
+                             Duration intervalo) {
+
+    public EvictionPolicy {
+        Objects.requireNonNull(intervalo, "intervalo");
+        if (intervalo.isNegative() || intervalo.isZero()) {
+            throw new IllegalArgumentException("El intervalo de expulsion debe ser positivo");
+        }
+        if (maxArchivados < 0) {
+            throw new IllegalArgumentException("maxArchivados no puede ser negativo");
+        }
+    }
+
+    public static EvictionPolicy porDefecto() {
+        return new EvictionPolicy(Duration.ofMinutes(30), Duration.ofMinutes(15), Duration.ofHours(1),
+                Duration.ofHours(6), 1_000_000, true, Duration.ofMinutes(1));
+    }
+}
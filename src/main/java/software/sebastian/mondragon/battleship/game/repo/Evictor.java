@@ -0,0 +1,223 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Jugador;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+/**
+ * Expulsa de un {@link GameRepository} los partidos terminados o abandonados y los jugadores
+ * desconectados segun una {@link EvictionPolicy}, en un hilo propio. Los recorridos no toman
+ * cerrojos; cada expulsion toma solo la franja del partido afectado y vuelve a comprobar la
+ * condicion, y el archivo se recorre por bloques para no retener su monitor.
+ */
+public class Evictor implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(Evictor.class.getName());
+    private static final int BLOQUE_ARCHIVO = 4096;
+
+    private final GameRepository repo;
+    private final EvictionPolicy politica;
+    private ScheduledExecutorService planificador;
+
+    private final LongAdder barridos = new LongAdder();
+    private final LongAdder finalizadosExpulsados = new LongAdder();
+    private final LongAdder esperandoExpulsados = new LongAdder();
+    private final LongAdder enCursoExpulsados = new LongAdder();
+    private final LongAdder abandonadosArchivados = new LongAdder();
+    private final LongAdder jugadoresExpulsados = new LongAdder();
+
+    public Evictor(GameRepository repo, EvictionPolicy politica) {
+        this.repo = repo;
+        this.politica = politica;
+    }
+
+    public synchronized void iniciar() {
+        if (planificador != null) {
+            return;
+        }
+        planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "battleship-eviction");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodo = politica.intervalo().toMillis();
+        planificador.scheduleWithFixedDelay(this::barrerSinFallar, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void detener() {
+        if (planificador != null) {
+            planificador.shutdownNow();
+            planificador = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        detener();
+    }
+
+    private void barrerSinFallar() {
+        try {
+            barrer();
+        } catch (RuntimeException e) {
+            // un fallo en un barrido no debe cancelar los siguientes
+            LOGGER.log(Level.WARNING, "Fallo en barrido de expulsion", e);
+        }
+    }
+
+    /* ejecuta un barrido completo en el hilo llamador */
+    public void barrer() {
+        long ahora = repo.ahora();
+        expulsarInactivos(ahora);
+        expulsarArchivados(ahora);
+        expulsarJugadores(ahora);
+        barridos.increment();
+    }
+
+    private void expulsarInactivos(long ahora) {
+        expulsarInactivos(EstadoPartido.ESPERANDO_JUGADORES, limite(ahora, politica.esperando()), esperandoExpulsados);
+        expulsarInactivos(EstadoPartido.EN_CURSO, limite(ahora, politica.enCurso()), enCursoExpulsados);
+    }
+
+    /* recorre solo los partidos del estado a traves del indice del repositorio */
+    private void expulsarInactivos(EstadoPartido estado, long limite, LongAdder contador) {
+        if (limite == Long.MIN_VALUE) {
+            return;
+        }
+        for (Partido p : repo.getPartidosEnEstado(estado)) {
+            if (p.getUltimaActividad() < limite
+                    && repo.expulsarPartidoInactivo(p.getId(), estado, limite, politica.archivarAbandonados())) {
+                contador.increment();
+                if (politica.archivarAbandonados()) {
+                    abandonadosArchivados.increment();
+                }
+            }
+        }
+    }
+
+    private void expulsarArchivados(long ahora) {
+        long limite = limite(ahora, politica.finalizados());
+        int sobrantes = repo.getPartidosArchivados() - politica.maxArchivados();
+        if (limite == Long.MIN_VALUE && sobrantes <= 0) {
+            return;
+        }
+        long[] finalizaciones = new long[Math.max(0, sobrantes)];
+        int guardadas = 0;
+        long[] bloque = new long[BLOQUE_ARCHIVO];
+        int desde = 0;
+        int leidas;
+        while ((leidas = repo.leerFinalizacionesArchivadas(desde, bloque)) > 0) {
+            int expulsadas = 0;
+            for (int i = 0; i < leidas; i++) {
+                if (ArchivoPartidos.millisDeFinalizacion(bloque[i]) < limite) {
+                    if (expulsarArchivado(ArchivoPartidos.idDeFinalizacion(bloque[i]))) {
+                        expulsadas++;
+                    }
+                } else if (finalizaciones.length > 0) {
+                    guardadas = guardarSiMasAntigua(finalizaciones, guardadas, bloque[i]);
+                }
+            }
+            // al quitar un registro el ultimo ocupa su hueco: se avanza solo lo no expulsado y lo
+            // que se salte por los movimientos se revisa en el siguiente barrido
+            desde += leidas - expulsadas;
+        }
+        sobrantes = repo.getPartidosArchivados() - politica.maxArchivados();
+        Arrays.sort(finalizaciones, 0, guardadas);
+        for (int i = 0; i < guardadas && sobrantes > 0; i++) {
+            if (expulsarArchivado(ArchivoPartidos.idDeFinalizacion(finalizaciones[i]))) {
+                sobrantes--;
+            }
+        }
+    }
+
+    /* mantiene en 'mas antiguas' (como max-heap por la raiz) las n finalizaciones mas antiguas vistas */
+    private static int guardarSiMasAntigua(long[] masAntiguas, int guardadas, long finalizacion) {
+        if (guardadas < masAntiguas.length) {
+            masAntiguas[guardadas] = finalizacion;
+            subir(masAntiguas, guardadas);
+            return guardadas + 1;
+        }
+        if (finalizacion < masAntiguas[0]) {
+            masAntiguas[0] = finalizacion;
+            bajar(masAntiguas, guardadas);
+        }
+        return guardadas;
+    }
+
+    private static void subir(long[] heap, int i) {
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (heap[padre] >= heap[i]) {
+                return;
+            }
+            intercambiar(heap, padre, i);
+            i = padre;
+        }
+    }
+
+    private static void bajar(long[] heap, int n) {
+        int i = 0;
+        while (true) {
+            int mayor = i;
+            int izq = 2 * i + 1;
+            int der = izq + 1;
+            if (izq < n && heap[izq] > heap[mayor]) mayor = izq;
+            if (der < n && heap[der] > heap[mayor]) mayor = der;
+            if (mayor == i) {
+                return;
+            }
+            intercambiar(heap, i, mayor);
+            i = mayor;
+        }
+    }
+
+    private static void intercambiar(long[] a, int i, int j) {
+        long t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    private boolean expulsarArchivado(int partidoId) {
+        if (repo.eliminarPartido(partidoId) == null) {
+            return false;
+        }
+        finalizadosExpulsados.increment();
+        return true;
+    }
+
+    private void expulsarJugadores(long ahora) {
+        long limite = limite(ahora, politica.jugadoresDesconectados());
+        if (limite == Long.MIN_VALUE) {
+            return;
+        }
+        for (Jugador j : repo.getJugadores()) {
+            if (!j.isConectado() && j.getUltimaActividad() < limite
+                    && repo.expulsarJugadorDesconectado(j.getId(), limite)) {
+                jugadoresExpulsados.increment();
+            }
+        }
+    }
+
+    /* instante antes del cual algo se considera caducado; MIN_VALUE si la regla esta desactivada */
+    private static long limite(long ahora, Duration plazo) {
+        return plazo != null ? ahora - plazo.toMillis() : Long.MIN_VALUE;
+    }
+
+    public Metricas getMetricas() {
+        return new Metricas(barridos.sum(), finalizadosExpulsados.sum(), esperandoExpulsados.sum(),
+                enCursoExpulsados.sum(), abandonadosArchivados.sum(), jugadoresExpulsados.sum());
+    }
+
+    /* contadores acumulados desde que se creo el Evictor */
+    public record Metricas(long barridos, long finalizadosExpulsados, long esperandoExpulsados,
+                           long enCursoExpulsados, long abandonadosArchivados, long jugadoresExpulsados) {
+    }
+}
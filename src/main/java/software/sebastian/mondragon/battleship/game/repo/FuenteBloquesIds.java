@@ -0,0 +1,14 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+/**
+ * Reparte bloques de ids entre los nodos que comparten jugadores o journal. Cada bloque se
+ * entrega una sola vez a un solo nodo, que despues asigna sus ids sin coordinarse con nadie.
+ */
+public interface FuenteBloquesIds {
+
+    /**
+     * Reserva {@code tamano} ids consecutivos de {@code tipo}, todos mayores o iguales que
+     * {@code minimo}, y devuelve el primero. Ningun nodo ha recibido ni recibira esos ids.
+     */
+    int reservar(TipoId tipo, int tamano, int minimo);
+}
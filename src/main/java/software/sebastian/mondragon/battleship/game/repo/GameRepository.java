@@ -0,0 +1,119 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Jugador;
+import software.sebastian.mondragon.battleship.game.model.Mapa;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+/**
+ * Operaciones de almacenamiento que usan {@code GameService} y el servidor. Los ids son
+ * positivos y crecientes dentro de cada nodo; con una {@link FuenteBloquesIds} compartida llegan
+ * en bloques y dejan huecos entre los de otros nodos. Los objetos devueltos para partidos vivos,
+ * jugadores y mapas son los del repositorio y se modifican en su sitio, con las reglas de cerrojos de
+ * {@link #conPartido}.
+ * <p>
+ * {@link InMemoryRepo} lo guarda todo en memoria; {@link RepoEnDisco} lleva el historico de
+ * partidos terminados a un archivo. El servidor, {@link Evictor} y {@link Snapshotter} solo
+ * dependen de esta interfaz, asi que otra implementacion puede ocupar su lugar.
+ */
+public interface GameRepository {
+
+    /* Jugadores */
+    Jugador crearJugador();
+
+    /* recrea un jugador con un id ya asignado, al reproducir el journal */
+    Jugador restaurarJugador(int id);
+
+    Jugador getJugador(int id);
+
+    /* lo llama el servidor al asociar o soltar una conexion */
+    void registrarConexion(int jugadorId, boolean conectado);
+
+    /* Mapas */
+    Mapa crearMapa(int filas, int columnas);
+
+    Mapa getMapa(int id);
+
+    /* Partidos */
+    Partido crearPartido();
+
+    /* recrea un partido con un id ya asignado, al reproducir el journal */
+    Partido restaurarPartido(int id);
+
+    /* partido vivo o, si ya termino, una copia de solo lectura; null si no existe */
+    Partido getPartido(int id);
+
+    /**
+     * Ejecuta {@code accion} sobre el partido con su cerrojo tomado: las modificaciones de un
+     * partido y de los mapas de sus jugadores deben pasar por aqui. La accion recibe lo mismo
+     * que {@link #getPartido(int)}, incluido null si no existe. Es reentrante.
+     */
+    <T> T conPartido(int id, Function<Partido, T> accion);
+
+    /**
+     * Ocupa el primer hueco libre del partido con el jugador y, si el partido esta vivo, lo
+     * anade a sus partidos activos. Dentro de conPartido para ese partido.
+     */
+    void anadirJugador(Partido p, int jugadorId);
+
+    /* partidos vivos en que participa el jugador, por orden de id, sin recorrer los demas */
+    List<Partido> getPartidosActivos(int jugadorId);
+
+    /* cambia el estado manteniendo los indices; dentro de conPartido para ese partido */
+    void cambiarEstado(Partido p, EstadoPartido nuevo);
+
+    /* pasa un partido finalizado al historico; false si no estaba vivo */
+    boolean archivarPartido(int id);
+
+    /* elimina el partido, vivo o archivado; null si no existia */
+    Partido eliminarPartido(int id);
+
+    /* partidos en ese estado por orden de id; FINALIZADO incluye los archivados */
+    Collection<Partido> getPartidosEnEstado(EstadoPartido estado);
+
+    /* partidos esperando rival, del mas antiguo al mas reciente */
+    default Collection<Partido> getPartidosAbiertos() {
+        return getPartidosEnEstado(EstadoPartido.ESPERANDO_JUGADORES);
+    }
+
+    /* partidos vivos seguidos de los archivados */
+    Collection<Partido> getTodosPartidos();
+
+    int getPartidosArchivados();
+
+    /* Mantenimiento: lo usan Evictor y Snapshotter */
+
+    /* reloj del repositorio, el de la ultima actividad y las finalizaciones */
+    long ahora();
+
+    Collection<Jugador> getJugadores();
+
+    /**
+     * Expulsa un partido vivo en {@code estado} sin actividad desde antes de {@code limiteMillis}.
+     * Con {@code archivar} se da por finalizado sin ganador y pasa al historico; si no, se
+     * descarta. Devuelve true si se expulso.
+     */
+    boolean expulsarPartidoInactivo(int id, EstadoPartido estado, long limiteMillis, boolean archivar);
+
+    /* elimina al jugador si sigue desconectado desde antes del limite y no esta en ningun partido vivo */
+    boolean expulsarJugadorDesconectado(int jugadorId, long limiteMillis);
+
+    /**
+     * Copia en {@code destino} las finalizaciones de los archivados a partir de la posicion
+     * {@code desde}, empaquetadas como en {@link ArchivoPartidos#millisDeFinalizacion} y
+     * {@link ArchivoPartidos#idDeFinalizacion}. Devuelve cuantas copio.
+     */
+    int leerFinalizacionesArchivadas(int desde, long[] destino);
+
+    /* estado completo con los ids de los generadores; el punto de control se toma sin cambios en curso */
+    RepoSnapshot capturarSnapshot(Supplier<PuntoJournal> puntoDeControl);
+
+    /* carga un snapshot sobre un repositorio vacio */
+    void restaurarSnapshot(RepoSnapshot snapshot);
+}
@@ -0,0 +1,74 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asigna los ids de un {@link TipoId} desde un bloque {@code [siguiente, fin)} con un CAS sobre
+ * un unico {@code long}. Sin {@link FuenteBloquesIds} el bloque es toda la secuencia desde 1;
+ * con fuente, al agotarse se pide otro (hi/lo) y solo esa renovacion se serializa. Los ids de
+ * un bloque que no se llegan a usar se pierden.
+ */
+final class GeneradorIds {
+    private final FuenteBloquesIds fuente;   // null: ids locales al proceso
+    private final TipoId tipo;
+    private final int tamanoBloque;
+    private final AtomicLong bloque;   // fin << 32 | siguiente
+    private final AtomicInteger minimo = new AtomicInteger(1);   // ningun id por debajo, tras restaurar
+
+    GeneradorIds(FuenteBloquesIds fuente, TipoId tipo, int tamanoBloque) {
+        if (tamanoBloque < 1) {
+            throw new IllegalArgumentException("El bloque de ids debe tener al menos un id");
+        }
+        this.fuente = fuente;
+        this.tipo = tipo;
+        this.tamanoBloque = tamanoBloque;
+        this.bloque = new AtomicLong(fuente == null ? empaquetar(1, Integer.MAX_VALUE) : 0L);
+    }
+
+    int siguiente() {
+        while (true) {
+            long actual = bloque.get();
+            int siguiente = (int) actual;
+            int fin = (int) (actual >>> 32);
+            int desde = minimo.get();
+            if (siguiente < desde && desde < fin) {
+                bloque.compareAndSet(actual, empaquetar(desde, fin));
+            } else if (siguiente < fin && siguiente >= desde) {
+                if (bloque.compareAndSet(actual, actual + 1)) {
+                    return siguiente;
+                }
+            } else {
+                renovar(actual);
+            }
+        }
+    }
+
+    /* tras restaurar el id {@code siguiente - 1}: no se entregara ningun id menor que {@code siguiente} */
+    void asegurarMinimo(int siguiente) {
+        minimo.accumulateAndGet(siguiente, Math::max);
+    }
+
+    /* siguiente id que se entregaria sin renovar el bloque */
+    int getSiguiente() {
+        return Math.max((int) bloque.get(), minimo.get());
+    }
+
+    private synchronized void renovar(long agotado) {
+        if (bloque.get() != agotado) {
+            return;
+        }
+        if (fuente == null) {
+            throw new IllegalStateException("Ids de " + tipo + " agotados");
+        }
+        int inicio = fuente.reservar(tipo, tamanoBloque, minimo.get());
+        if (inicio < minimo.get() || (long) inicio + tamanoBloque > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Bloque de ids de " + tipo + " invalido: " + inicio);
+        }
+        bloque.set(empaquetar(inicio, inicio + tamanoBloque));
+    }
+
+    private static long empaquetar(int siguiente, int fin) {
+        return (long) fin << 32 | siguiente;
+    }
+}
@@ -1,49 +1,737 @@
 package software.sebastian.mondragon.battleship.game.repo;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
+import software.sebastian.mondragon.battleship.game.model.ArenaTableros;
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
 import software.sebastian.mondragon.battleship.game.model.Jugador;
 import software.sebastian.mondragon.battleship.game.model.Mapa;
+import software.sebastian.mondragon.battleship.game.model.ModoCeldas;
 import software.sebastian.mondragon.battleship.game.model.Partido;
 
-public class InMemoryRepo {
-    private final AtomicInteger partidoGen = new AtomicInteger(1);
-    private final AtomicInteger jugadorGen = new AtomicInteger(1);
-    private final AtomicInteger mapaGen = new AtomicInteger(1);
+/**
+ * Repositorio en memoria. Los partidos vivos se reparten en franjas por id de partido; cada
+ * franja tiene su propio cerrojo y {@link #conPartido} ejecuta las modificaciones de un
+ * partido bajo el cerrojo de su franja, de modo que partidas independientes no compiten.
+ * Jugadores y mapas viven en tablas concurrentes compartidas: el mapa pertenece al jugador y
+ * {@link Mapa} serializa sus propias escrituras (orden de cerrojos: franja, luego mapa).
+ * Todas las tablas son {@link TablaPorId}: los ids son secuenciales y se indexan sin boxing.
+ * <p>
+ * Ademas se mantiene un indice secundario de partidos vivos por {@link EstadoPartido}, ordenado
+ * por id, para listar o emparejar partidos abiertos sin recorrer todos los partidos. Los
+ * cambios de estado deben pasar por {@link #cambiarEstado}. Cada {@link Jugador} guarda los ids
+ * de sus partidos vivos; los jugadores entran en un partido con {@link #anadirJugador} y salen
+ * cuando el partido deja de estar vivo.
+ * <p>
+ * Los partidos finalizados pasan a un historico compacto; {@link RepoEnDisco} lo guarda en un
+ * archivo en lugar de en memoria.
+ */
+public class InMemoryRepo implements GameRepository {
+    // por encima de este numero de celdas los mapas solo guardan celdas con barco o disparadas
+    static final int MAX_CELDAS_DENSO = 32 * 32;
+    // mapas libres que se guardan como maximo por cada combinacion de dimensiones y modo
+    public static final int MAX_MAPAS_LIBRES_POR_TAMANO = 64;
+    public static final int FRANJAS_POR_DEFECTO = 64;
 
-    private final Map<Integer, Partido> partidos = new ConcurrentHashMap<>();
-    private final Map<Integer, Jugador> jugadores = new ConcurrentHashMap<>();
-    private final Map<Integer, Mapa> mapas = new ConcurrentHashMap<>();
+    // ids que se piden de una vez a la fuente compartida cuando hay varios nodos
+    public static final int TAMANO_BLOQUE_IDS = 1024;
+
+    private final GeneradorIds partidoGen;
+    private final GeneradorIds jugadorGen;
+    private final GeneradorIds mapaGen;
+
+    private final Franja[] franjas;
+    private final int bitsFranja;   // dentro de su franja, el partido id se guarda en id >>> bitsFranja
+    private final TablaPorId<Jugador> jugadores = new TablaPorId<>();
+    private final TablaPorId<Mapa> mapas = new TablaPorId<>();
+    // partidos finalizados en formato compacto, en memoria o en disco; getPartido y getTodosPartidos leen de ambos
+    private final AlmacenArchivados archivo;
+    // ids de partidos vivos por estado; se actualiza bajo el cerrojo de la franja del partido
+    private final EnumMap<EstadoPartido, ConcurrentSkipListSet<Integer>> idsPorEstado = new EnumMap<>(EstadoPartido.class);
+
+    // pool de mapas de partidas finalizadas, listos para reiniciar; acceso bajo su propio monitor
+    private final Map<ClaveMapa, ArrayDeque<Mapa>> mapasLibres = new HashMap<>();
+    private final int maxMapasLibresPorTamano;
+    // reloj en millis para la actividad de partidos y jugadores; inyectable en pruebas
+    private final LongSupplier reloj;
+    // memoria fuera del heap para los tableros pequenos; null si todos viven en el heap
+    private final ArenaTableros arena;
+
+    public InMemoryRepo() {
+        this(MAX_MAPAS_LIBRES_POR_TAMANO);
+    }
+
+    /**
+     * Repositorio cuyos tableros pequenos guardan celdas y barcos fuera del heap, en una
+     * {@link ArenaTableros} propia: con cientos de miles de partidas el recolector no tiene
+     * que recorrer sus {@code Coordenada} y {@code Barco}.
+     */
+    public static InMemoryRepo conTablerosFueraDeHeap() {
+        return new InMemoryRepo(MAX_MAPAS_LIBRES_POR_TAMANO, FRANJAS_POR_DEFECTO, System::currentTimeMillis,
+                new ArenaTableros());
+    }
+
+    /* maxMapasLibresPorTamano = 0 desactiva el reciclaje de mapas */
+    public InMemoryRepo(int maxMapasLibresPorTamano) {
+        this(maxMapasLibresPorTamano, FRANJAS_POR_DEFECTO);
+    }
+
+    /* franjas se redondea a la siguiente potencia de dos */
+    public InMemoryRepo(int maxMapasLibresPorTamano, int franjas) {
+        this(maxMapasLibresPorTamano, franjas, System::currentTimeMillis);
+    }
+
+    public InMemoryRepo(int maxMapasLibresPorTamano, int franjas, LongSupplier reloj) {
+        this(maxMapasLibresPorTamano, franjas, reloj, null);
+    }
+
+    /* con arena, los tableros de hasta MAX_CELDAS_DENSO celdas se guardan fuera del heap */
+    public InMemoryRepo(int maxMapasLibresPorTamano, int franjas, LongSupplier reloj, ArenaTableros arena) {
+        this(maxMapasLibresPorTamano, franjas, reloj, arena, null);
+    }
+
+    /**
+     * Con {@code ids}, los ids de jugadores, partidos y mapas se toman en bloques de
+     * {@value #TAMANO_BLOQUE_IDS} de esa fuente compartida y son unicos entre todos los nodos
+     * que la usan; sin ella son locales al proceso y empiezan en 1.
+     */
+    public InMemoryRepo(int maxMapasLibresPorTamano, int franjas, LongSupplier reloj, ArenaTableros arena,
+                        FuenteBloquesIds ids) {
+        this(maxMapasLibresPorTamano, franjas, reloj, arena, ids, new ArchivoPartidos());
+    }
+
+    InMemoryRepo(int maxMapasLibresPorTamano, int franjas, LongSupplier reloj, ArenaTableros arena,
+                 FuenteBloquesIds ids, AlmacenArchivados archivo) {
+        if (maxMapasLibresPorTamano < 0) {
+            throw new IllegalArgumentException("El tamaño del pool no puede ser negativo");
+        }
+        if (franjas < 1) {
+            throw new IllegalArgumentException("Debe haber al menos una franja");
+        }
+        this.maxMapasLibresPorTamano = maxMapasLibresPorTamano;
+        this.reloj = Objects.requireNonNull(reloj, "reloj");
+        this.arena = arena;
+        this.archivo = Objects.requireNonNull(archivo, "archivo");
+        this.partidoGen = new GeneradorIds(ids, TipoId.PARTIDO, TAMANO_BLOQUE_IDS);
+        this.jugadorGen = new GeneradorIds(ids, TipoId.JUGADOR, TAMANO_BLOQUE_IDS);
+        this.mapaGen = new GeneradorIds(ids, TipoId.MAPA, TAMANO_BLOQUE_IDS);
+        for (EstadoPartido estado : EstadoPartido.values()) {
+            idsPorEstado.put(estado, new ConcurrentSkipListSet<>());
+        }
+        int potencia = franjas == 1 ? 1 : Integer.highestOneBit(franjas - 1) << 1;
+        this.franjas = new Franja[potencia];
+        this.bitsFranja = Integer.numberOfTrailingZeros(potencia);
+        for (int i = 0; i < this.franjas.length; i++) {
+            this.franjas[i] = new Franja();
+        }
+    }
+
+    private Franja franja(int partidoId) {
+        return franjas[partidoId & (franjas.length - 1)];
+    }
+
+    public int getNumeroFranjas() {
+        return franjas.length;
+    }
+
+    @Override
+    public long ahora() {
+        return reloj.getAsLong();
+    }
 
     /* Jugadores */
+    @Override
     public Jugador crearJugador() {
-        int id = jugadorGen.getAndIncrement();
+        return registrarJugador(jugadorGen.siguiente());
+    }
+
+    /* recrea un jugador con un id ya asignado, al reproducir el journal */
+    @Override
+    public Jugador restaurarJugador(int id) {
+        exigirIdLibre(id, jugadores.get(id) != null, "jugador");
+        jugadorGen.asegurarMinimo(id + 1);
+        return registrarJugador(id);
+    }
+
+    private Jugador registrarJugador(int id) {
         Jugador j = new Jugador(id);
+        j.registrarConexion(false, ahora());
         jugadores.put(id, j);
         return j;
     }
+
+    private static void exigirIdLibre(int id, boolean ocupado, String entidad) {
+        if (id <= 0 || ocupado) {
+            throw new IllegalStateException("No se puede restaurar el " + entidad + " " + id);
+        }
+    }
+    @Override
     public Jugador getJugador(int id) { return jugadores.get(id); }
 
+    /* lo llama el servidor al asociar o soltar una conexion; sin conexion el jugador puede expulsarse */
+    @Override
+    public void registrarConexion(int jugadorId, boolean conectado) {
+        Jugador j = jugadores.get(jugadorId);
+        if (j != null) {
+            synchronized (j) {
+                j.registrarConexion(conectado, ahora());
+            }
+        }
+    }
+
+    /**
+     * Elimina al jugador si sigue desconectado desde antes de {@code limiteMillis} y no esta en
+     * ningun partido vivo; su mapa vuelve al pool. Devuelve true si se elimino.
+     */
+    @Override
+    public boolean expulsarJugadorDesconectado(int jugadorId, long limiteMillis) {
+        Jugador j = jugadores.get(jugadorId);
+        if (j == null) {
+            return false;
+        }
+        synchronized (j) {
+            if (j.isConectado() || j.getUltimaActividad() >= limiteMillis || participaEnAlgunPartido(jugadorId)) {
+                return false;
+            }
+            jugadores.remove(jugadorId);
+        }
+        if (j.tieneMapa()) {
+            reciclarMapa(j.getMapaIdAsInt());
+        }
+        return true;
+    }
+
+    @Override
+    public Collection<Jugador> getJugadores() {
+        return jugadores.values();
+    }
+
     /* Mapa */
+    @Override
     public Mapa crearMapa(int filas, int columnas) {
-        int id = mapaGen.getAndIncrement();
-        Mapa m = new Mapa(id, filas, columnas);
+        ModoCeldas modo;
+        if (filas * columnas > MAX_CELDAS_DENSO) {
+            modo = ModoCeldas.PEREZOSO;
+        } else {
+            modo = arena != null ? ModoCeldas.FUERA_DE_HEAP : ModoCeldas.DENSO;
+        }
+        return crearMapa(filas, columnas, modo);
+    }
+
+    public Mapa crearMapa(int filas, int columnas, ModoCeldas modo) {
+        int id = mapaGen.siguiente();
+        Mapa m = tomarMapaLibre(new ClaveMapa(filas, columnas, modo));
+        if (m != null) {
+            m.reiniciar(id);
+        } else {
+            m = nuevoMapa(id, filas, columnas, modo);
+        }
         mapas.put(id, m);
         return m;
     }
+    @Override
     public Mapa getMapa(int id) { return mapas.get(id); }
 
+    /* recrea un mapa vacio con un id ya asignado, al cargar un snapshot */
+    Mapa restaurarMapa(int id, int filas, int columnas, ModoCeldas modo) {
+        exigirIdLibre(id, mapas.get(id) != null, "mapa");
+        mapaGen.asegurarMinimo(id + 1);
+        // un snapshot tomado con arena puede cargarse en un repositorio sin ella
+        Mapa m = nuevoMapa(id, filas, columnas, modo == ModoCeldas.FUERA_DE_HEAP && arena == null ? ModoCeldas.DENSO : modo);
+        mapas.put(id, m);
+        return m;
+    }
+
+    private Mapa nuevoMapa(int id, int filas, int columnas, ModoCeldas modo) {
+        if (modo != ModoCeldas.FUERA_DE_HEAP) {
+            return new Mapa(id, filas, columnas, modo);
+        }
+        if (arena == null) {
+            throw new IllegalStateException("Este repositorio no guarda tableros fuera del heap");
+        }
+        return new Mapa(id, filas, columnas, arena);
+    }
+
+    /* null si los tableros viven en el heap */
+    public ArenaTableros getArena() {
+        return arena;
+    }
+
+    Collection<Mapa> getMapas() {
+        return mapas.values();
+    }
+
+    public int getMapasLibres() {
+        synchronized (mapasLibres) {
+            int total = 0;
+            for (ArrayDeque<Mapa> libres : mapasLibres.values()) {
+                total += libres.size();
+            }
+            return total;
+        }
+    }
+
+    private Mapa tomarMapaLibre(ClaveMapa clave) {
+        synchronized (mapasLibres) {
+            ArrayDeque<Mapa> libres = mapasLibres.get(clave);
+            return libres != null ? libres.poll() : null;
+        }
+    }
+
+    /* saca el mapa del repositorio y lo guarda en el pool si queda sitio para su tamaño */
+    private void reciclarMapa(int mapaId) {
+        Mapa m = mapas.remove(mapaId);
+        if (m == null) {
+            return;
+        }
+        if (maxMapasLibresPorTamano == 0) {
+            m.liberar();
+            return;
+        }
+        ClaveMapa clave = new ClaveMapa(m.getRows(), m.getCols(), m.getModo());
+        synchronized (mapasLibres) {
+            ArrayDeque<Mapa> libres = mapasLibres.computeIfAbsent(clave, k -> new ArrayDeque<>());
+            if (libres.size() < maxMapasLibresPorTamano) {
+                libres.push(m);
+                return;
+            }
+        }
+        // no cabe en el pool: su ranura fuera del heap vuelve a la arena
+        m.liberar();
+    }
+
     /* Partido */
+    @Override
     public Partido crearPartido() {
-        int id = partidoGen.getAndIncrement();
+        return registrarPartido(partidoGen.siguiente());
+    }
+
+    /* recrea un partido con un id ya asignado, al reproducir el journal */
+    @Override
+    public Partido restaurarPartido(int id) {
+        exigirIdLibre(id, getPartido(id) != null, "partido");
+        partidoGen.asegurarMinimo(id + 1);
+        return registrarPartido(id);
+    }
+
+    private Partido registrarPartido(int id) {
         Partido p = new Partido(id);
-        partidos.put(id, p);
+        p.registrarActividad(ahora());
+        franja(id).partidos.put(id >>> bitsFranja, p);
+        idsPorEstado.get(p.getEstado()).add(id);
+        return p;
+    }
+
+    /**
+     * Cambia el estado de un partido vivo manteniendo el indice por estado. Debe llamarse
+     * dentro de {@link #conPartido} para ese partido.
+     */
+    @Override
+    public void cambiarEstado(Partido p, EstadoPartido nuevo) {
+        Objects.requireNonNull(nuevo, "estado");
+        EstadoPartido anterior = p.getEstado();
+        p.setEstado(nuevo);
+        if (anterior != nuevo && franja(p.getId()).partidos.get(p.getId() >>> bitsFranja) == p) {
+            idsPorEstado.get(anterior).remove(p.getId());
+            idsPorEstado.get(nuevo).add(p.getId());
+        }
+    }
+
+    @Override
+    public void anadirJugador(Partido p, int jugadorId) {
+        if (p.getJugador1IdAsInt() == Partido.SIN_JUGADOR) {
+            p.setJugador1Id(jugadorId);
+        } else if (p.getJugador2IdAsInt() == Partido.SIN_JUGADOR) {
+            p.setJugador2Id(jugadorId);
+        } else {
+            throw new IllegalStateException("Partido ya tiene 2 jugadores");
+        }
+        Jugador j = jugadores.get(jugadorId);
+        if (j != null && franja(p.getId()).partidos.get(p.getId() >>> bitsFranja) == p) {
+            j.anadirPartidoActivo(p.getId());
+        }
+    }
+
+    /* recorre solo los ids del jugador; un partido retirado entretanto no aparece */
+    @Override
+    public List<Partido> getPartidosActivos(int jugadorId) {
+        Jugador j = jugadores.get(jugadorId);
+        if (j == null) {
+            return List.of();
+        }
+        List<Partido> activos = new ArrayList<>();
+        for (int id : j.getPartidosActivos()) {
+            Partido p = franja(id).partidos.get(id >>> bitsFranja);
+            if (p != null && p.participa(jugadorId)) {
+                activos.add(p);
+            }
+        }
+        return activos;
+    }
+
+    /**
+     * Vista de los partidos en {@code estado} por orden de id, recorrida a traves del indice:
+     * cuesta lo que el resultado, no lo que el total de partidos. Para
+     * {@link EstadoPartido#FINALIZADO} incluye tambien los archivados.
+     */
+    @Override
+    public Collection<Partido> getPartidosEnEstado(EstadoPartido estado) {
+        Iterable<Partido> vivos = () -> new Iterator<>() {
+            private final Iterator<Integer> ids = idsPorEstado.get(estado).iterator();
+            private Partido siguiente;
+
+            @Override
+            public boolean hasNext() {
+                while (siguiente == null && ids.hasNext()) {
+                    int id = ids.next();
+                    Partido p = franja(id).partidos.get(id >>> bitsFranja);
+                    // el indice puede ir un paso por detras del partido: se comprueba su estado real
+                    siguiente = p != null && p.getEstado() == estado ? p : null;
+                }
+                return siguiente != null;
+            }
+
+            @Override
+            public Partido next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Partido p = siguiente;
+                siguiente = null;
+                return p;
+            }
+        };
+        return new VistaPartidos(vivos, estado == EstadoPartido.FINALIZADO);
+    }
+
+    /**
+     * Ejecuta {@code accion} sobre el partido con el cerrojo de su franja tomado: las
+     * modificaciones de un partido y de los mapas de sus jugadores deben pasar por aqui.
+     * La accion recibe lo mismo que {@link #getPartido(int)}, incluido null si no existe, y
+     * cuenta como actividad del partido a efectos de expulsion por inactividad.
+     * Solo bloquea los partidos de la misma franja; es reentrante.
+     */
+    @Override
+    public <T> T conPartido(int id, Function<Partido, T> accion) {
+        ReentrantLock cerrojo = franja(id).cerrojo;
+        cerrojo.lock();
+        try {
+            Partido p = getPartido(id);
+            if (p != null) {
+                p.registrarActividad(ahora());
+            }
+            return accion.apply(p);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Partido vivo con ese id o, si ya se archivo, una copia reconstruida desde el archivo
+     * compacto (los cambios sobre esa copia no se guardan).
+     */
+    @Override
+    public Partido getPartido(int id) {
+        Partido vivo = id > 0 ? franja(id).partidos.get(id >>> bitsFranja) : null;
+        return vivo != null ? vivo : archivo.get(id);
+    }
+
+    /**
+     * Pasa un partido {@link EstadoPartido#FINALIZADO} al archivo compacto. Se archiva antes de
+     * quitarlo de los vivos para que las busquedas concurrentes siempre lo encuentren.
+     */
+    @Override
+    public boolean archivarPartido(int id) {
+        Franja f = franja(id);
+        f.cerrojo.lock();
+        try {
+            Partido p = f.partidos.get(id >>> bitsFranja);
+            if (p == null) {
+                return false;
+            }
+            if (p.getEstado() != EstadoPartido.FINALIZADO) {
+                throw new IllegalStateException("Solo se archivan partidos finalizados: " + id);
+            }
+            archivo.archivar(p, ahora());
+            quitarPartidoVivo(f, id);
+            liberarTablerosDe(p);
+            return true;
+        } finally {
+            f.cerrojo.unlock();
+        }
+    }
+
+    boolean esPartidoVivo(int id) {
+        return id > 0 && franja(id).partidos.get(id >>> bitsFranja) != null;
+    }
+
+    @Override
+    public int getPartidosArchivados() {
+        return archivo.size();
+    }
+
+    @Override
+    public int leerFinalizacionesArchivadas(int desde, long[] destino) {
+        return archivo.leerFinalizaciones(desde, destino);
+    }
+
+    @Override
+    public RepoSnapshot capturarSnapshot(Supplier<PuntoJournal> puntoDeControl) {
+        return RepoSnapshot.capturar(this, puntoDeControl);
+    }
+
+    @Override
+    public void restaurarSnapshot(RepoSnapshot snapshot) {
+        snapshot.restaurar(this);
+    }
+
+    AlmacenArchivados getArchivo() {
+        return archivo;
+    }
+
+    /* siguientes ids de partido, jugador y mapa */
+    int[] getGeneradores() {
+        return new int[]{partidoGen.getSiguiente(), jugadorGen.getSiguiente(), mapaGen.getSiguiente()};
+    }
+
+    /* los generadores nunca retroceden: un id ya entregado no se repite tras restaurar */
+    void restaurarGeneradores(int[] siguientes) {
+        partidoGen.asegurarMinimo(siguientes[0]);
+        jugadorGen.asegurarMinimo(siguientes[1]);
+        mapaGen.asegurarMinimo(siguientes[2]);
+    }
+
+    /**
+     * Ejecuta {@code accion} con los cerrojos de todas las franjas tomados, en orden: ningun
+     * partido cambia mientras tanto. Los hilos que solo toman una franja no pueden provocar un
+     * interbloqueo con este orden.
+     */
+    <T> T conTodasLasFranjas(Supplier<T> accion) {
+        int tomados = 0;
+        try {
+            for (Franja f : franjas) {
+                f.cerrojo.lock();
+                tomados++;
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados - 1; i >= 0; i--) {
+                franjas[i].cerrojo.unlock();
+            }
+        }
+    }
+
+    /**
+     * Expulsa un partido vivo en {@code estado} sin actividad desde antes de {@code limiteMillis}.
+     * Con {@code archivar} se da por finalizado (sin ganador) y pasa al archivo; si no, se
+     * descarta. En ambos casos los mapas actuales de sus jugadores, si no siguen en otra partida
+     * viva, vuelven al pool como en {@link #eliminarPartido}. Devuelve true si se expulso.
+     */
+    @Override
+    public boolean expulsarPartidoInactivo(int id, EstadoPartido estado, long limiteMillis, boolean archivar) {
+        Franja f = franja(id);
+        Partido p;
+        f.cerrojo.lock();
+        try {
+            p = f.partidos.get(id >>> bitsFranja);
+            if (p == null || p.getEstado() != estado || p.getUltimaActividad() >= limiteMillis) {
+                return false;
+            }
+            if (archivar) {
+                p.setEstado(EstadoPartido.FINALIZADO);
+                archivo.archivar(p, ahora());
+            }
+            quitarPartidoVivo(f, id);
+        } finally {
+            f.cerrojo.unlock();
+        }
+        // un tablero a medio jugar no debe quedar como mapa actual para la siguiente partida
+        liberarMapaDe(p.getJugador1IdAsInt());
+        liberarMapaDe(p.getJugador2IdAsInt());
+        liberarTablerosDe(p);
+        return true;
+    }
+
+    /**
+     * Elimina el partido del repositorio, vivo o archivado. Si estaba {@link EstadoPartido#FINALIZADO},
+     * los mapas de sus jugadores se retiran y vuelven al pool para reutilizarse en partidas nuevas.
+     */
+    @Override
+    public Partido eliminarPartido(int id) {
+        Franja f = franja(id);
+        Partido p;
+        f.cerrojo.lock();
+        try {
+            p = id > 0 ? quitarPartidoVivo(f, id) : null;
+            if (p == null) {
+                p = archivo.eliminar(id);
+            }
+        } finally {
+            f.cerrojo.unlock();
+        }
+        if (p != null && p.getEstado() == EstadoPartido.FINALIZADO) {
+            liberarMapaDe(p.getJugador1IdAsInt());
+            liberarMapaDe(p.getJugador2IdAsInt());
+        }
+        if (p != null) {
+            liberarTablerosDe(p);
+        }
+        return p;
+    }
+
+    /* bajo el cerrojo de la franja; se quita de todos los indices por si el estado cambio sin cambiarEstado */
+    private Partido quitarPartidoVivo(Franja f, int id) {
+        Partido p = f.partidos.remove(id >>> bitsFranja);
+        if (p != null) {
+            for (ConcurrentSkipListSet<Integer> ids : idsPorEstado.values()) {
+                ids.remove(id);
+            }
+            for (int jugadorId : new int[]{p.getJugador1IdAsInt(), p.getJugador2IdAsInt()}) {
+                Jugador j = jugadores.get(jugadorId);
+                if (j != null) {
+                    j.quitarPartidoActivo(id);
+                }
+            }
+        }
         return p;
     }
-    public Partido getPartido(int id) { return partidos.get(id); }
 
-    public Collection<Partido> getTodosPartidos() { return partidos.values(); }
+    private void liberarMapaDe(int jugadorId) {
+        Jugador j = jugadorId != Partido.SIN_JUGADOR ? jugadores.get(jugadorId) : null;
+        if (j == null || !j.tieneMapa() || participaEnAlgunPartido(jugadorId)) {
+            return;
+        }
+        int mapaId = j.getMapaIdAsInt();
+        j.setMapaId(Jugador.SIN_MAPA);
+        reciclarMapa(mapaId);
+    }
+
+    /* el mapa actual pertenece al jugador: no se recicla si sigue en otra partida */
+    private boolean participaEnAlgunPartido(int jugadorId) {
+        Jugador j = jugadores.get(jugadorId);
+        return j != null && j.tienePartidosActivos();
+    }
+
+    /* tableros del partido que ya no son el mapa actual de su jugador: nadie mas los alcanza */
+    private void liberarTablerosDe(Partido p) {
+        for (int jugadorId : new int[]{p.getJugador1IdAsInt(), p.getJugador2IdAsInt()}) {
+            int mapaId = p.getMapaDe(jugadorId);
+            Jugador j = jugadores.get(jugadorId);
+            if (mapaId != Jugador.SIN_MAPA && (j == null || j.getMapaIdAsInt() != mapaId)) {
+                reciclarMapa(mapaId);
+            }
+        }
+    }
+
+    /* partidos vivos de todas las franjas, recorridos sin cerrojos */
+    Iterable<Partido> getPartidosVivos() {
+        return () -> new Iterator<>() {
+            private int franja;
+            private Iterator<Partido> actual = franjas[0].partidos.values().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!actual.hasNext() && franja + 1 < franjas.length) {
+                    actual = franjas[++franja].partidos.values().iterator();
+                }
+                return actual.hasNext();
+            }
+
+            @Override
+            public Partido next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return actual.next();
+            }
+        };
+    }
+
+    /* vista de los partidos vivos seguida de los archivados, estos reconstruidos al recorrerlos */
+    @Override
+    public Collection<Partido> getTodosPartidos() { return todosPartidos; }
+
+    private final Collection<Partido> todosPartidos = new VistaPartidos(getPartidosVivos(), true) {
+        @Override
+        public int size() {
+            int vivos = 0;
+            for (Franja f : franjas) {
+                vivos += f.partidos.size();
+            }
+            return vivos + archivo.size();
+        }
+    };
+
+    /* partidos vivos de un recorrido, seguidos opcionalmente de los archivados reconstruidos */
+    private class VistaPartidos extends AbstractCollection<Partido> {
+        private final Iterable<Partido> vivos;
+        private final boolean conArchivados;
+
+        VistaPartidos(Iterable<Partido> vivos, boolean conArchivados) {
+            this.vivos = vivos;
+            this.conArchivados = conArchivados;
+        }
+
+        @Override
+        public Iterator<Partido> iterator() {
+            Iterator<Partido> vivosIt = vivos.iterator();
+            return new Iterator<>() {
+                private int registro;
+                private Partido siguienteArchivado;
+
+                @Override
+                public boolean hasNext() {
+                    if (vivosIt.hasNext() || siguienteArchivado != null) {
+                        return true;
+                    }
+                    siguienteArchivado = conArchivados ? archivo.enPosicion(registro++) : null;
+                    return siguienteArchivado != null;
+                }
+
+                @Override
+                public Partido next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    if (siguienteArchivado == null) {
+                        return vivosIt.next();
+                    }
+                    Partido p = siguienteArchivado;
+                    siguienteArchivado = null;
+                    return p;
+                }
+            };
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        /* recorre la vista: cuesta lo que el resultado */
+        @Override
+        public int size() {
+            int total = 0;
+            for (Iterator<Partido> it = iterator(); it.hasNext(); it.next()) {
+                total++;
+            }
+            return total;
+        }
+    }
+
+    /* particion de los partidos vivos; las lecturas no toman el cerrojo */
+    private static final class Franja {
+        final ReentrantLock cerrojo = new ReentrantLock();
+        final TablaPorId<Partido> partidos = new TablaPorId<>();
+    }
+
+    private record ClaveMapa(int filas, int columnas, ModoCeldas modo) {
+    }
 }
 
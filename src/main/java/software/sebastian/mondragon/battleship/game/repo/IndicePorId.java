@@ -0,0 +1,151 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.util.Arrays;
+
+/**
+ * Indice id -> posicion de registro de los archivos de partidos. Con {@link FuenteBloquesIds}
+ * los ids de un nodo llegan en bloques repartidos por todo el rango global, asi que un indice
+ * denso creceria hasta el mayor id de cualquier nodo. Este guarda paginas de
+ * {@value #TAMANO_PAGINA} posiciones, del tamaño de un bloque de ids, solo para los rangos con
+ * algun partido, localizadas por numero de pagina en una tabla de direccionamiento abierto.
+ * Cuesta unos 4 bytes por id de las paginas en uso, sin importar lo alto que llegue el id; una
+ * pagina se suelta al quedar vacia.
+ * <p>
+ * No es seguro entre hilos: lo protege el monitor del archivo que lo usa.
+ */
+final class IndicePorId {
+    private static final int BITS_PAGINA = 10;
+    static final int TAMANO_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA_PAGINA = TAMANO_PAGINA - 1;
+    private static final int VACIO = -1;
+
+    private int[] numeros = vacios(8);       // numero de pagina de cada ranura, VACIO si esta libre
+    private int[][] paginas = new int[8][];  // posicion + 1, 0 si el id no esta
+    private int[] ocupados = new int[8];     // ids presentes en cada pagina
+    private int enUso;
+
+    /* posicion del id, o -1 si no esta */
+    int get(int id) {
+        if (id < 0) {
+            return -1;
+        }
+        int r = ranura(id >>> BITS_PAGINA);
+        return r < 0 ? -1 : paginas[r][id & MASCARA_PAGINA] - 1;
+    }
+
+    void put(int id, int posicion) {
+        if (id < 0 || posicion < 0) {
+            throw new IllegalArgumentException("Id o posicion negativos: " + id + " -> " + posicion);
+        }
+        int numero = id >>> BITS_PAGINA;
+        int r = ranura(numero);
+        if (r < 0) {
+            r = anadirPagina(numero);
+        }
+        int[] pagina = paginas[r];
+        if (pagina[id & MASCARA_PAGINA] == 0) {
+            ocupados[r]++;
+        }
+        pagina[id & MASCARA_PAGINA] = posicion + 1;
+    }
+
+    void quitar(int id) {
+        if (id < 0) {
+            return;
+        }
+        int r = ranura(id >>> BITS_PAGINA);
+        if (r < 0 || paginas[r][id & MASCARA_PAGINA] == 0) {
+            return;
+        }
+        paginas[r][id & MASCARA_PAGINA] = 0;
+        if (--ocupados[r] == 0) {
+            borrar(r);
+        }
+    }
+
+    /* paginas reservadas ahora mismo */
+    int getPaginas() {
+        return enUso;
+    }
+
+    private int ranura(int numero) {
+        int mascara = numeros.length - 1;
+        for (int i = mezclar(numero) & mascara; ; i = (i + 1) & mascara) {
+            int actual = numeros[i];
+            if (actual == numero) {
+                return i;
+            }
+            if (actual == VACIO) {
+                return -1;
+            }
+        }
+    }
+
+    private int anadirPagina(int numero) {
+        if ((enUso + 1) * 2 > numeros.length) {
+            crecer();
+        }
+        int i = libre(numero);
+        numeros[i] = numero;
+        paginas[i] = new int[TAMANO_PAGINA];
+        ocupados[i] = 0;
+        enUso++;
+        return i;
+    }
+
+    private int libre(int numero) {
+        int mascara = numeros.length - 1;
+        int i = mezclar(numero) & mascara;
+        while (numeros[i] != VACIO) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    /* borrado con desplazamiento hacia atras: ninguna sonda lineal queda cortada por el hueco */
+    private void borrar(int r) {
+        int mascara = numeros.length - 1;
+        int hueco = r;
+        for (int i = (r + 1) & mascara; numeros[i] != VACIO; i = (i + 1) & mascara) {
+            int ideal = mezclar(numeros[i]) & mascara;
+            if (((i - ideal) & mascara) >= ((i - hueco) & mascara)) {
+                numeros[hueco] = numeros[i];
+                paginas[hueco] = paginas[i];
+                ocupados[hueco] = ocupados[i];
+                hueco = i;
+            }
+        }
+        numeros[hueco] = VACIO;
+        paginas[hueco] = null;
+        ocupados[hueco] = 0;
+        enUso--;
+    }
+
+    private void crecer() {
+        int[] numerosViejos = numeros;
+        int[][] paginasViejas = paginas;
+        int[] ocupadosViejos = ocupados;
+        numeros = vacios(numerosViejos.length << 1);
+        paginas = new int[numerosViejos.length << 1][];
+        ocupados = new int[numerosViejos.length << 1];
+        for (int i = 0; i < numerosViejos.length; i++) {
+            if (numerosViejos[i] != VACIO) {
+                int j = libre(numerosViejos[i]);
+                numeros[j] = numerosViejos[i];
+                paginas[j] = paginasViejas[i];
+                ocupados[j] = ocupadosViejos[i];
+            }
+        }
+    }
+
+    private static int[] vacios(int capacidad) {
+        int[] numeros = new int[capacidad];
+        Arrays.fill(numeros, VACIO);
+        return numeros;
+    }
+
+    private static int mezclar(int clave) {
+        int h = clave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
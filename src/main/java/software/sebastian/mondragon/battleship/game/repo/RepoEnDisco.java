@@ -0,0 +1,50 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import software.sebastian.mondragon.battleship.game.model.ArenaTableros;
+
+/**
+ * Repositorio que guarda el historico de partidos terminados en un archivo dentro de un
+ * directorio, con escrituras por lotes y una cache de lectura delante. Lo vivo (jugadores,
+ * mapas y partidos en juego) sigue en memoria como en {@link InMemoryRepo}: se modifica en su
+ * sitio bajo los cerrojos de franja y su tamano lo marca la concurrencia, no el historico.
+ * <p>
+ * El archivo solo descarga el heap: se vacia al abrir el repositorio y el journal y los
+ * snapshots lo vuelven a llenar en el arranque.
+ */
+public class RepoEnDisco extends InMemoryRepo implements Closeable {
+    public static final String ARCHIVO = "partidos.dat";
+    public static final int PARTIDOS_EN_CACHE_POR_DEFECTO = ArchivoPartidosEnDisco.PARTIDOS_EN_CACHE_POR_DEFECTO;
+
+    private final ArchivoPartidosEnDisco historico;
+
+    private RepoEnDisco(ArchivoPartidosEnDisco historico, ArenaTableros arena, FuenteBloquesIds ids) {
+        super(MAX_MAPAS_LIBRES_POR_TAMANO, FRANJAS_POR_DEFECTO, System::currentTimeMillis, arena, ids, historico);
+        this.historico = historico;
+    }
+
+    public static RepoEnDisco abrir(Path directorio) throws IOException {
+        return abrir(directorio, PARTIDOS_EN_CACHE_POR_DEFECTO, null, null);
+    }
+
+    /* partidosEnCache = 0 desactiva la cache; arena e ids, opcionales, como en InMemoryRepo */
+    public static RepoEnDisco abrir(Path directorio, int partidosEnCache, ArenaTableros arena,
+                                    FuenteBloquesIds ids) throws IOException {
+        Files.createDirectories(directorio);
+        return new RepoEnDisco(new ArchivoPartidosEnDisco(directorio.resolve(ARCHIVO), partidosEnCache), arena, ids);
+    }
+
+    /* lecturas del archivo que no pudo servir la cache */
+    public long getLecturasDeDisco() {
+        return historico.getLecturas();
+    }
+
+    @Override
+    public void close() throws IOException {
+        historico.close();
+    }
+}
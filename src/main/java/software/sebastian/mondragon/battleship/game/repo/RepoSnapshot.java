@@ -0,0 +1,321 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Jugador;
+import software.sebastian.mondragon.battleship.game.model.Mapa;
+import software.sebastian.mondragon.battleship.game.model.ModoCeldas;
+import software.sebastian.mondragon.battleship.game.model.ModoJuego;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+/**
+ * Copia binaria del estado de {@link InMemoryRepo}: siguientes ids de los generadores,
+ * jugadores, mapas con sus barcos y disparos, partidos vivos y archivo compacto, junto con el
+ * punto del journal hasta el que llega. Al arrancar se carga el ultimo snapshot y solo se
+ * reproduce el journal desde ese punto.
+ * <p>
+ * {@link #capturar} retiene los cerrojos de todas las franjas solo mientras copia el estado
+ * vivo a arrays de enteros; el archivo se copia despues bajo su propio monitor, y codificar y
+ * escribir a disco no bloquea a nadie. Los eventos registrados tras el punto pueden estar ya
+ * en el snapshot, asi que reproducirlos encima debe ser idempotente.
+ * <p>
+ * Formato: {@code magia, version, punto, generadores, jugadores, mapas, partidos, archivados}
+ * como enteros big-endian y un crc32c final de todo lo anterior.
+ */
+public final class RepoSnapshot {
+    static final int MAGIA = 0x42534E50;   // "BSNP"
+    static final int VERSION = 3;
+    private static final int CAMPOS_JUGADOR = 2;    // id, mapa
+    private static final int CABECERA_MAPA = 4;     // id, filas, columnas, modo; luego Mapa.exportarEstado
+    private static final int CAMPOS_PARTIDO = 11;   // id, jugador1, jugador2, turno, ganador, estado, filas, columnas, mapa1, mapa2, modo
+    private static final int CAMPOS_PARTIDO_V1 = 8;
+    private static final int CAMPOS_PARTIDO_V2 = 10;
+    private static final ModoCeldas[] MODOS = ModoCeldas.values();
+    private static final EstadoPartido[] ESTADOS = EstadoPartido.values();
+    private static final ModoJuego[] MODOS_JUEGO = ModoJuego.values();
+
+    private final PuntoJournal punto;
+    private final int[] generadores;
+    private final int[] jugadores;
+    private final List<int[]> mapas;
+    private final int[] partidos;
+    private final int[] archivados;
+
+    private RepoSnapshot(PuntoJournal punto, int[] generadores, int[] jugadores, List<int[]> mapas,
+                         int[] partidos, int[] archivados) {
+        this.punto = punto;
+        this.generadores = generadores;
+        this.jugadores = jugadores;
+        this.mapas = mapas;
+        this.partidos = partidos;
+        this.archivados = archivados;
+    }
+
+    /**
+     * Copia el estado del repositorio. {@code puntoDeControl} se llama ya con todas las franjas
+     * tomadas: todo evento anterior al punto que devuelva esta aplicado en lo que se copia.
+     */
+    public static RepoSnapshot capturar(InMemoryRepo repo, Supplier<PuntoJournal> puntoDeControl) {
+        RepoSnapshot vivo = repo.conTodasLasFranjas(() -> {
+            PuntoJournal punto = puntoDeControl.get();
+            int[] generadores = repo.getGeneradores();
+            IntStream.Builder jugadores = IntStream.builder();
+            for (Jugador j : repo.getJugadores()) {
+                jugadores.add(j.getId()).add(j.getMapaIdAsInt());
+            }
+            List<int[]> mapas = new ArrayList<>();
+            for (Mapa m : repo.getMapas()) {
+                int[] estado = m.exportarEstado();
+                int[] registro = new int[CABECERA_MAPA + estado.length];
+                registro[0] = m.getId();
+                registro[1] = m.getRows();
+                registro[2] = m.getCols();
+                registro[3] = m.getModo().ordinal();
+                System.arraycopy(estado, 0, registro, CABECERA_MAPA, estado.length);
+                mapas.add(registro);
+            }
+            IntStream.Builder partidos = IntStream.builder();
+            for (Partido p : repo.getPartidosVivos()) {
+                partidos.add(p.getId()).add(p.getJugador1IdAsInt()).add(p.getJugador2IdAsInt())
+                        .add(p.getTurnoJugadorIdAsInt()).add(p.getGanadorIdAsInt())
+                        .add(p.getEstado().ordinal()).add(p.getFilas()).add(p.getColumnas())
+                        .add(p.getMapa1IdAsInt()).add(p.getMapa2IdAsInt()).add(p.getModo().ordinal());
+            }
+            return new RepoSnapshot(punto, generadores, jugadores.build().toArray(), mapas,
+                    partidos.build().toArray(), null);
+        });
+        // un partido archivado entre medias puede salir en ambos: al restaurar gana el vivo
+        return new RepoSnapshot(vivo.punto, vivo.generadores, vivo.jugadores, vivo.mapas, vivo.partidos,
+                repo.getArchivo().copiarRegistros());
+    }
+
+    public PuntoJournal getPunto() {
+        return punto;
+    }
+
+    public int getPartidos() {
+        return partidos.length / CAMPOS_PARTIDO + archivados.length / ArchivoPartidos.CAMPOS;
+    }
+
+    /**
+     * Carga el snapshot en {@code repo}, que debe estar vacio. Tras esto hay que reproducir el
+     * journal desde {@link #getPunto()}.
+     */
+    public void restaurar(InMemoryRepo repo) {
+        if (!repo.getJugadores().isEmpty() || !repo.getTodosPartidos().isEmpty()) {
+            throw new IllegalStateException("Solo se restaura sobre un repositorio vacio");
+        }
+        for (int[] m : mapas) {
+            Mapa mapa = repo.restaurarMapa(m[0], m[1], m[2], MODOS[m[3]]);
+            mapa.importarEstado(Arrays.copyOfRange(m, CABECERA_MAPA, m.length));
+        }
+        for (int i = 0; i < jugadores.length; i += CAMPOS_JUGADOR) {
+            repo.restaurarJugador(jugadores[i]).setMapaId(jugadores[i + 1]);
+        }
+        for (int i = 0; i < partidos.length; i += CAMPOS_PARTIDO) {
+            Partido p = repo.restaurarPartido(partidos[i]);
+            for (int jugador : new int[]{partidos[i + 1], partidos[i + 2]}) {
+                if (jugador != Partido.SIN_JUGADOR) {
+                    repo.anadirJugador(p, jugador);
+                }
+            }
+            p.setMapas(partidos[i + 8], partidos[i + 9]);
+            p.setTurnoJugadorId(partidos[i + 3]);
+            p.setGanadorId(partidos[i + 4]);
+            p.setDimensiones(partidos[i + 6], partidos[i + 7]);
+            p.setModo(MODOS_JUEGO[partidos[i + 10]]);
+            repo.cambiarEstado(p, ESTADOS[partidos[i + 5]]);
+        }
+        repo.getArchivo().restaurar(archivados, repo::esPartidoVivo);
+        repo.restaurarGeneradores(generadores);
+    }
+
+    /* escribe en un temporal con fsync y lo renombra de forma atomica sobre {@code archivo} */
+    public void escribir(Path archivo) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Escritor salida = new Escritor(canal);
+            salida.entero(MAGIA);
+            salida.entero(VERSION);
+            salida.entero(punto.segmento());
+            salida.entero((int) (punto.posicion() >>> 32));
+            salida.entero((int) punto.posicion());
+            salida.enteros(generadores);
+            salida.entero(jugadores.length / CAMPOS_JUGADOR);
+            salida.enteros(jugadores);
+            salida.entero(mapas.size());
+            for (int[] m : mapas) {
+                salida.entero(m.length);
+                salida.enteros(m);
+            }
+            salida.entero(partidos.length / CAMPOS_PARTIDO);
+            salida.enteros(partidos);
+            salida.entero(archivados.length / ArchivoPartidos.CAMPOS);
+            salida.enteros(archivados);
+            salida.terminar();
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forzarDirectorio(archivo.toAbsolutePath().getParent());
+    }
+
+    public static RepoSnapshot leer(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() < 4 || canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot corrupto: " + archivo);
+            }
+            ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            int fin = datos.limit() - 4;
+            CRC32C crc = new CRC32C();
+            crc.update(datos.duplicate().limit(fin));
+            if ((int) crc.getValue() != datos.getInt(fin)) {
+                throw new IOException("Snapshot corrupto: " + archivo);
+            }
+            datos.limit(fin);
+            try {
+                return decodificar(datos);
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IOException("Snapshot corrupto: " + archivo, e);
+            }
+        }
+    }
+
+    private static RepoSnapshot decodificar(ByteBuffer datos) throws IOException {
+        int version = datos.getInt() == MAGIA ? datos.getInt() : -1;
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Formato de snapshot no soportado");
+        }
+        int segmento = datos.getInt();
+        PuntoJournal punto = new PuntoJournal(segmento, datos.getLong());
+        int[] generadores = enteros(datos, 3);
+        int[] jugadores = enteros(datos, Math.multiplyExact(datos.getInt(), CAMPOS_JUGADOR));
+        int numeroMapas = datos.getInt();
+        if (numeroMapas < 0 || numeroMapas > datos.remaining() / 4) {
+            throw new IOException("Numero de mapas invalido: " + numeroMapas);
+        }
+        List<int[]> mapas = new ArrayList<>(numeroMapas);
+        for (int i = 0; i < numeroMapas; i++) {
+            int[] m = enteros(datos, datos.getInt());
+            if (m.length < CABECERA_MAPA || m[3] < 0 || m[3] >= MODOS.length) {
+                throw new IOException("Mapa invalido en el snapshot");
+            }
+            mapas.add(m);
+        }
+        int camposPartido = version == 1 ? CAMPOS_PARTIDO_V1 : version == 2 ? CAMPOS_PARTIDO_V2 : CAMPOS_PARTIDO;
+        int[] partidos = enteros(datos, Math.multiplyExact(datos.getInt(), camposPartido));
+        if (camposPartido != CAMPOS_PARTIDO) {
+            partidos = completarCampos(partidos, camposPartido);
+        }
+        for (int i = 0; i < partidos.length; i += CAMPOS_PARTIDO) {
+            if (partidos[i + 5] < 0 || partidos[i + 5] >= ESTADOS.length) {
+                throw new IOException("Estado de partido invalido en el snapshot");
+            }
+            if (partidos[i + 10] < 0 || partidos[i + 10] >= MODOS_JUEGO.length) {
+                throw new IOException("Modo de partido invalido en el snapshot");
+            }
+        }
+        int[] archivados = enteros(datos, Math.multiplyExact(datos.getInt(), ArchivoPartidos.CAMPOS));
+        if (datos.hasRemaining()) {
+            throw new IOException("Datos sobrantes al final del snapshot");
+        }
+        return new RepoSnapshot(punto, generadores, jugadores, mapas, partidos, archivados);
+    }
+
+    /*
+     * versiones anteriores: la 1 no guardaba los tableros de cada partido, que quedan sin asignar
+     * y se usa el mapa actual de cada jugador; ni la 1 ni la 2 guardaban el modo, que es CLASICO
+     */
+    private static int[] completarCampos(int[] antiguos, int campos) {
+        int n = antiguos.length / campos;
+        int[] partidos = new int[n * CAMPOS_PARTIDO];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(antiguos, i * campos, partidos, i * CAMPOS_PARTIDO, campos);
+        }
+        return partidos;
+    }
+
+    /* lectura en bloque: vista de enteros sobre el buffer y avance de su posicion */
+    private static int[] enteros(ByteBuffer datos, int n) {
+        if (n < 0 || n > datos.remaining() / 4) {
+            throw new BufferUnderflowException();
+        }
+        int[] valores = new int[n];
+        datos.asIntBuffer().get(valores);
+        datos.position(datos.position() + n * 4);
+        return valores;
+    }
+
+    private static void forzarDirectorio(Path directorio) {
+        try (FileChannel dir = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ignored) {
+            // Intentionally ignored: directory fsync is not supported on every platform
+        }
+    }
+
+    /* escritura por bloques de 64 KiB con el crc acumulado de todo lo escrito */
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private final CRC32C crc = new CRC32C();
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void entero(int valor) throws IOException {
+            if (buffer.remaining() < 4) {
+                vaciar();
+            }
+            buffer.putInt(valor);
+        }
+
+        void enteros(int[] valores) throws IOException {
+            int desde = 0;
+            while (desde < valores.length) {
+                if (buffer.remaining() < 4) {
+                    vaciar();
+                }
+                IntBuffer vista = buffer.asIntBuffer();
+                int n = Math.min(vista.remaining(), valores.length - desde);
+                vista.put(valores, desde, n);
+                buffer.position(buffer.position() + n * 4);
+                desde += n;
+            }
+        }
+
+        void terminar() throws IOException {
+            vaciar();
+            buffer.putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+
+        private void vaciar() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import software.sebastian.mondragon.battleship.game.journal.FileEventJournal;
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
+
+/**
+ * Toma en un hilo propio un {@link RepoSnapshot} periodico junto al journal y, tras escribirlo,
+ * borra los segmentos del journal que ya cubre. Solo se conserva el ultimo snapshot, en
+ * {@value #ARCHIVO} dentro del directorio del journal.
+ */
+public class Snapshotter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(Snapshotter.class.getName());
+    public static final String ARCHIVO = "repo.snapshot";
+    public static final Duration INTERVALO_POR_DEFECTO = Duration.ofMinutes(5);
+
+    private final GameRepository repo;
+    private final FileEventJournal journal;
+    private final Path directorio;
+    private final Duration intervalo;
+    private ScheduledExecutorService planificador;
+    private long tomados;
+
+    public Snapshotter(GameRepository repo, FileEventJournal journal, Path directorio, Duration intervalo) {
+        if (intervalo.isNegative() || intervalo.isZero()) {
+            throw new IllegalArgumentException("El intervalo de snapshot debe ser positivo");
+        }
+        this.repo = repo;
+        this.journal = journal;
+        this.directorio = directorio;
+        this.intervalo = intervalo;
+    }
+
+    /**
+     * Restaura en {@code repo} el ultimo snapshot de {@code directorio}, si lo hay, y devuelve
+     * el punto del journal desde el que hay que reproducir.
+     */
+    public static PuntoJournal cargar(Path directorio, GameRepository repo) throws IOException {
+        Path archivo = directorio.resolve(ARCHIVO);
+        if (!Files.exists(archivo)) {
+            return PuntoJournal.INICIO;
+        }
+        RepoSnapshot snapshot = RepoSnapshot.leer(archivo);
+        repo.restaurarSnapshot(snapshot);
+        LOGGER.log(Level.INFO, "Snapshot {0} cargado: {1} partidas hasta {2}",
+                new Object[]{archivo, snapshot.getPartidos(), snapshot.getPunto()});
+        return snapshot.getPunto();
+    }
+
+    public synchronized void iniciar() {
+        if (planificador != null) {
+            return;
+        }
+        planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "battleship-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodo = intervalo.toMillis();
+        planificador.scheduleWithFixedDelay(this::tomarSinFallar, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void detener() {
+        if (planificador != null) {
+            planificador.shutdownNow();
+            planificador = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        detener();
+    }
+
+    /**
+     * Captura, escribe y compacta el journal. Los comandos solo esperan durante la captura del
+     * estado vivo; el resto corre sin cerrojos del repositorio.
+     */
+    public RepoSnapshot tomar() throws IOException {
+        long inicio = System.nanoTime();
+        RepoSnapshot snapshot = repo.capturarSnapshot(journal::puntoDeControl);
+        long capturado = System.nanoTime();
+        snapshot.escribir(directorio.resolve(ARCHIVO));
+        int borrados = journal.eliminarSegmentosAnteriores(snapshot.getPunto().segmento());
+        synchronized (this) {
+            tomados++;
+        }
+        LOGGER.log(Level.FINE, "Snapshot en {0}: captura {1} ms, total {2} ms, {3} segmentos borrados",
+                new Object[]{snapshot.getPunto(), (capturado - inicio) / 1_000_000,
+                        (System.nanoTime() - inicio) / 1_000_000, borrados});
+        return snapshot;
+    }
+
+    public synchronized long getSnapshotsTomados() {
+        return tomados;
+    }
+
+    private void tomarSinFallar() {
+        try {
+            tomar();
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Error tomando snapshot: {0}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tabla concurrente clave int -> objeto para ids secuenciales, sin boxing de claves. Las
+ * entradas se guardan en trozos de {@value #TAMANO_TROZO} posiciones indexados por clave:
+ * cada entrada cuesta una referencia en lugar de un nodo de {@code ConcurrentHashMap} mas un
+ * {@code Integer}.
+ * <p>
+ * Las lecturas no toman cerrojos; las escrituras se serializan con el monitor de la tabla.
+ * Los trozos se reservan al escribir la primera clave y se sueltan al quedar vacios, asi que
+ * los rangos de ids ya eliminados no ocupan memoria.
+ */
+final class TablaPorId<T> {
+    private static final int BITS_TROZO = 10;
+    static final int TAMANO_TROZO = 1 << BITS_TROZO;
+    private static final int MASCARA_TROZO = TAMANO_TROZO - 1;
+
+    private volatile AtomicReferenceArray<T>[] trozos;
+    private int[] ocupadosPorTrozo;   // solo bajo el monitor
+    private volatile int tamano;
+
+    @SuppressWarnings("unchecked")
+    TablaPorId() {
+        this.trozos = (AtomicReferenceArray<T>[]) new AtomicReferenceArray[4];
+        this.ocupadosPorTrozo = new int[4];
+    }
+
+    T get(int clave) {
+        if (clave < 0) {
+            return null;
+        }
+        AtomicReferenceArray<T>[] actuales = trozos;
+        int t = clave >>> BITS_TROZO;
+        if (t >= actuales.length) {
+            return null;
+        }
+        AtomicReferenceArray<T> trozo = actuales[t];
+        return trozo != null ? trozo.get(clave & MASCARA_TROZO) : null;
+    }
+
+    synchronized T put(int clave, T valor) {
+        if (clave < 0) {
+            throw new IllegalArgumentException("Clave negativa: " + clave);
+        }
+        if (valor == null) {
+            throw new NullPointerException("valor");
+        }
+        int t = clave >>> BITS_TROZO;
+        AtomicReferenceArray<T> trozo = trozoEscribible(t);
+        T anterior = trozo.getAndSet(clave & MASCARA_TROZO, valor);
+        if (anterior == null) {
+            ocupadosPorTrozo[t]++;
+            tamano++;
+        }
+        return anterior;
+    }
+
+    synchronized T remove(int clave) {
+        if (clave < 0) {
+            return null;
+        }
+        AtomicReferenceArray<T>[] actuales = trozos;
+        int t = clave >>> BITS_TROZO;
+        if (t >= actuales.length || actuales[t] == null) {
+            return null;
+        }
+        T anterior = actuales[t].getAndSet(clave & MASCARA_TROZO, null);
+        if (anterior != null) {
+            tamano--;
+            if (--ocupadosPorTrozo[t] == 0) {
+                actuales[t] = null;
+            }
+        }
+        return anterior;
+    }
+
+    int size() {
+        return tamano;
+    }
+
+    int trozosReservados() {
+        int total = 0;
+        for (AtomicReferenceArray<T> trozo : trozos) {
+            if (trozo != null) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /* vista debilmente consistente de los valores, en orden de clave */
+    AbstractCollection<T> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new Iterador();
+            }
+
+            @Override
+            public int size() {
+                return tamano;
+            }
+        };
+    }
+
+    private AtomicReferenceArray<T> trozoEscribible(int t) {
+        AtomicReferenceArray<T>[] actuales = trozos;
+        if (t >= actuales.length) {
+            int longitud = Math.max(actuales.length * 2, t + 1);
+            actuales = Arrays.copyOf(actuales, longitud);
+            ocupadosPorTrozo = Arrays.copyOf(ocupadosPorTrozo, longitud);
+        }
+        AtomicReferenceArray<T> trozo = actuales[t];
+        if (trozo == null) {
+            trozo = new AtomicReferenceArray<>(TAMANO_TROZO);
+            actuales[t] = trozo;
+        }
+        trozos = actuales;   // publica el directorio, nuevo o no, tras escribir en el
+        return trozo;
+    }
+
+    private final class Iterador implements Iterator<T> {
+        private final AtomicReferenceArray<T>[] directorio = trozos;
+        private int clave = -1;
+        private T siguiente;
+
+        @Override
+        public boolean hasNext() {
+            while (siguiente == null) {
+                clave++;
+                int t = clave >>> BITS_TROZO;
+                if (t >= directorio.length) {
+                    return false;
+                }
+                AtomicReferenceArray<T> trozo = directorio[t];
+                if (trozo == null) {
+                    clave = (t << BITS_TROZO) | MASCARA_TROZO;
+                    continue;
+                }
+                siguiente = trozo.get(clave & MASCARA_TROZO);
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T valor = siguiente;
+            siguiente = null;
+            return valor;
+        }
+    }
+}
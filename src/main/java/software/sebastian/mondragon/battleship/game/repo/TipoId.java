@@ -0,0 +1,8 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+/* secuencias de ids del repositorio; cada una se reparte por separado */
+public enum TipoId {
+    PARTIDO,
+    JUGADOR,
+    MAPA
+}
@@ -0,0 +1,166 @@
+package software.sebastian.mondragon.battleship.game.server;
+
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
+import software.sebastian.mondragon.battleship.game.service.GameService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link GameService.Notifier} que no escribe en el hilo que notifica: deja el mensaje en la
+ * cola de su destinatario y un repartidor la vacia, juntando lo acumulado en una sola escritura.
+ * Asi la latencia de un comando no depende de la red de quien recibe sus notificaciones, y los
+ * mensajes a un mismo jugador llegan en el orden en que se generaron. Cada cola tiene como mucho
+ * un repartidor a la vez.
+ * <p>
+ * Las colas guardan lineas ya codificadas en UTF-8: un {@link EventoPartida} se codifica una
+ * vez y todos sus destinatarios comparten los mismos bytes; los mensajes de texto salen como
+ * {@code NOTIFY <mensaje>}.
+ * <p>
+ * Una cola admite hasta {@value #MAX_PENDIENTES} lineas; las que llegan por encima se
+ * descartan, porque un cliente tan atrasado ya no esta leyendo.
+ * <p>
+ * Solo tienen cola los jugadores con sesion: {@link #registrar} la crea al conectarse y
+ * {@link #olvidar} la quita, con lo que tuviera pendiente, al desconectarse. Las
+ * notificaciones a jugadores sin sesion se ignoran.
+ */
+public final class NotificacionesAsincronas implements GameService.Notifier {
+    private static final Logger LOGGER = Logger.getLogger(NotificacionesAsincronas.class.getName());
+
+    static final int MAX_PENDIENTES = 1024;
+    static final int MAX_POR_ESCRITURA = 64;
+
+    /* escribe de una vez las lineas, con su salto final, al jugador; sin conexion, las descarta */
+    @FunctionalInterface
+    public interface Entrega {
+        void entregar(int jugadorId, List<byte[]> lineas);
+    }
+
+    private final Entrega entrega;
+    private final Executor repartidores;
+    private final ConcurrentHashMap<Integer, Cola> colas = new ConcurrentHashMap<>();
+    private final LongAdder escrituras = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+
+    public NotificacionesAsincronas(Entrega entrega, Executor repartidores) {
+        this.entrega = entrega;
+        this.repartidores = repartidores;
+    }
+
+    @Override
+    public void notifyJugador(int jugadorId, String mensaje) {
+        encolar(jugadorId, ("NOTIFY " + mensaje + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void publicar(EventoPartida evento) {
+        byte[] linea = (evento.linea() + "\n").getBytes(StandardCharsets.UTF_8);
+        for (int jugadorId : evento.destinatarios()) {
+            encolar(jugadorId, linea);
+        }
+    }
+
+    private void encolar(int jugadorId, byte[] linea) {
+        Cola cola = colas.get(jugadorId);
+        if (cola == null) {
+            return;
+        }
+        if (cola.pendientes.incrementAndGet() > MAX_PENDIENTES) {
+            cola.pendientes.decrementAndGet();
+            descartados.increment();
+            return;
+        }
+        cola.lineas.add(linea);
+        if (cola.programada.compareAndSet(false, true)) {
+            repartidores.execute(() -> repartir(jugadorId, cola));
+        }
+    }
+
+    /* lineas aun sin escribir para el jugador */
+    public int getPendientes(int jugadorId) {
+        Cola cola = colas.get(jugadorId);
+        return cola == null ? 0 : cola.pendientes.get();
+    }
+
+    /* jugadores con lineas sin escribir y cuantas tiene cada uno, por id */
+    public Map<Integer, Integer> getPendientesPorJugador() {
+        Map<Integer, Integer> pendientes = new TreeMap<>();
+        colas.forEach((id, cola) -> {
+            int n = cola.pendientes.get();
+            if (n > 0) {
+                pendientes.put(id, n);
+            }
+        });
+        return pendientes;
+    }
+
+    /* escrituras hechas; con lineas acumuladas, menos que lineas */
+    public long getEscrituras() {
+        return escrituras.sum();
+    }
+
+    /* lineas tiradas por llegar con la cola del destinatario llena */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /* el jugador tiene sesion: desde ahora se le encolan notificaciones */
+    void registrar(int jugadorId) {
+        colas.computeIfAbsent(jugadorId, id -> new Cola());
+    }
+
+    /* el jugador se desconecto: se quita su cola y se tiran las lineas que no se llegaron a escribir */
+    void olvidar(int jugadorId) {
+        Cola cola = colas.remove(jugadorId);
+        if (cola == null) {
+            return;
+        }
+        while (cola.lineas.poll() != null) {
+            cola.pendientes.decrementAndGet();
+        }
+    }
+
+    private void repartir(int jugadorId, Cola cola) {
+        List<byte[]> lote = new ArrayList<>();
+        while (true) {
+            for (byte[] linea; lote.size() < MAX_POR_ESCRITURA && (linea = cola.lineas.poll()) != null; ) {
+                lote.add(linea);
+            }
+            if (lote.isEmpty()) {
+                cola.programada.set(false);
+                // lo encolado entre el ultimo poll y soltar la marca no tendria repartidor
+                if (cola.lineas.isEmpty() || !cola.programada.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                entrega.entregar(jugadorId, lote);
+                escrituras.increment();
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "No se pudieron entregar {0} notificaciones al jugador {1}: {2}",
+                        new Object[]{lote.size(), jugadorId, ex.getMessage()});
+            } finally {
+                cola.pendientes.addAndGet(-lote.size());
+                lote.clear();
+            }
+        }
+    }
+
+    private static final class Cola {
+        final ConcurrentLinkedQueue<byte[]> lineas = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pendientes = new AtomicInteger();
+        final AtomicBoolean programada = new AtomicBoolean();
+    }
+}
@@ -1,14 +1,26 @@
 package software.sebastian.mondragon.battleship.game.server;
 
+import software.sebastian.mondragon.battleship.game.journal.EventJournal;
+import software.sebastian.mondragon.battleship.game.journal.FileEventJournal;
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
 import software.sebastian.mondragon.battleship.game.model.Barco;
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
 import software.sebastian.mondragon.battleship.game.model.Jugador;
+import software.sebastian.mondragon.battleship.game.model.ModoJuego;
 import software.sebastian.mondragon.battleship.game.model.Partido;
+import software.sebastian.mondragon.battleship.game.repo.EvictionPolicy;
+import software.sebastian.mondragon.battleship.game.repo.Evictor;
+import software.sebastian.mondragon.battleship.game.repo.GameRepository;
 import software.sebastian.mondragon.battleship.game.repo.InMemoryRepo;
+import software.sebastian.mondragon.battleship.game.repo.Snapshotter;
 import software.sebastian.mondragon.battleship.game.service.GameService;
 import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.*;
 import java.time.format.*;
 import java.util.*;
@@ -23,10 +35,15 @@ public class TcpServer {
     private static final Logger LOGGER = Logger.getLogger(TcpServer.class.getName());
 
     private final int port;
-    private final InMemoryRepo repo;
+    private final GameRepository repo;
     private final Map<Integer, ClientHandler> clientsByPlayer = new ConcurrentHashMap<>();
     private final ExecutorService clientExecutor;
+    private final ExecutorService notifyExecutor;
+    private final NotificacionesAsincronas notificaciones;
     private final GameService gameService;
+    private final EventJournal journal;
+    private final Evictor evictor;
+    private final Snapshotter snapshotter;   // null sin journal en disco
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
 
     private volatile boolean running;
@@ -34,20 +51,53 @@ public class TcpServer {
     private Thread acceptThread;
 
     public TcpServer(int port) {
+        this(port, new InMemoryRepo());
+    }
+
+    public TcpServer(int port, GameRepository repo) {
+        this(port, repo, EventJournal.ninguno(), null);
+    }
+
+    /**
+     * Servidor cuyo estado se guarda en el journal de {@code directorioJournal}; al crearlo se
+     * carga el ultimo snapshot del directorio y se reproducen los eventos guardados despues.
+     * Mientras corre toma snapshots periodicos que permiten descartar el journal antiguo.
+     */
+    public TcpServer(int port, Path directorioJournal) throws IOException {
+        this(port, new InMemoryRepo(), directorioJournal);
+    }
+
+    /* repo debe estar vacio: se llena con el snapshot y el journal del directorio */
+    public TcpServer(int port, GameRepository repo, Path directorioJournal) throws IOException {
+        this(port, repo, reproducirJournal(repo, directorioJournal), directorioJournal);
+    }
+
+    private TcpServer(int port, GameRepository repo, EventJournal journal, Path directorioJournal) {
         this.port = port;
-        this.repo = new InMemoryRepo();
+        this.repo = repo;
+        this.journal = journal;
         this.clientExecutor = Executors.newCachedThreadPool(r -> {
             Thread t = new Thread(r, "battleship-client");
             t.setDaemon(true);
             return t;
         });
-        GameService.Notifier notifier = (jugadorId, mensaje) -> {
+        this.notifyExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "battleship-notify");
+            t.setDaemon(true);
+            return t;
+        });
+        // las notificaciones se escriben fuera del comando que las genera: un cliente lento no frena al resto
+        this.notificaciones = new NotificacionesAsincronas((jugadorId, lineas) -> {
             ClientHandler handler = clientsByPlayer.get(jugadorId);
             if (handler != null) {
-                handler.sendNotification(mensaje);
+                handler.sendEncoded(lineas);
             }
-        };
-        this.gameService = new GameService(repo, notifier);
+        }, notifyExecutor);
+        this.gameService = new GameService(repo, notificaciones, journal);
+        this.evictor = new Evictor(repo, EvictionPolicy.porDefecto());
+        this.snapshotter = journal instanceof FileEventJournal enDisco
+                ? new Snapshotter(repo, enDisco, directorioJournal, Snapshotter.INTERVALO_POR_DEFECTO)
+                : null;
     }
 
     public void start() throws IOException {
@@ -58,10 +108,18 @@ public class TcpServer {
         acceptThread = new Thread(this::acceptLoop, "battleship-accept");
         acceptThread.setDaemon(true);
         acceptThread.start();
+        evictor.iniciar();
+        if (snapshotter != null) {
+            snapshotter.iniciar();
+        }
     }
 
     public void stop() {
         running = false;
+        evictor.detener();
+        if (snapshotter != null) {
+            snapshotter.detener();
+        }
         if (serverSocket != null) {
             try {
                 serverSocket.close();
@@ -71,6 +129,7 @@ public class TcpServer {
         }
         clientsByPlayer.values().forEach(ClientHandler::closeQuietly);
         clientExecutor.shutdownNow();
+        notifyExecutor.shutdownNow();
         if (acceptThread != null) {
             try {
                 acceptThread.join(TimeUnit.SECONDS.toMillis(1));
@@ -78,12 +137,49 @@ public class TcpServer {
                 Thread.currentThread().interrupt(); // Preserve interrupt status
             }
         }
+        if (journal instanceof Closeable cerrable) {
+            try {
+                cerrable.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Error cerrando el journal: {0}", ex.getMessage());
+            }
+        }
+        if (repo instanceof Closeable cerrable) {
+            try {
+                cerrable.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Error cerrando el repositorio: {0}", ex.getMessage());
+            }
+        }
+    }
+
+    private static FileEventJournal reproducirJournal(GameRepository repo, Path directorio) throws IOException {
+        PuntoJournal desde = Files.isDirectory(directorio) ? Snapshotter.cargar(directorio, repo) : PuntoJournal.INICIO;
+        GameService reproductor = new GameService(repo, (jugadorId, mensaje) -> { });
+        int[] fallidos = new int[1];
+        FileEventJournal journal = FileEventJournal.abrir(directorio, desde,
+                FileEventJournal.TAMANO_SEGMENTO_POR_DEFECTO, evento -> {
+            try {
+                reproductor.aplicar(evento);
+            } catch (IllegalArgumentException | IllegalStateException ex) {
+                fallidos[0]++;
+                LOGGER.log(Level.WARNING, "Evento del journal no aplicable {0}: {1}",
+                        new Object[]{evento, ex.getMessage()});
+            }
+        });
+        LOGGER.log(Level.INFO, "Journal {0} reproducido desde {1}: {2} partidas, {3} eventos descartados",
+                new Object[]{directorio, desde, repo.getTodosPartidos().size(), fallidos[0]});
+        return journal;
     }
 
     public GameService getGameService() {
         return gameService;
     }
 
+    public NotificacionesAsincronas getNotificaciones() {
+        return notificaciones;
+    }
+
     private void acceptLoop() {
         while (running) {
             try {
@@ -106,6 +202,7 @@ public class TcpServer {
     private class ClientHandler implements Runnable {
         private final Socket socket;
         private final BufferedReader reader;
+        private final OutputStream output;
         private final PrintWriter writer;
         private final Object sendLock = new Object();
 
@@ -114,8 +211,9 @@ public class TcpServer {
 
         private ClientHandler(Socket socket) throws IOException {
             this.socket = socket;
-            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            this.writer = new PrintWriter(socket.getOutputStream(), true);
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.output = new BufferedOutputStream(socket.getOutputStream());
+            this.writer = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), true);
             sendLine("WELCOME Battleship TCP");
             sendLine("Type HELP for available commands.");
         }
@@ -166,24 +264,38 @@ public class TcpServer {
                 }
                 case "CREATE_GAME" -> {
                     exigirJugadorConectado();
-                    crearPartido();
+                    crearPartido(tokens);
                 }
                 case "JOIN_GAME" -> {
                     exigirJugadorConectado();
                     exigirArgs(tokens, 2);
                     unirsePartido(parseInt(tokens[1], "gameId"));
                 }
-                case "LIST_GAMES" -> listarPartidos();
+                case "JOIN_ANY" -> {
+                    exigirJugadorConectado();
+                    unirseCualquierPartido();
+                }
+                case "LIST_GAMES" -> listarPartidos(tokens);
                 case "PLACE_SHIP" -> {
                     exigirJugadorConectado();
                     exigirArgs(tokens, 2);
                     colocarBarco(tokens);
                 }
+                case "PLACE_FLEET" -> {
+                    exigirJugadorConectado();
+                    exigirArgs(tokens, 2);
+                    colocarFlota(tokens);
+                }
                 case "SHOOT" -> {
                     exigirJugadorConectado();
                     exigirArgs(tokens, 4);
                     disparar(tokens);
                 }
+                case "SALVO" -> {
+                    exigirJugadorConectado();
+                    exigirArgs(tokens, 3);
+                    dispararSalva(tokens);
+                }
                 case "QUIT" -> {
                     sendLine("BYE");
                     active = false;
@@ -196,11 +308,15 @@ public class TcpServer {
             sendLine("COMMANDS:");
             sendLine("  CREATE_PLAYER               -> Crea un nuevo jugador y lo asocia a la sesión.");
             sendLine("  USE_PLAYER <playerId>       -> Usa un jugador existente.");
-            sendLine("  CREATE_GAME                 -> Crea una partida con el jugador actual.");
+            sendLine("  CREATE_GAME [filas cols] [SALVO] -> Crea una partida con el jugador actual (10x10 por defecto, SALVO para modo salva).");
             sendLine("  JOIN_GAME <gameId>          -> Une al jugador actual a la partida indicada.");
-            sendLine("  LIST_GAMES                  -> Lista partidas existentes.");
+            sendLine("  JOIN_ANY                    -> Une al jugador actual a la partida abierta más antigua.");
+            sendLine("  LIST_GAMES [estado|ALL]     -> Lista partidas abiertas, las de un estado o todas.");
+            sendLine("  LIST_GAMES PLAYER <id>      -> Lista las partidas en juego de un jugador.");
             sendLine("  PLACE_SHIP <fila,col>...    -> Coloca un barco usando coordenadas pares.");
+            sendLine("  PLACE_FLEET <f,c;f,c>...    -> Coloca todos los barcos a la vez, uno por argumento.");
             sendLine("  SHOOT <gameId> <fila> <col> -> Realiza un disparo.");
+            sendLine("  SALVO <gameId> <fila,col>...  -> Dispara una salva, hasta un disparo por barco a flote.");
             sendLine("  QUIT                        -> Cierra la conexión.");
         }
 
@@ -217,20 +333,58 @@ public class TcpServer {
             }
             asociarJugador(jugador.getId());
             sendLine("PLAYER " + jugador.getId());
+            // al reconectar, el cliente recibe sus partidas en juego sin recorrer todas las partidas
+            for (Partido partido : gameService.partidasActivas(jugador.getId())) {
+                sendNotification("Partida activa " + partido);
+            }
         }
 
-        private void crearPartido() {
-            Partido partido = gameService.crearPartido(playerId);
-            sendLine("GAME " + partido.getId());
+        /* CREATE_GAME [filas cols] [SALVO] */
+        private void crearPartido(String[] tokens) {
+            int argumentos = tokens.length - 1;
+            ModoJuego modo = ModoJuego.CLASICO;
+            if (argumentos > 0 && "SALVO".equalsIgnoreCase(tokens[argumentos])) {
+                modo = ModoJuego.SALVA;
+                argumentos--;
+            }
+            int filas = Partido.TAMANO_POR_DEFECTO;
+            int columnas = Partido.TAMANO_POR_DEFECTO;
+            if (argumentos >= 2) {
+                filas = parseInt(tokens[1], "filas");
+                columnas = parseInt(tokens[2], "columnas");
+            }
+            Partido partido = gameService.crearPartido(playerId, filas, columnas, modo);
+            sendLine("GAME " + describirPartido(partido));
         }
 
         private void unirsePartido(int partidoId) {
             Partido partido = gameService.unirsePartido(partidoId, playerId);
-            sendLine("JOINED " + partido.getId());
+            sendLine("JOINED " + describirPartido(partido));
         }
 
-        private void listarPartidos() {
-            Collection<Partido> partidos = repo.getTodosPartidos();
+        private void unirseCualquierPartido() {
+            Partido partido = gameService.unirseCualquierPartido(playerId);
+            sendLine("JOINED " + describirPartido(partido));
+        }
+
+        private String describirPartido(Partido partido) {
+            String descripcion = partido.getId() + " " + partido.getFilas() + " " + partido.getColumnas();
+            return partido.getModo() == ModoJuego.SALVA ? descripcion + " SALVO" : descripcion;
+        }
+
+        /* sin argumentos solo las partidas abiertas: los indices por estado y por jugador evitan recorrer el historico */
+        private void listarPartidos(String[] tokens) {
+            Collection<Partido> partidos;
+            if (tokens.length < 2) {
+                partidos = repo.getPartidosAbiertos();
+            } else if ("PLAYER".equalsIgnoreCase(tokens[1])) {
+                exigirArgs(tokens, 3);
+                partidos = gameService.partidasActivas(parseInt(tokens[2], "playerId"));
+            } else if ("ALL".equalsIgnoreCase(tokens[1])) {
+                partidos = repo.getTodosPartidos();
+            } else {
+                partidos = repo.getPartidosEnEstado(parseEstado(tokens[1]));
+            }
             if (partidos.isEmpty()) {
                 sendLine("GAMES");
                 return;
@@ -242,8 +396,32 @@ public class TcpServer {
         }
 
         private void colocarBarco(String[] tokens) {
-            List<int[]> posiciones = new ArrayList<>();
+            List<int[]> posiciones = parsearCoordenadas(tokens, 1);
+            if (posiciones.isEmpty()) {
+                throw new IllegalArgumentException("Debe especificar al menos una coordenada");
+            }
+            Barco barco = gameService.colocarBarco(playerId, posiciones);
+            sendLine("SHIP " + barco.getId() + " SIZE " + barco.getTamano());
+        }
+
+        /* un barco por argumento, con sus celdas separadas por ';'; responde FLEET id:tamano... */
+        private void colocarFlota(String[] tokens) {
+            List<List<int[]>> barcos = new ArrayList<>(tokens.length - 1);
             for (int i = 1; i < tokens.length; i++) {
+                barcos.add(parsearCoordenadas(tokens[i].split(";"), 0));
+            }
+            List<Barco> flota = gameService.colocarFlota(playerId, barcos);
+            StringBuilder respuesta = new StringBuilder("FLEET");
+            for (Barco barco : flota) {
+                respuesta.append(' ').append(barco.getId()).append(':').append(barco.getTamano());
+            }
+            sendLine(respuesta.toString());
+        }
+
+        /* pares fila,col desde tokens[desde] */
+        private List<int[]> parsearCoordenadas(String[] tokens, int desde) {
+            List<int[]> posiciones = new ArrayList<>();
+            for (int i = desde; i < tokens.length; i++) {
                 String[] partes = tokens[i].split(",");
                 if (partes.length != 2) {
                     throw new IllegalArgumentException("Formato inválido de coordenada: " + tokens[i]);
@@ -252,11 +430,18 @@ public class TcpServer {
                 int col = parseInt(partes[1], "columna");
                 posiciones.add(new int[]{fila, col});
             }
-            if (posiciones.isEmpty()) {
-                throw new IllegalArgumentException("Debe especificar al menos una coordenada");
+            return posiciones;
+        }
+
+        /* una linea RESULTS con un resultado por disparo, en el orden pedido */
+        private void dispararSalva(String[] tokens) {
+            int gameId = parseInt(tokens[1], "gameId");
+            List<ResultadoDisparo> resultados = gameService.dispararSalva(playerId, gameId, parsearCoordenadas(tokens, 2));
+            StringBuilder respuesta = new StringBuilder("RESULTS");
+            for (ResultadoDisparo resultado : resultados) {
+                respuesta.append(' ').append(resultado.name());
             }
-            Barco barco = gameService.colocarBarco(playerId, posiciones);
-            sendLine("SHIP " + barco.getId() + " SIZE " + barco.getCoordenadaIds().size());
+            sendLine(respuesta.toString());
         }
 
         private void disparar(String[] tokens) {
@@ -280,8 +465,20 @@ public class TcpServer {
                 }
                 return this;
             });
-            if (anterior != null && !Objects.equals(anterior, nuevoJugadorId)) {
-                clientsByPlayer.remove(anterior, this);
+            notificaciones.registrar(nuevoJugadorId);
+            repo.registrarConexion(nuevoJugadorId, true);
+            if (anterior != null && !Objects.equals(anterior, nuevoJugadorId)
+                    && clientsByPlayer.remove(anterior, this)) {
+                repo.registrarConexion(anterior, false);
+                notificaciones.olvidar(anterior);
+            }
+        }
+
+        private EstadoPartido parseEstado(String value) {
+            try {
+                return EstadoPartido.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Estado de partida inválido: " + value);
             }
         }
 
@@ -319,10 +516,25 @@ public class TcpServer {
             sendLine("NOTIFY " + message);
         }
 
+        /* lineas ya codificadas, en una sola escritura al socket */
+        void sendEncoded(List<byte[]> lines) {
+            synchronized (sendLock) {
+                try {
+                    for (byte[] line : lines) {
+                        output.write(line);
+                    }
+                    output.flush();
+                } catch (IOException ex) {
+                    closeQuietly();
+                }
+            }
+        }
+
         private void cleanup() {
             active = false;
-            if (playerId != null) {
-                clientsByPlayer.remove(playerId, this);
+            if (playerId != null && clientsByPlayer.remove(playerId, this)) {
+                repo.registrarConexion(playerId, false);
+                notificaciones.olvidar(playerId);
             }
         }
 
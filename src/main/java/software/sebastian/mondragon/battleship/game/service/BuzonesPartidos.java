@@ -0,0 +1,152 @@
+package software.sebastian.mondragon.battleship.game.service;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Un buzon por partido: las operaciones de un mismo partido se ejecutan de una en una y en
+ * orden de llegada, y las de partidos distintos en paralelo sobre un pool compartido. Si el
+ * buzon esta libre la operacion corre en el hilo que la pide, sin cambio de hilo; si no, se
+ * encola y la ejecuta un hilo del pool. Quien la pide espera siempre su resultado, asi que el
+ * servidor sigue respondiendo cada comando en orden.
+ * <p>
+ * Un buzon solo existe mientras tiene trabajo. Una operacion no debe esperar a otro partido:
+ * dos buzones esperandose entre si no avanzarian.
+ */
+public final class BuzonesPartidos {
+    private static final int POR_TURNO = 64;   // operaciones seguidas antes de ceder el hilo del pool
+
+    private final Executor pool;
+    private final ConcurrentHashMap<Integer, Buzon> buzones = new ConcurrentHashMap<>();
+    private final ThreadLocal<Buzon> enCurso = new ThreadLocal<>();
+
+    public BuzonesPartidos(Executor pool) {
+        this.pool = pool;
+    }
+
+    /* pool de hilos daemon, uno por nucleo, compartido por todos los servicios del proceso */
+    public static BuzonesPartidos compartidos() {
+        return Compartidos.INSTANCIA;
+    }
+
+    /**
+     * Ejecuta la accion en el buzon del partido y devuelve su resultado o relanza su excepcion.
+     * Reentrante: desde una accion del mismo partido se ejecuta directamente.
+     */
+    public <T> T ejecutar(int partidoId, Supplier<T> accion) {
+        Buzon actual = enCurso.get();
+        if (actual != null && actual.partidoId == partidoId) {
+            return accion.get();
+        }
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        Runnable tarea = () -> {
+            try {
+                resultado.complete(accion.get());
+            } catch (Throwable ex) {
+                resultado.completeExceptionally(ex);
+            }
+        };
+        boolean[] libre = new boolean[1];
+        // la cola solo se toca dentro de compute: encolar y retirar un buzon vacio son atomicos
+        Buzon buzon = buzones.compute(partidoId, (id, b) -> {
+            if (b == null) {
+                libre[0] = true;
+                return new Buzon(id);
+            }
+            b.cola.add(tarea);
+            return b;
+        });
+        if (libre[0]) {
+            try {
+                return correr(buzon, accion);
+            } finally {
+                soltar(buzon);
+            }
+        }
+        try {
+            return resultado.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (ex.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw ex;
+        }
+    }
+
+    /* partidos con operaciones en curso o encoladas */
+    int getBuzonesActivos() {
+        return buzones.size();
+    }
+
+    /* operaciones esperando en el buzon del partido, sin contar la que esta en curso */
+    int getEncoladas(int partidoId) {
+        int[] n = new int[1];
+        buzones.computeIfPresent(partidoId, (id, b) -> {
+            n[0] = b.cola.size();
+            return b;
+        });
+        return n[0];
+    }
+
+    private <T> T correr(Buzon buzon, Supplier<T> accion) {
+        Buzon anterior = enCurso.get();
+        enCurso.set(buzon);
+        try {
+            return accion.get();
+        } finally {
+            enCurso.set(anterior);
+        }
+    }
+
+    /* tras la operacion del hilo que pidio: lo encolado entretanto pasa al pool */
+    private void soltar(Buzon buzon) {
+        if (buzones.compute(buzon.partidoId, (id, b) -> b.cola.isEmpty() ? null : b) != null) {
+            pool.execute(() -> drenar(buzon));
+        }
+    }
+
+    private void drenar(Buzon buzon) {
+        for (int i = 0; i < POR_TURNO; i++) {
+            Runnable[] siguiente = new Runnable[1];
+            buzones.compute(buzon.partidoId, (id, b) -> {
+                siguiente[0] = b.cola.poll();
+                return siguiente[0] == null ? null : b;
+            });
+            if (siguiente[0] == null) {
+                return;
+            }
+            correr(buzon, () -> {
+                siguiente[0].run();
+                return null;
+            });
+        }
+        // el buzon sigue siendo de este drenado: vuelve al final del pool para no acaparar un hilo
+        pool.execute(() -> drenar(buzon));
+    }
+
+    private static final class Buzon {
+        final int partidoId;
+        final ArrayDeque<Runnable> cola = new ArrayDeque<>();
+
+        Buzon(int partidoId) {
+            this.partidoId = partidoId;
+        }
+    }
+
+    private static final class Compartidos {
+        static final BuzonesPartidos INSTANCIA = new BuzonesPartidos(Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), r -> {
+                    Thread t = new Thread(r, "battleship-partido");
+                    t.setDaemon(true);
+                    return t;
+                }));
+    }
+}
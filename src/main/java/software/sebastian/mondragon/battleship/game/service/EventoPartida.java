@@ -0,0 +1,249 @@
+package software.sebastian.mondragon.battleship.game.service;
+
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+import java.util.List;
+
+/**
+ * Eventos de partida que emite {@link GameService}. Cada evento tiene una linea de protocolo,
+ * {@code EVENT <TIPO> <campos>}, igual para todos sus destinatarios: se codifica una vez y se
+ * reparte tal cual, y el cliente la lee con {@link #decodificar(String)} sin interpretar texto.
+ * {@link #texto(int)} es la frase que ve cada jugador.
+ */
+public sealed interface EventoPartida {
+    String PREFIJO = "EVENT ";
+
+    int partidoId();
+
+    /* jugadores a los que se notifica, en orden de entrega */
+    int[] destinatarios();
+
+    /* la linea sin salto final */
+    String linea();
+
+    String texto(int jugadorId);
+
+    /* inversa de {@link #linea()} */
+    static EventoPartida decodificar(String linea) {
+        if (!linea.startsWith(PREFIJO)) {
+            throw new IllegalArgumentException("No es un evento: " + linea);
+        }
+        String[] campos = linea.substring(PREFIJO.length()).trim().split(" ");
+        try {
+            return switch (campos[0]) {
+                case DisparoResuelto.TIPO -> new DisparoResuelto(entero(campos, 1), entero(campos, 2), entero(campos, 3),
+                        entero(campos, 4), entero(campos, 5), resultado(campos, 6), entero(campos, 7));
+                case TurnoCambiado.TIPO -> new TurnoCambiado(entero(campos, 1), entero(campos, 2));
+                case PartidaIniciada.TIPO -> new PartidaIniciada(entero(campos, 1), entero(campos, 2), entero(campos, 3),
+                        entero(campos, 4));
+                case PartidaTerminada.TIPO -> new PartidaTerminada(entero(campos, 1), entero(campos, 2), entero(campos, 3));
+                case JugadorUnido.TIPO -> new JugadorUnido(entero(campos, 1), entero(campos, 2), entero(campos, 3));
+                case SalvaResuelta.TIPO -> SalvaResuelta.decodificar(campos);
+                default -> throw new IllegalArgumentException("Tipo de evento desconocido: " + campos[0]);
+            };
+        } catch (ArrayIndexOutOfBoundsException | NegativeArraySizeException ex) {
+            throw new IllegalArgumentException("Evento incompleto: " + linea, ex);
+        }
+    }
+
+    private static int entero(String[] campos, int i) {
+        try {
+            return Integer.parseInt(campos[i]);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Campo de evento invalido: " + campos[i], ex);
+        }
+    }
+
+    private static ResultadoDisparo resultado(String[] campos, int i) {
+        try {
+            return ResultadoDisparo.valueOf(campos[i]);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Resultado de disparo invalido: " + campos[i], ex);
+        }
+    }
+
+    /* barcoId solo con HUNDIDO; 0 en otro caso */
+    record DisparoResuelto(int partidoId, int atacanteId, int defensorId, int fila, int columna,
+                           ResultadoDisparo resultado, int barcoId) implements EventoPartida {
+        static final String TIPO = "SHOT";
+
+        @Override
+        public int[] destinatarios() {
+            return new int[]{atacanteId, defensorId};
+        }
+
+        @Override
+        public String linea() {
+            return PREFIJO + TIPO + " " + partidoId + " " + atacanteId + " " + defensorId + " " + fila + " " + columna
+                    + " " + resultado.name() + " " + barcoId;
+        }
+
+        @Override
+        public String texto(int jugadorId) {
+            String detalle = resultado == ResultadoDisparo.HUNDIDO && barcoId != 0
+                    ? "HUNDIDO (barco id " + barcoId + ")"
+                    : resultado.name();
+            if (jugadorId == atacanteId) {
+                return "Disparaste a (" + fila + "," + columna + "): " + detalle;
+            }
+            if (jugadorId == defensorId) {
+                return "Te han disparado en (" + fila + "," + columna + "): " + detalle;
+            }
+            return "Jugador " + atacanteId + " disparo a (" + fila + "," + columna + "): " + detalle;
+        }
+    }
+
+    record TurnoCambiado(int partidoId, int jugadorId) implements EventoPartida {
+        static final String TIPO = "TURN";
+
+        @Override
+        public int[] destinatarios() {
+            return new int[]{jugadorId};
+        }
+
+        @Override
+        public String linea() {
+            return PREFIJO + TIPO + " " + partidoId + " " + jugadorId;
+        }
+
+        @Override
+        public String texto(int destinatarioId) {
+            return destinatarioId == jugadorId ? "Es tu turno." : "Turno de: " + jugadorId;
+        }
+    }
+
+    record PartidaIniciada(int partidoId, int jugador1Id, int jugador2Id, int turnoJugadorId) implements EventoPartida {
+        static final String TIPO = "STARTED";
+
+        @Override
+        public int[] destinatarios() {
+            return new int[]{jugador1Id, jugador2Id};
+        }
+
+        @Override
+        public String linea() {
+            return PREFIJO + TIPO + " " + partidoId + " " + jugador1Id + " " + jugador2Id + " " + turnoJugadorId;
+        }
+
+        @Override
+        public String texto(int jugadorId) {
+            return "Partida " + partidoId + " iniciada. Turno de: " + turnoJugadorId;
+        }
+    }
+
+    record PartidaTerminada(int partidoId, int ganadorId, int perdedorId) implements EventoPartida {
+        static final String TIPO = "GAME_OVER";
+
+        @Override
+        public int[] destinatarios() {
+            return new int[]{ganadorId, perdedorId};
+        }
+
+        @Override
+        public String linea() {
+            return PREFIJO + TIPO + " " + partidoId + " " + ganadorId + " " + perdedorId;
+        }
+
+        @Override
+        public String texto(int jugadorId) {
+            if (jugadorId == ganadorId) {
+                return "Victoria! Has hundido todos los barcos del oponente.";
+            }
+            if (jugadorId == perdedorId) {
+                return "Derrota. Todos tus barcos han sido hundidos.";
+            }
+            return "Partida " + partidoId + " terminada. Ganador: " + ganadorId;
+        }
+    }
+
+    /* jugadorId se unio a la partida creada por anfitrionId */
+    record JugadorUnido(int partidoId, int jugadorId, int anfitrionId) implements EventoPartida {
+        static final String TIPO = "PLAYER_JOINED";
+
+        @Override
+        public int[] destinatarios() {
+            return new int[]{jugadorId, anfitrionId};
+        }
+
+        @Override
+        public String linea() {
+            return PREFIJO + TIPO + " " + partidoId + " " + jugadorId + " " + anfitrionId;
+        }
+
+        @Override
+        public String texto(int destinatarioId) {
+            return destinatarioId == jugadorId
+                    ? "Te has unido a la partida " + partidoId
+                    : "Jugador " + jugadorId + " se ha unido a tu partida " + partidoId;
+        }
+    }
+
+    /* un disparo de una salva; barcoId como en DisparoResuelto */
+    record DisparoSalva(int fila, int columna, ResultadoDisparo resultado, int barcoId) {
+        String texto() {
+            String detalle = resultado == ResultadoDisparo.HUNDIDO && barcoId != 0
+                    ? "HUNDIDO (barco id " + barcoId + ")"
+                    : resultado.name();
+            return "(" + fila + "," + columna + "): " + detalle;
+        }
+    }
+
+    /**
+     * Salva completa de atacanteId, con el turno que queda tras ella: un solo evento por salva
+     * en lugar de un disparo y un cambio de turno por cada tiro. turnoJugadorId es
+     * {@link Partido#SIN_JUGADOR} si la salva termino la partida.
+     */
+    record SalvaResuelta(int partidoId, int atacanteId, int defensorId, int turnoJugadorId,
+                         List<DisparoSalva> disparos) implements EventoPartida {
+        static final String TIPO = "SALVO";
+
+        public SalvaResuelta {
+            disparos = List.copyOf(disparos);
+        }
+
+        // campos: SALVO partido atacante defensor turno n, y n grupos de fila columna resultado barco
+        private static SalvaResuelta decodificar(String[] campos) {
+            int n = entero(campos, 5);
+            if (campos.length != 6 + 4 * n) {
+                throw new IllegalArgumentException("Salva con " + (campos.length - 6) + " campos para " + n + " disparos");
+            }
+            DisparoSalva[] disparos = new DisparoSalva[n];
+            for (int i = 0, base = 6; i < n; i++, base += 4) {
+                disparos[i] = new DisparoSalva(entero(campos, base), entero(campos, base + 1),
+                        resultado(campos, base + 2), entero(campos, base + 3));
+            }
+            return new SalvaResuelta(entero(campos, 1), entero(campos, 2), entero(campos, 3), entero(campos, 4),
+                    List.of(disparos));
+        }
+
+        @Override
+        public int[] destinatarios() {
+            return new int[]{atacanteId, defensorId};
+        }
+
+        @Override
+        public String linea() {
+            StringBuilder linea = new StringBuilder(PREFIJO).append(TIPO).append(' ').append(partidoId)
+                    .append(' ').append(atacanteId).append(' ').append(defensorId).append(' ').append(turnoJugadorId)
+                    .append(' ').append(disparos.size());
+            for (DisparoSalva d : disparos) {
+                linea.append(' ').append(d.fila()).append(' ').append(d.columna())
+                        .append(' ').append(d.resultado().name()).append(' ').append(d.barcoId());
+            }
+            return linea.toString();
+        }
+
+        @Override
+        public String texto(int jugadorId) {
+            StringBuilder texto = new StringBuilder(jugadorId == atacanteId ? "Tu salva: "
+                    : jugadorId == defensorId ? "Salva recibida: " : "Salva de " + atacanteId + ": ");
+            for (int i = 0; i < disparos.size(); i++) {
+                texto.append(i == 0 ? "" : ", ").append(disparos.get(i).texto());
+            }
+            if (turnoJugadorId == jugadorId) {
+                texto.append(". Es tu turno.");
+            }
+            return texto.toString();
+        }
+    }
+}
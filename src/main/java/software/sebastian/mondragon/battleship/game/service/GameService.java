@@ -1,72 +1,263 @@
 package software.sebastian.mondragon.battleship.game.service;
 
+import software.sebastian.mondragon.battleship.game.journal.EventJournal;
+import software.sebastian.mondragon.battleship.game.journal.Evento;
 import software.sebastian.mondragon.battleship.game.model.*;
-import software.sebastian.mondragon.battleship.game.repo.InMemoryRepo;
+import software.sebastian.mondragon.battleship.game.repo.GameRepository;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.function.Function;
 
 public class GameService {
-    private final InMemoryRepo repo;
+    public static final int TAMANO_MAXIMO = 4096;
+
+    private final GameRepository repo;
 
     // Proveedor de notificaciones (puede reemplazarse por websockets / eventos)
     public interface Notifier {
         void notifyJugador(int jugadorId, String mensaje);
+
+        /* evento para todos sus destinatarios; por defecto, a cada uno su frase */
+        default void publicar(EventoPartida evento) {
+            for (int jugadorId : evento.destinatarios()) {
+                notifyJugador(jugadorId, evento.texto(jugadorId));
+            }
+        }
     }
 
     private final Notifier notifier;
+    // cada operacion que cambia estado registra su evento bajo sus cerrojos y confirma al final
+    private final EventJournal journal;
+    // las operaciones de un partido pasan por su buzon, de una en una
+    private final BuzonesPartidos buzones;
+
+    public GameService(GameRepository repo, Notifier notifier) {
+        this(repo, notifier, EventJournal.ninguno());
+    }
+
+    public GameService(GameRepository repo, Notifier notifier, EventJournal journal) {
+        this(repo, notifier, journal, BuzonesPartidos.compartidos());
+    }
 
-    public GameService(InMemoryRepo repo, Notifier notifier) {
+    public GameService(GameRepository repo, Notifier notifier, EventJournal journal, BuzonesPartidos buzones) {
         this.repo = repo;
         this.notifier = notifier;
+        this.journal = journal;
+        this.buzones = buzones;
     }
 
     /* operaciones basicas */
     public Jugador crearJugador() {
-        return repo.crearJugador();
+        Jugador j = repo.crearJugador();
+        journal.registrar(new Evento.JugadorCreado(j.getId()));
+        journal.confirmar();
+        return j;
     }
 
     public Partido crearPartido(int creadorJugadorId) {
+        return crearPartido(creadorJugadorId, Partido.TAMANO_POR_DEFECTO, Partido.TAMANO_POR_DEFECTO);
+    }
+
+    /* los tableros de ambos jugadores tendran filas x columnas celdas */
+    public Partido crearPartido(int creadorJugadorId, int filas, int columnas) {
+        return crearPartido(creadorJugadorId, filas, columnas, ModoJuego.CLASICO);
+    }
+
+    public Partido crearPartido(int creadorJugadorId, int filas, int columnas, ModoJuego modo) {
+        validarDimensiones(filas, columnas);
         obtenerJugador(creadorJugadorId);
-        Partido p = repo.crearPartido();
-        p.setJugador1Id(creadorJugadorId);
-        p.setEstado(EstadoPartido.ESPERANDO_JUGADORES);
-        notifier.notifyJugador(creadorJugadorId, "Partida creada con id " + p.getId());
-        return p;
+        Partido creado = repo.crearPartido();
+        return prepararPartido(creado.getId(), creadorJugadorId, filas, columnas, modo);
+    }
+
+    private Partido prepararPartido(int partidoId, int creadorJugadorId, int filas, int columnas, ModoJuego modo) {
+        return enPartido(partidoId, p -> {
+            p.setDimensiones(filas, columnas);
+            p.setModo(modo);
+            repo.anadirJugador(p, creadorJugadorId);
+            // el creador puede colocar sus barcos mientras espera rival
+            asegurarMapaParaJugador(obtenerJugador(creadorJugadorId), p);
+            repo.cambiarEstado(p, EstadoPartido.ESPERANDO_JUGADORES);
+            // antes de soltar el cerrojo: nadie puede unirse a un partido aun no registrado
+            journal.registrar(new Evento.PartidoCreado(p.getId(), creadorJugadorId, filas, columnas, modo.ordinal()));
+            notifier.notifyJugador(creadorJugadorId, "Partida creada con id " + p.getId());
+            return p;
+        });
+    }
+
+    /**
+     * Aplica un evento del journal al reproducirlo en el arranque. Los ids de jugadores y
+     * partidos se restauran tal cual; el resto repite la operacion original. Los eventos cuyo
+     * efecto ya esta en el repositorio, porque los recoge el snapshot cargado, se ignoran.
+     */
+    public void aplicar(Evento evento) {
+        if (yaAplicado(evento)) {
+            return;
+        }
+        if (evento instanceof Evento.JugadorCreado e) {
+            repo.restaurarJugador(e.jugadorId());
+        } else if (evento instanceof Evento.PartidoCreado e) {
+            validarDimensiones(e.filas(), e.columnas());
+            obtenerJugador(e.jugadorId());
+            if (repo.getPartido(e.partidoId()) == null) {
+                repo.restaurarPartido(e.partidoId());
+            }
+            prepararPartido(e.partidoId(), e.jugadorId(), e.filas(), e.columnas(), modoJuego(e.modo()));
+        } else if (evento instanceof Evento.JugadorUnido e) {
+            unirsePartido(e.partidoId(), e.jugadorId());
+        } else if (evento instanceof Evento.BarcoColocado e) {
+            colocarBarco(e.jugadorId(), e.getPosiciones());
+        } else if (evento instanceof Evento.Disparo e) {
+            disparar(e.jugadorId(), e.partidoId(), e.fila(), e.columna());
+        } else if (evento instanceof Evento.Salva e) {
+            dispararSalva(e.jugadorId(), e.partidoId(), e.getDisparos());
+        }
+        journal.confirmar();
+    }
+
+    private static ModoJuego modoJuego(int ordinal) {
+        ModoJuego[] modos = ModoJuego.values();
+        if (ordinal < 0 || ordinal >= modos.length) {
+            throw new IllegalArgumentException("Modo de juego desconocido: " + ordinal);
+        }
+        return modos[ordinal];
+    }
+
+    private boolean yaAplicado(Evento evento) {
+        if (evento instanceof Evento.JugadorCreado e) {
+            return repo.getJugador(e.jugadorId()) != null;
+        } else if (evento instanceof Evento.PartidoCreado e) {
+            // el partido pudo capturarse entre su alta y su preparacion, aun sin creador
+            Partido p = repo.getPartido(e.partidoId());
+            return p != null && p.getJugador1IdAsInt() != Partido.SIN_JUGADOR;
+        } else if (evento instanceof Evento.JugadorUnido e) {
+            Partido p = repo.getPartido(e.partidoId());
+            return p != null && p.getJugador2IdAsInt() == e.jugadorId();
+        } else if (evento instanceof Evento.BarcoColocado e) {
+            Jugador j = repo.getJugador(e.jugadorId());
+            Mapa mapa = j != null && j.tieneMapa() ? repo.getMapa(j.getMapaIdAsInt()) : null;
+            return mapa != null && tieneBarcoEn(mapa, e.posiciones());
+        } else if (evento instanceof Evento.Disparo e) {
+            return disparoAplicado(e.jugadorId(), e.partidoId(), e.fila(), e.columna());
+        } else if (evento instanceof Evento.Salva e) {
+            // una salva se aplica entera o no se aplica: basta con su primer disparo
+            int[] disparos = e.disparos();
+            return disparos.length > 0 && disparoAplicado(e.jugadorId(), e.partidoId(), disparos[0], disparos[1]);
+        }
+        return false;
     }
 
+    private boolean disparoAplicado(int jugadorId, int partidoId, int fila, int columna) {
+        Partido p = repo.getPartido(partidoId);
+        if (p == null || !p.participa(jugadorId)) {
+            return false;
+        }
+        if (p.getEstado() == EstadoPartido.FINALIZADO) {
+            return true;
+        }
+        Jugador oponente = repo.getJugador(p.otroJugadorId(jugadorId));
+        Mapa mapa = oponente != null ? mapaEnPartido(p, oponente) : null;
+        return mapa != null && mapa.buscarPorFilaCol(fila, columna)
+                .map(c -> c.getEstado() != EstadoCoordenada.SIN_DISPARAR)
+                .orElse(false);
+    }
+
+    /* true si las posiciones son exactamente las celdas de un barco ya colocado */
+    private static boolean tieneBarcoEn(Mapa mapa, int[] posiciones) {
+        if (posiciones.length == 0) {
+            return false;
+        }
+        synchronized (mapa) {
+            int barcoId = Coordenada.SIN_BARCO;
+            for (int i = 0; i < posiciones.length; i += 2) {
+                Coordenada c = mapa.buscarPorFilaCol(posiciones[i], posiciones[i + 1]).orElse(null);
+                if (c == null || !c.tieneBarco() || (barcoId != Coordenada.SIN_BARCO && c.getBarcoIdAsInt() != barcoId)) {
+                    return false;
+                }
+                barcoId = c.getBarcoIdAsInt();
+            }
+            Barco barco = mapa.getBarco(barcoId);
+            return barco != null && barco.getTamano() * 2 == posiciones.length;
+        }
+    }
+
+    /* las operaciones sobre un partido se ejecutan en su buzon, con el cerrojo de su franja del repositorio */
     public Partido unirsePartido(int partidoId, int jugadorId) {
+        return enPartido(partidoId, ignorado -> unirsePartidoBloqueado(partidoId, jugadorId));
+    }
+
+    /**
+     * Ejecuta la accion en el buzon del partido y con su cerrojo, y confirma despues, ya fuera
+     * del buzon, lo que registro en el journal: la espera a disco no retiene el partido.
+     */
+    private <T> T enPartido(int partidoId, Function<Partido, T> accion) {
+        long[] marca = new long[1];
+        T resultado = buzones.ejecutar(partidoId, () -> {
+            T r = repo.conPartido(partidoId, accion);
+            marca[0] = journal.marca();
+            return r;
+        });
+        journal.confirmarHasta(marca[0]);
+        return resultado;
+    }
+
+    /**
+     * Une al jugador al partido abierto mas antiguo que no haya creado el mismo. Recorre solo el
+     * indice de partidos abiertos y revalida cada candidato en su buzon, ya que otro jugador
+     * puede ocuparlo entretanto.
+     */
+    public Partido unirseCualquierPartido(int jugadorId) {
+        obtenerJugador(jugadorId);
+        for (Partido candidato : repo.getPartidosAbiertos()) {
+            Partido unido = enPartido(candidato.getId(), p -> admiteJugador(p, jugadorId)
+                    ? unirsePartidoBloqueado(p.getId(), jugadorId)
+                    : null);
+            if (unido != null) {
+                return unido;
+            }
+        }
+        throw new IllegalStateException("No hay partidas abiertas");
+    }
+
+    private boolean admiteJugador(Partido p, int jugadorId) {
+        return p != null && p.getEstado() == EstadoPartido.ESPERANDO_JUGADORES
+                && p.getJugador1IdAsInt() != Partido.SIN_JUGADOR
+                && p.getJugador2IdAsInt() == Partido.SIN_JUGADOR
+                && p.getJugador1IdAsInt() != jugadorId;
+    }
+
+    private Partido unirsePartidoBloqueado(int partidoId, int jugadorId) {
         Partido p = obtenerPartido(partidoId, "Partido no existe: " + partidoId);
-        if (p.getJugador2Id() != null) throw new IllegalStateException("Partido ya tiene 2 jugadores");
-        if (Objects.equals(p.getJugador1Id(), jugadorId))
+        if (p.getJugador2IdAsInt() != Partido.SIN_JUGADOR) throw new IllegalStateException("Partido ya tiene 2 jugadores");
+        if (p.getJugador1IdAsInt() == jugadorId)
             throw new IllegalArgumentException("Jugador ya esta en la partida");
 
-        p.setJugador2Id(jugadorId);
+        repo.anadirJugador(p, jugadorId);
 
-        // Crear mapas por defecto para cada jugador si no tienen
+        // Crear mapas con las dimensiones de la partida para cada jugador si no tienen
         Jugador j = obtenerJugador(jugadorId);
-        asegurarMapaParaJugador(j);
+        asegurarMapaParaJugador(j, p);
 
         // tambien aseguramos que el jugador1 tenga mapa
-        Jugador j1 = obtenerJugador(p.getJugador1Id());
-        asegurarMapaParaJugador(j1);
+        Jugador j1 = obtenerJugador(p.getJugador1IdAsInt());
+        asegurarMapaParaJugador(j1, p);
 
         // Cuando hay 2 jugadores se inicia automaticamente la partida
         iniciarPartidoSiListo(p);
-        notifier.notifyJugador(jugadorId, "Te has unido a la partida " + p.getId());
-        notifier.notifyJugador(p.getJugador1Id(), "Jugador " + jugadorId + " se ha unido a tu partida " + p.getId());
+        journal.registrar(new Evento.JugadorUnido(p.getId(), jugadorId));
+        notifier.publicar(new EventoPartida.JugadorUnido(p.getId(), jugadorId, p.getJugador1IdAsInt()));
         return p;
     }
 
     private void iniciarPartidoSiListo(Partido p) {
-        if (p.getJugador1Id() != null && p.getJugador2Id() != null && p.getEstado() == EstadoPartido.ESPERANDO_JUGADORES) {
-            p.setEstado(EstadoPartido.EN_CURSO);
+        if (p.tieneDosJugadores() && p.getEstado() == EstadoPartido.ESPERANDO_JUGADORES) {
+            repo.cambiarEstado(p, EstadoPartido.EN_CURSO);
             // elegir aleatoriamente quien empieza
-            int primero = p.getJugador1Id();
+            int primero = p.getJugador1IdAsInt();
             p.setTurnoJugadorId(primero);
-            notifier.notifyJugador(p.getJugador1Id(), "Partida " + p.getId() + " iniciada. Turno de: " + primero);
-            notifier.notifyJugador(p.getJugador2Id(), "Partida " + p.getId() + " iniciada. Turno de: " + primero);
+            notifier.publicar(new EventoPartida.PartidaIniciada(p.getId(), p.getJugador1IdAsInt(),
+                    p.getJugador2IdAsInt(), primero));
         }
     }
 
@@ -74,38 +265,173 @@ public class GameService {
     public Barco colocarBarco(int jugadorId, List<int[]> posiciones) {
         Jugador j = obtenerJugador(jugadorId);
         Mapa mapa = obtenerMapaDeJugador(j);
-        return mapa.crearBarco(posiciones);
+        Barco barco;
+        // el monitor del mapa ordena los barcos de un jugador igual en memoria y en el journal
+        synchronized (mapa) {
+            barco = mapa.crearBarco(posiciones);
+            journal.registrar(Evento.BarcoColocado.de(jugadorId, posiciones));
+        }
+        journal.confirmar();
+        return barco;
+    }
+
+    /**
+     * Coloca una flota completa en el mapa actual del jugador: todos los barcos o ninguno. Se
+     * valida y se publica el tablero una sola vez y el journal se confirma una vez para toda la
+     * flota, que queda registrada como un BarcoColocado por barco.
+     */
+    public List<Barco> colocarFlota(int jugadorId, List<List<int[]>> barcos) {
+        Jugador j = obtenerJugador(jugadorId);
+        Mapa mapa = obtenerMapaDeJugador(j);
+        List<Barco> flota;
+        synchronized (mapa) {
+            flota = mapa.crearBarcos(barcos);
+            for (List<int[]> posiciones : barcos) {
+                journal.registrar(Evento.BarcoColocado.de(jugadorId, posiciones));
+            }
+        }
+        journal.confirmar();
+        return flota;
     }
 
     /* disparar */
     public ResultadoDisparo disparar(int jugadorId, int partidoId, int fila, int columna) {
+        return enPartido(partidoId, ignorado -> dispararBloqueado(jugadorId, partidoId, fila, columna));
+    }
+
+    private ResultadoDisparo dispararBloqueado(int jugadorId, int partidoId, int fila, int columna) {
         Partido partido = obtenerPartidoEnCurso(partidoId);
+        if (partido.getModo() == ModoJuego.SALVA) {
+            // en modo salva un disparo suelto es una salva de uno: tambien cede el turno
+            return dispararSalvaBloqueado(jugadorId, partidoId, List.of(new int[]{fila, columna})).get(0);
+        }
         validarTurno(jugadorId, partido);
         int oponenteId = obtenerOponenteId(partido, jugadorId);
         Jugador oponente = obtenerJugador(oponenteId);
-        Mapa mapaOponente = obtenerMapaDeJugador(oponente);
+        Mapa mapaOponente = mapaEnPartido(partido, oponente);
+        if (mapaOponente == null) {
+            throw new IllegalStateException("Jugador no tiene mapa");
+        }
 
-        Coordenada coordenada = obtenerCoordenada(mapaOponente, fila, columna);
-        validarCoordenadaDisponible(coordenada);
+        ResultadoDisparo resultado;
+        // el mismo monitor que colocarBarco: un barco no se registra entre el disparo y su evento
+        synchronized (mapaOponente) {
+            Coordenada coordenada = obtenerCoordenada(mapaOponente, fila, columna);
+            validarCoordenadaDisponible(coordenada);
 
-        ResultadoDisparo resultado = coordenada.getBarcoId() == null
-                ? procesarDisparoAgua(partido, jugadorId, oponenteId, fila, columna, coordenada)
-                : procesarDisparoImpacto(partido, jugadorId, oponenteId, fila, columna, coordenada, mapaOponente);
+            resultado = !coordenada.tieneBarco()
+                    ? procesarDisparoAgua(partido, jugadorId, oponenteId, fila, columna, coordenada, mapaOponente)
+                    : procesarDisparoImpacto(partido, jugadorId, oponenteId, fila, columna, coordenada, mapaOponente);
 
+            journal.registrar(new Evento.Disparo(jugadorId, partidoId, fila, columna));
+        }
         verificarFinPartido(partido, mapaOponente, jugadorId, oponenteId);
         return resultado;
     }
 
+    /**
+     * Salva de una partida en {@link ModoJuego#SALVA}: hasta un disparo por cada barco propio a
+     * flote, resueltos en una sola operacion. Se validan todas las celdas antes de aplicar
+     * ninguna; despues el turno cambia una vez y cada jugador recibe un unico evento con todos
+     * los resultados. Devuelve los resultados en el orden de los disparos.
+     */
+    public List<ResultadoDisparo> dispararSalva(int jugadorId, int partidoId, List<int[]> disparos) {
+        return enPartido(partidoId, ignorado -> dispararSalvaBloqueado(jugadorId, partidoId, disparos));
+    }
+
+    private List<ResultadoDisparo> dispararSalvaBloqueado(int jugadorId, int partidoId, List<int[]> disparos) {
+        Partido partido = obtenerPartidoEnCurso(partidoId);
+        if (partido.getModo() != ModoJuego.SALVA) {
+            throw new IllegalStateException("La partida no es de modo salva");
+        }
+        validarTurno(jugadorId, partido);
+        int oponenteId = obtenerOponenteId(partido, jugadorId);
+        Mapa mapaOponente = mapaEnPartido(partido, obtenerJugador(oponenteId));
+        if (mapaOponente == null) {
+            throw new IllegalStateException("Jugador no tiene mapa");
+        }
+
+        List<ResultadoDisparo> resultados = new ArrayList<>(disparos.size());
+        List<EventoPartida.DisparoSalva> resueltos = new ArrayList<>(disparos.size());
+        // como en dispararBloqueado: la salva y su evento sin colocaciones en medio
+        synchronized (mapaOponente) {
+            validarSalva(partido, obtenerJugador(jugadorId), mapaOponente, disparos);
+            for (int[] disparo : disparos) {
+                Coordenada coordenada = obtenerCoordenada(mapaOponente, disparo[0], disparo[1]);
+                ResultadoDisparo resultado = ResultadoDisparo.AGUA;
+                int barcoId = 0;
+                if (coordenada.tieneBarco()) {
+                    mapaOponente.marcarTocado(coordenada);
+                    Barco barco = mapaOponente.getBarco(coordenada.getBarcoIdAsInt());
+                    resultado = barco.isHundido() ? ResultadoDisparo.HUNDIDO : ResultadoDisparo.TOCADO;
+                    barcoId = barco.isHundido() ? barco.getId() : 0;
+                } else {
+                    mapaOponente.marcarAgua(coordenada);
+                }
+                resultados.add(resultado);
+                resueltos.add(new EventoPartida.DisparoSalva(disparo[0], disparo[1], resultado, barcoId));
+            }
+            journal.registrar(Evento.Salva.de(jugadorId, partidoId, disparos));
+        }
+
+        boolean terminada = mapaOponente.todosLosBarcosHundidos();
+        if (!terminada) {
+            partido.setTurnoJugadorId(oponenteId);
+        }
+        notifier.publicar(new EventoPartida.SalvaResuelta(partidoId, jugadorId, oponenteId,
+                terminada ? Partido.SIN_JUGADOR : oponenteId, resueltos));
+        verificarFinPartido(partido, mapaOponente, jugadorId, oponenteId);
+        return resultados;
+    }
+
+    /* todas las celdas antes de tocar el tablero: una salva invalida no aplica ningun disparo */
+    private void validarSalva(Partido partido, Jugador atacante, Mapa mapaOponente, List<int[]> disparos) {
+        if (disparos == null || disparos.isEmpty()) {
+            throw new IllegalArgumentException("La salva necesita al menos un disparo");
+        }
+        // sin barcos colocados no habria disparos: se deja uno, como en el modo clasico
+        Mapa propio = mapaEnPartido(partido, atacante);
+        int maximo = Math.max(1, propio != null ? propio.getBarcosAFlote() : 0);
+        if (disparos.size() > maximo) {
+            throw new IllegalArgumentException("La salva admite como mucho " + maximo
+                    + " disparos, uno por barco a flote");
+        }
+        for (int i = 0, n = disparos.size(); i < n; i++) {
+            int[] disparo = disparos.get(i);
+            if (disparo == null || disparo.length != 2) {
+                throw new IllegalArgumentException("Coordenada inválida (esperado [fila,columna])");
+            }
+            validarCoordenadaDisponible(obtenerCoordenada(mapaOponente, disparo[0], disparo[1]));
+            for (int j = 0; j < i; j++) {
+                if (disparos.get(j)[0] == disparo[0] && disparos.get(j)[1] == disparo[1]) {
+                    throw new IllegalArgumentException("Coordenada repetida en la salva: " + disparo[0] + "," + disparo[1]);
+                }
+            }
+        }
+    }
+
+    /* partidos vivos del jugador, por orden de id; los lee del indice del repositorio */
+    public List<Partido> partidasActivas(int jugadorId) {
+        obtenerJugador(jugadorId);
+        return repo.getPartidosActivos(jugadorId);
+    }
+
+    /* tablero de un jugador en su ultima version publicada; lectura sin bloqueos */
+    public MapaInstantanea obtenerTablero(int jugadorId) {
+        Jugador j = obtenerJugador(jugadorId);
+        return obtenerMapaDeJugador(j).getInstantanea();
+    }
+
     private void cambiarTurno(Partido p) {
-        Integer j1 = p.getJugador1Id();
-        Integer j2 = p.getJugador2Id();
-        if (j1 == null || j2 == null) return;
-        p.setTurnoJugadorId(p.getTurnoJugadorId().equals(j1) ? j2 : j1);
-        notifier.notifyJugador(p.getTurnoJugadorId(), "Es tu turno.");
+        if (!p.tieneDosJugadores()) return;
+        int j1 = p.getJugador1IdAsInt();
+        int siguiente = p.esTurnoDe(j1) ? p.getJugador2IdAsInt() : j1;
+        p.setTurnoJugadorId(siguiente);
+        notifier.publicar(new EventoPartida.TurnoCambiado(p.getId(), siguiente));
     }
 
     private boolean jugadorTieneTurno(int jugadorId, Partido p) {
-        return p.getTurnoJugadorId() != null && p.getTurnoJugadorId().equals(jugadorId);
+        return p.esTurnoDe(jugadorId);
     }
 
     private Jugador obtenerJugador(int jugadorId) {
@@ -139,22 +465,67 @@ public class GameService {
     }
 
     private int obtenerOponenteId(Partido partido, int jugadorId) {
-        Optional<Integer> oponenteOp = partido.otroJugador(jugadorId);
-        return oponenteOp.orElseThrow(() -> new IllegalStateException("No hay oponente"));
+        int oponenteId = partido.otroJugadorId(jugadorId);
+        if (oponenteId == Partido.SIN_JUGADOR) {
+            throw new IllegalStateException("No hay oponente");
+        }
+        return oponenteId;
     }
 
-    private void asegurarMapaParaJugador(Jugador jugador) {
-        if (jugador.getMapaId() == null) {
-            Mapa mapa = repo.crearMapa(10, 10);
-            jugador.setMapaId(mapa.getId());
+    private void validarDimensiones(int filas, int columnas) {
+        if (filas < 1 || columnas < 1 || filas > TAMANO_MAXIMO || columnas > TAMANO_MAXIMO) {
+            throw new IllegalArgumentException("Dimensiones de tablero invalidas (1-" + TAMANO_MAXIMO + "): "
+                    + filas + "x" + columnas);
         }
     }
 
+    /**
+     * Da al jugador un tablero propio en el partido y lo hace su mapa actual, donde se colocan
+     * sus barcos. El mapa actual se conserva si ya es el tablero de este partido; si tiene sus
+     * dimensiones y ninguna otra partida viva lo usa, es el de una partida terminada o expulsada
+     * y se reinicia antes de reutilizarlo. Asi un jugador puede estar en varias partidas a la vez.
+     */
+    private void asegurarMapaParaJugador(Jugador jugador, Partido partido) {
+        Mapa actual = jugador.tieneMapa() ? repo.getMapa(jugador.getMapaIdAsInt()) : null;
+        if (actual != null && partido.getMapaDe(jugador.getId()) == actual.getId()) {
+            return;
+        }
+        if (actual == null || actual.getRows() != partido.getFilas() || actual.getCols() != partido.getColumnas()
+                || usadoEnOtraPartida(jugador, actual, partido)) {
+            actual = repo.crearMapa(partido.getFilas(), partido.getColumnas());
+            jugador.setMapaId(actual.getId());
+        } else {
+            // barcos y disparos de la partida anterior no pasan a la nueva
+            actual.reiniciar(actual.getId());
+        }
+        if (partido.participa(jugador.getId())) {
+            partido.setMapaDe(jugador.getId(), actual.getId());
+        }
+    }
+
+    private boolean usadoEnOtraPartida(Jugador jugador, Mapa mapa, Partido partido) {
+        for (Partido otro : repo.getPartidosActivos(jugador.getId())) {
+            if (otro.getId() != partido.getId() && otro.getMapaDe(jugador.getId()) == mapa.getId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* tablero del jugador en el partido; sin tablero propio asignado, su mapa actual */
+    private Mapa mapaEnPartido(Partido partido, Jugador jugador) {
+        int mapaId = partido.getMapaDe(jugador.getId());
+        if (mapaId != Jugador.SIN_MAPA) {
+            return repo.getMapa(mapaId);
+        }
+        return jugador.tieneMapa() ? repo.getMapa(jugador.getMapaIdAsInt()) : null;
+    }
+
     private Mapa obtenerMapaDeJugador(Jugador jugador) {
-        if (jugador.getMapaId() == null) {
+        if (!jugador.tieneMapa()) {
             throw new IllegalStateException("Jugador no tiene mapa");
         }
-        return repo.getMapa(jugador.getMapaId());
+        return repo.getMapa(jugador.getMapaIdAsInt());
     }
 
     private Coordenada obtenerCoordenada(Mapa mapa, int fila, int columna) {
@@ -169,55 +540,43 @@ public class GameService {
     }
 
     private ResultadoDisparo procesarDisparoAgua(Partido partido, int atacanteId, int defensorId,
-                                                 int fila, int columna, Coordenada coordenada) {
-        coordenada.setEstado(EstadoCoordenada.AGUA);
+                                                 int fila, int columna, Coordenada coordenada, Mapa mapaOponente) {
+        mapaOponente.marcarAgua(coordenada);
         ResultadoDisparo resultado = ResultadoDisparo.AGUA;
-        notificarResultadoDisparo(atacanteId, defensorId, fila, columna, resultado, null);
+        notificarResultadoDisparo(partido, atacanteId, defensorId, fila, columna, resultado, null);
         cambiarTurno(partido);
         return resultado;
     }
 
     private ResultadoDisparo procesarDisparoImpacto(Partido partido, int atacanteId, int defensorId,
                                                     int fila, int columna, Coordenada coordenada, Mapa mapaOponente) {
-        coordenada.setEstado(EstadoCoordenada.TOCADO);
-        Barco barco = mapaOponente.getBarco(coordenada.getBarcoId());
-        boolean hundido = barco.getCoordenadaIds().stream()
-                .map(mapaOponente::getCoordenadaById)
-                .allMatch(c -> c.getEstado() == EstadoCoordenada.TOCADO || c.getEstado() == EstadoCoordenada.HUNDIDO);
-
-        if (hundido) {
-            barco.getCoordenadaIds().forEach(cid -> {
-                Coordenada cc = mapaOponente.getCoordenadaById(cid);
-                cc.setEstado(EstadoCoordenada.HUNDIDO);
-            });
-            barco.setHundido(true);
+        mapaOponente.marcarTocado(coordenada);
+        Barco barco = mapaOponente.getBarco(coordenada.getBarcoIdAsInt());
+
+        if (barco.isHundido()) {
             ResultadoDisparo resultado = ResultadoDisparo.HUNDIDO;
-            notificarResultadoDisparo(atacanteId, defensorId, fila, columna, resultado, barco.getId());
+            notificarResultadoDisparo(partido, atacanteId, defensorId, fila, columna, resultado, barco.getId());
             return resultado;
         }
 
         ResultadoDisparo resultado = ResultadoDisparo.TOCADO;
-        notificarResultadoDisparo(atacanteId, defensorId, fila, columna, resultado, null);
+        notificarResultadoDisparo(partido, atacanteId, defensorId, fila, columna, resultado, null);
         cambiarTurno(partido);
         return resultado;
     }
 
     private void verificarFinPartido(Partido partido, Mapa mapaOponente, int atacanteId, int defensorId) {
-        boolean todosHundidos = mapaOponente.getBarcos().stream().allMatch(Barco::isHundido);
-        if (todosHundidos) {
-            partido.setEstado(EstadoPartido.FINALIZADO);
-            notifier.notifyJugador(atacanteId, "Victoria! Has hundido todos los barcos del oponente.");
-            notifier.notifyJugador(defensorId, "Derrota. Todos tus barcos han sido hundidos.");
+        if (mapaOponente.todosLosBarcosHundidos()) {
+            partido.setGanadorId(atacanteId);
+            repo.cambiarEstado(partido, EstadoPartido.FINALIZADO);
+            repo.archivarPartido(partido.getId());
+            notifier.publicar(new EventoPartida.PartidaTerminada(partido.getId(), atacanteId, defensorId));
         }
     }
 
-    private void notificarResultadoDisparo(int atacanteId, int defensorId, int fila, int columna,
+    private void notificarResultadoDisparo(Partido partido, int atacanteId, int defensorId, int fila, int columna,
                                            ResultadoDisparo resultado, Integer barcoId) {
-        String detalle = resultado.name();
-        if (resultado == ResultadoDisparo.HUNDIDO && barcoId != null) {
-            detalle = "HUNDIDO (barco id " + barcoId + ")";
-        }
-        notifier.notifyJugador(atacanteId, "Disparaste a (" + fila + "," + columna + "): " + detalle);
-        notifier.notifyJugador(defensorId, "Te han disparado en (" + fila + "," + columna + "): " + detalle);
+        notifier.publicar(new EventoPartida.DisparoResuelto(partido.getId(), atacanteId, defensorId, fila, columna,
+                resultado, barcoId != null ? barcoId : 0));
     }
 }
@@ -1,6 +1,7 @@
 package software.sebastian.mondragon.battleship.ui;
 
 import software.sebastian.mondragon.battleship.game.client.ClientSession;
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
 
 import javax.swing.*;
 import java.awt.*;
@@ -22,6 +23,7 @@ abstract class BaseSessionFrame extends JFrame {
     protected final Supplier<ClientSession> sessionSupplier;
     protected final ClientSession session;
     private final java.util.function.Consumer<String> notificationConsumer;
+    private final java.util.function.Consumer<EventoPartida> eventConsumer;
     private JTextArea notificationArea;
     private boolean notificationsDetached;
     private boolean boardOpened;
@@ -38,6 +40,8 @@ abstract class BaseSessionFrame extends JFrame {
 
         notificationConsumer = this::appendNotificationSafely;
         session.agregarSuscriptorNotificaciones(notificationConsumer);
+        eventConsumer = evento -> SwingUtilities.invokeLater(() -> onEvent(evento));
+        session.agregarSuscriptorEventos(eventConsumer);
 
         addWindowListener(new WindowAdapter() {
             @Override
@@ -106,10 +110,23 @@ abstract class BaseSessionFrame extends JFrame {
         // Subclasses may override to react to incoming messages.
     }
 
+    protected void onEvent(EventoPartida evento) {
+        // Subclasses may override to react to typed game events, on the EDT.
+    }
+
     protected final void openBoard() {
         if (boardOpened) {
             return;
         }
+        if (!GameBoardFrame.fitsOnScreen(session.getFilas(), session.getColumnas())) {
+            JOptionPane.showMessageDialog(this,
+                    "El tablero de " + session.getFilas() + "x" + session.getColumnas()
+                            + " supera el máximo de la interfaz (" + GameBoardFrame.MAX_BOARD_SIDE
+                            + "x" + GameBoardFrame.MAX_BOARD_SIDE + ").",
+                    "Tablero demasiado grande", JOptionPane.ERROR_MESSAGE);
+            cancelAndReturn(null);
+            return;
+        }
         boardOpened = true;
         detachNotifications();
         dispose();
@@ -155,5 +172,6 @@ abstract class BaseSessionFrame extends JFrame {
         }
         notificationsDetached = true;
         session.quitarSuscriptorNotificaciones(notificationConsumer);
+        session.quitarSuscriptorEventos(eventConsumer);
     }
 }
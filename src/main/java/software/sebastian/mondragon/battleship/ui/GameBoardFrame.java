@@ -17,21 +17,37 @@ import java.util.Objects;
 import java.util.function.Supplier;
 
 public class GameBoardFrame extends JFrame {
+    /**
+     * Largest board side the Swing client draws. Each cell is a {@link JButton} on both grids,
+     * so a board of the server's {@code GameService.TAMANO_MAXIMO} per side would need millions
+     * of components; larger games are refused before the frame is built.
+     */
+    public static final int MAX_BOARD_SIDE = 64;
+
     private final transient ClientSession session;
     private final transient Supplier<ClientSession> sessionSupplier;
-    private final JButton[][] ownGrid = new JButton[10][10];
-    private final JButton[][] enemyGrid = new JButton[10][10];
+    private final JButton[][] ownGrid;
+    private final JButton[][] enemyGrid;
     private final JLabel statusLabel;
     JPanel selectedShip;
     int selectedShipSize;
     boolean horizontal = true;
     private JButton rotateBtn;
     private boolean cleanedUp;
+    // ships laid out on screen but not yet sent; the ready button sends them together
+    private final List<PendingShip> pendingFleet = new ArrayList<>();
+    private final List<JPanel> shipPanels = new ArrayList<>();
     private final transient java.util.function.Consumer<String> notificationConsumer;
 
     public GameBoardFrame(ClientSession session, Supplier<ClientSession> sessionSupplier) {
         this.session = Objects.requireNonNull(session, "session");
         this.sessionSupplier = Objects.requireNonNull(sessionSupplier, "sessionSupplier");
+        if (!fitsOnScreen(session.getFilas(), session.getColumnas())) {
+            throw new IllegalArgumentException("Tablero demasiado grande para la interfaz: "
+                    + session.getFilas() + "x" + session.getColumnas());
+        }
+        this.ownGrid = new JButton[session.getFilas()][session.getColumnas()];
+        this.enemyGrid = new JButton[session.getFilas()][session.getColumnas()];
 
         setTitle("Battleship - Tablero de Juego");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -91,10 +107,10 @@ public class GameBoardFrame extends JFrame {
     private JPanel createBoardPanel(String title, JButton[][] grid, boolean own) {
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         JLabel label = new JLabel(title, SwingConstants.CENTER);
-        JPanel gridPanel = new JPanel(new GridLayout(10, 10));
+        JPanel gridPanel = new JPanel(new GridLayout(grid.length, grid[0].length));
 
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
+        for (int i = 0; i < grid.length; i++) {
+            for (int j = 0; j < grid[i].length; j++) {
                 JButton cell = new JButton();
                 cell.setPreferredSize(new Dimension(40, 40));
                 cell.setBackground(Color.WHITE);
@@ -126,6 +142,11 @@ public class GameBoardFrame extends JFrame {
         return panel;
     }
 
+    /* true if the board can be drawn as a button grid */
+    public static boolean fitsOnScreen(int rows, int columns) {
+        return rows > 0 && columns > 0 && rows <= MAX_BOARD_SIDE && columns <= MAX_BOARD_SIDE;
+    }
+
     private JPanel createShipsPanel() {
         JPanel shipsPanel = new JPanel();
         shipsPanel.setLayout(new BoxLayout(shipsPanel, BoxLayout.Y_AXIS));
@@ -161,6 +182,7 @@ public class GameBoardFrame extends JFrame {
         JLabel label = new JLabel(" (" + size + ")");
         ship.add(label);
 
+        shipPanels.add(ship);
         ship.addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
@@ -181,7 +203,48 @@ public class GameBoardFrame extends JFrame {
 
     private void markReady(JButton readyBtn) {
         readyBtn.setEnabled(false);
-        statusLabel.setText("Estado: Listo. Esperando al oponente...");
+        if (pendingFleet.isEmpty()) {
+            statusLabel.setText("Estado: Listo. Esperando al oponente...");
+            return;
+        }
+        int placed = sendFleet();
+        if (placed > 0) {
+            statusLabel.setText("Estado: Listo. Flota de " + placed + " barcos colocada. Esperando al oponente...");
+        } else {
+            readyBtn.setEnabled(true);
+        }
+    }
+
+    /**
+     * Sends the prepared fleet in one request; the server places all of it or rejects all of it.
+     * Returns the number of ships placed.
+     */
+    private int sendFleet() {
+        List<List<int[]>> ships = new ArrayList<>(pendingFleet.size());
+        for (PendingShip ship : pendingFleet) {
+            ships.add(ship.coordinates());
+        }
+        List<TcpClient.ShipPlacementResult> placed;
+        try {
+            placed = session.colocarFlota(ships);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this,
+                    "No se pudo colocar la flota: " + ex.getMessage(),
+                    "Error de servidor", JOptionPane.ERROR_MESSAGE);
+            for (PendingShip ship : pendingFleet) {
+                clearShip(ship);
+            }
+            pendingFleet.clear();
+            statusLabel.setText("Estado: Flota rechazada. Vuelve a colocar tus barcos.");
+            return 0;
+        }
+        pendingFleet.clear();
+        // once the fleet is on the server no more ships can be placed
+        for (JPanel ship : shipPanels) {
+            ship.setEnabled(false);
+        }
+        selectedShip = null;
+        return placed.size();
     }
 
     private void toggleDirection() {
@@ -209,16 +272,10 @@ public class GameBoardFrame extends JFrame {
         }
 
         List<int[]> coordinates = buildCoordinates(startRow, startCol, rowStep, colStep);
-        try {
-            TcpClient.ShipPlacementResult result = session.colocarBarco(coordinates);
-            paintShip(startRow, startCol, rowStep, colStep);
-            deactivateSelectedShip();
-            statusLabel.setText("Estado: Barco " + result.shipId() + " colocado (" + result.size() + " casillas)");
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this,
-                    "No se pudo colocar el barco: " + ex.getMessage(),
-                    "Error de servidor", JOptionPane.ERROR_MESSAGE);
-        }
+        pendingFleet.add(new PendingShip(selectedShip, coordinates));
+        paintShip(startRow, startCol, rowStep, colStep);
+        deactivateSelectedShip();
+        statusLabel.setText("Estado: Barco de " + coordinates.size() + " casillas preparado. Pulsa Listo para enviar la flota.");
     }
 
     private List<int[]> buildCoordinates(int startRow, int startCol, int rowStep, int colStep) {
@@ -267,6 +324,15 @@ public class GameBoardFrame extends JFrame {
         }
     }
 
+    private void clearShip(PendingShip ship) {
+        for (int[] c : ship.coordinates()) {
+            ownGrid[c[0]][c[1]].setBackground(Color.WHITE);
+            ownGrid[c[0]][c[1]].setEnabled(true);
+        }
+        ship.panel().setEnabled(true);
+        ship.panel().setOpaque(true);
+    }
+
     private void deactivateSelectedShip() {
         if (selectedShip != null) {
             selectedShip.setEnabled(false);
@@ -325,4 +391,6 @@ public class GameBoardFrame extends JFrame {
             // Ignored
         }
     }
+
+    private record PendingShip(JPanel panel, List<int[]> coordinates) {}
 }
@@ -1,6 +1,7 @@
 package software.sebastian.mondragon.battleship.ui;
 
 import software.sebastian.mondragon.battleship.game.client.ClientSession;
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -134,9 +135,10 @@ public class GameHostFrame extends BaseSessionFrame {
     }
 
     @Override
-    protected void onNotificationAppended(String message) {
+    protected void onEvent(EventoPartida evento) {
         Integer partidoId = session.getPartidoId();
-        if (partidoId != null && message.contains("Partida " + partidoId + " iniciada")) {
+        if (evento instanceof EventoPartida.PartidaIniciada iniciada && partidoId != null
+                && iniciada.partidoId() == partidoId) {
             openBoard();
         }
     }
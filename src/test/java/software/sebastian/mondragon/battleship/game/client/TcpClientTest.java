@@ -2,12 +2,14 @@ package software.sebastian.mondragon.battleship.game.client;
 
 import org.junit.jupiter.api.Test;
 import software.sebastian.mondragon.battleship.game.client.support.FakeBattleshipServer;
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
 import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
@@ -87,6 +89,124 @@ class TcpClientTest {
                 });
     }
 
+    @Test
+    void salvoSendsAllShotsInOneCommand() throws Exception {
+        withServerAndClient(
+                List.of("WELCOME Battleship TCP"),
+                command -> {
+                    if ("CREATE_GAME 8 8 SALVO".equals(command)) {
+                        return "GAME 4 8 8 SALVO";
+                    }
+                    if ("SALVO 4 1,2 3,4".equals(command)) {
+                        return "RESULTS AGUA HUNDIDO";
+                    }
+                    if ("QUIT".equals(command)) {
+                        return "BYE bye";
+                    }
+                    return "ERROR Unexpected: " + command;
+                },
+                (server, client) -> {
+                    assertEquals(4, client.createSalvoGame(8, 8));
+                    assertEquals(8, client.getBoardRows());
+                    assertEquals(List.of(ResultadoDisparo.AGUA, ResultadoDisparo.HUNDIDO),
+                            client.salvo(4, List.of(new int[]{1, 2}, new int[]{3, 4})));
+                    assertThrows(TcpClientException.class, () -> client.salvo(4, List.of(new int[]{0, 0})));
+                    client.quit();
+                });
+    }
+
+    @Test
+    void placeFleetSendsEveryShipInOneCommand() throws Exception {
+        withServerAndClient(
+                List.of("WELCOME Battleship TCP"),
+                command -> {
+                    if ("PLACE_FLEET 0,0;0,1 5,5".equals(command)) {
+                        return "FLEET 3:2 4:1";
+                    }
+                    if ("QUIT".equals(command)) {
+                        return "BYE bye";
+                    }
+                    return "ERROR Unexpected: " + command;
+                },
+                (server, client) -> {
+                    List<TcpClient.ShipPlacementResult> fleet = client.placeFleet(List.of(
+                            List.of(new int[]{0, 0}, new int[]{0, 1}),
+                            List.of(new int[]{5, 5})));
+                    assertEquals(List.of(new TcpClient.ShipPlacementResult(3, 2), new TcpClient.ShipPlacementResult(4, 1)),
+                            fleet);
+                    assertThrows(TcpClientException.class, () -> client.placeFleet(List.of(List.of(new int[]{1, 1}))));
+                    assertThrows(IllegalArgumentException.class, () -> client.placeFleet(List.of()));
+                    client.quit();
+                });
+    }
+
+    @Test
+    void eventLinesReachEventListenerAndNotResponses() throws Exception {
+        withServerAndClient(
+                List.of("WELCOME Battleship TCP"),
+                command -> {
+                    if ("CREATE_PLAYER".equals(command)) {
+                        return "PLAYER 1";
+                    }
+                    if ("QUIT".equals(command)) {
+                        return "BYE bye";
+                    }
+                    return "ERROR Unexpected: " + command;
+                },
+                (server, client) -> {
+                    CountDownLatch latch = new CountDownLatch(1);
+                    AtomicReference<EventoPartida> recibido = new AtomicReference<>();
+                    client.setEventListener(evento -> {
+                        recibido.set(evento);
+                        latch.countDown();
+                    });
+
+                    server.awaitClientConnected(Duration.ofSeconds(1));
+                    server.sendEvent("EVENT BOGUS 1");
+                    server.sendEvent("EVENT STARTED 4 1 2 1");
+
+                    assertTrue(latch.await(1, TimeUnit.SECONDS), "El listener debe recibir el evento");
+                    assertEquals(new EventoPartida.PartidaIniciada(4, 1, 2, 1), recibido.get());
+                    assertEquals(1, client.createPlayer());
+                    client.quit();
+                });
+    }
+
+    @Test
+    void gameResponsesUpdateBoardDimensions() throws Exception {
+        withServerAndClient(
+                List.of("WELCOME Battleship TCP"),
+                command -> {
+                    if ("CREATE_GAME 40 50".equals(command)) {
+                        return "GAME 3 40 50";
+                    }
+                    if ("JOIN_GAME 4".equals(command)) {
+                        return "JOINED 4";
+                    }
+                    if ("JOIN_ANY".equals(command)) {
+                        return "JOINED 5 12 14";
+                    }
+                    if ("QUIT".equals(command)) {
+                        return "BYE bye";
+                    }
+                    return "ERROR Unexpected: " + command;
+                },
+                (server, client) -> {
+                    assertEquals(3, client.createGame(40, 50));
+                    assertEquals(40, client.getBoardRows());
+                    assertEquals(50, client.getBoardColumns());
+
+                    assertEquals(4, client.joinGame(4));
+                    assertEquals(10, client.getBoardRows());
+                    assertEquals(10, client.getBoardColumns());
+
+                    assertEquals(5, client.joinAnyGame());
+                    assertEquals(12, client.getBoardRows());
+                    assertEquals(14, client.getBoardColumns());
+                    client.quit();
+                });
+    }
+
     @Test
     void constructorValidatesArguments() {
         assertInvalidClient("", 9090, Duration.ofSeconds(1), Duration.ZERO);
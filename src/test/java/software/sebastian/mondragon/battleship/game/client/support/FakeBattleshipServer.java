@@ -70,6 +70,14 @@ public final class FakeBattleshipServer implements AutoCloseable {
         }
     }
 
+    public void sendEvent(String line) {
+        PrintWriter writer = writerRef.get();
+        if (writer != null) {
+            writer.println(line);
+            writer.flush();
+        }
+    }
+
     @Override
     public void close() {
         running = false;
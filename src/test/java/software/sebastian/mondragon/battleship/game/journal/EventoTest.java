@@ -0,0 +1,53 @@
+package software.sebastian.mondragon.battleship.game.journal;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoTest {
+
+    @Test
+    void todosLosTiposSeCodificanYLeenIgual() {
+        List<Evento> eventos = List.of(
+                new Evento.JugadorCreado(7),
+                new Evento.PartidoCreado(3, 7, 4096, 12),
+                new Evento.PartidoCreado(4, 7, 10, 10, 1),
+                new Evento.JugadorUnido(3, 8),
+                Evento.BarcoColocado.de(7, List.of(new int[]{0, 1}, new int[]{0, 2})),
+                new Evento.Disparo(8, 3, 4000, 11),
+                Evento.Salva.de(7, 4, List.of(new int[]{1, 2}, new int[]{3, 4})));
+        for (Evento evento : eventos) {
+            ByteBuffer buffer = ByteBuffer.allocate(evento.tamano());
+            evento.escribir(buffer);
+            assertFalse(buffer.hasRemaining(), "tamano exacto de " + evento);
+
+            Evento leido = Evento.leer(buffer.flip());
+            assertEquals(evento, leido);
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void barcoColocadoDevuelvePosicionesEnPares() {
+        Evento.BarcoColocado barco = Evento.BarcoColocado.de(1, List.of(new int[]{5, 6}, new int[]{5, 7}));
+        assertArrayEquals(new int[]{5, 7}, barco.getPosiciones().get(1));
+        assertEquals(barco.hashCode(), new Evento.BarcoColocado(1, new int[]{5, 6, 5, 7}).hashCode());
+        assertThrows(IllegalArgumentException.class, () -> new Evento.BarcoColocado(1, new int[]{5}));
+    }
+
+    @Test
+    void partidoClasicoConservaElFormatoSinModo() {
+        assertEquals(1 + 4 * 4, new Evento.PartidoCreado(1, 1, 10, 10).tamano());
+        assertEquals(new Evento.PartidoCreado(1, 1, 10, 10), new Evento.PartidoCreado(1, 1, 10, 10, 0));
+        assertArrayEquals(new int[]{3, 4}, Evento.Salva.de(1, 2, List.of(new int[]{1, 2}, new int[]{3, 4})).getDisparos().get(1));
+    }
+
+    @Test
+    void tipoDesconocidoFalla() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{42, 0, 0, 0, 0});
+        assertThrows(IllegalArgumentException.class, () -> Evento.leer(buffer));
+    }
+}
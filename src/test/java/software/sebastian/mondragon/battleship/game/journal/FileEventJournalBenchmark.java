@@ -0,0 +1,57 @@
+package software.sebastian.mondragon.battleship.game.journal;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Eventos registrados y confirmados por segundo. Con un solo hilo cada confirmacion paga su
+ * fsync; con varios, el group commit reparte un fsync entre todos los eventos del lote.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="FileEventJournalBenchmark -t 1"
+ * mvn -Pbench test-compile exec:exec -Dbench="FileEventJournalBenchmark -t 16"</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileEventJournalBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Journal {
+        Path directorio;
+        FileEventJournal journal;
+
+        @Setup(Level.Trial)
+        public void abrir() throws IOException {
+            directorio = Files.createTempDirectory("journal-bench");
+            journal = FileEventJournal.abrir(directorio, e -> { });
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws IOException {
+            journal.close();
+            try (Stream<Path> rutas = Files.walk(directorio)) {
+                rutas.sorted(Comparator.reverseOrder()).forEach(r -> r.toFile().delete());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Disparos {
+        int celda;
+    }
+
+    @Benchmark
+    public void registrarYConfirmar(Journal j, Disparos d) {
+        int celda = d.celda++;
+        j.journal.registrar(new Evento.Disparo(1, 1, celda / 100, celda % 100));
+        j.journal.confirmar();
+    }
+}
@@ -0,0 +1,230 @@
+package software.sebastian.mondragon.battleship.game.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+import software.sebastian.mondragon.battleship.game.repo.InMemoryRepo;
+import software.sebastian.mondragon.battleship.game.service.GameService;
+import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileEventJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void eventosConfirmadosSeReproducenAlReabrir() throws IOException {
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, e -> fail("journal nuevo no tiene eventos"))) {
+            journal.registrar(new Evento.JugadorCreado(1));
+            journal.registrar(new Evento.PartidoCreado(1, 1, 10, 10));
+            journal.confirmar();
+            assertEquals(1, journal.getLotesVolcados());
+        }
+
+        List<Evento> leidos = new ArrayList<>();
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, leidos::add)) {
+            journal.registrar(new Evento.JugadorUnido(1, 2));
+            journal.confirmar();
+        }
+        assertEquals(List.of(new Evento.JugadorCreado(1), new Evento.PartidoCreado(1, 1, 10, 10)), leidos);
+
+        leidos.clear();
+        FileEventJournal.abrir(dir, leidos::add).close();
+        assertEquals(3, leidos.size());
+        assertEquals(new Evento.JugadorUnido(1, 2), leidos.get(2));
+    }
+
+    @Test
+    void confirmarHastaLaMarcaDeOtroHiloVuelcaSusEventos() throws Exception {
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, e -> { })) {
+            long[] marca = new long[1];
+            Thread otro = new Thread(() -> {
+                journal.registrar(new Evento.JugadorCreado(1));
+                marca[0] = journal.marca();
+            });
+            otro.start();
+            otro.join();
+
+            assertEquals(0, journal.marca());
+            journal.confirmarHasta(marca[0]);
+            assertEquals(1, journal.getLotesVolcados());
+        }
+    }
+
+    @Test
+    void colaCortadaPorUnaCaidaSeTrunca() throws IOException {
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, e -> { })) {
+            journal.registrar(new Evento.JugadorCreado(1));
+            journal.registrar(new Evento.JugadorCreado(2));
+            journal.confirmar();
+        }
+        Path segmento = FileEventJournal.ruta(dir, 1);
+        long completo = Files.size(segmento);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(completo - 2);
+        }
+
+        List<Evento> leidos = new ArrayList<>();
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, leidos::add)) {
+            assertEquals(List.of(new Evento.JugadorCreado(1)), leidos);
+            assertEquals(FileEventJournal.CABECERA + 5, Files.size(segmento));
+            journal.registrar(new Evento.JugadorCreado(3));
+            journal.confirmar();
+        }
+        leidos.clear();
+        FileEventJournal.abrir(dir, leidos::add).close();
+        assertEquals(List.of(new Evento.JugadorCreado(1), new Evento.JugadorCreado(3)), leidos);
+    }
+
+    @Test
+    void crcIncorrectoCortaLaReproduccion() throws IOException {
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, e -> { })) {
+            journal.registrar(new Evento.JugadorCreado(1));
+            journal.registrar(new Evento.JugadorCreado(2));
+            journal.confirmar();
+        }
+        Path segmento = FileEventJournal.ruta(dir, 1);
+        byte[] bytes = Files.readAllBytes(segmento);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(segmento, bytes);
+
+        List<Evento> leidos = new ArrayList<>();
+        FileEventJournal.abrir(dir, leidos::add).close();
+        assertEquals(List.of(new Evento.JugadorCreado(1)), leidos);
+    }
+
+    @Test
+    void rotaSegmentosYRechazaCorrupcionQueNoEstaAlFinal() throws IOException {
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, 32, e -> { })) {
+            for (int id = 1; id <= 5; id++) {
+                journal.registrar(new Evento.JugadorCreado(id));
+                journal.confirmar();
+            }
+        }
+        assertTrue(Files.exists(FileEventJournal.ruta(dir, 2)));
+        List<Evento> leidos = new ArrayList<>();
+        FileEventJournal.abrir(dir, 32, leidos::add).close();
+        assertEquals(5, leidos.size());
+        assertEquals(new Evento.JugadorCreado(5), leidos.get(4));
+
+        Path primero = FileEventJournal.ruta(dir, 1);
+        Files.write(primero, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+        assertThrows(IOException.class, () -> FileEventJournal.abrir(dir, 32, e -> { }));
+    }
+
+    @Test
+    void confirmacionesConcurrentesSeAgrupanEnLotes() throws Exception {
+        int hilos = 8;
+        int porHilo = 200;
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, e -> { })) {
+            CountDownLatch salida = new CountDownLatch(1);
+            Thread[] trabajadores = new Thread[hilos];
+            for (int h = 0; h < hilos; h++) {
+                int base = h * porHilo;
+                trabajadores[h] = new Thread(() -> {
+                    try {
+                        salida.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int i = 1; i <= porHilo; i++) {
+                        journal.registrar(new Evento.JugadorCreado(base + i));
+                        journal.confirmar();
+                    }
+                });
+                trabajadores[h].start();
+            }
+            salida.countDown();
+            for (Thread t : trabajadores) {
+                t.join();
+            }
+            assertEquals(hilos * porHilo, journal.getEventosRegistrados());
+            assertTrue(journal.getLotesVolcados() <= hilos * porHilo);
+        }
+        List<Evento> leidos = new ArrayList<>();
+        FileEventJournal.abrir(dir, leidos::add).close();
+        assertEquals(hilos * porHilo, leidos.size());
+    }
+
+    @Test
+    void cerrarVuelcaLoPendienteYRechazaNuevosEventos() throws IOException {
+        FileEventJournal journal = FileEventJournal.abrir(dir, e -> { });
+        journal.registrar(new Evento.JugadorCreado(1));
+        journal.close();
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.registrar(new Evento.JugadorCreado(2)));
+
+        List<Evento> leidos = new ArrayList<>();
+        FileEventJournal.abrir(dir, leidos::add).close();
+        assertEquals(List.of(new Evento.JugadorCreado(1)), leidos);
+    }
+
+    @Test
+    void puntoDeControlPermiteReabrirSoloConLaCola() throws IOException {
+        PuntoJournal punto;
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, 32, e -> { })) {
+            journal.registrar(new Evento.JugadorCreado(1));
+            journal.registrar(new Evento.JugadorCreado(2));
+            journal.confirmar();
+            journal.registrar(new Evento.JugadorCreado(3));
+            punto = journal.puntoDeControl();
+            assertEquals(2, punto.segmento());
+            journal.registrar(new Evento.JugadorCreado(4));
+            journal.confirmar();
+
+            assertEquals(1, journal.eliminarSegmentosAnteriores(punto.segmento()));
+        }
+        assertFalse(Files.exists(FileEventJournal.ruta(dir, 1)));
+
+        List<Evento> leidos = new ArrayList<>();
+        FileEventJournal.abrir(dir, punto, 32, leidos::add).close();
+        assertEquals(List.of(new Evento.JugadorCreado(4)), leidos);
+        assertThrows(IOException.class, () -> FileEventJournal.abrir(dir, e -> { }));
+    }
+
+    @Test
+    void gameServiceReconstruyeLaPartidaTrasReiniciar() throws IOException {
+        int partidoId;
+        int host;
+        int guest;
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, e -> { })) {
+            GameService service = new GameService(new InMemoryRepo(), (id, msg) -> { }, journal);
+            host = service.crearJugador().getId();
+            guest = service.crearJugador().getId();
+            partidoId = service.crearPartido(host, 12, 12).getId();
+            service.unirsePartido(partidoId, guest);
+            service.colocarBarco(host, List.of(new int[]{0, 0}));
+            service.colocarBarco(guest, List.of(new int[]{3, 3}, new int[]{3, 4}));
+            assertEquals(ResultadoDisparo.TOCADO, service.disparar(host, partidoId, 3, 3));
+            service.disparar(guest, partidoId, 9, 9);
+            assertThrows(IllegalStateException.class, () -> service.disparar(guest, partidoId, 8, 8));
+            assertEquals(ResultadoDisparo.HUNDIDO, service.disparar(host, partidoId, 3, 4));
+        }
+
+        InMemoryRepo repo = new InMemoryRepo();
+        GameService reproductor = new GameService(repo, (id, msg) -> { });
+        FileEventJournal.abrir(dir, reproductor::aplicar).close();
+
+        Partido partido = repo.getPartido(partidoId);
+        assertEquals(EstadoPartido.FINALIZADO, partido.getEstado());
+        assertEquals(host, partido.getGanadorId());
+        assertEquals(12, partido.getFilas());
+        assertTrue(reproductor.obtenerTablero(guest).todosLosBarcosHundidos());
+        assertTrue(reproductor.obtenerTablero(host).fueDisparada(9, 9));
+        assertEquals(3, repo.crearJugador().getId());
+        assertEquals(partidoId + 1, repo.crearPartido().getId());
+    }
+}
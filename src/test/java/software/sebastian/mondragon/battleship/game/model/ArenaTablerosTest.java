@@ -0,0 +1,48 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaTablerosTest {
+
+    @Test
+    void reservaRanurasAlineadasDentroDeUnBloque() {
+        ArenaTableros arena = new ArenaTableros();
+        ArenaTableros.Ranura a = arena.reservar(1000);
+        ArenaTableros.Ranura b = arena.reservar(1000);
+
+        assertEquals(1000, a.tamano());
+        assertSame(a.bloque(), b.bloque());
+        assertEquals(1000, b.base() - a.base());
+        assertTrue(a.bloque().isDirect());
+        assertEquals(2, arena.getRanurasEnUso());
+        assertEquals(ArenaTableros.TAMANO_BLOQUE / 1000 * 1000, arena.getBytesReservados());
+        assertEquals(1008, arena.reservar(1001).tamano());
+    }
+
+    @Test
+    void ranuraLiberadaSeReutilizaPuestaACero() {
+        ArenaTableros arena = new ArenaTableros();
+        ArenaTableros.Ranura usada = arena.reservar(16);
+        usada.bloque().putLong(usada.base() + 8, -1L);
+        arena.liberar(usada);
+
+        ArenaTableros.Ranura reutilizada = arena.reservar(16);
+
+        assertEquals(usada.numero(), reutilizada.numero());
+        assertEquals(0L, reutilizada.bloque().getLong(reutilizada.base() + 8));
+        assertEquals(1, arena.getRanurasEnUso());
+    }
+
+    @Test
+    void ranurasMayoresQueUnBloqueTienenBloquePropio() {
+        ArenaTableros arena = new ArenaTableros();
+        ArenaTableros.Ranura grande = arena.reservar(ArenaTableros.TAMANO_BLOQUE + 8);
+        ArenaTableros.Ranura otra = arena.reservar(ArenaTableros.TAMANO_BLOQUE + 8);
+
+        assertNotSame(grande.bloque(), otra.bloque());
+        assertEquals(0, otra.base());
+        assertEquals(2L * (ArenaTableros.TAMANO_BLOQUE + 8), arena.getBytesReservados());
+    }
+}
@@ -22,4 +22,36 @@ class BarcoTest {
         assertTrue(barco.isHundido());
         assertTrue(barco.toString().contains("Barco{"));
     }
+
+    @Test
+    void registrarImpactoDescuentaCeldasHastaHundir() {
+        Barco barco = new Barco(1);
+        barco.addCoordenada(1);
+        barco.addCoordenada(2);
+        assertEquals(2, barco.getCeldasRestantes());
+
+        assertFalse(barco.registrarImpacto());
+        assertEquals(1, barco.getCeldasRestantes());
+        assertFalse(barco.isHundido());
+
+        assertTrue(barco.registrarImpacto());
+        assertTrue(barco.isHundido());
+        assertEquals(0, barco.getCeldasRestantes());
+        assertFalse(barco.registrarImpacto());
+    }
+
+    @Test
+    void testCeldasCrecenYSeLeenSinBoxing() {
+        Barco barco = new Barco(1);
+        for (int i = 1; i <= 9; i++) {
+            barco.addCoordenada(i * 10);
+        }
+
+        assertEquals(9, barco.getTamano());
+        assertEquals(90, barco.getCoordenadaId(8));
+        assertEquals(9, barco.getCoordenadaIds().size());
+        assertEquals(50, barco.getCoordenadaIds().get(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> barco.getCoordenadaId(9));
+        assertThrows(UnsupportedOperationException.class, () -> barco.getCoordenadaIds().add(1));
+    }
 }
@@ -0,0 +1,51 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una escritura tras cada {@link CeldaBits#congelar()}, como hace {@link Mapa} al publicar
+ * despues de cada disparo. Solo se copia el camino hasta la pagina tocada, asi que el tiempo y
+ * la basura por operacion deben ser los mismos de 10x10 a 4096x4096.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="CeldaBitsEscrituraBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CeldaBitsEscrituraBenchmark {
+    private static final int MUESTRAS = 1024;
+
+    @Param({"10", "1000", "4096"})
+    private int lado;
+
+    private CeldaBits bits;
+    private int[] indices;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        bits = new CeldaBits(lado * lado);
+        Random random = new Random(42);
+        indices = new int[MUESTRAS];
+        for (int i = 0; i < MUESTRAS; i++) {
+            indices[i] = random.nextInt(lado * lado);
+        }
+    }
+
+    @Benchmark
+    public CeldaBits escribirTrasCongelar() {
+        int indice = indices[cursor++ & (MUESTRAS - 1)];
+        if (bits.get(indice)) {
+            bits.clear(indice);
+        } else {
+            bits.set(indice);
+        }
+        return bits.congelar();
+    }
+}
@@ -0,0 +1,125 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CeldaBitsTest {
+
+    @Test
+    void setGetYClearEnVariasPalabras() {
+        CeldaBits bits = new CeldaBits(100);
+        bits.set(0);
+        bits.set(63);
+        bits.set(64);
+        bits.set(99);
+
+        assertTrue(bits.get(0));
+        assertTrue(bits.get(63));
+        assertTrue(bits.get(64));
+        assertTrue(bits.get(99));
+        assertFalse(bits.get(1));
+        assertEquals(4, bits.cardinalidad());
+
+        bits.clear(63);
+        assertFalse(bits.get(63));
+        assertEquals(3, bits.cardinalidad());
+    }
+
+    @Test
+    void cubiertoPorComparaTodasLasPalabras() {
+        CeldaBits barcos = new CeldaBits(100);
+        CeldaBits tocadas = new CeldaBits(100);
+        barcos.set(5);
+        barcos.set(70);
+
+        tocadas.set(5);
+        assertFalse(barcos.cubiertoPor(tocadas));
+
+        tocadas.set(70);
+        tocadas.set(80);
+        assertTrue(barcos.cubiertoPor(tocadas));
+        assertTrue(new CeldaBits(100).cubiertoPor(tocadas));
+    }
+
+    @Test
+    void congelarDevuelveCopiaQueNoVeEscriturasPosteriores() {
+        CeldaBits bits = new CeldaBits(10_000);
+        bits.set(5);
+        CeldaBits congelada = bits.congelar();
+
+        bits.set(6);
+        bits.set(9_000);
+        bits.clear(5);
+
+        assertTrue(congelada.get(5));
+        assertFalse(congelada.get(6));
+        assertFalse(congelada.get(9_000));
+        assertEquals(1, congelada.paginasReservadas());
+        assertFalse(bits.get(5));
+        assertTrue(bits.get(9_000));
+
+        CeldaBits segunda = bits.congelar();
+        bits.set(7);
+        assertFalse(segunda.get(7));
+        assertTrue(segunda.get(6));
+        assertTrue(bits.get(7));
+    }
+
+    @Test
+    void congelarEntreEscriturasDeGruposDistintosDeUnTableroGigante() {
+        int celdas = 4096 * 4096;
+        CeldaBits bits = new CeldaBits(celdas);
+        int ultimaCelda = celdas - 1;
+        bits.set(0);
+        CeldaBits primera = bits.congelar();
+        bits.set(ultimaCelda);
+        CeldaBits segunda = bits.congelar();
+        bits.clear(0);
+        bits.set(4096 * CeldaBits.PAGINAS_POR_GRUPO);
+
+        assertTrue(primera.get(0));
+        assertFalse(primera.get(ultimaCelda));
+        assertTrue(segunda.get(0));
+        assertTrue(segunda.get(ultimaCelda));
+        assertFalse(segunda.get(4096 * CeldaBits.PAGINAS_POR_GRUPO));
+        assertFalse(bits.get(0));
+        assertEquals(2, bits.cardinalidad());
+        assertEquals(ultimaCelda, bits.siguiente(4096 * CeldaBits.PAGINAS_POR_GRUPO + 1));
+        assertEquals(1, primera.paginasReservadas());
+        assertEquals(3, bits.paginasReservadas());
+    }
+
+    @Test
+    void limpiarNoAfectaCopiasCongeladas() {
+        CeldaBits bits = new CeldaBits(10_000);
+        bits.set(1);
+        CeldaBits congelada = bits.congelar();
+        bits.set(9_000);
+
+        bits.limpiar();
+
+        assertEquals(0, bits.cardinalidad());
+        assertTrue(congelada.get(1));
+        bits.set(2);
+        assertFalse(congelada.get(2));
+
+        bits.limpiar();
+        assertFalse(bits.get(2));
+    }
+
+    @Test
+    void siguienteRecorreLasCeldasMarcadasSaltandoPaginasVacias() {
+        CeldaBits bits = new CeldaBits(100_000);
+        bits.set(3);
+        bits.set(64);
+        bits.set(90_000);
+
+        assertEquals(3, bits.siguiente(0));
+        assertEquals(3, bits.siguiente(3));
+        assertEquals(64, bits.siguiente(4));
+        assertEquals(90_000, bits.siguiente(65));
+        assertEquals(-1, bits.siguiente(90_001));
+        assertEquals(2, bits.paginasReservadas());
+    }
+}
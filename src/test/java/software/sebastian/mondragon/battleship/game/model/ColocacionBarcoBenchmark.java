@@ -0,0 +1,101 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compara la validacion de colocacion de {@link Mapa} con la implementacion anterior
+ * basada en {@code Set<String>} y streams. Con {@code -prof gc} la ruta actual debe
+ * mostrar {@code gc.alloc.rate.norm} cercano a 0 B/op.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="ColocacionBarcoBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ColocacionBarcoBenchmark {
+
+    @Param({"2", "5"})
+    private int largo;
+
+    private Mapa mapa;
+    private List<int[]> horizontal;
+    private List<int[]> vertical;
+
+    @Setup
+    public void setup() {
+        mapa = new Mapa(1, 10, 10);
+        mapa.crearBarco(List.of(new int[]{9, 9}));
+        horizontal = new ArrayList<>();
+        vertical = new ArrayList<>();
+        for (int i = largo - 1; i >= 0; i--) {
+            horizontal.add(new int[]{2, 1 + i});
+            vertical.add(new int[]{1 + i, 7});
+        }
+    }
+
+    @Benchmark
+    public void validacionActual() {
+        mapa.validarColocacion(horizontal);
+        mapa.validarColocacion(vertical);
+    }
+
+    @Benchmark
+    public int validacionAnterior() {
+        return ValidacionAnterior.validar(mapa, horizontal) + ValidacionAnterior.validar(mapa, vertical);
+    }
+
+    /* copia de la validacion previa de Mapa.crearBarco, como linea base */
+    static final class ValidacionAnterior {
+        private ValidacionAnterior() {
+        }
+
+        static int validar(Mapa mapa, List<int[]> posiciones) {
+            if (posiciones == null || posiciones.isEmpty()) {
+                throw new IllegalArgumentException("Debe proporcionar al menos una coordenada");
+            }
+            List<Coordenada> coords = new ArrayList<>();
+            Set<String> usados = new HashSet<>();
+            for (int[] pos : posiciones) {
+                if (pos == null || pos.length != 2) {
+                    throw new IllegalArgumentException("Coordenada inválida (esperado [fila,columna])");
+                }
+                int fila = pos[0];
+                int col = pos[1];
+                if (!usados.add(fila + ":" + col)) {
+                    throw new IllegalArgumentException("Coordenada duplicada: " + fila + "," + col);
+                }
+                Coordenada coord = mapa.buscarPorFilaCol(fila, col)
+                        .orElseThrow(() -> new IllegalArgumentException("Posicion fuera de mapa: " + fila + "," + col));
+                if (coord.getBarcoId() != null) {
+                    throw new IllegalArgumentException("Ya existe un barco en " + fila + "," + col);
+                }
+                coords.add(coord);
+            }
+            if (coords.size() > 1) {
+                Set<Integer> filas = coords.stream().map(Coordenada::getFila).collect(Collectors.toSet());
+                Set<Integer> columnas = coords.stream().map(Coordenada::getColumna).collect(Collectors.toSet());
+                List<Integer> orden;
+                if (filas.size() == 1) {
+                    orden = columnas.stream().sorted().toList();
+                } else if (columnas.size() == 1) {
+                    orden = filas.stream().sorted().toList();
+                } else {
+                    throw new IllegalArgumentException("El barco debe colocarse en línea recta horizontal o vertical");
+                }
+                for (int i = 1; i < orden.size(); i++) {
+                    if (orden.get(i) != orden.get(i - 1) + 1) {
+                        throw new IllegalArgumentException("Las celdas del barco deben ser contiguas");
+                    }
+                }
+            }
+            return coords.size();
+        }
+    }
+}
@@ -21,4 +21,19 @@ class CoordenadaTest {
         assertEquals(EstadoCoordenada.TOCADO, c.getEstado());
         assertTrue(c.toString().contains("Coordenada{"));
     }
+
+    @Test
+    void testBarcoIdPrimitivo() {
+        Coordenada c = new Coordenada(1, 0, 0);
+        assertFalse(c.tieneBarco());
+        assertEquals(Coordenada.SIN_BARCO, c.getBarcoIdAsInt());
+
+        c.setBarcoId(3);
+        assertTrue(c.tieneBarco());
+        assertEquals(3, c.getBarcoIdAsInt());
+
+        c.setBarcoId((Integer) null);
+        assertFalse(c.tieneBarco());
+        assertNull(c.getBarcoId());
+    }
 }
@@ -14,4 +14,37 @@ class JugadorTest {
         j.setMapaId(5);
         assertEquals(5, j.getMapaId());
     }
+
+    @Test
+    void testMapaIdPrimitivo() {
+        Jugador j = new Jugador(1);
+        assertFalse(j.tieneMapa());
+        assertEquals(Jugador.SIN_MAPA, j.getMapaIdAsInt());
+
+        j.setMapaId(7);
+        assertTrue(j.tieneMapa());
+        assertEquals(7, j.getMapaIdAsInt());
+
+        j.setMapaId((Integer) null);
+        assertFalse(j.tieneMapa());
+    }
+
+    @Test
+    void testPartidosActivosOrdenadosYSinRepetir() {
+        Jugador j = new Jugador(1);
+        assertFalse(j.tienePartidosActivos());
+
+        j.anadirPartidoActivo(9);
+        j.anadirPartidoActivo(3);
+        j.anadirPartidoActivo(9);
+        assertArrayEquals(new int[]{3, 9}, j.getPartidosActivos());
+
+        j.getPartidosActivos()[0] = 42;
+        j.quitarPartidoActivo(3);
+        j.quitarPartidoActivo(5);
+        assertArrayEquals(new int[]{9}, j.getPartidosActivos());
+
+        j.quitarPartidoActivo(9);
+        assertFalse(j.tienePartidosActivos());
+    }
 }
@@ -0,0 +1,115 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaInstantaneaTest {
+
+    @Test
+    void instantaneaInicialEstaVacia() {
+        Mapa mapa = new Mapa(7, 10, 10);
+        MapaInstantanea inst = mapa.getInstantanea();
+
+        assertEquals(7, inst.getMapaId());
+        assertEquals(0, inst.getVersion());
+        assertEquals(10, inst.getFilas());
+        assertEquals(10, inst.getColumnas());
+        assertEquals(0, inst.getBarcos());
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, inst.getEstado(3, 3));
+        assertFalse(inst.tieneBarco(3, 3));
+    }
+
+    @Test
+    void instantaneaAnteriorNoCambiaConDisparosPosteriores() {
+        Mapa mapa = new Mapa(1, 10, 10);
+        mapa.crearBarco(List.of(new int[]{2, 2}, new int[]{2, 3}));
+        MapaInstantanea antes = mapa.getInstantanea();
+
+        mapa.marcarTocado(mapa.buscarPorFilaCol(2, 2).orElseThrow());
+        mapa.marcarAgua(mapa.buscarPorFilaCol(0, 0).orElseThrow());
+        MapaInstantanea despues = mapa.getInstantanea();
+
+        assertTrue(antes.tieneBarco(2, 2));
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, antes.getEstado(2, 2));
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, antes.getEstado(0, 0));
+        assertEquals(1, antes.getBarcosAFlote());
+
+        assertTrue(despues.getVersion() > antes.getVersion());
+        assertEquals(EstadoCoordenada.TOCADO, despues.getEstado(2, 2));
+        assertEquals(EstadoCoordenada.AGUA, despues.getEstado(0, 0));
+        assertEquals(2, despues.getDisparosRecibidos());
+        assertEquals(1, despues.getImpactosRecibidos());
+    }
+
+    @Test
+    void hundirBarcoSeRefleja() {
+        Mapa mapa = new Mapa(1, 10, 10);
+        mapa.crearBarco(List.of(new int[]{4, 4}));
+        mapa.marcarTocado(mapa.buscarPorFilaCol(4, 4).orElseThrow());
+
+        MapaInstantanea inst = mapa.getInstantanea();
+        assertEquals(EstadoCoordenada.HUNDIDO, inst.getEstado(4, 4));
+        assertTrue(inst.todosLosBarcosHundidos());
+    }
+
+    @Test
+    void funcionaEnModoPerezosoConVariasPaginas() {
+        Mapa mapa = new Mapa(1, 200, 200, ModoCeldas.PEREZOSO);
+        mapa.crearBarco(List.of(new int[]{199, 198}, new int[]{199, 199}));
+        MapaInstantanea antes = mapa.getInstantanea();
+
+        mapa.marcarTocado(mapa.buscarPorFilaCol(199, 199).orElseThrow());
+
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, antes.getEstado(199, 199));
+        assertEquals(EstadoCoordenada.TOCADO, mapa.getInstantanea().getEstado(199, 199));
+    }
+
+    @Test
+    void posicionFueraDeMapaLanzaExcepcion() {
+        MapaInstantanea inst = new Mapa(1, 10, 10).getInstantanea();
+        assertThrows(IndexOutOfBoundsException.class, () -> inst.getEstado(10, 0));
+    }
+
+    @Test
+    void lectorConcurrenteVeVersionesCrecientesYConsistentes() throws InterruptedException {
+        Mapa mapa = new Mapa(1, 50, 50);
+        for (int f = 0; f < 50; f++) {
+            mapa.crearBarco(List.of(new int[]{f, 0}));
+        }
+        AtomicBoolean terminado = new AtomicBoolean();
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread lector = new Thread(() -> {
+            long ultima = -1;
+            while (!terminado.get()) {
+                MapaInstantanea inst = mapa.getInstantanea();
+                if (inst.getVersion() < ultima) {
+                    error.set("version retrocede");
+                }
+                ultima = inst.getVersion();
+                int hundidos = 0;
+                for (int f = 0; f < 50; f++) {
+                    if (inst.getEstado(f, 0) == EstadoCoordenada.HUNDIDO) {
+                        hundidos++;
+                    }
+                }
+                if (hundidos != 50 - inst.getBarcosAFlote()) {
+                    error.set("hundidos=" + hundidos + " barcosAFlote=" + inst.getBarcosAFlote());
+                }
+            }
+        });
+        lector.start();
+        for (int f = 0; f < 50; f++) {
+            mapa.marcarTocado(mapa.buscarPorFilaCol(f, 0).orElseThrow());
+        }
+        terminado.set(true);
+        lector.join();
+
+        assertNull(error.get(), error.get());
+        assertTrue(mapa.getInstantanea().todosLosBarcosHundidos());
+    }
+}
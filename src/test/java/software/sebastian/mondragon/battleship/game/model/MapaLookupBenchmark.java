@@ -0,0 +1,55 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link Mapa#buscarPorFilaCol(int, int)} para distintos tamaños de tablero.
+ * El tiempo por operación debe mantenerse constante de 10x10 a 1000x1000.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench=MapaLookupBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapaLookupBenchmark {
+    private static final int MUESTRAS = 1024;
+
+    @Param({"10", "100", "1000"})
+    private int lado;
+
+    private Mapa mapa;
+    private int[] filas;
+    private int[] columnas;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        mapa = new Mapa(1, lado, lado);
+        Random random = new Random(42);
+        filas = new int[MUESTRAS];
+        columnas = new int[MUESTRAS];
+        for (int i = 0; i < MUESTRAS; i++) {
+            filas[i] = random.nextInt(lado);
+            columnas[i] = random.nextInt(lado);
+        }
+    }
+
+    @Benchmark
+    public Optional<Coordenada> buscarPorFilaCol() {
+        int i = cursor++ & (MUESTRAS - 1);
+        return mapa.buscarPorFilaCol(filas[i], columnas[i]);
+    }
+
+    @Benchmark
+    public Coordenada getCoordenadaById() {
+        int i = cursor++ & (MUESTRAS - 1);
+        return mapa.getCoordenadaById(filas[i] * lado + columnas[i] + 1);
+    }
+}
@@ -7,9 +7,15 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MapaTest {
 
@@ -82,6 +88,16 @@ class MapaTest {
         assertThrows(IllegalArgumentException.class, () -> mapa.crearBarco(posicionesFuera));
     }
 
+    @Test
+    void crearBarcoEnCeldaDisparadaLanzaExcepcion() {
+        Mapa mapa = new Mapa(1, 3, 3);
+        mapa.marcarAgua(mapa.buscarPorFilaCol(1, 1).orElseThrow());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> mapa.crearBarco(List.of(new int[]{1, 0}, new int[]{1, 1})));
+        assertEquals(0, mapa.getBarcos().size());
+    }
+
     @Test
     void crearBarcoEnCeldaOcupadaLanzaExcepcion() {
         Mapa mapa = new Mapa(1, 3, 3);
@@ -138,4 +154,352 @@ class MapaTest {
         assertThrows(UnsupportedOperationException.class, () -> todas.add(first),
                 "La colección devuelta por getTodasCoordenadas debe ser inmodificable");
     }
+
+    @Test
+    void buscarPorFilaColDevuelveLaCeldaIndicada() {
+        Mapa mapa = new Mapa(1, 4, 5);
+
+        Coordenada coord = mapa.buscarPorFilaCol(3, 2).orElseThrow();
+
+        assertEquals(3, coord.getFila());
+        assertEquals(2, coord.getColumna());
+        assertSame(coord, mapa.getCoordenadaById(coord.getId()));
+    }
+
+    @Test
+    void buscarPorFilaColFueraDelMapaDevuelveVacio() {
+        Mapa mapa = new Mapa(1, 4, 5);
+
+        assertTrue(mapa.buscarPorFilaCol(-1, 0).isEmpty());
+        assertTrue(mapa.buscarPorFilaCol(0, 5).isEmpty());
+        assertTrue(mapa.buscarPorFilaCol(4, 0).isEmpty());
+    }
+
+    @Test
+    void getCoordenadaByIdSigueOrdenFilaMayor() {
+        Mapa mapa = new Mapa(1, 3, 3);
+
+        assertEquals(0, mapa.getCoordenadaById(1).getFila());
+        assertEquals(0, mapa.getCoordenadaById(1).getColumna());
+        assertEquals(1, mapa.getCoordenadaById(5).getFila());
+        assertEquals(1, mapa.getCoordenadaById(5).getColumna());
+        assertNull(mapa.getCoordenadaById(0));
+        assertNull(mapa.getCoordenadaById(10));
+    }
+
+    @Test
+    void todosLosBarcosHundidosSoloCuandoTodasSusCeldasEstanTocadas() {
+        Mapa mapa = new Mapa(1, 10, 10);
+        mapa.crearBarco(List.of(new int[]{0, 0}, new int[]{0, 1}));
+        mapa.crearBarco(List.of(new int[]{9, 9}));
+
+        mapa.marcarTocado(mapa.buscarPorFilaCol(0, 0).orElseThrow());
+        mapa.marcarAgua(mapa.buscarPorFilaCol(5, 5).orElseThrow());
+        mapa.marcarTocado(mapa.buscarPorFilaCol(0, 1).orElseThrow());
+        assertFalse(mapa.todosLosBarcosHundidos());
+
+        mapa.marcarTocado(mapa.buscarPorFilaCol(9, 9).orElseThrow());
+        assertTrue(mapa.todosLosBarcosHundidos());
+    }
+
+    @Test
+    void crearBarcosColocaLaFlotaYPublicaUnaSolaVersion() {
+        Mapa mapa = crearMapa();
+        long antes = mapa.getInstantanea().getVersion();
+
+        List<Barco> flota = mapa.crearBarcos(List.of(
+                List.of(new int[]{0, 0}, new int[]{0, 1}),
+                List.of(new int[]{2, 2}, new int[]{3, 2}, new int[]{4, 2}),
+                List.of(new int[]{9, 9})));
+
+        assertEquals(3, flota.size());
+        assertEquals(List.of(2, 3, 1), flota.stream().map(Barco::getTamano).toList());
+        assertEquals(3, mapa.getBarcosAFlote());
+        assertEquals(antes + 1, mapa.getInstantanea().getVersion());
+    }
+
+    @Test
+    void crearBarcosConUnBarcoInvalidoNoColocaNinguno() {
+        Mapa mapa = crearMapa();
+        mapa.crearBarco(List.of(new int[]{5, 5}));
+        long antes = mapa.getInstantanea().getVersion();
+
+        // el tercero se solapa con el primero de la misma flota
+        List<List<int[]>> solapada = List.of(
+                List.of(new int[]{0, 0}, new int[]{0, 1}),
+                List.of(new int[]{2, 2}),
+                List.of(new int[]{0, 1}, new int[]{1, 1}));
+        assertThrows(IllegalArgumentException.class, () -> mapa.crearBarcos(solapada));
+        List<List<int[]>> conOcupada = List.of(List.of(new int[]{4, 5}), List.of(new int[]{5, 5}));
+        assertThrows(IllegalArgumentException.class, () -> mapa.crearBarcos(conOcupada));
+        assertThrows(IllegalArgumentException.class, () -> mapa.crearBarcos(List.of()));
+
+        assertEquals(1, mapa.getBarcosAFlote());
+        assertEquals(antes, mapa.getInstantanea().getVersion());
+        // las celdas validadas de forma provisional quedan libres
+        assertDoesNotThrow(() -> mapa.crearBarco(List.of(new int[]{0, 0}, new int[]{0, 1})));
+        assertDoesNotThrow(() -> mapa.crearBarco(List.of(new int[]{4, 5})));
+    }
+
+    @Test
+    void marcarDisparosActualizaEstadoYCapaDeDisparos() {
+        Mapa mapa = new Mapa(1, 3, 3);
+        Coordenada agua = mapa.buscarPorFilaCol(1, 1).orElseThrow();
+
+        assertFalse(mapa.fueDisparada(1, 1));
+        mapa.marcarAgua(agua);
+
+        assertTrue(mapa.fueDisparada(1, 1));
+        assertEquals(EstadoCoordenada.AGUA, agua.getEstado());
+        assertFalse(mapa.fueDisparada(5, 5));
+    }
+
+    @Test
+    void barcosAFloteSeDescuentanAlHundirYNoDobleContarImpactos() {
+        Mapa mapa = new Mapa(1, 5, 5);
+        Barco barco = mapa.crearBarco(List.of(new int[]{0, 0}, new int[]{0, 1}));
+        mapa.crearBarco(List.of(new int[]{4, 4}));
+        assertEquals(2, mapa.getBarcosAFlote());
+
+        Coordenada primera = mapa.buscarPorFilaCol(0, 0).orElseThrow();
+        mapa.marcarTocado(primera);
+        mapa.marcarTocado(primera);
+        assertEquals(1, barco.getCeldasRestantes());
+        assertEquals(2, mapa.getBarcosAFlote());
+
+        mapa.marcarTocado(mapa.buscarPorFilaCol(0, 1).orElseThrow());
+        assertTrue(barco.isHundido());
+        assertEquals(EstadoCoordenada.HUNDIDO, primera.getEstado());
+        assertEquals(1, mapa.getBarcosAFlote());
+    }
+
+    @Test
+    void modoPerezosoSoloMaterializaCeldasConBarcoODisparo() {
+        Mapa mapa = new Mapa(1, 100, 100, ModoCeldas.PEREZOSO);
+        assertEquals(0, mapa.getCeldasMaterializadas());
+
+        mapa.crearBarco(List.of(new int[]{10, 10}, new int[]{10, 11}));
+        mapa.marcarAgua(mapa.buscarPorFilaCol(50, 50).orElseThrow());
+        Coordenada libre = mapa.buscarPorFilaCol(99, 99).orElseThrow();
+
+        assertEquals(3, mapa.getCeldasMaterializadas());
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, libre.getEstado());
+        assertNull(libre.getBarcoId());
+        assertEquals(EstadoCoordenada.AGUA, mapa.buscarPorFilaCol(50, 50).orElseThrow().getEstado());
+        assertNotNull(mapa.buscarPorFilaCol(10, 11).orElseThrow().getBarcoId());
+    }
+
+    @Test
+    void modoPerezosoHundeBarcosIgualQueDenso() {
+        Mapa mapa = new Mapa(1, 10, 10, ModoCeldas.PEREZOSO);
+        Barco barco = mapa.crearBarco(List.of(new int[]{2, 3}, new int[]{3, 3}));
+
+        mapa.marcarTocado(mapa.buscarPorFilaCol(2, 3).orElseThrow());
+        mapa.marcarTocado(mapa.buscarPorFilaCol(3, 3).orElseThrow());
+
+        assertTrue(barco.isHundido());
+        assertTrue(mapa.todosLosBarcosHundidos());
+        assertEquals(EstadoCoordenada.HUNDIDO, mapa.getCoordenadaById(barco.getCoordenadaIds().get(0)).getEstado());
+    }
+
+    @Test
+    void modoPerezosoGeneraVistaDeTodasLasCeldas() {
+        Mapa mapa = new Mapa(1, 3, 4, ModoCeldas.PEREZOSO);
+        mapa.crearBarco(List.of(new int[]{1, 2}));
+
+        Collection<Coordenada> todas = mapa.getTodasCoordenadas();
+
+        assertEquals(12, todas.size());
+        assertEquals(1, todas.stream().filter(c -> c.getBarcoId() != null).count());
+        assertEquals(1, mapa.getCeldasMaterializadas());
+        Coordenada first = todas.iterator().next();
+        assertThrows(UnsupportedOperationException.class, () -> todas.add(first));
+    }
+
+    @Test
+    void crearBarcoConDuplicadoEnLineaRectaLanzaExcepcion() {
+        Mapa mapa = crearMapa();
+        List<int[]> posiciones = Arrays.asList(
+                new int[]{3, 1},
+                new int[]{3, 2},
+                new int[]{3, 1}
+        );
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> mapa.crearBarco(posiciones));
+        assertTrue(ex.getMessage().contains("duplicada"), ex.getMessage());
+    }
+
+    @Test
+    void crearBarcoDesordenadoPeroContiguoEsValido() {
+        Mapa mapa = crearMapa();
+        List<int[]> posiciones = Arrays.asList(
+                new int[]{6, 2},
+                new int[]{4, 2},
+                new int[]{5, 2}
+        );
+
+        Barco barco = mapa.crearBarco(posiciones);
+        assertEquals(3, barco.getCoordenadaIds().size());
+    }
+
+    @Test
+    void crearBarcoMasLargoQue64CeldasValidaDuplicadosYContiguidad() {
+        Mapa mapa = new Mapa(1, 1, 200, ModoCeldas.PEREZOSO);
+        List<int[]> largo = new ArrayList<>();
+        for (int c = 0; c < 100; c++) {
+            largo.add(new int[]{0, c});
+        }
+        List<int[]> conDuplicado = new ArrayList<>(largo);
+        conDuplicado.set(99, new int[]{0, 5});
+
+        assertThrows(IllegalArgumentException.class, () -> mapa.crearBarco(conDuplicado));
+        assertEquals(100, mapa.crearBarco(largo).getCeldasRestantes());
+    }
+
+    @Test
+    void colocacionFallidaNoDejaCeldasOcupadas() {
+        Mapa mapa = crearMapa();
+        List<int[]> invalida = Arrays.asList(new int[]{0, 0}, new int[]{0, 2});
+
+        assertThrows(IllegalArgumentException.class, () -> mapa.crearBarco(invalida));
+        assertDoesNotThrow(() -> mapa.crearBarco(List.of(new int[]{0, 0})));
+        assertEquals(1, mapa.getBarcosAFlote());
+    }
+
+    @Test
+    void reiniciarDejaElMapaComoNuevoYReutilizaBarcos() {
+        Mapa mapa = crearMapa();
+        Barco barco = mapa.crearBarco(List.of(new int[]{1, 1}, new int[]{1, 2}));
+        mapa.marcarTocado(mapa.buscarPorFilaCol(1, 1).orElseThrow());
+        mapa.marcarAgua(mapa.buscarPorFilaCol(5, 5).orElseThrow());
+        MapaInstantanea anterior = mapa.getInstantanea();
+
+        mapa.reiniciar(42);
+
+        assertEquals(42, mapa.getId());
+        assertTrue(mapa.getBarcos().isEmpty());
+        assertEquals(0, mapa.getBarcosAFlote());
+        assertFalse(mapa.fueDisparada(1, 1));
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, mapa.buscarPorFilaCol(5, 5).orElseThrow().getEstado());
+        assertNull(mapa.buscarPorFilaCol(1, 1).orElseThrow().getBarcoId());
+        assertEquals(42, mapa.getInstantanea().getMapaId());
+        assertEquals(EstadoCoordenada.TOCADO, anterior.getEstado(1, 1));
+
+        Barco nuevo = mapa.crearBarco(List.of(new int[]{1, 1}));
+        assertSame(barco, nuevo);
+        assertEquals(1, nuevo.getId());
+        assertEquals(1, nuevo.getCeldasRestantes());
+        assertFalse(nuevo.isHundido());
+    }
+
+    @Test
+    void reiniciarEnModoPerezosoSueltaCeldasMaterializadas() {
+        Mapa mapa = new Mapa(1, 100, 100, ModoCeldas.PEREZOSO);
+        mapa.crearBarco(List.of(new int[]{50, 50}));
+        mapa.marcarAgua(mapa.buscarPorFilaCol(0, 0).orElseThrow());
+
+        mapa.reiniciar(2);
+
+        assertEquals(0, mapa.getCeldasMaterializadas());
+        assertFalse(mapa.fueDisparada(0, 0));
+        assertDoesNotThrow(() -> mapa.crearBarco(List.of(new int[]{50, 50})));
+    }
+
+    @Test
+    void exportarEImportarEstadoReproduceBarcosYDisparos() {
+        Mapa original = new Mapa(1, 100, 100, ModoCeldas.PEREZOSO);
+        original.crearBarco(List.of(new int[]{10, 10}, new int[]{10, 11}));
+        original.crearBarco(List.of(new int[]{50, 3}));
+        original.marcarTocado(original.buscarPorFilaCol(10, 11).orElseThrow());
+        original.marcarTocado(original.buscarPorFilaCol(50, 3).orElseThrow());
+        original.marcarAgua(original.buscarPorFilaCol(99, 99).orElseThrow());
+
+        Mapa copia = new Mapa(7, 100, 100, ModoCeldas.PEREZOSO);
+        copia.importarEstado(original.exportarEstado());
+
+        assertEquals(1, copia.getBarcosAFlote());
+        assertEquals(EstadoCoordenada.TOCADO, copia.buscarPorFilaCol(10, 11).orElseThrow().getEstado());
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, copia.buscarPorFilaCol(10, 10).orElseThrow().getEstado());
+        assertEquals(EstadoCoordenada.HUNDIDO, copia.buscarPorFilaCol(50, 3).orElseThrow().getEstado());
+        assertEquals(EstadoCoordenada.AGUA, copia.buscarPorFilaCol(99, 99).orElseThrow().getEstado());
+        assertEquals(4, copia.getCeldasMaterializadas());
+        assertArrayEquals(original.exportarEstado(), copia.exportarEstado());
+    }
+
+    @Test
+    void importarEstadoSoloSobreMapaVacio() {
+        Mapa mapa = crearMapa();
+        int[] estado = mapa.exportarEstado();
+        mapa.crearBarco(List.of(new int[]{0, 0}));
+
+        assertThrows(IllegalStateException.class, () -> mapa.importarEstado(estado));
+    }
+
+    @Test
+    void fueraDeHeapJuegaIgualQueDensoSinRetenerCeldas() {
+        ArenaTableros arena = new ArenaTableros();
+        Mapa mapa = new Mapa(1, 10, 10, arena);
+        Barco vertical = mapa.crearBarco(List.of(new int[]{4, 2}, new int[]{2, 2}, new int[]{3, 2}));
+        mapa.crearBarco(List.of(new int[]{0, 5}, new int[]{0, 6}));
+
+        assertEquals(ModoCeldas.FUERA_DE_HEAP, mapa.getModo());
+        assertEquals(0, mapa.getCeldasMaterializadas());
+        assertEquals(List.of(23, 33, 43), vertical.getCoordenadaIds());
+        assertEquals(vertical.getId(), mapa.buscarPorFilaCol(3, 2).orElseThrow().getBarcoIdAsInt());
+        assertThrows(IllegalArgumentException.class, () -> mapa.crearBarco(List.of(new int[]{0, 6})));
+
+        for (int fila = 2; fila <= 4; fila++) {
+            mapa.marcarTocado(mapa.buscarPorFilaCol(fila, 2).orElseThrow());
+        }
+        Coordenada agua = mapa.buscarPorFilaCol(9, 9).orElseThrow();
+        mapa.marcarAgua(agua);
+
+        assertTrue(mapa.getBarco(vertical.getId()).isHundido());
+        assertEquals(EstadoCoordenada.HUNDIDO, mapa.buscarPorFilaCol(2, 2).orElseThrow().getEstado());
+        assertEquals(EstadoCoordenada.AGUA, agua.getEstado());
+        assertEquals(EstadoCoordenada.AGUA, mapa.buscarPorFilaCol(9, 9).orElseThrow().getEstado());
+        assertEquals(1, mapa.getBarcosAFlote());
+        assertEquals(2, mapa.getBarcos().size());
+        assertEquals(2, mapa.getInstantanea().getBarcos());
+        assertTrue(mapa.getInstantanea().fueDisparada(3, 2));
+        assertEquals(100, mapa.getTodasCoordenadas().size());
+    }
+
+    @Test
+    void fueraDeHeapReiniciarYLiberarDevuelvenLaRanura() {
+        ArenaTableros arena = new ArenaTableros();
+        Mapa mapa = new Mapa(1, 10, 10, arena);
+        mapa.crearBarco(List.of(new int[]{1, 1}));
+        mapa.marcarTocado(mapa.buscarPorFilaCol(1, 1).orElseThrow());
+
+        mapa.reiniciar(2);
+        assertEquals(0, mapa.getBarcos().size());
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, mapa.buscarPorFilaCol(1, 1).orElseThrow().getEstado());
+        assertFalse(mapa.buscarPorFilaCol(1, 1).orElseThrow().tieneBarco());
+        assertEquals(1, arena.getRanurasEnUso());
+
+        mapa.liberar();
+        assertEquals(0, arena.getRanurasEnUso());
+    }
+
+    @Test
+    void fueraDeHeapExportaEImportaComoLosDemasModos() {
+        Mapa denso = crearMapa();
+        denso.crearBarco(List.of(new int[]{0, 0}, new int[]{0, 1}));
+        denso.marcarTocado(denso.buscarPorFilaCol(0, 1).orElseThrow());
+        denso.marcarAgua(denso.buscarPorFilaCol(5, 5).orElseThrow());
+
+        Mapa fuera = new Mapa(2, 10, 10, new ArenaTableros());
+        fuera.importarEstado(denso.exportarEstado());
+
+        assertArrayEquals(denso.exportarEstado(), fuera.exportarEstado());
+        assertEquals(EstadoCoordenada.TOCADO, fuera.buscarPorFilaCol(0, 1).orElseThrow().getEstado());
+    }
+
+    @Test
+    void fueraDeHeapRechazaTablerosGrandesYModoSinArena() {
+        ArenaTableros arena = new ArenaTableros();
+        assertThrows(IllegalArgumentException.class, () -> new Mapa(1, 100, 100, arena));
+        assertThrows(IllegalArgumentException.class, () -> new Mapa(1, 10, 10, ModoCeldas.FUERA_DE_HEAP));
+    }
 }
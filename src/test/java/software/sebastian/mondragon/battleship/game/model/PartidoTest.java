@@ -72,4 +72,29 @@ class PartidoTest {
         Partido partido = new Partido(5);
         assertTrue(partido.otroJugador(1).isEmpty());
     }
+
+    @Test
+    void testAccesoresPrimitivosYCentinela() {
+        Partido partido = new Partido(1);
+        assertEquals(Partido.SIN_JUGADOR, partido.getJugador1IdAsInt());
+        assertNull(partido.getJugador1Id());
+        assertFalse(partido.tieneDosJugadores());
+        assertFalse(partido.esTurnoDe(Partido.SIN_JUGADOR));
+
+        partido.setJugador1Id(10);
+        partido.setJugador2Id(20);
+        partido.setTurnoJugadorId(20);
+
+        assertTrue(partido.tieneDosJugadores());
+        assertTrue(partido.esTurnoDe(20));
+        assertFalse(partido.esTurnoDe(10));
+        assertTrue(partido.participa(10));
+        assertFalse(partido.participa(30));
+        assertEquals(10, partido.otroJugadorId(20));
+        assertEquals(Partido.SIN_JUGADOR, partido.otroJugadorId(30));
+
+        partido.setTurnoJugadorId((Integer) null);
+        assertNull(partido.getTurnoJugadorId());
+        assertEquals(Partido.SIN_JUGADOR, partido.getTurnoJugadorIdAsInt());
+    }
 }
@@ -0,0 +1,31 @@
+package software.sebastian.mondragon.battleship.game.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablaCeldasTest {
+
+    @Test
+    void putYGetSobrevivenAlCrecimiento() {
+        TablaCeldas tabla = new TablaCeldas(2);
+        for (int i = 0; i < 1000; i += 7) {
+            tabla.put(i, new Coordenada(i + 1, 0, i));
+        }
+
+        assertEquals(143, tabla.size());
+        assertEquals(701, tabla.get(700).getId());
+        assertNull(tabla.get(1));
+    }
+
+    @Test
+    void putReemplazaValorExistente() {
+        TablaCeldas tabla = new TablaCeldas(4);
+        Coordenada nueva = new Coordenada(6, 0, 5);
+        tabla.put(5, new Coordenada(6, 0, 5));
+        tabla.put(5, nueva);
+
+        assertEquals(1, tabla.size());
+        assertSame(nueva, tabla.get(5));
+    }
+}
@@ -0,0 +1,43 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivoBloquesIdsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void dosNodosRecibenBloquesDisjuntosPorTipo() throws IOException {
+        Path ruta = dir.resolve("ids");
+        try (ArchivoBloquesIds a = ArchivoBloquesIds.abrir(ruta);
+             ArchivoBloquesIds b = ArchivoBloquesIds.abrir(ruta)) {
+            assertEquals(1, a.reservar(TipoId.JUGADOR, 10, 1));
+            assertEquals(11, b.reservar(TipoId.JUGADOR, 10, 1));
+            assertEquals(1, b.reservar(TipoId.PARTIDO, 5, 1));
+            assertEquals(50, a.reservar(TipoId.JUGADOR, 10, 50));
+            assertEquals(60, b.reservar(TipoId.JUGADOR, 10, 1));
+            assertEquals(2, a.getReservas());
+            assertThrows(IllegalArgumentException.class, () -> a.reservar(TipoId.MAPA, 0, 1));
+            assertThrows(IllegalStateException.class, () -> a.reservar(TipoId.MAPA, Integer.MAX_VALUE, 1));
+        }
+    }
+
+    @Test
+    void lasReservasSobrevivenAReabrirElArchivo() throws IOException {
+        Path ruta = dir.resolve("ids");
+        try (ArchivoBloquesIds a = ArchivoBloquesIds.abrir(ruta)) {
+            a.reservar(TipoId.MAPA, 1024, 1);
+        }
+        try (ArchivoBloquesIds a = ArchivoBloquesIds.abrir(ruta)) {
+            assertEquals(1025, a.reservar(TipoId.MAPA, 1024, 1));
+            assertEquals(1, a.reservar(TipoId.JUGADOR, 1024, 1));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivoPartidosEnDiscoTest {
+    private static final int REGISTRO = ArchivoPartidos.CAMPOS * Integer.BYTES;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void escribeEnLotesYLeePendientesDesdeMemoria() throws IOException {
+        Path ruta = dir.resolve("partidos.dat");
+        try (ArchivoPartidosEnDisco archivo = new ArchivoPartidosEnDisco(ruta, 0)) {
+            for (int id = 1; id < ArchivoPartidosEnDisco.LOTE; id++) {
+                archivo.archivar(finalizado(id, 2 * id, 2 * id + 1), 0);
+            }
+            assertEquals(0, Files.size(ruta));
+            assertEquals(20, archivo.get(10).getJugador1Id());
+
+            archivo.archivar(finalizado(ArchivoPartidosEnDisco.LOTE, 1, 2), 0);
+            archivo.archivar(finalizado(ArchivoPartidosEnDisco.LOTE + 1, 1, 2), 0);
+            assertEquals((long) ArchivoPartidosEnDisco.LOTE * REGISTRO, Files.size(ruta));
+            assertEquals(0, archivo.getLecturas());
+
+            Partido leido = archivo.get(10);
+            assertEquals(20, leido.getJugador1Id());
+            assertEquals(21, leido.getJugador2Id());
+            assertEquals(EstadoPartido.FINALIZADO, leido.getEstado());
+            assertEquals(1, archivo.getLecturas());
+            assertEquals(ArchivoPartidosEnDisco.LOTE + 1, archivo.size());
+        }
+        assertEquals((long) (ArchivoPartidosEnDisco.LOTE + 1) * REGISTRO, Files.size(ruta));
+    }
+
+    @Test
+    void laCacheEvitaLecturasRepetidasYSeVaciaAlAbrir() throws IOException {
+        Path ruta = dir.resolve("partidos.dat");
+        try (ArchivoPartidosEnDisco archivo = new ArchivoPartidosEnDisco(ruta, 2)) {
+            for (int id = 1; id <= 3; id++) {
+                archivo.archivar(finalizado(id, 10, 20), 0);
+            }
+            archivo.volcar();
+            // la cache guarda los dos ultimos archivados: 2 y 3
+            archivo.get(1);
+            archivo.get(1);
+            archivo.get(3);
+            assertEquals(1, archivo.getLecturas());
+            archivo.get(2);
+            assertEquals(2, archivo.getLecturas());
+        }
+        try (ArchivoPartidosEnDisco archivo = new ArchivoPartidosEnDisco(ruta, 2)) {
+            assertEquals(0, archivo.size());
+            assertNull(archivo.get(1));
+            assertEquals(0, Files.size(ruta));
+        }
+    }
+
+    @Test
+    void eliminarRearchivarYRecorrerComoEnMemoria() throws IOException {
+        ArchivoPartidos enMemoria = new ArchivoPartidos();
+        try (ArchivoPartidosEnDisco archivo = new ArchivoPartidosEnDisco(dir.resolve("partidos.dat"), 16)) {
+            for (int id = 1; id <= 600; id++) {
+                Partido p = finalizado(id, id * 2, id * 2 + 1);
+                archivo.archivar(p, id * 1000L);
+                enMemoria.archivar(p, id * 1000L);
+            }
+            // el ultimo esta pendiente: se mueve a un hueco del archivo
+            assertEquals(5, archivo.eliminar(5).getId());
+            enMemoria.eliminar(5);
+            archivo.volcar();
+            // ahora el ultimo esta en el archivo, que encoge
+            assertEquals(7, archivo.eliminar(7).getId());
+            enMemoria.eliminar(7);
+            Partido cambiado = finalizado(9, 18, 19);
+            cambiado.setGanadorId(19);
+            archivo.archivar(cambiado, 0);
+            enMemoria.archivar(cambiado, 0);
+
+            assertNull(archivo.eliminar(5));
+            assertEquals(enMemoria.size(), archivo.size());
+            assertArrayEquals(enMemoria.copiarRegistros(), archivo.copiarRegistros());
+            for (int i = 0; i < archivo.size(); i++) {
+                assertEquals(enMemoria.enPosicion(i).getId(), archivo.enPosicion(i).getId());
+            }
+            assertNull(archivo.enPosicion(archivo.size()));
+            long[] deDisco = new long[1000];
+            long[] deMemoria = new long[1000];
+            assertEquals(enMemoria.leerFinalizaciones(100, deMemoria), archivo.leerFinalizaciones(100, deDisco));
+            assertArrayEquals(deMemoria, deDisco);
+            assertEquals(19, archivo.get(9).getGanadorId());
+        }
+    }
+
+    @Test
+    void restaurarOmiteLosIdsIndicadosYRechazaRepetidos() throws IOException {
+        ArchivoPartidos origen = new ArchivoPartidos();
+        for (int id = 1; id <= 300; id++) {
+            origen.archivar(finalizado(id, 10, 20), 0);
+        }
+        try (ArchivoPartidosEnDisco archivo = new ArchivoPartidosEnDisco(dir.resolve("partidos.dat"), 0)) {
+            archivo.restaurar(origen.copiarRegistros(), id -> id == 1);
+
+            assertEquals(299, archivo.size());
+            assertFalse(archivo.contiene(1));
+            assertEquals(20, archivo.get(300).getJugador2Id());
+            assertThrows(IllegalStateException.class, () -> archivo.restaurar(origen.copiarRegistros(), id -> false));
+            assertThrows(IllegalArgumentException.class, () -> archivo.archivar(finalizado(0, 1, 2), 0));
+        }
+    }
+
+    private static Partido finalizado(int id, int j1, int j2) {
+        Partido p = new Partido(id);
+        p.setJugador1Id(j1);
+        p.setJugador2Id(j2);
+        p.setTurnoJugadorId(j2);
+        p.setGanadorId(j1);
+        p.setDimensiones(10, 10);
+        p.setEstado(EstadoPartido.FINALIZADO);
+        return p;
+    }
+}
@@ -0,0 +1,158 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivoPartidosTest {
+
+    @Test
+    void archivarYLeerConservaTodosLosCampos() {
+        ArchivoPartidos archivo = new ArchivoPartidos();
+        archivo.archivar(finalizado(3, 10, 20, 4096, 7), 0);
+
+        Partido p = archivo.get(3);
+        assertEquals(3, p.getId());
+        assertEquals(10, p.getJugador1Id());
+        assertEquals(20, p.getJugador2Id());
+        assertEquals(20, p.getTurnoJugadorId());
+        assertEquals(10, p.getGanadorId());
+        assertEquals(EstadoPartido.FINALIZADO, p.getEstado());
+        assertEquals(4096, p.getFilas());
+        assertEquals(7, p.getColumnas());
+        assertTrue(archivo.contiene(3));
+        assertNull(archivo.get(4));
+        assertNull(archivo.get(0));
+    }
+
+    @Test
+    void copiarYRestaurarRegistrosOmiteLosIdsIndicados() {
+        ArchivoPartidos archivo = new ArchivoPartidos();
+        archivo.archivar(finalizado(1, 10, 20, 10, 10), 5_000);
+        archivo.archivar(finalizado(2, 11, 21, 8, 9), 6_000);
+
+        ArchivoPartidos copia = new ArchivoPartidos();
+        copia.restaurar(archivo.copiarRegistros(), id -> id == 1);
+
+        assertEquals(1, copia.size());
+        assertFalse(copia.contiene(1));
+        assertEquals(21, copia.get(2).getJugador2Id());
+        assertEquals(6_000, copia.get(2).getUltimaActividad());
+        assertThrows(IllegalStateException.class, () -> copia.restaurar(archivo.copiarRegistros(), id -> false));
+    }
+
+    @Test
+    void rearchivarSobrescribeSinDuplicar() {
+        ArchivoPartidos archivo = new ArchivoPartidos();
+        archivo.archivar(finalizado(1, 10, 20, 10, 10), 0);
+        Partido cambiado = finalizado(1, 10, 20, 10, 10);
+        cambiado.setGanadorId(20);
+        archivo.archivar(cambiado, 0);
+
+        assertEquals(1, archivo.size());
+        assertEquals(20, archivo.get(1).getGanadorId());
+    }
+
+    @Test
+    void eliminarMueveElUltimoRegistroAlHueco() {
+        ArchivoPartidos archivo = new ArchivoPartidos();
+        for (int id = 1; id <= 40; id++) {
+            archivo.archivar(finalizado(id, id * 2, id * 2 + 1, 10, 10), 0);
+        }
+
+        assertEquals(5, archivo.eliminar(5).getId());
+        assertNull(archivo.eliminar(5));
+        assertEquals(39, archivo.size());
+        assertFalse(archivo.contiene(5));
+        assertEquals(80, archivo.get(40).getJugador1Id());
+        assertEquals(40, archivo.enPosicion(4).getId());
+        assertNull(archivo.enPosicion(39));
+    }
+
+    @Test
+    void leerFinalizacionesPorBloquesOrdenaPorFechaDeFin() {
+        ArchivoPartidos archivo = new ArchivoPartidos();
+        archivo.archivar(finalizado(1, 10, 20, 10, 10), 5_000);
+        archivo.archivar(finalizado(2, 10, 20, 10, 10), 3_000);
+        archivo.archivar(finalizado(3, 10, 20, 10, 10), 4_999);
+
+        long[] todas = new long[3];
+        long[] bloque = new long[2];
+        assertEquals(2, archivo.leerFinalizaciones(0, bloque));
+        System.arraycopy(bloque, 0, todas, 0, 2);
+        assertEquals(1, archivo.leerFinalizaciones(2, bloque));
+        todas[2] = bloque[0];
+        assertEquals(0, archivo.leerFinalizaciones(3, bloque));
+
+        Arrays.sort(todas);
+        assertEquals(2, ArchivoPartidos.idDeFinalizacion(todas[0]));
+        assertEquals(3, ArchivoPartidos.idDeFinalizacion(todas[1]));
+        assertEquals(1, ArchivoPartidos.idDeFinalizacion(todas[2]));
+        // se guardan segundos: 4999 ms se trunca a 4000
+        assertEquals(4_000, ArchivoPartidos.millisDeFinalizacion(todas[1]));
+        assertEquals(3_000, archivo.get(2).getUltimaActividad());
+    }
+
+    @Test
+    void rechazaIdsYTablerosFueraDeRango() {
+        ArchivoPartidos archivo = new ArchivoPartidos();
+        assertThrows(IllegalArgumentException.class, () -> archivo.archivar(finalizado(0, 1, 2, 10, 10), 0));
+        assertThrows(IllegalArgumentException.class, () -> archivo.archivar(finalizado(1, 1, 2, 9000, 10), 0));
+    }
+
+    @Test
+    void idsDeBloquesLejanosNoAgrandanElIndice() {
+        ArchivoPartidos archivo = new ArchivoPartidos();
+        int alto = Integer.MAX_VALUE - 10;
+        archivo.archivar(finalizado(5, 1, 2, 10, 10), 0);
+        archivo.archivar(finalizado(alto, 3, 4, 10, 10), 0);
+        archivo.archivar(finalizado(1 << 30, 5, 6, 10, 10), 0);
+
+        assertEquals(3, archivo.get(alto).getJugador1Id());
+        assertNotNull(archivo.eliminar(5));
+        assertEquals(3, archivo.get(alto).getJugador1Id());
+        assertEquals(5, archivo.get(1 << 30).getJugador1Id());
+        assertFalse(archivo.contiene(5));
+        assertEquals(2, archivo.size());
+    }
+
+    @Test
+    void medioMillonDePartidosOcupanPocoHeap() {
+        final int partidos = 500_000;
+        long antes = heapUsado();
+        ArchivoPartidos archivo = new ArchivoPartidos();
+        for (int id = 1; id <= partidos; id++) {
+            archivo.archivar(finalizado(id, 2 * id, 2 * id + 1, 10, 10), 0);
+        }
+        long bytesPorPartido = (heapUsado() - antes) / partidos;
+
+        assertEquals(partidos, archivo.size());
+        // registro de 28 bytes + 4 del indice, con holgura por el crecimiento de los arrays
+        assertTrue(bytesPorPartido < 64, "Heap por partido archivado: " + bytesPorPartido + " bytes");
+        assertEquals(2 * partidos, archivo.get(partidos).getJugador1Id());
+    }
+
+    private static Partido finalizado(int id, int j1, int j2, int filas, int columnas) {
+        Partido p = new Partido(id);
+        p.setJugador1Id(j1);
+        p.setJugador2Id(j2);
+        p.setTurnoJugadorId(j2);
+        p.setGanadorId(j1);
+        p.setDimensiones(filas, columnas);
+        p.setEstado(EstadoPartido.FINALIZADO);
+        return p;
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
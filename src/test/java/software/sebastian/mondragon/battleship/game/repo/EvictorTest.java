@@ -0,0 +1,203 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Jugador;
+import software.sebastian.mondragon.battleship.game.model.Mapa;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+import software.sebastian.mondragon.battleship.game.service.GameService;
+import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvictorTest {
+    private static final long MINUTO = 60_000;
+
+    private final long[] ahora = {1_000 * MINUTO};
+    private final InMemoryRepo repo = new InMemoryRepo(64, 4, () -> ahora[0]);
+
+    @Test
+    void expulsaPartidoEnEsperaInactivoYLoArchiva() {
+        Evictor evictor = new Evictor(repo, politica(Integer.MAX_VALUE, true));
+        Partido esperando = repo.crearPartido();
+        Partido activo = repo.crearPartido();
+
+        ahora[0] += 10 * MINUTO;
+        repo.conPartido(activo.getId(), p -> p);
+        ahora[0] += 6 * MINUTO;
+        evictor.barrer();
+
+        Partido archivado = repo.getPartido(esperando.getId());
+        assertEquals(EstadoPartido.FINALIZADO, archivado.getEstado());
+        assertNull(archivado.getGanadorId());
+        assertEquals(1, repo.getPartidosArchivados());
+        assertSame(activo, repo.getPartido(activo.getId()));
+        assertEquals(1, evictor.getMetricas().esperandoExpulsados());
+        assertEquals(1, evictor.getMetricas().abandonadosArchivados());
+    }
+
+    @Test
+    void partidoAbandonadoSinArchivarDevuelveMapasAlPool() {
+        Evictor evictor = new Evictor(repo, politica(Integer.MAX_VALUE, false));
+        Partido p = enCurso();
+
+        ahora[0] += 61 * MINUTO;
+        evictor.barrer();
+
+        assertNull(repo.getPartido(p.getId()));
+        assertEquals(0, repo.getPartidosArchivados());
+        assertEquals(2, repo.getMapasLibres());
+        assertEquals(1, evictor.getMetricas().enCursoExpulsados());
+    }
+
+    @Test
+    void partidoEnCursoArchivadoNoDejaTablerosSuciosParaLaSiguiente() {
+        GameService service = new GameService(repo, (id, msg) -> { });
+        Evictor evictor = new Evictor(repo, politica(Integer.MAX_VALUE, true));
+        Jugador host = service.crearJugador();
+        Jugador guest = service.crearJugador();
+        Partido abandonado = service.crearPartido(host.getId());
+        service.unirsePartido(abandonado.getId(), guest.getId());
+        service.colocarBarco(host.getId(), List.of(new int[]{0, 0}));
+        service.colocarBarco(guest.getId(), List.of(new int[]{0, 0}));
+        service.disparar(host.getId(), abandonado.getId(), 5, 5);
+
+        ahora[0] += 61 * MINUTO;
+        evictor.barrer();
+        assertEquals(EstadoPartido.FINALIZADO, repo.getPartido(abandonado.getId()).getEstado());
+        assertFalse(host.tieneMapa());
+        assertFalse(guest.tieneMapa());
+
+        Partido nuevo = service.crearPartido(host.getId());
+        service.unirsePartido(nuevo.getId(), guest.getId());
+        for (Jugador j : List.of(host, guest)) {
+            Mapa tablero = repo.getMapa(nuevo.getMapaDe(j.getId()));
+            assertTrue(tablero.getBarcos().isEmpty());
+            assertFalse(tablero.fueDisparada(5, 5));
+        }
+        service.colocarBarco(guest.getId(), List.of(new int[]{0, 0}));
+        assertEquals(ResultadoDisparo.AGUA, service.disparar(host.getId(), nuevo.getId(), 5, 5));
+    }
+
+    @Test
+    void archivadosCaducanTrasElPlazo() {
+        Evictor evictor = new Evictor(repo, politica(Integer.MAX_VALUE, true));
+        Partido viejo = finalizado();
+        ahora[0] += 20 * MINUTO;
+        Partido reciente = finalizado();
+
+        ahora[0] += 15 * MINUTO;
+        evictor.barrer();
+
+        assertNull(repo.getPartido(viejo.getId()));
+        assertNotNull(repo.getPartido(reciente.getId()));
+        assertEquals(1, evictor.getMetricas().finalizadosExpulsados());
+    }
+
+    @Test
+    void topeDeArchivadosExpulsaLosMasAntiguos() {
+        Evictor evictor = new Evictor(repo, politica(3, true));
+        int[] ids = new int[6];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = finalizado().getId();
+            ahora[0] += 1_000;
+        }
+
+        evictor.barrer();
+
+        assertEquals(3, repo.getPartidosArchivados());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i >= 3, repo.getPartido(ids[i]) != null, "partido " + ids[i]);
+        }
+        assertEquals(3, evictor.getMetricas().finalizadosExpulsados());
+    }
+
+    @Test
+    void jugadorDesconectadoSeExpulsaSoloSinPartidosVivos() {
+        Evictor evictor = new Evictor(repo, politica(Integer.MAX_VALUE, true));
+        Jugador libre = repo.crearJugador();
+        Jugador conectado = repo.crearJugador();
+        repo.registrarConexion(conectado.getId(), true);
+        Partido p = repo.crearPartido();
+        Jugador enPartido = repo.crearJugador();
+        repo.anadirJugador(p, enPartido.getId());
+
+        ahora[0] += 7 * 60 * MINUTO;
+        repo.conPartido(p.getId(), partido -> partido);
+        evictor.barrer();
+
+        assertNull(repo.getJugador(libre.getId()));
+        assertNotNull(repo.getJugador(conectado.getId()));
+        assertNotNull(repo.getJugador(enPartido.getId()));
+        assertEquals(1, evictor.getMetricas().jugadoresExpulsados());
+    }
+
+    @Test
+    void plazoNuloDesactivaLaRegla() {
+        Evictor evictor = new Evictor(repo, new EvictionPolicy(null, null, null, null,
+                Integer.MAX_VALUE, true, Duration.ofMinutes(1)));
+        Partido p = repo.crearPartido();
+        repo.crearJugador();
+
+        ahora[0] += 1_000 * MINUTO;
+        evictor.barrer();
+
+        assertSame(p, repo.getPartido(p.getId()));
+        assertEquals(1, evictor.getMetricas().barridos());
+        assertEquals(0, evictor.getMetricas().jugadoresExpulsados());
+    }
+
+    @Test
+    void politicaRechazaValoresInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new EvictionPolicy(null, null, null, null,
+                -1, true, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new EvictionPolicy(null, null, null, null,
+                0, true, Duration.ZERO));
+    }
+
+    @Test
+    void iniciarYDetenerSonIdempotentes() {
+        Evictor evictor = new Evictor(repo, EvictionPolicy.porDefecto());
+        evictor.iniciar();
+        evictor.iniciar();
+        evictor.close();
+        evictor.detener();
+        assertEquals(0, evictor.getMetricas().barridos());
+    }
+
+    private static EvictionPolicy politica(int maxArchivados, boolean archivarAbandonados) {
+        return new EvictionPolicy(Duration.ofMinutes(30), Duration.ofMinutes(15), Duration.ofHours(1),
+                Duration.ofHours(6), maxArchivados, archivarAbandonados, Duration.ofMinutes(1));
+    }
+
+    private Partido enCurso() {
+        Partido p = repo.crearPartido();
+        Jugador j1 = repo.crearJugador();
+        Jugador j2 = repo.crearJugador();
+        j1.setMapaId(repo.crearMapa(10, 10).getId());
+        j2.setMapaId(repo.crearMapa(10, 10).getId());
+        repo.anadirJugador(p, j1.getId());
+        repo.anadirJugador(p, j2.getId());
+        cambiarEstado(p, EstadoPartido.EN_CURSO);
+        return p;
+    }
+
+    private Partido finalizado() {
+        Partido p = enCurso();
+        p.setGanadorId(p.getJugador1IdAsInt());
+        cambiarEstado(p, EstadoPartido.FINALIZADO);
+        repo.archivarPartido(p.getId());
+        return p;
+    }
+
+    private void cambiarEstado(Partido partido, EstadoPartido estado) {
+        repo.conPartido(partido.getId(), p -> {
+            repo.cambiarEstado(p, estado);
+            return p;
+        });
+    }
+}
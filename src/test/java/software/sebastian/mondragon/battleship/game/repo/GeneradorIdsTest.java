@@ -0,0 +1,84 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneradorIdsTest {
+
+    @Test
+    void sinFuenteCuentaDesdeUnoYRespetaElMinimo() {
+        GeneradorIds ids = new GeneradorIds(null, TipoId.JUGADOR, 8);
+        assertEquals(1, ids.siguiente());
+        assertEquals(2, ids.siguiente());
+
+        ids.asegurarMinimo(10);
+        ids.asegurarMinimo(5);
+        assertEquals(10, ids.getSiguiente());
+        assertEquals(10, ids.siguiente());
+        assertEquals(11, ids.getSiguiente());
+    }
+
+    @Test
+    void conFuentePideUnBloqueNuevoAlAgotarElActual() {
+        List<int[]> pedidos = new ArrayList<>();
+        int[] siguienteLibre = {1};
+        FuenteBloquesIds fuente = (tipo, tamano, minimo) -> {
+            pedidos.add(new int[]{tamano, minimo});
+            int inicio = Math.max(siguienteLibre[0], minimo);
+            // otro nodo se lleva el bloque siguiente
+            siguienteLibre[0] = inicio + 2 * tamano;
+            return inicio;
+        };
+        GeneradorIds ids = new GeneradorIds(fuente, TipoId.PARTIDO, 3);
+
+        assertEquals(List.of(1, 2, 3, 7, 8), List.of(ids.siguiente(), ids.siguiente(), ids.siguiente(),
+                ids.siguiente(), ids.siguiente()));
+        ids.asegurarMinimo(100);
+        assertEquals(100, ids.siguiente());
+        assertEquals(3, pedidos.size());
+        assertArrayEquals(new int[]{3, 100}, pedidos.get(2));
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorIds(fuente, TipoId.MAPA, 0));
+    }
+
+    @Test
+    void rechazaBloquesPorDebajoDelMinimo() {
+        GeneradorIds ids = new GeneradorIds((tipo, tamano, minimo) -> 1, TipoId.MAPA, 4);
+        ids.asegurarMinimo(50);
+        assertThrows(IllegalStateException.class, ids::siguiente);
+    }
+
+    @Test
+    void hilosConcurrentesNoRepitenIds() throws InterruptedException {
+        int[] siguienteLibre = {1};
+        FuenteBloquesIds fuente = (tipo, tamano, minimo) -> {
+            synchronized (siguienteLibre) {
+                int inicio = siguienteLibre[0];
+                siguienteLibre[0] += tamano;
+                return inicio;
+            }
+        };
+        GeneradorIds ids = new GeneradorIds(fuente, TipoId.JUGADOR, 16);
+        Set<Integer> vistos = ConcurrentHashMap.newKeySet();
+        int hilos = 4;
+        int porHilo = 10_000;
+        CountDownLatch fin = new CountDownLatch(hilos);
+        for (int h = 0; h < hilos; h++) {
+            new Thread(() -> {
+                for (int i = 0; i < porHilo; i++) {
+                    vistos.add(ids.siguiente());
+                }
+                fin.countDown();
+            }).start();
+        }
+        assertTrue(fin.await(10, TimeUnit.SECONDS));
+        assertEquals(hilos * porHilo, vistos.size());
+    }
+}
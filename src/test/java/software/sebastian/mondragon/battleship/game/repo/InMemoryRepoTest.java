@@ -1,9 +1,19 @@
 package software.sebastian.mondragon.battleship.game.repo;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import software.sebastian.mondragon.battleship.game.model.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryRepoTest {
@@ -31,4 +41,302 @@ class InMemoryRepoTest {
         assertNull(repo.getMapa(999));
         assertNull(repo.getPartido(999));
     }
+
+    @Test
+    void testEliminarPartidoFinalizadoReciclaMapas() {
+        InMemoryRepo repo = new InMemoryRepo();
+        Partido p = partidoConMapas(repo, 10, 10);
+        Mapa mapa1 = repo.getMapa(repo.getJugador(p.getJugador1Id()).getMapaId());
+        mapa1.crearBarco(List.of(new int[]{0, 0}));
+        mapa1.marcarTocado(mapa1.buscarPorFilaCol(0, 0).orElseThrow());
+        int idAnterior = mapa1.getId();
+        p.setEstado(EstadoPartido.FINALIZADO);
+
+        assertSame(p, repo.eliminarPartido(p.getId()));
+        assertNull(repo.getPartido(p.getId()));
+        assertNull(repo.getMapa(idAnterior));
+        assertNull(repo.getJugador(p.getJugador1Id()).getMapaId());
+        assertEquals(2, repo.getMapasLibres());
+
+        Mapa reutilizado = repo.crearMapa(10, 10);
+        assertEquals(1, repo.getMapasLibres());
+        assertNotEquals(idAnterior, reutilizado.getId());
+        assertSame(reutilizado, repo.getMapa(reutilizado.getId()));
+        assertTrue(reutilizado.getBarcos().isEmpty());
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, reutilizado.buscarPorFilaCol(0, 0).orElseThrow().getEstado());
+        assertFalse(reutilizado.fueDisparada(0, 0));
+    }
+
+    @Test
+    void testEliminarPartidoNoFinalizadoNoReciclaMapas() {
+        InMemoryRepo repo = new InMemoryRepo();
+        Partido p = partidoConMapas(repo, 10, 10);
+        p.setEstado(EstadoPartido.EN_CURSO);
+
+        repo.eliminarPartido(p.getId());
+
+        assertEquals(0, repo.getMapasLibres());
+        assertNotNull(repo.getJugador(p.getJugador1Id()).getMapaId());
+    }
+
+    @Test
+    void testPoolRespetaDimensionesYLimite() {
+        InMemoryRepo repo = new InMemoryRepo(1);
+        Partido p = partidoConMapas(repo, 10, 10);
+        p.setEstado(EstadoPartido.FINALIZADO);
+        repo.eliminarPartido(p.getId());
+
+        assertEquals(1, repo.getMapasLibres());
+        Mapa otroTamano = repo.crearMapa(8, 8);
+        assertEquals(8, otroTamano.getRows());
+        assertEquals(1, repo.getMapasLibres());
+    }
+
+    @Test
+    void testTablerosFueraDeHeapYRanurasDevueltasALaArena() {
+        InMemoryRepo repo = new InMemoryRepo(1, 4, System::currentTimeMillis, new ArenaTableros());
+        assertEquals(ModoCeldas.PEREZOSO, repo.crearMapa(100, 100).getModo());
+        Partido p = partidoConMapas(repo, 10, 10);
+        Mapa mapa = repo.getMapa(repo.getJugador(p.getJugador1Id()).getMapaId());
+        assertEquals(ModoCeldas.FUERA_DE_HEAP, mapa.getModo());
+        assertEquals(2, repo.getArena().getRanurasEnUso());
+
+        p.setEstado(EstadoPartido.FINALIZADO);
+        repo.eliminarPartido(p.getId());
+
+        // uno queda en el pool con su ranura; el otro no cabe y libera la suya
+        assertEquals(1, repo.getMapasLibres());
+        assertEquals(1, repo.getArena().getRanurasEnUso());
+        assertNull(new InMemoryRepo().getArena());
+        assertEquals(ModoCeldas.FUERA_DE_HEAP, InMemoryRepo.conTablerosFueraDeHeap().crearMapa(10, 10).getModo());
+    }
+
+    @Test
+    void testPoolDesactivadoYTamanoNegativo() {
+        InMemoryRepo repo = new InMemoryRepo(0);
+        Partido p = partidoConMapas(repo, 10, 10);
+        p.setEstado(EstadoPartido.FINALIZADO);
+        repo.eliminarPartido(p.getId());
+
+        assertEquals(0, repo.getMapasLibres());
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryRepo(-1));
+        assertNull(repo.eliminarPartido(999));
+    }
+
+    @Test
+    void testNoReciclaMapaDeJugadorEnOtroPartido() {
+        InMemoryRepo repo = new InMemoryRepo();
+        Partido p = partidoConMapas(repo, 10, 10);
+        Partido otro = repo.crearPartido();
+        repo.anadirJugador(otro, p.getJugador1IdAsInt());
+        p.setEstado(EstadoPartido.FINALIZADO);
+
+        repo.eliminarPartido(p.getId());
+
+        assertEquals(1, repo.getMapasLibres());
+        assertNotNull(repo.getJugador(p.getJugador1Id()).getMapaId());
+    }
+
+    @Test
+    void testArchivarPartidoFinalizadoSigueVisible() {
+        InMemoryRepo repo = new InMemoryRepo();
+        Partido vivo = repo.crearPartido();
+        Partido p = partidoConMapas(repo, 12, 8);
+        p.setDimensiones(12, 8);
+        p.setGanadorId(p.getJugador1IdAsInt());
+        p.setEstado(EstadoPartido.FINALIZADO);
+
+        assertTrue(repo.archivarPartido(p.getId()));
+        assertFalse(repo.archivarPartido(p.getId()));
+
+        Partido archivado = repo.getPartido(p.getId());
+        assertNotSame(p, archivado);
+        assertEquals(p.getJugador1Id(), archivado.getGanadorId());
+        assertEquals(12, archivado.getFilas());
+        assertEquals(1, repo.getPartidosArchivados());
+        assertEquals(2, repo.getTodosPartidos().size());
+        List<Integer> ids = repo.getTodosPartidos().stream().map(Partido::getId).sorted().toList();
+        assertEquals(List.of(vivo.getId(), p.getId()), ids);
+        assertNotNull(repo.getJugador(p.getJugador1Id()).getMapaId());
+
+        assertEquals(p.getId(), repo.eliminarPartido(p.getId()).getId());
+        assertNull(repo.getPartido(p.getId()));
+        assertEquals(2, repo.getMapasLibres());
+    }
+
+    @Test
+    void testArchivarPartidoNoFinalizadoFalla() {
+        InMemoryRepo repo = new InMemoryRepo();
+        Partido p = repo.crearPartido();
+        assertThrows(IllegalStateException.class, () -> repo.archivarPartido(p.getId()));
+        assertSame(p, repo.getPartido(p.getId()));
+    }
+
+    @Test
+    void testFranjasSeRedondeanAPotenciaDeDos() {
+        assertEquals(1, new InMemoryRepo(0, 1).getNumeroFranjas());
+        assertEquals(4, new InMemoryRepo(0, 3).getNumeroFranjas());
+        assertEquals(InMemoryRepo.FRANJAS_POR_DEFECTO, new InMemoryRepo().getNumeroFranjas());
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryRepo(0, 0));
+    }
+
+    @Test
+    void testPartidosSeRepartenEntreFranjasYSeListanTodos() {
+        InMemoryRepo repo = new InMemoryRepo(0, 4);
+        for (int i = 0; i < 10; i++) {
+            repo.crearPartido();
+        }
+        assertEquals(10, repo.getTodosPartidos().size());
+        List<Integer> ids = repo.getTodosPartidos().stream().map(Partido::getId).sorted().toList();
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), ids);
+    }
+
+    @Test
+    void testConPartidoRecibeNullSiNoExiste() {
+        InMemoryRepo repo = new InMemoryRepo();
+        assertEquals("sin partido", repo.conPartido(42, p -> p == null ? "sin partido" : "otro"));
+    }
+
+    @Test
+    void testConPartidoSerializaElMismoPartido() throws Exception {
+        InMemoryRepo repo = new InMemoryRepo();
+        Partido p = repo.crearPartido();
+        int[] contador = new int[1];
+        int hilos = 4;
+        int repeticiones = 10_000;
+        Thread[] trabajadores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            trabajadores[h] = new Thread(() -> {
+                for (int i = 0; i < repeticiones; i++) {
+                    repo.conPartido(p.getId(), partido -> contador[0]++);
+                }
+            });
+            trabajadores[h].start();
+        }
+        for (Thread t : trabajadores) {
+            t.join();
+        }
+        assertEquals(hilos * repeticiones, contador[0]);
+    }
+
+    @Test
+    void testConPartidoNoBloqueaOtrasFranjas() throws Exception {
+        InMemoryRepo repo = new InMemoryRepo(0, 2);
+        Partido a = repo.crearPartido();
+        Partido b = repo.crearPartido();
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch salir = new CountDownLatch(1);
+        Thread bloqueador = new Thread(() -> repo.conPartido(a.getId(), p -> {
+            dentro.countDown();
+            try {
+                salir.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return p;
+        }));
+        bloqueador.start();
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Partido> otra = CompletableFuture
+                .supplyAsync(() -> repo.conPartido(b.getId(), p -> p));
+        assertSame(b, otra.get(5, TimeUnit.SECONDS));
+
+        salir.countDown();
+        bloqueador.join();
+    }
+
+    @Test
+    void testIndicePorEstadoSigueLosCambiosDeEstado() {
+        InMemoryRepo repo = new InMemoryRepo(0, 4);
+        Partido a = repo.crearPartido();
+        Partido b = repo.crearPartido();
+        Partido c = repo.crearPartido();
+
+        repo.conPartido(b.getId(), p -> {
+            repo.cambiarEstado(p, EstadoPartido.EN_CURSO);
+            return p;
+        });
+        assertEquals(List.of(a, c), List.copyOf(repo.getPartidosAbiertos()));
+        assertEquals(List.of(b), List.copyOf(repo.getPartidosEnEstado(EstadoPartido.EN_CURSO)));
+        assertEquals(2, repo.getPartidosAbiertos().size());
+
+        repo.conPartido(b.getId(), p -> {
+            repo.cambiarEstado(p, EstadoPartido.FINALIZADO);
+            return p;
+        });
+        repo.archivarPartido(b.getId());
+        assertTrue(repo.getPartidosEnEstado(EstadoPartido.EN_CURSO).isEmpty());
+        assertEquals(List.of(b.getId()), repo.getPartidosEnEstado(EstadoPartido.FINALIZADO).stream().map(Partido::getId).toList());
+
+        repo.eliminarPartido(a.getId());
+        assertEquals(List.of(c), List.copyOf(repo.getPartidosAbiertos()));
+    }
+
+    @Test
+    void testIndiceIgnoraEstadosCambiadosFueraDelRepo() {
+        InMemoryRepo repo = new InMemoryRepo();
+        Partido p = repo.crearPartido();
+        p.setEstado(EstadoPartido.EN_CURSO);
+
+        assertTrue(repo.getPartidosAbiertos().isEmpty());
+        assertEquals(0, repo.getPartidosAbiertos().size());
+    }
+
+    @Test
+    void testIndicePartidosActivosPorJugador() {
+        InMemoryRepo repo = new InMemoryRepo();
+        Jugador j = repo.crearJugador();
+        Jugador rival = repo.crearJugador();
+        Partido primero = repo.crearPartido();
+        Partido segundo = repo.crearPartido();
+        repo.anadirJugador(primero, j.getId());
+        repo.anadirJugador(primero, rival.getId());
+        repo.anadirJugador(segundo, rival.getId());
+        repo.anadirJugador(segundo, j.getId());
+
+        assertEquals(j.getId(), segundo.getJugador2IdAsInt());
+        assertEquals(List.of(primero, segundo), repo.getPartidosActivos(j.getId()));
+        assertThrows(IllegalStateException.class, () -> repo.anadirJugador(primero, repo.crearJugador().getId()));
+
+        primero.setGanadorId(j.getId());
+        repo.cambiarEstado(primero, EstadoPartido.FINALIZADO);
+        assertTrue(repo.archivarPartido(primero.getId()));
+        assertEquals(List.of(segundo), repo.getPartidosActivos(j.getId()));
+        assertEquals(List.of(segundo), repo.getPartidosActivos(rival.getId()));
+
+        repo.eliminarPartido(segundo.getId());
+        assertTrue(repo.getPartidosActivos(j.getId()).isEmpty());
+        assertTrue(repo.getPartidosActivos(999).isEmpty());
+    }
+
+    private Partido partidoConMapas(InMemoryRepo repo, int filas, int columnas) {
+        Partido p = repo.crearPartido();
+        for (int i = 0; i < 2; i++) {
+            Jugador j = repo.crearJugador();
+            j.setMapaId(repo.crearMapa(filas, columnas).getId());
+            repo.anadirJugador(p, j.getId());
+        }
+        return p;
+    }
+
+    @Test
+    void testRepositoriosConFuenteCompartidaNoRepitenIds(@TempDir Path dir) throws IOException {
+        try (ArchivoBloquesIds ids = ArchivoBloquesIds.abrir(dir.resolve("ids"))) {
+            InMemoryRepo a = new InMemoryRepo(1, 4, System::currentTimeMillis, null, ids);
+            InMemoryRepo b = new InMemoryRepo(1, 4, System::currentTimeMillis, null, ids);
+            Set<Integer> jugadores = new HashSet<>();
+            for (int i = 0; i < 3 * InMemoryRepo.TAMANO_BLOQUE_IDS; i++) {
+                assertTrue(jugadores.add(a.crearJugador().getId()));
+                assertTrue(jugadores.add(b.crearJugador().getId()));
+            }
+            assertEquals(1, a.crearPartido().getId());
+            assertEquals(InMemoryRepo.TAMANO_BLOQUE_IDS + 1, b.crearPartido().getId());
+            assertEquals(8, ids.getReservas());
+
+            // un id restaurado de otro nodo no se vuelve a entregar
+            b.restaurarPartido(50_000);
+            assertEquals(50_001, b.crearPartido().getId());
+        }
+    }
 }
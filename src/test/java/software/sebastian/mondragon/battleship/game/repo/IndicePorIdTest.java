@@ -0,0 +1,73 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndicePorIdTest {
+
+    @Test
+    void idsDispersosSoloReservanLasPaginasQueUsan() {
+        IndicePorId indice = new IndicePorId();
+        indice.put(1, 0);
+        indice.put(1 << 30, 1);
+        indice.put(Integer.MAX_VALUE, 2);
+
+        assertEquals(0, indice.get(1));
+        assertEquals(1, indice.get(1 << 30));
+        assertEquals(2, indice.get(Integer.MAX_VALUE));
+        assertEquals(-1, indice.get(2));
+        assertEquals(-1, indice.get(-1));
+        assertEquals(3, indice.getPaginas());
+
+        indice.quitar(1 << 30);
+        assertEquals(-1, indice.get(1 << 30));
+        assertEquals(2, indice.getPaginas());
+        assertEquals(2, indice.get(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void unBloqueDeIdsCabeEnUnaODosPaginas() {
+        IndicePorId indice = new IndicePorId();
+        int inicio = 7 * InMemoryRepo.TAMANO_BLOQUE_IDS + 100;
+        for (int i = 0; i < InMemoryRepo.TAMANO_BLOQUE_IDS; i++) {
+            indice.put(inicio + i, i);
+        }
+        assertEquals(2, indice.getPaginas());
+
+        indice.put(inicio, 99);
+        assertEquals(99, indice.get(inicio));
+        for (int i = 0; i < InMemoryRepo.TAMANO_BLOQUE_IDS; i++) {
+            indice.quitar(inicio + i);
+        }
+        assertEquals(0, indice.getPaginas());
+        assertThrows(IllegalArgumentException.class, () -> indice.put(-5, 0));
+    }
+
+    @Test
+    void coincideConUnMapaTrasOperacionesAleatorias() {
+        IndicePorId indice = new IndicePorId();
+        Map<Integer, Integer> esperado = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // bloques repartidos por todo el rango, como los de varios nodos
+            int id = random.nextInt(512) * (Integer.MAX_VALUE / 512) + random.nextInt(2048);
+            if (random.nextInt(3) == 0) {
+                indice.quitar(id);
+                esperado.remove(id);
+            } else {
+                indice.put(id, i);
+                esperado.put(id, i);
+            }
+        }
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(512) * (Integer.MAX_VALUE / 512) + random.nextInt(2048);
+            assertEquals(esperado.getOrDefault(id, -1), indice.get(id), "id " + id);
+        }
+        esperado.forEach((id, posicion) -> assertEquals(posicion, indice.get(id)));
+    }
+}
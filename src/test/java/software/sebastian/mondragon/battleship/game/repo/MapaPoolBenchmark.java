@@ -0,0 +1,67 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.openjdk.jmh.annotations.*;
+import software.sebastian.mondragon.battleship.game.model.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partida completa de 10x10 (crear mapas, colocar flota, hundirla y eliminar el partido)
+ * con y sin el pool de mapas de {@link InMemoryRepo}. Con {@code -prof gc} se comparan
+ * {@code gc.alloc.rate.norm} y {@code gc.count} de ambas configuraciones.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="MapaPoolBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapaPoolBenchmark {
+    private static final List<List<int[]>> FLOTA = List.of(
+            List.of(new int[]{0, 0}, new int[]{0, 1}, new int[]{0, 2}, new int[]{0, 3}, new int[]{0, 4}),
+            List.of(new int[]{2, 0}, new int[]{2, 1}, new int[]{2, 2}, new int[]{2, 3}),
+            List.of(new int[]{4, 0}, new int[]{4, 1}, new int[]{4, 2}),
+            List.of(new int[]{6, 0}, new int[]{6, 1}, new int[]{6, 2}),
+            List.of(new int[]{8, 0}, new int[]{8, 1}));
+
+    @Param({"true", "false"})
+    private boolean pool;
+
+    private InMemoryRepo repo;
+    private Jugador j1;
+    private Jugador j2;
+
+    @Setup
+    public void setup() {
+        repo = new InMemoryRepo(pool ? InMemoryRepo.MAX_MAPAS_LIBRES_POR_TAMANO : 0);
+        j1 = repo.crearJugador();
+        j2 = repo.crearJugador();
+    }
+
+    @Benchmark
+    public Partido partidaCompleta() {
+        Partido p = repo.crearPartido();
+        repo.anadirJugador(p, j1.getId());
+        repo.anadirJugador(p, j2.getId());
+        jugar(j1);
+        jugar(j2);
+        p.setEstado(EstadoPartido.FINALIZADO);
+        return repo.eliminarPartido(p.getId());
+    }
+
+    private void jugar(Jugador j) {
+        Mapa mapa = repo.crearMapa(10, 10);
+        j.setMapaId(mapa.getId());
+        for (List<int[]> barco : FLOTA) {
+            mapa.crearBarco(barco);
+        }
+        for (List<int[]> barco : FLOTA) {
+            for (int[] pos : barco) {
+                mapa.marcarTocado(mapa.getCoordenadaById(pos[0] * 10 + pos[1] + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+import software.sebastian.mondragon.battleship.game.service.GameService;
+import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepoEnDiscoTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lasPartidasTerminadasSeLeenDelArchivo() throws IOException {
+        try (RepoEnDisco repo = RepoEnDisco.abrir(dir.resolve("historico"), 0, null, null)) {
+            GameService service = new GameService(repo, (id, msg) -> { });
+            int[] ids = jugarPartidas(service, 3);
+
+            assertTrue(Files.exists(dir.resolve("historico").resolve(RepoEnDisco.ARCHIVO)));
+            assertEquals(3, repo.getPartidosArchivados());
+            Partido archivado = repo.getPartido(ids[0]);
+            assertEquals(EstadoPartido.FINALIZADO, archivado.getEstado());
+            assertNotNull(archivado.getGanadorId());
+            assertEquals(3, repo.getPartidosEnEstado(EstadoPartido.FINALIZADO).size());
+            assertEquals(ids[2], repo.eliminarPartido(ids[2]).getId());
+            assertEquals(2, repo.getTodosPartidos().size());
+        }
+    }
+
+    @Test
+    void unSnapshotPasaDeMemoriaADiscoYDeVuelta() throws IOException {
+        InMemoryRepo enMemoria = new InMemoryRepo();
+        jugarPartidas(new GameService(enMemoria, (id, msg) -> { }), 2);
+        Partido vivo = new GameService(enMemoria, (id, msg) -> { }).crearPartido(1);
+
+        try (RepoEnDisco repo = RepoEnDisco.abrir(dir, 1, null, null)) {
+            RepoSnapshot.capturar(enMemoria, () -> PuntoJournal.INICIO).restaurar(repo);
+            assertEquals(2, repo.getPartidosArchivados());
+            assertEquals(EstadoPartido.ESPERANDO_JUGADORES, repo.getPartido(vivo.getId()).getEstado());
+
+            InMemoryRepo vuelta = new InMemoryRepo();
+            RepoSnapshot.capturar(repo, () -> PuntoJournal.INICIO).restaurar(vuelta);
+            assertEquals(enMemoria.getTodosPartidos().size(), vuelta.getTodosPartidos().size());
+            assertEquals(enMemoria.getPartido(1).getGanadorId(), vuelta.getPartido(1).getGanadorId());
+        }
+    }
+
+    /* cada partida la gana el anfitrion hundiendo un barco de una celda; devuelve sus ids */
+    private static int[] jugarPartidas(GameService service, int partidas) {
+        int anfitrion = service.crearJugador().getId();
+        int rival = service.crearJugador().getId();
+        int[] ids = new int[partidas];
+        for (int i = 0; i < partidas; i++) {
+            ids[i] = service.crearPartido(anfitrion).getId();
+            service.unirsePartido(ids[i], rival);
+            service.colocarBarco(rival, List.of(new int[]{i, 0}));
+            assertEquals(ResultadoDisparo.HUNDIDO, service.disparar(anfitrion, ids[i], i, 0));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,114 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.openjdk.jmh.annotations.*;
+
+import software.sebastian.mondragon.battleship.game.journal.Evento;
+import software.sebastian.mondragon.battleship.game.journal.FileEventJournal;
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
+import software.sebastian.mondragon.battleship.game.service.GameService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tiempo de arranque con un millon de partidas guardadas: reproduciendo todo el journal frente
+ * a cargar el snapshot (con la cola del journal vacia). Cada pareja de jugadores juega sus
+ * partidas seguidas sobre tableros de 1000x1000 y deja la ultima en curso, asi que casi todas
+ * estan terminadas y archivadas. Tambien mide la captura del snapshot, que es el tiempo que
+ * los comandos esperan mientras se toma.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="RepoSnapshotBenchmark"</pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RepoSnapshotBenchmark {
+    private static final int PAREJAS = 1000;
+    private static final int LADO = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Guardado {
+        @Param("1000000")
+        int partidos;
+
+        Path conJournal;
+        Path conSnapshot;
+        InMemoryRepo repo;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            conJournal = Files.createTempDirectory("arranque-journal");
+            try (FileEventJournal journal = FileEventJournal.abrir(conJournal, e -> { })) {
+                for (int j = 1; j <= 2 * PAREJAS; j++) {
+                    journal.registrar(new Evento.JugadorCreado(j));
+                }
+                int porPareja = partidos / PAREJAS;
+                int p = 0;
+                for (int pareja = 0; pareja < PAREJAS; pareja++) {
+                    int anfitrion = 2 * pareja + 1;
+                    int rival = anfitrion + 1;
+                    for (int k = 0; k < porPareja; k++) {
+                        p++;
+                        journal.registrar(new Evento.PartidoCreado(p, anfitrion, LADO, LADO));
+                        journal.registrar(new Evento.JugadorUnido(p, rival));
+                        if (k < porPareja - 1) {
+                            // un barco de una celda nueva que el anfitrion hunde de un disparo
+                            journal.registrar(new Evento.BarcoColocado(rival, new int[]{k / LADO, k % LADO}));
+                            journal.registrar(new Evento.Disparo(anfitrion, p, k / LADO, k % LADO));
+                        }
+                    }
+                    journal.confirmar();
+                }
+            }
+            repo = reproducir(conJournal);
+
+            conSnapshot = Files.createTempDirectory("arranque-snapshot");
+            try (FileEventJournal journal = FileEventJournal.abrir(conSnapshot, e -> { })) {
+                new Snapshotter(repo, journal, conSnapshot, Duration.ofMinutes(1)).tomar();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void borrar() throws IOException {
+            for (Path directorio : new Path[]{conJournal, conSnapshot}) {
+                try (Stream<Path> rutas = Files.walk(directorio)) {
+                    rutas.sorted(Comparator.reverseOrder()).forEach(r -> r.toFile().delete());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public InMemoryRepo reproducirJournalCompleto(Guardado g) throws IOException {
+        return reproducir(g.conJournal);
+    }
+
+    @Benchmark
+    public InMemoryRepo cargarSnapshotYCola(Guardado g) throws IOException {
+        InMemoryRepo repo = new InMemoryRepo();
+        PuntoJournal desde = Snapshotter.cargar(g.conSnapshot, repo);
+        GameService reproductor = new GameService(repo, (id, msg) -> { });
+        FileEventJournal.abrir(g.conSnapshot, desde, FileEventJournal.TAMANO_SEGMENTO_POR_DEFECTO,
+                reproductor::aplicar).close();
+        return repo;
+    }
+
+    @Benchmark
+    public RepoSnapshot capturar(Guardado g) {
+        return RepoSnapshot.capturar(g.repo, () -> PuntoJournal.INICIO);
+    }
+
+    private static InMemoryRepo reproducir(Path directorio) throws IOException {
+        InMemoryRepo repo = new InMemoryRepo();
+        GameService reproductor = new GameService(repo, (id, msg) -> { });
+        FileEventJournal.abrir(directorio, reproductor::aplicar).close();
+        return repo;
+    }
+}
@@ -0,0 +1,117 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.model.Mapa;
+import software.sebastian.mondragon.battleship.game.model.ModoJuego;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+import software.sebastian.mondragon.battleship.game.service.GameService;
+import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepoSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void escribirLeerYRestaurarReproduceElRepositorio() throws IOException {
+        InMemoryRepo repo = new InMemoryRepo();
+        GameService service = new GameService(repo, (id, msg) -> { });
+        int a = service.crearJugador().getId();
+        int b = service.crearJugador().getId();
+        int c = service.crearJugador().getId();
+        int d = service.crearJugador().getId();
+        int enCurso = service.crearPartido(a, 12, 8).getId();
+        service.unirsePartido(enCurso, b);
+        service.colocarBarco(a, List.of(new int[]{0, 0}));
+        service.colocarBarco(b, List.of(new int[]{3, 3}, new int[]{3, 4}));
+        assertEquals(ResultadoDisparo.AGUA, service.disparar(a, enCurso, 7, 7));
+        int terminado = service.crearPartido(c).getId();
+        service.unirsePartido(terminado, d);
+        service.colocarBarco(d, List.of(new int[]{1, 1}));
+        service.disparar(c, terminado, 1, 1);
+        int abierto = service.crearPartido(c, 10, 10, ModoJuego.SALVA).getId();
+
+        Path archivo = dir.resolve("repo.snapshot");
+        RepoSnapshot.capturar(repo, () -> new PuntoJournal(3, 40)).escribir(archivo);
+        RepoSnapshot leido = RepoSnapshot.leer(archivo);
+        InMemoryRepo restaurado = new InMemoryRepo();
+        leido.restaurar(restaurado);
+
+        assertEquals(new PuntoJournal(3, 40), leido.getPunto());
+        assertEquals(3, leido.getPartidos());
+        Partido p = restaurado.getPartido(enCurso);
+        assertEquals(EstadoPartido.EN_CURSO, p.getEstado());
+        assertEquals(b, p.getTurnoJugadorId());
+        assertEquals(8, p.getColumnas());
+        assertEquals(1, restaurado.getPartidosArchivados());
+        assertEquals(c, restaurado.getPartido(terminado).getGanadorId());
+        assertEquals(List.of(abierto), restaurado.getPartidosAbiertos().stream().map(Partido::getId).toList());
+        assertEquals(ModoJuego.SALVA, restaurado.getPartido(abierto).getModo());
+        assertEquals(ModoJuego.CLASICO, p.getModo());
+        Mapa mapaB = restaurado.getMapa(restaurado.getJugador(b).getMapaIdAsInt());
+        assertArrayEquals(repo.getMapa(repo.getJugador(b).getMapaIdAsInt()).exportarEstado(), mapaB.exportarEstado());
+
+        GameService continuado = new GameService(restaurado, (id, msg) -> { });
+        assertEquals(ResultadoDisparo.AGUA, continuado.disparar(b, enCurso, 5, 5));
+        assertEquals(d + 1, restaurado.crearJugador().getId());
+        assertEquals(abierto + 1, restaurado.crearPartido().getId());
+    }
+
+    @Test
+    void restaurarConservaTablerosPorPartidoYPartidosActivos() throws IOException {
+        InMemoryRepo repo = new InMemoryRepo();
+        GameService service = new GameService(repo, (id, msg) -> { });
+        int a = service.crearJugador().getId();
+        int b = service.crearJugador().getId();
+        int c = service.crearJugador().getId();
+        Partido primera = service.crearPartido(a);
+        service.unirsePartido(primera.getId(), b);
+        Partido segunda = service.crearPartido(c);
+        service.unirsePartido(segunda.getId(), a);
+
+        Path archivo = dir.resolve("repo.snapshot");
+        RepoSnapshot.capturar(repo, () -> new PuntoJournal(1, 0)).escribir(archivo);
+        InMemoryRepo restaurado = new InMemoryRepo();
+        RepoSnapshot.leer(archivo).restaurar(restaurado);
+
+        assertEquals(List.of(primera.getId(), segunda.getId()),
+                restaurado.getPartidosActivos(a).stream().map(Partido::getId).toList());
+        assertEquals(primera.getMapaDe(a), restaurado.getPartido(primera.getId()).getMapaDe(a));
+        assertEquals(segunda.getMapaDe(a), restaurado.getPartido(segunda.getId()).getMapaDe(a));
+        assertNotNull(restaurado.getMapa(primera.getMapaDe(a)));
+    }
+
+    @Test
+    void snapshotCorruptoSeRechaza() throws IOException {
+        InMemoryRepo repo = new InMemoryRepo();
+        new GameService(repo, (id, msg) -> { }).crearJugador();
+        Path archivo = dir.resolve("repo.snapshot");
+        RepoSnapshot.capturar(repo, () -> PuntoJournal.INICIO).escribir(archivo);
+
+        byte[] bytes = Files.readAllBytes(archivo);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(archivo, bytes);
+
+        assertThrows(IOException.class, () -> RepoSnapshot.leer(archivo));
+    }
+
+    @Test
+    void soloSeRestauraSobreUnRepositorioVacio() {
+        InMemoryRepo repo = new InMemoryRepo();
+        repo.crearJugador();
+        RepoSnapshot snapshot = RepoSnapshot.capturar(repo, () -> PuntoJournal.INICIO);
+
+        assertThrows(IllegalStateException.class, () -> snapshot.restaurar(repo));
+    }
+}
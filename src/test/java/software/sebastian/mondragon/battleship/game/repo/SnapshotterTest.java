@@ -0,0 +1,78 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.sebastian.mondragon.battleship.game.journal.FileEventJournal;
+import software.sebastian.mondragon.battleship.game.journal.PuntoJournal;
+import software.sebastian.mondragon.battleship.game.model.EstadoPartido;
+import software.sebastian.mondragon.battleship.game.service.GameService;
+import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotterTest {
+    private static final long SEGMENTO = 64;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotMasColaDelJournalReconstruyeElEstado() throws IOException {
+        int host;
+        int guest;
+        int partidoId;
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, SEGMENTO, e -> { })) {
+            InMemoryRepo repo = new InMemoryRepo();
+            GameService service = new GameService(repo, (id, msg) -> { }, journal);
+            host = service.crearJugador().getId();
+            guest = service.crearJugador().getId();
+            partidoId = service.crearPartido(host).getId();
+            service.unirsePartido(partidoId, guest);
+            service.colocarBarco(host, List.of(new int[]{0, 0}));
+
+            RepoSnapshot snapshot = new Snapshotter(repo, journal, dir, Duration.ofMinutes(1)).tomar();
+            assertTrue(snapshot.getPunto().segmento() > 1);
+
+            service.colocarBarco(guest, List.of(new int[]{4, 4}));
+            service.disparar(host, partidoId, 9, 9);
+        }
+        assertFalse(Files.exists(dir.resolve("journal-00000001.log")));
+
+        InMemoryRepo repo = new InMemoryRepo();
+        PuntoJournal desde = Snapshotter.cargar(dir, repo);
+        GameService reproductor = new GameService(repo, (id, msg) -> { });
+        FileEventJournal.abrir(dir, desde, SEGMENTO, reproductor::aplicar).close();
+
+        assertEquals(guest, repo.getPartido(partidoId).getTurnoJugadorId());
+        assertTrue(reproductor.obtenerTablero(guest).fueDisparada(9, 9));
+        assertEquals(ResultadoDisparo.HUNDIDO, reproductor.disparar(guest, partidoId, 0, 0));
+        assertEquals(EstadoPartido.FINALIZADO, repo.getPartido(partidoId).getEstado());
+    }
+
+    @Test
+    void sinSnapshotSeReproduceDesdeElInicio() throws IOException {
+        assertEquals(PuntoJournal.INICIO, Snapshotter.cargar(dir, new InMemoryRepo()));
+    }
+
+    @Test
+    void iniciarTomaSnapshotsPeriodicos() throws Exception {
+        InMemoryRepo repo = new InMemoryRepo();
+        try (FileEventJournal journal = FileEventJournal.abrir(dir, e -> { });
+             Snapshotter snapshotter = new Snapshotter(repo, journal, dir, Duration.ofMillis(20))) {
+            snapshotter.iniciar();
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (snapshotter.getSnapshotsTomados() == 0 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            assertTrue(snapshotter.getSnapshotsTomados() > 0);
+            assertTrue(Files.exists(dir.resolve(Snapshotter.ARCHIVO)));
+        }
+    }
+}
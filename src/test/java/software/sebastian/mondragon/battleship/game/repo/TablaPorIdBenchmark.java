@@ -0,0 +1,59 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busqueda por id en {@link TablaPorId} frente al {@code ConcurrentHashMap<Integer, ?>} que
+ * usaba antes el repositorio. Con {@code -prof gc} se ve tambien el boxing de las claves
+ * por encima de la cache de {@code Integer}.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="TablaPorIdBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TablaPorIdBenchmark {
+    private static final int MUESTRAS = 1024;
+
+    @Param({"1000", "1000000"})
+    private int entradas;
+
+    private TablaPorId<Object> tabla;
+    private Map<Integer, Object> mapa;
+    private int[] claves;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        tabla = new TablaPorId<>();
+        mapa = new ConcurrentHashMap<>();
+        for (int id = 1; id <= entradas; id++) {
+            Object valor = new Object();
+            tabla.put(id, valor);
+            mapa.put(id, valor);
+        }
+        Random random = new Random(42);
+        claves = new int[MUESTRAS];
+        for (int i = 0; i < MUESTRAS; i++) {
+            claves[i] = 1 + random.nextInt(entradas);
+        }
+    }
+
+    @Benchmark
+    public Object tablaPorId() {
+        return tabla.get(claves[cursor++ & (MUESTRAS - 1)]);
+    }
+
+    @Benchmark
+    public Object concurrentHashMap() {
+        return mapa.get(claves[cursor++ & (MUESTRAS - 1)]);
+    }
+}
@@ -0,0 +1,89 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablaPorIdTest {
+
+    @Test
+    void putGetYRemove() {
+        TablaPorId<String> tabla = new TablaPorId<>();
+        assertNull(tabla.put(1, "uno"));
+        assertEquals("uno", tabla.put(1, "otro uno"));
+        tabla.put(5000, "cinco mil");
+
+        assertEquals("otro uno", tabla.get(1));
+        assertEquals("cinco mil", tabla.get(5000));
+        assertNull(tabla.get(2));
+        assertNull(tabla.get(-1));
+        assertNull(tabla.get(1 << 30));
+        assertEquals(2, tabla.size());
+
+        assertEquals("otro uno", tabla.remove(1));
+        assertNull(tabla.remove(1));
+        assertEquals(1, tabla.size());
+    }
+
+    @Test
+    void rechazaClavesNegativasYValoresNulos() {
+        TablaPorId<String> tabla = new TablaPorId<>();
+        assertThrows(IllegalArgumentException.class, () -> tabla.put(-1, "x"));
+        assertThrows(NullPointerException.class, () -> tabla.put(1, null));
+        assertNull(tabla.remove(-1));
+    }
+
+    @Test
+    void sueltaTrozosVacios() {
+        TablaPorId<Integer> tabla = new TablaPorId<>();
+        for (int i = 0; i < 3 * TablaPorId.TAMANO_TROZO; i++) {
+            tabla.put(i, i);
+        }
+        assertEquals(3, tabla.trozosReservados());
+
+        for (int i = 0; i < TablaPorId.TAMANO_TROZO; i++) {
+            tabla.remove(i);
+        }
+        assertEquals(2, tabla.trozosReservados());
+        assertNull(tabla.get(0));
+        assertEquals(TablaPorId.TAMANO_TROZO, tabla.get(TablaPorId.TAMANO_TROZO));
+    }
+
+    @Test
+    void valuesRecorreEnOrdenDeClaveSaltandoHuecos() {
+        TablaPorId<Integer> tabla = new TablaPorId<>();
+        tabla.put(7, 7);
+        tabla.put(3, 3);
+        tabla.put(10 * TablaPorId.TAMANO_TROZO, 10 * TablaPorId.TAMANO_TROZO);
+
+        List<Integer> valores = new ArrayList<>(tabla.values());
+        assertEquals(List.of(3, 7, 10 * TablaPorId.TAMANO_TROZO), valores);
+        assertEquals(3, tabla.values().size());
+        assertTrue(new TablaPorId<Integer>().values().isEmpty());
+    }
+
+    @Test
+    void lectoresConcurrentesVenLasEscrituras() throws InterruptedException {
+        TablaPorId<Integer> tabla = new TablaPorId<>();
+        int total = 50_000;
+        Thread escritor = new Thread(() -> {
+            for (int i = 1; i <= total; i++) {
+                tabla.put(i, i);
+            }
+        });
+        escritor.start();
+        int vistos = 0;
+        while (escritor.isAlive() || vistos < total) {
+            Integer v = tabla.get(vistos + 1);
+            if (v != null) {
+                assertEquals(vistos + 1, v);
+                vistos++;
+            }
+        }
+        escritor.join();
+        assertEquals(total, tabla.size());
+    }
+}
@@ -0,0 +1,88 @@
+package software.sebastian.mondragon.battleship.game.repo;
+
+import org.openjdk.jmh.annotations.*;
+
+import software.sebastian.mondragon.battleship.game.model.ArenaTableros;
+import software.sebastian.mondragon.battleship.game.service.GameService;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de GC de muchas partidas vivas de 10x10 con la flota completa colocada, con los
+ * tableros en el heap ({@code DENSO}) o en una {@link ArenaTableros} ({@code FUERA_DE_HEAP}).
+ * Mide una recoleccion completa y, como contadores auxiliares de JMH, lo que queda despues en
+ * la generacion vieja y la memoria directa de la arena.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="TablerosFueraDeHeapBenchmark"</pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class TablerosFueraDeHeapBenchmark {
+    private static final List<List<int[]>> FLOTA = List.of(
+            fila(0, 5), fila(2, 4), fila(4, 3), fila(6, 3), fila(8, 2));
+
+    @Param({"DENSO", "FUERA_DE_HEAP"})
+    String modo;
+
+    @Param("100000")
+    int partidos;
+
+    InMemoryRepo repo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        repo = "FUERA_DE_HEAP".equals(modo) ? InMemoryRepo.conTablerosFueraDeHeap() : new InMemoryRepo();
+        GameService service = new GameService(repo, (id, msg) -> { });
+        for (int p = 0; p < partidos; p++) {
+            int anfitrion = service.crearJugador().getId();
+            int rival = service.crearJugador().getId();
+            int partido = service.crearPartido(anfitrion).getId();
+            service.unirsePartido(partido, rival);
+            for (List<int[]> barco : FLOTA) {
+                service.colocarBarco(anfitrion, barco);
+                service.colocarBarco(rival, barco);
+            }
+        }
+    }
+
+    /* resultados secundarios, leidos justo despues de la recoleccion medida */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memoria {
+        public long generacionViejaMb;
+        public long arenaMb;
+        public long ranurasArena;
+    }
+
+    @Benchmark
+    public void recoleccionCompleta(Memoria memoria) {
+        System.gc();
+        long viejo = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            String nombre = pool.getName();
+            if (nombre.contains("Old Gen") || nombre.contains("Tenured")) {
+                viejo += pool.getUsage().getUsed();
+            }
+        }
+        ArenaTableros arena = repo.getArena();
+        memoria.generacionViejaMb = viejo >> 20;
+        memoria.arenaMb = arena == null ? 0 : arena.getBytesReservados() >> 20;
+        memoria.ranurasArena = arena == null ? 0 : arena.getRanurasEnUso();
+    }
+
+    private static List<int[]> fila(int fila, int tamano) {
+        int[][] celdas = new int[tamano][];
+        for (int c = 0; c < tamano; c++) {
+            celdas[c] = new int[]{fila, c};
+        }
+        return Arrays.asList(celdas);
+    }
+}
@@ -0,0 +1,178 @@
+package software.sebastian.mondragon.battleship.game.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
+import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificacionesAsincronasTest {
+    private final ExecutorService repartidores = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void cerrar() {
+        repartidores.shutdownNow();
+    }
+
+    @Test
+    void unDestinatarioLentoNoFrenaAQuienNotificaYSusMensajesSeJuntan() throws Exception {
+        CountDownLatch primeraEnCurso = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        List<List<String>> escrituras = Collections.synchronizedList(new ArrayList<>());
+        NotificacionesAsincronas notificaciones = new NotificacionesAsincronas((jugadorId, lineas) -> {
+            escrituras.add(texto(lineas));
+            primeraEnCurso.countDown();
+            esperar(soltar);
+        }, repartidores);
+        notificaciones.registrar(1);
+
+        notificaciones.notifyJugador(1, "a");
+        assertTrue(primeraEnCurso.await(5, TimeUnit.SECONDS));
+        long inicio = System.nanoTime();
+        for (String mensaje : List.of("b", "c", "d")) {
+            notificaciones.notifyJugador(1, mensaje);
+        }
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1), "notificar no debe esperar al socket");
+        assertEquals(4, notificaciones.getPendientes(1));
+        assertEquals(Map.of(1, 4), notificaciones.getPendientesPorJugador());
+
+        soltar.countDown();
+        esperarVacias(notificaciones, 1);
+
+        assertEquals(List.of(List.of("NOTIFY a"), List.of("NOTIFY b", "NOTIFY c", "NOTIFY d")), escrituras);
+        assertEquals(2, notificaciones.getEscrituras());
+        assertTrue(notificaciones.getPendientesPorJugador().isEmpty());
+    }
+
+    @Test
+    void cadaDestinatarioTieneSuPropiaCola() throws Exception {
+        CountDownLatch soltar = new CountDownLatch(1);
+        List<String> rapidos = Collections.synchronizedList(new ArrayList<>());
+        NotificacionesAsincronas notificaciones = new NotificacionesAsincronas((jugadorId, lineas) -> {
+            if (jugadorId == 1) {
+                esperar(soltar);
+            } else {
+                rapidos.addAll(texto(lineas));
+            }
+        }, repartidores);
+        notificaciones.registrar(1);
+        notificaciones.registrar(2);
+
+        notificaciones.notifyJugador(1, "bloqueado");
+        for (int i = 0; i < 100; i++) {
+            notificaciones.notifyJugador(2, "m" + i);
+        }
+        esperarVacias(notificaciones, 2);
+
+        assertEquals(100, rapidos.size());
+        assertEquals("NOTIFY m99", rapidos.get(99));
+        assertEquals(1, notificaciones.getPendientes(1));
+        soltar.countDown();
+        esperarVacias(notificaciones, 1);
+    }
+
+    @Test
+    void conLaColaLlenaSeDescartanLosNuevos() throws Exception {
+        CountDownLatch soltar = new CountDownLatch(1);
+        List<String> entregados = Collections.synchronizedList(new ArrayList<>());
+        NotificacionesAsincronas notificaciones = new NotificacionesAsincronas((jugadorId, lineas) -> {
+            esperar(soltar);
+            entregados.addAll(texto(lineas));
+        }, repartidores);
+        notificaciones.registrar(7);
+
+        for (int i = 0; i < NotificacionesAsincronas.MAX_PENDIENTES + 10; i++) {
+            notificaciones.notifyJugador(7, "m" + i);
+        }
+        assertEquals(NotificacionesAsincronas.MAX_PENDIENTES, notificaciones.getPendientes(7));
+        assertEquals(10, notificaciones.getDescartados());
+
+        soltar.countDown();
+        esperarVacias(notificaciones, 7);
+        assertEquals(NotificacionesAsincronas.MAX_PENDIENTES, entregados.size());
+        assertEquals("NOTIFY m0", entregados.get(0));
+    }
+
+    @Test
+    void unEventoSeCodificaUnaVezParaTodosSusDestinatarios() throws Exception {
+        Map<Integer, byte[]> recibido = new ConcurrentHashMap<>();
+        NotificacionesAsincronas notificaciones = new NotificacionesAsincronas(
+                (jugadorId, lineas) -> recibido.put(jugadorId, lineas.get(0)), repartidores);
+        notificaciones.registrar(1);
+        notificaciones.registrar(2);
+
+        notificaciones.publicar(new EventoPartida.DisparoResuelto(5, 1, 2, 3, 4, ResultadoDisparo.TOCADO, 0));
+        esperarVacias(notificaciones, 1);
+        esperarVacias(notificaciones, 2);
+
+        assertSame(recibido.get(1), recibido.get(2));
+        assertEquals("EVENT SHOT 5 1 2 3 4 TOCADO 0\n", new String(recibido.get(1), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void soloHayColasParaJugadoresConSesionYSeQuitanAlDesconectar() throws Exception {
+        CountDownLatch primeraEnCurso = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        List<String> entregados = Collections.synchronizedList(new ArrayList<>());
+        NotificacionesAsincronas notificaciones = new NotificacionesAsincronas((jugadorId, lineas) -> {
+            primeraEnCurso.countDown();
+            esperar(soltar);
+            entregados.addAll(texto(lineas));
+        }, repartidores);
+
+        notificaciones.notifyJugador(9, "sin sesion");
+        assertEquals(0, notificaciones.getPendientes(9));
+        assertTrue(notificaciones.getPendientesPorJugador().isEmpty());
+
+        notificaciones.registrar(3);
+        notificaciones.notifyJugador(3, "a");
+        assertTrue(primeraEnCurso.await(5, TimeUnit.SECONDS));
+        notificaciones.notifyJugador(3, "b");
+        notificaciones.notifyJugador(3, "c");
+        notificaciones.olvidar(3);
+        assertEquals(0, notificaciones.getPendientes(3));
+        notificaciones.notifyJugador(3, "tras desconectar");
+        assertEquals(0, notificaciones.getPendientes(3));
+
+        soltar.countDown();
+        Thread.sleep(50);
+        assertEquals(List.of("NOTIFY a"), entregados);
+    }
+
+    private static List<String> texto(List<byte[]> lineas) {
+        List<String> texto = new ArrayList<>();
+        for (byte[] linea : lineas) {
+            texto.add(new String(linea, StandardCharsets.UTF_8).stripTrailing());
+        }
+        return texto;
+    }
+
+    private static void esperarVacias(NotificacionesAsincronas notificaciones, int jugadorId) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (notificaciones.getPendientes(jugadorId) > 0) {
+            assertTrue(System.nanoTime() < limite, "notificaciones sin entregar");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import java.net.SocketException;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import software.sebastian.mondragon.battleship.game.service.GameService;
 
@@ -129,11 +130,20 @@ class TcpServerInternalTest {
         int playerId = 42;
         setHandlerPlayerId(handler, playerId);
         clients.put(playerId, handler);
+        server.getNotificaciones().registrar(playerId);
 
         GameService.Notifier notifier = extractNotifier(server.getGameService());
         notifier.notifyJugador(playerId, "ping");
+        notifier.notifyJugador(playerId, "pong");
 
-        assertTrue(socket.getOutput(StandardCharsets.UTF_8).contains("NOTIFY ping"));
+        // la entrega es asincrona: el mensaje llega poco despues
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (server.getNotificaciones().getPendientes(playerId) > 0 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        String salida = socket.getOutput(StandardCharsets.UTF_8);
+        assertTrue(salida.indexOf("NOTIFY ping") >= 0 && salida.indexOf("NOTIFY ping") < salida.indexOf("NOTIFY pong"), salida);
+        assertEquals(0, server.getNotificaciones().getPendientes(playerId));
 
         invokeCloseQuietly(handler);
     }
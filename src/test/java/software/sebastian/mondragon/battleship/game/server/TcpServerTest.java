@@ -37,11 +37,14 @@ class TcpServerTest extends AbstractTcpServerIntegrationTest {
             assertEquals("COMMANDS:", client.awaitExact("COMMANDS:"));
             assertEquals("  CREATE_PLAYER               -> Crea un nuevo jugador y lo asocia a la sesión.", client.awaitStartsWith("  CREATE_PLAYER"));
             assertEquals("  USE_PLAYER <playerId>       -> Usa un jugador existente.", client.awaitStartsWith("  USE_PLAYER"));
-            assertEquals("  CREATE_GAME                 -> Crea una partida con el jugador actual.", client.awaitStartsWith("  CREATE_GAME"));
+            assertEquals("  CREATE_GAME [filas cols] [SALVO] -> Crea una partida con el jugador actual (10x10 por defecto, SALVO para modo salva).", client.awaitStartsWith("  CREATE_GAME"));
             assertEquals("  JOIN_GAME <gameId>          -> Une al jugador actual a la partida indicada.", client.awaitStartsWith("  JOIN_GAME"));
-            assertEquals("  LIST_GAMES                  -> Lista partidas existentes.", client.awaitStartsWith("  LIST_GAMES"));
+            assertEquals("  JOIN_ANY                    -> Une al jugador actual a la partida abierta más antigua.", client.awaitStartsWith("  JOIN_ANY"));
+            assertEquals("  LIST_GAMES [estado|ALL]     -> Lista partidas abiertas, las de un estado o todas.", client.awaitStartsWith("  LIST_GAMES"));
             assertEquals("  PLACE_SHIP <fila,col>...    -> Coloca un barco usando coordenadas pares.", client.awaitStartsWith("  PLACE_SHIP"));
+            assertEquals("  PLACE_FLEET <f,c;f,c>...    -> Coloca todos los barcos a la vez, uno por argumento.", client.awaitStartsWith("  PLACE_FLEET"));
             assertEquals("  SHOOT <gameId> <fila> <col> -> Realiza un disparo.", client.awaitStartsWith("  SHOOT"));
+            assertEquals("  SALVO <gameId> <fila,col>...  -> Dispara una salva, hasta un disparo por barco a flote.", client.awaitStartsWith("  SALVO"));
             assertEquals("  QUIT                        -> Cierra la conexión.", client.awaitStartsWith("  QUIT"));
         }
     }
@@ -68,12 +71,61 @@ class TcpServerTest extends AbstractTcpServerIntegrationTest {
     void joiningGameSendsNotificationsToBothPlayers() throws Exception {
         try (MatchContext match = startMatch()) {
             assertTrue(match.hostCreatedNotify.contains("Partida creada con id " + match.gameId));
-            assertTrue(match.hostStartNotify.contains("Partida " + match.gameId + " iniciada"), match.hostStartNotify);
-            assertTrue(match.hostJoinNotify.contains("Jugador " + match.guestId + " se ha unido"), match.hostJoinNotify);
+            String inicio = "EVENT STARTED " + match.gameId + " " + match.hostId + " " + match.guestId + " " + match.hostId;
+            String union = "EVENT PLAYER_JOINED " + match.gameId + " " + match.guestId + " " + match.hostId;
+            assertEquals(inicio, match.hostStartNotify);
+            assertEquals(union, match.hostJoinNotify);
+
+            assertEquals(inicio, match.guestStartNotify);
+            assertEquals(union, match.guestJoinNotify);
+            assertEquals("JOINED " + match.gameId + " 10 10", match.joinLine);
+        }
+    }
+
+    @Test
+    void listGamesFiltraPorEstado() throws Exception {
+        try (MatchContext match = startMatch();
+             ClientConnection otro = connectAndGreet()) {
+            createPlayer(otro);
+            otro.send("CREATE_GAME");
+            String gameLine = otro.awaitStartsWith("GAME ");
+            int abierto = Integer.parseInt(gameLine.split(" ")[1]);
+
+            otro.send("LIST_GAMES");
+            String abiertos = otro.awaitStartsWith("GAMES");
+            assertTrue(abiertos.contains("Partido{id=" + abierto), abiertos);
+            assertFalse(abiertos.contains("Partido{id=" + match.gameId + ","), abiertos);
+
+            otro.send("LIST_GAMES en_curso");
+            String enCurso = otro.awaitStartsWith("GAMES");
+            assertTrue(enCurso.contains("Partido{id=" + match.gameId + ","), enCurso);
+            assertFalse(enCurso.contains("Partido{id=" + abierto), enCurso);
+
+            otro.send("LIST_GAMES ALL");
+            String todos = otro.awaitStartsWith("GAMES");
+            assertTrue(todos.contains("Partido{id=" + abierto) && todos.contains("Partido{id=" + match.gameId + ","), todos);
+
+            otro.send("LIST_GAMES PERDIDO");
+            assertTrue(otro.awaitStartsWith("ERROR ").contains("Estado de partida"));
+        }
+    }
 
-            assertTrue(match.guestStartNotify.contains("Partida " + match.gameId + " iniciada"), match.guestStartNotify);
-            assertTrue(match.guestJoinNotify.contains("Te has unido a la partida " + match.gameId), match.guestJoinNotify);
-            assertEquals("JOINED " + match.gameId, match.joinLine);
+    @Test
+    void joinAnyUneALaPartidaAbiertaMasAntigua() throws Exception {
+        try (ClientConnection host = connectAndGreet();
+             ClientConnection guest = connectAndGreet()) {
+            createPlayer(guest);
+            guest.send("JOIN_ANY");
+            assertTrue(guest.awaitStartsWith("ERROR ").contains("No hay partidas abiertas"));
+
+            createPlayer(host);
+            host.send("CREATE_GAME 12 14");
+            assertEquals("GAME 1 12 14", host.awaitStartsWith("GAME "));
+            host.send("JOIN_ANY");
+            assertTrue(host.awaitStartsWith("ERROR ").contains("No hay partidas abiertas"));
+
+            guest.send("JOIN_ANY");
+            assertEquals("JOINED 1 12 14", guest.awaitStartsWith("JOINED "));
         }
     }
 
@@ -86,6 +138,44 @@ class TcpServerTest extends AbstractTcpServerIntegrationTest {
         }
     }
 
+    @Test
+    void placeFleetCommandColocaTodaLaFlotaONinguna() throws Exception {
+        try (MatchContext match = startMatch()) {
+            match.host.send("PLACE_FLEET 0,0;0,1 2,2;3,2;4,2 9,9");
+            String fleetLine = match.host.awaitStartsWith("FLEET ");
+            assertTrue(fleetLine.matches("FLEET \\d+:2 \\d+:3 \\d+:1"), fleetLine);
+
+            match.guest.send("PLACE_FLEET 5,5;5,6 5,6;6,6");
+            assertTrue(match.guest.awaitStartsWith("ERROR ").startsWith("ERROR "));
+            match.guest.send("PLACE_SHIP 5,5 5,6");
+            assertTrue(match.guest.awaitStartsWith("SHIP ").matches("SHIP \\d+ SIZE 2"));
+        }
+    }
+
+    @Test
+    void createGameConDimensionesLasDevuelveEnGameYJoined() throws Exception {
+        try (ClientConnection host = connectAndGreet();
+             ClientConnection guest = connectAndGreet()) {
+            createPlayer(host);
+            host.send("CREATE_GAME 20 30");
+            assertEquals("GAME 1 20 30", host.awaitStartsWith("GAME "));
+
+            createPlayer(guest);
+            guest.send("JOIN_GAME 1");
+            assertEquals("JOINED 1 20 30", guest.awaitStartsWith("JOINED "));
+        }
+    }
+
+    @Test
+    void createGameConDimensionesInvalidasFalla() throws Exception {
+        try (ClientConnection client = connectAndGreet()) {
+            createPlayer(client);
+            client.send("CREATE_GAME 0 5000");
+            String error = client.awaitStartsWith("ERROR ");
+            assertTrue(error.contains("Dimensiones de tablero invalidas"), error);
+        }
+    }
+
     @Test
     void usePlayerFailsForUnknownId() throws Exception {
         try (ClientConnection client = connectAndGreet()) {
@@ -153,6 +243,42 @@ class TcpServerTest extends AbstractTcpServerIntegrationTest {
             String resultLine = match.host.awaitStartsWith("RESULT ");
 
             assertTrue(resultLine.contains("AGUA") || resultLine.contains("TOCADO") || resultLine.contains("HUNDIDO"));
+
+            String disparo = "EVENT SHOT " + match.gameId + " " + match.hostId + " " + match.guestId + " 5 5 TOCADO 0";
+            assertEquals(disparo, match.host.awaitStartsWith("EVENT SHOT "));
+            assertEquals(disparo, match.guest.awaitStartsWith("EVENT SHOT "));
+            assertEquals("EVENT TURN " + match.gameId + " " + match.guestId, match.guest.awaitStartsWith("EVENT TURN "));
+        }
+    }
+
+    @Test
+    void salvoCommandResuelveLaSalvaEnUnaRespuesta() throws Exception {
+        try (MatchContext match = startMatch("CREATE_GAME 10 10 SALVO")) {
+            match.host.send("PLACE_SHIP 0,0");
+            match.host.awaitStartsWith("SHIP ");
+            match.host.send("PLACE_SHIP 2,2");
+            match.host.awaitStartsWith("SHIP ");
+            match.guest.send("PLACE_SHIP 5,5 5,6");
+            match.guest.awaitStartsWith("SHIP ");
+
+            match.host.send("SALVO " + match.gameId + " 5,5 9,9");
+            assertEquals("RESULTS TOCADO AGUA", match.host.awaitStartsWith("RESULTS"));
+
+            String salva = "EVENT SALVO " + match.gameId + " " + match.hostId + " " + match.guestId + " " + match.guestId
+                    + " 2 5 5 TOCADO 0 9 9 AGUA 0";
+            assertEquals(salva, match.host.awaitStartsWith("EVENT SALVO "));
+            assertEquals(salva, match.guest.awaitStartsWith("EVENT SALVO "));
+
+            match.guest.send("SALVO " + match.gameId + " 1,1 1,2");
+            assertTrue(match.guest.awaitStartsWith("ERROR ").contains("como mucho 1"));
+        }
+    }
+
+    @Test
+    void salvoCommandEnPartidaClasicaFalla() throws Exception {
+        try (MatchContext match = startMatch()) {
+            match.host.send("SALVO " + match.gameId + " 1,1");
+            assertTrue(match.host.awaitStartsWith("ERROR ").contains("modo salva"));
         }
     }
 
@@ -187,6 +313,24 @@ class TcpServerTest extends AbstractTcpServerIntegrationTest {
         }
     }
 
+    @Test
+    void usePlayerNotificaPartidasActivasYListGamesPlayerLasLista() throws Exception {
+        try (MatchContext match = startMatch();
+             ClientConnection reconectado = connectAndGreet()) {
+            reconectado.send("USE_PLAYER " + match.guestId);
+            assertEquals("PLAYER " + match.guestId, reconectado.awaitStartsWith("PLAYER "));
+            String activa = reconectado.awaitStartsWith("NOTIFY Partida activa ");
+            assertTrue(activa.contains("Partido{id=" + match.gameId + ","), activa);
+
+            reconectado.send("LIST_GAMES PLAYER " + match.hostId);
+            String partidas = reconectado.awaitStartsWith("GAMES");
+            assertTrue(partidas.contains("Partido{id=" + match.gameId + ","), partidas);
+
+            reconectado.send("LIST_GAMES PLAYER 99");
+            assertTrue(reconectado.awaitStartsWith("ERROR ").contains("Jugador no existe"));
+        }
+    }
+
     @Test
     void createPlayerDosVecesReasignaJugadorActual() throws Exception {
         try (ClientConnection client = connectAndGreet()) {
@@ -216,29 +360,33 @@ class TcpServerTest extends AbstractTcpServerIntegrationTest {
         String notifyLine = client.awaitStartsWith("NOTIFY ");
         String gameLine = client.awaitStartsWith("GAME ");
         assertNotNull(gameLine);
-        assertEquals("GAME 1", gameLine);
+        assertEquals("GAME 1 10 10", gameLine);
         return notifyLine;
     }
 
     private MatchContext startMatch() throws Exception {
+        return startMatch("CREATE_GAME");
+    }
+
+    private MatchContext startMatch(String createCommand) throws Exception {
         ClientConnection host = connectAndGreet();
         int hostId = createPlayer(host);
 
-        host.send("CREATE_GAME");
+        host.send(createCommand);
         String createdNotify = host.awaitStartsWith("NOTIFY ");
         String gameLine = host.awaitStartsWith("GAME ");
-        int gameId = Integer.parseInt(gameLine.substring("GAME ".length()));
+        int gameId = Integer.parseInt(gameLine.split(" ")[1]);
 
         ClientConnection guest = connectAndGreet();
         int guestId = createPlayer(guest);
 
         guest.send("JOIN_GAME " + gameId);
-        String guestStart = guest.awaitLine(line -> line.contains("Partida " + gameId + " iniciada"), "Esperaba notificación de inicio para invitado");
-        String guestJoin = guest.awaitLine(line -> line.contains("Te has unido a la partida " + gameId), "Esperaba confirmación de unión para invitado");
+        String guestStart = guest.awaitLine(line -> line.startsWith("EVENT STARTED " + gameId + " "), "Esperaba evento de inicio para invitado");
+        String guestJoin = guest.awaitLine(line -> line.startsWith("EVENT PLAYER_JOINED " + gameId + " "), "Esperaba evento de unión para invitado");
         String joinLine = guest.awaitStartsWith("JOINED ");
 
-        String hostStart = host.awaitLine(line -> line.contains("Partida " + gameId + " iniciada"), "Esperaba notificación de inicio para anfitrión");
-        String hostJoin = host.awaitLine(line -> line.contains("Jugador " + guestId + " se ha unido"), "Esperaba notificación de unión para anfitrión");
+        String hostStart = host.awaitLine(line -> line.startsWith("EVENT STARTED " + gameId + " "), "Esperaba evento de inicio para anfitrión");
+        String hostJoin = host.awaitLine(line -> line.startsWith("EVENT PLAYER_JOINED " + gameId + " " + guestId + " "), "Esperaba evento de unión para anfitrión");
 
         return new MatchContext(host, guest, hostId, guestId, gameId, createdNotify, hostStart, hostJoin, guestStart, guestJoin, joinLine);
     }
@@ -0,0 +1,122 @@
+package software.sebastian.mondragon.battleship.game.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuzonesPartidosTest {
+    private final ExecutorService pool = Executors.newFixedThreadPool(2, r -> new Thread(r, "pool-buzones"));
+    private final BuzonesPartidos buzones = new BuzonesPartidos(pool);
+
+    @AfterEach
+    void cerrar() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void operacionesDeUnPartidoSeEjecutanDeUnaEnUna() throws Exception {
+        int hilos = 8;
+        int porHilo = 2_000;
+        AtomicInteger dentro = new AtomicInteger();
+        AtomicInteger solapadas = new AtomicInteger();
+        int[] contador = new int[1];
+        CompletableFuture<?>[] trabajadores = new CompletableFuture<?>[hilos];
+        ExecutorService clientes = Executors.newFixedThreadPool(hilos);
+        for (int h = 0; h < hilos; h++) {
+            trabajadores[h] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < porHilo; i++) {
+                    buzones.ejecutar(1, () -> {
+                        if (dentro.incrementAndGet() > 1) {
+                            solapadas.incrementAndGet();
+                        }
+                        contador[0]++;
+                        dentro.decrementAndGet();
+                        return null;
+                    });
+                }
+            }, clientes);
+        }
+        CompletableFuture.allOf(trabajadores).get(30, TimeUnit.SECONDS);
+        clientes.shutdown();
+
+        assertEquals(0, solapadas.get());
+        assertEquals(hilos * porHilo, buzones.ejecutar(1, () -> contador[0]));
+        assertEquals(0, buzones.getBuzonesActivos());
+    }
+
+    @Test
+    void partidosDistintosAvanzanEnParalelo() throws Exception {
+        CyclicBarrier ambos = new CyclicBarrier(2);
+        CompletableFuture<Integer> otro = CompletableFuture.supplyAsync(() -> buzones.ejecutar(2, () -> esperar(ambos, 2)));
+
+        assertEquals(1, buzones.ejecutar(1, () -> esperar(ambos, 1)));
+        assertEquals(2, otro.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void lasOperacionesEncoladasLasEjecutaElPoolEnOrden() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        StringBuilder orden = new StringBuilder();
+        CompletableFuture<Void> primera = CompletableFuture.runAsync(() -> buzones.ejecutar(1, () -> {
+            dentro.countDown();
+            await(soltar);
+            return orden.append('a');
+        }));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> segunda = CompletableFuture.supplyAsync(() -> buzones.ejecutar(1, () -> {
+            orden.append('b');
+            return Thread.currentThread().getName();
+        }));
+        while (buzones.getEncoladas(1) == 0) {
+            Thread.onSpinWait();
+        }
+        soltar.countDown();
+
+        primera.get(5, TimeUnit.SECONDS);
+        assertEquals("pool-buzones", segunda.get(5, TimeUnit.SECONDS));
+        assertEquals("ab", buzones.ejecutar(1, orden::toString));
+    }
+
+    @Test
+    void laExcepcionDeLaOperacionLlegaAQuienLaPidio() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> buzones.ejecutar(3, () -> {
+                    throw new IllegalStateException("No es tu turno");
+                }));
+        assertEquals("No es tu turno", ex.getMessage());
+        assertEquals(0, buzones.getBuzonesActivos());
+    }
+
+    @Test
+    void esReentranteParaElMismoPartido() {
+        assertEquals("dentro", buzones.ejecutar(4, () -> buzones.ejecutar(4, () -> "dentro")));
+    }
+
+    private static int esperar(CyclicBarrier barrera, int valor) {
+        try {
+            barrera.await(5, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        return valor;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package software.sebastian.mondragon.battleship.game.service;
+
+import org.openjdk.jmh.annotations.*;
+import software.sebastian.mondragon.battleship.game.model.Jugador;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+import software.sebastian.mondragon.battleship.game.repo.InMemoryRepo;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disparos sobre partidas independientes desde varios hilos: cada hilo juega su propia
+ * partida de 100x100 contra un repositorio compartido. Con franjas, el rendimiento total
+ * debe crecer casi linealmente con los hilos.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="DisparosConcurrentesBenchmark -t 1"
+ * mvn -Pbench test-compile exec:exec -Dbench="DisparosConcurrentesBenchmark -t 4"</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisparosConcurrentesBenchmark {
+    private static final int LADO = 100;
+
+    @State(Scope.Benchmark)
+    public static class Servidor {
+        @Param({"64"})
+        int franjas;
+
+        GameService service;
+
+        @Setup
+        public void setup() {
+            service = new GameService(new InMemoryRepo(InMemoryRepo.MAX_MAPAS_LIBRES_POR_TAMANO, franjas), (id, msg) -> { });
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Partida {
+        int host;
+        int guest;
+        int partidoId;
+        int celda;
+
+        void nueva(GameService service) {
+            Jugador h = service.crearJugador();
+            Jugador g = service.crearJugador();
+            Partido p = service.crearPartido(h.getId(), LADO, LADO);
+            service.unirsePartido(p.getId(), g.getId());
+            // un barco en la ultima celda de cada tablero: todos los disparos previos son agua
+            service.colocarBarco(h.getId(), List.of(new int[]{LADO - 1, LADO - 1}));
+            service.colocarBarco(g.getId(), List.of(new int[]{LADO - 1, LADO - 1}));
+            host = h.getId();
+            guest = g.getId();
+            partidoId = p.getId();
+            celda = 0;
+        }
+
+        @Setup(Level.Iteration)
+        public void setup(Servidor servidor) {
+            nueva(servidor.service);
+        }
+    }
+
+    @Benchmark
+    public ResultadoDisparo disparar(Servidor servidor, Partida partida) {
+        if (partida.celda >= 2 * (LADO * LADO - 1)) {
+            partida.nueva(servidor.service);
+        }
+        int turno = partida.celda++;
+        int indice = turno >> 1;
+        int atacante = (turno & 1) == 0 ? partida.host : partida.guest;
+        return servidor.service.disparar(atacante, partida.partidoId, indice / LADO, indice % LADO);
+    }
+}
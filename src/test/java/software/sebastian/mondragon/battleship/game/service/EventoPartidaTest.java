@@ -0,0 +1,59 @@
+package software.sebastian.mondragon.battleship.game.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoPartidaTest {
+
+    @Test
+    void cadaEventoSeDecodificaDesdeSuLinea() {
+        List<EventoPartida> eventos = List.of(
+                new EventoPartida.DisparoResuelto(3, 1, 2, 4, 5, ResultadoDisparo.HUNDIDO, 9),
+                new EventoPartida.TurnoCambiado(3, 2),
+                new EventoPartida.PartidaIniciada(3, 1, 2, 1),
+                new EventoPartida.PartidaTerminada(3, 1, 2),
+                new EventoPartida.JugadorUnido(3, 2, 1),
+                new EventoPartida.SalvaResuelta(3, 1, 2, 2, List.of(
+                        new EventoPartida.DisparoSalva(0, 1, ResultadoDisparo.AGUA, 0),
+                        new EventoPartida.DisparoSalva(4, 4, ResultadoDisparo.HUNDIDO, 7))));
+
+        for (EventoPartida evento : eventos) {
+            assertTrue(evento.linea().startsWith(EventoPartida.PREFIJO));
+            assertEquals(evento, EventoPartida.decodificar(evento.linea()));
+        }
+        assertEquals("EVENT SHOT 3 1 2 4 5 HUNDIDO 9", eventos.get(0).linea());
+        assertEquals("EVENT SALVO 3 1 2 2 2 0 1 AGUA 0 4 4 HUNDIDO 7", eventos.get(5).linea());
+    }
+
+    @Test
+    void elTextoDependeDelDestinatario() {
+        EventoPartida disparo = new EventoPartida.DisparoResuelto(3, 1, 2, 4, 5, ResultadoDisparo.HUNDIDO, 9);
+        assertEquals("Disparaste a (4,5): HUNDIDO (barco id 9)", disparo.texto(1));
+        assertEquals("Te han disparado en (4,5): HUNDIDO (barco id 9)", disparo.texto(2));
+
+        EventoPartida fin = new EventoPartida.PartidaTerminada(3, 1, 2);
+        assertTrue(fin.texto(1).startsWith("Victoria!"));
+        assertTrue(fin.texto(2).startsWith("Derrota."));
+
+        EventoPartida unido = new EventoPartida.JugadorUnido(3, 2, 1);
+        assertEquals("Te has unido a la partida 3", unido.texto(2));
+        assertEquals("Jugador 2 se ha unido a tu partida 3", unido.texto(1));
+        assertArrayEquals(new int[]{2, 1}, unido.destinatarios());
+
+        EventoPartida salva = new EventoPartida.SalvaResuelta(3, 1, 2, 2, List.of(
+                new EventoPartida.DisparoSalva(0, 1, ResultadoDisparo.AGUA, 0)));
+        assertEquals("Tu salva: (0,1): AGUA", salva.texto(1));
+        assertEquals("Salva recibida: (0,1): AGUA. Es tu turno.", salva.texto(2));
+    }
+
+    @Test
+    void lineasMalFormadasSeRechazan() {
+        for (String linea : List.of("NOTIFY hola", "EVENT NADA 1", "EVENT TURN 3", "EVENT TURN x 2",
+                "EVENT SHOT 1 2 3 4 5 FALLO_RARO 0", "EVENT SALVO 1 2 3 2 2 0 0 AGUA 0", "EVENT SALVO 1 2 3 2 -1")) {
+            assertThrows(IllegalArgumentException.class, () -> EventoPartida.decodificar(linea), linea);
+        }
+    }
+}
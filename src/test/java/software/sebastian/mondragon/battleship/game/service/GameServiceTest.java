@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
+import software.sebastian.mondragon.battleship.game.journal.EventJournal;
+import software.sebastian.mondragon.battleship.game.journal.Evento;
 import software.sebastian.mondragon.battleship.game.model.*;
 import software.sebastian.mondragon.battleship.game.repo.InMemoryRepo;
 
@@ -11,8 +13,13 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,6 +60,20 @@ class GameServiceTest {
         assertFalse(notifications.isEmpty());
     }
 
+    @Test
+    void testObtenerTableroDevuelveInstantaneaActualizada() {
+        TestMatch match = prepareMatch().start();
+        service.colocarBarco(match.guestId(), Arrays.asList(new int[]{5, 5}, new int[]{5, 6}));
+        MapaInstantanea antes = service.obtenerTablero(match.guestId());
+
+        service.disparar(match.hostId(), match.partidoId(), 5, 5);
+        MapaInstantanea despues = service.obtenerTablero(match.guestId());
+
+        assertEquals(EstadoCoordenada.SIN_DISPARAR, antes.getEstado(5, 5));
+        assertEquals(EstadoCoordenada.TOCADO, despues.getEstado(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> service.obtenerTablero(999));
+    }
+
     @Test
     void testNoEsTuTurno() {
         TestMatch match = prepareMatch().start();
@@ -101,6 +122,38 @@ class GameServiceTest {
         assertTrue(List.of(match.hostId(), match.guestId()).contains(turno));
     }
 
+    @Test
+    void testUnirseCualquierPartidoEligeElAbiertoMasAntiguoAjeno() {
+        Jugador a = service.crearJugador();
+        Jugador b = service.crearJugador();
+        Jugador c = service.crearJugador();
+        Partido dePrimero = service.crearPartido(a.getId());
+        Partido deSegundo = service.crearPartido(b.getId());
+
+        Partido unido = service.unirseCualquierPartido(a.getId());
+        assertEquals(deSegundo.getId(), unido.getId());
+        assertEquals(EstadoPartido.EN_CURSO, unido.getEstado());
+
+        assertEquals(dePrimero.getId(), service.unirseCualquierPartido(c.getId()).getId());
+        assertTrue(repo.getPartidosAbiertos().isEmpty());
+        assertEquals(2, repo.getPartidosEnEstado(EstadoPartido.EN_CURSO).size());
+        assertThrows(IllegalStateException.class, () -> service.unirseCualquierPartido(c.getId()));
+        assertThrows(IllegalArgumentException.class, () -> service.unirseCualquierPartido(999));
+    }
+
+    @Test
+    void testPartidoTerminadoSaleDelIndiceEnCurso() {
+        TestMatch match = prepareMatch().start();
+        service.colocarBarco(match.guestId(), List.of(new int[]{0, 0}));
+        service.colocarBarco(match.hostId(), List.of(new int[]{0, 0}));
+        assertEquals(1, repo.getPartidosEnEstado(EstadoPartido.EN_CURSO).size());
+
+        service.disparar(match.hostId(), match.partidoId(), 0, 0);
+
+        assertTrue(repo.getPartidosEnEstado(EstadoPartido.EN_CURSO).isEmpty());
+        assertEquals(1, repo.getPartidosEnEstado(EstadoPartido.FINALIZADO).size());
+    }
+
     @Test
     void testColocarBarcoJugadorInexistente() {
         List<int[]> posiciones = List.of(new int[]{0, 0});
@@ -171,6 +224,26 @@ class GameServiceTest {
         assertTrue(ex.getCause() instanceof IllegalStateException);
     }
 
+    @Test
+    void testPartidaCompletaConTablerosFueraDeHeap() {
+        InMemoryRepo fuera = InMemoryRepo.conTablerosFueraDeHeap();
+        GameService servicio = new GameService(fuera, (id, msg) -> notifications.add(msg));
+        TestMatch match = TestMatch.create(servicio);
+        servicio.colocarBarco(match.guestId(), Arrays.asList(new int[]{2, 0}, new int[]{3, 0}));
+        servicio.colocarBarco(match.hostId(), Arrays.asList(new int[]{5, 5}, new int[]{5, 6}));
+        assertEquals(EstadoPartido.EN_CURSO, fuera.getPartido(match.partidoId()).getEstado());
+
+        assertEquals(ResultadoDisparo.TOCADO, servicio.disparar(match.hostId(), match.partidoId(), 2, 0));
+        assertEquals(ResultadoDisparo.AGUA, servicio.disparar(match.guestId(), match.partidoId(), 9, 9));
+        assertThrows(IllegalStateException.class, () -> servicio.disparar(match.hostId(), match.partidoId(), 2, 0));
+        assertEquals(ResultadoDisparo.HUNDIDO, servicio.disparar(match.hostId(), match.partidoId(), 3, 0));
+
+        assertEquals(match.hostId(), fuera.getPartido(match.partidoId()).getGanadorId());
+        assertTrue(servicio.obtenerTablero(match.guestId()).todosLosBarcosHundidos());
+        assertTrue(notifications.stream().anyMatch(msg -> msg.contains("HUNDIDO (barco id 1)")));
+        assertEquals(0, fuera.getMapa(fuera.getJugador(match.guestId()).getMapaId()).getCeldasMaterializadas());
+    }
+
     @Test
     void testDispararHundidoYGanador() {
         TestMatch match = prepareMatch();
@@ -185,6 +258,8 @@ class GameServiceTest {
 
         Partido actualizado = repo.getPartido(match.partidoId());
         assertEquals(EstadoPartido.FINALIZADO, actualizado.getEstado());
+        assertEquals(match.hostId(), actualizado.getGanadorId());
+        assertEquals(1, repo.getPartidosArchivados());
 
         Mapa mapa = repo.getMapa(repo.getJugador(match.guestId()).getMapaId());
         Optional<Coordenada> c1 = mapa.buscarPorFilaCol(0, 0);
@@ -252,18 +327,370 @@ class GameServiceTest {
 
     @Test
     void testAsegurarMapaParaJugadorNoReasigna() throws Exception {
-        Method method = GameService.class.getDeclaredMethod("asegurarMapaParaJugador", Jugador.class);
+        Method method = GameService.class.getDeclaredMethod("asegurarMapaParaJugador", Jugador.class, Partido.class);
         method.setAccessible(true);
 
         Jugador jugador = repo.crearJugador();
         Mapa mapaExistente = repo.crearMapa(3, 3);
         jugador.setMapaId(mapaExistente.getId());
+        Partido partido = new Partido(7);
+        partido.setDimensiones(3, 3);
 
-        method.invoke(service, jugador);
+        method.invoke(service, jugador, partido);
 
         assertEquals(mapaExistente.getId(), jugador.getMapaId());
     }
 
+    @Test
+    void testAsegurarMapaParaJugadorReemplazaMapaDeOtrasDimensiones() throws Exception {
+        Method method = GameService.class.getDeclaredMethod("asegurarMapaParaJugador", Jugador.class, Partido.class);
+        method.setAccessible(true);
+
+        Jugador jugador = repo.crearJugador();
+        jugador.setMapaId(repo.crearMapa(10, 10).getId());
+        Partido partido = new Partido(8);
+        partido.setDimensiones(20, 15);
+
+        method.invoke(service, jugador, partido);
+
+        Mapa mapa = repo.getMapa(jugador.getMapaId());
+        assertEquals(20, mapa.getRows());
+        assertEquals(15, mapa.getCols());
+    }
+
+    @Test
+    void testCrearPartidoConDimensionesCreaMapasDeEseTamano() {
+        Jugador host = service.crearJugador();
+        Jugador guest = service.crearJugador();
+        Partido partido = service.crearPartido(host.getId(), 12, 8);
+        service.unirsePartido(partido.getId(), guest.getId());
+
+        Mapa mapaHost = repo.getMapa(repo.getJugador(host.getId()).getMapaId());
+        assertEquals(12, mapaHost.getRows());
+        assertEquals(8, mapaHost.getCols());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.disparar(host.getId(), partido.getId(), 0, 8));
+    }
+
+    @Test
+    void testCrearPartidoConDimensionesInvalidasFalla() {
+        Jugador host = service.crearJugador();
+        int id = host.getId();
+        assertThrows(IllegalArgumentException.class, () -> service.crearPartido(id, 0, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.crearPartido(id, GameService.TAMANO_MAXIMO + 1, 10));
+    }
+
+    @Test
+    void testPartidaGigante4096MemoriaProporcionalABarcosYDisparos() {
+        final int lado = GameService.TAMANO_MAXIMO;
+        Jugador host = service.crearJugador();
+        Jugador guest = service.crearJugador();
+        Partido partido = service.crearPartido(host.getId(), lado, lado);
+        service.unirsePartido(partido.getId(), guest.getId());
+        service.colocarBarco(guest.getId(), List.of(new int[]{lado - 1, lado - 3}, new int[]{lado - 1, lado - 2}));
+        service.colocarBarco(host.getId(), List.of(new int[]{0, 0}));
+        service.disparar(host.getId(), partido.getId(), lado / 2, lado / 2);
+
+        Mapa mapa = repo.getMapa(repo.getJugador(guest.getId()).getMapaId());
+        assertEquals(ModoCeldas.PEREZOSO, mapa.getModo());
+        // un tablero denso de 4096x4096 necesitaria mas de 16M objetos Coordenada
+        assertEquals(3, mapa.getCeldasMaterializadas());
+        // una pagina de barcos y una de disparos, de las 4096 por capa del tablero
+        assertEquals(2, mapa.getPaginasReservadas());
+    }
+
+    @Test
+    void testPartidasIndependientesEnParaleloTerminanConsistentes() throws Exception {
+        final int hilos = 8;
+        final int partidasPorHilo = 20;
+        GameService paralelo = new GameService(repo, (id, msg) -> { });
+        List<Throwable> errores = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> partidosJugados = Collections.synchronizedList(new ArrayList<>());
+        Thread[] trabajadores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            trabajadores[h] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < partidasPorHilo; i++) {
+                        TestMatch match = TestMatch.create(paralelo);
+                        paralelo.colocarBarco(match.guestId(), List.of(new int[]{9, 9}));
+                        paralelo.colocarBarco(match.hostId(), List.of(new int[]{9, 9}));
+                        match.start();
+                        for (int c = 0; c < 9; c++) {
+                            assertEquals(ResultadoDisparo.AGUA, paralelo.disparar(match.hostId(), match.partidoId(), 0, c));
+                            assertEquals(ResultadoDisparo.AGUA, paralelo.disparar(match.guestId(), match.partidoId(), 0, c));
+                        }
+                        assertEquals(ResultadoDisparo.HUNDIDO, paralelo.disparar(match.hostId(), match.partidoId(), 9, 9));
+                        partidosJugados.add(match.partidoId());
+                    }
+                } catch (Throwable t) {
+                    errores.add(t);
+                }
+            });
+            trabajadores[h].start();
+        }
+        for (Thread t : trabajadores) {
+            t.join();
+        }
+
+        assertTrue(errores.isEmpty(), () -> "Errores: " + errores);
+        assertEquals(hilos * partidasPorHilo, partidosJugados.size());
+        for (int id : partidosJugados) {
+            assertEquals(EstadoPartido.FINALIZADO, repo.getPartido(id).getEstado());
+        }
+    }
+
+    @Test
+    void testDisparosEnConflictoDesdeMuchosHilosNoPierdenNiRepitenTurnos() throws Exception {
+        final int lado = 10;
+        final int hilosPorJugador = 6;
+        List<Evento> disparos = Collections.synchronizedList(new ArrayList<>());
+        EventJournal grabador = new EventJournal() {
+            @Override
+            public void registrar(Evento evento) {
+                if (evento instanceof Evento.Disparo) {
+                    disparos.add(evento);
+                }
+            }
+
+            @Override
+            public void confirmar() {
+                // solo se graba en memoria
+            }
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        GameService conflictivo = new GameService(repo, (id, msg) -> { }, grabador, new BuzonesPartidos(pool));
+        TestMatch match = TestMatch.create(conflictivo);
+        // barcos en la ultima celda: la partida dura hasta que algun hilo llega al final
+        conflictivo.colocarBarco(match.hostId(), List.of(new int[]{lado - 1, lado - 1}));
+        conflictivo.colocarBarco(match.guestId(), List.of(new int[]{lado - 1, lado - 1}));
+
+        AtomicInteger aciertos = new AtomicInteger();
+        List<Throwable> errores = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch salida = new CountDownLatch(1);
+        Thread[] hilos = new Thread[2 * hilosPorJugador];
+        for (int h = 0; h < hilos.length; h++) {
+            int atacante = h % 2 == 0 ? match.hostId() : match.guestId();
+            hilos[h] = new Thread(() -> {
+                try {
+                    salida.await();
+                    // todos los hilos de un jugador pelean por las mismas celdas en el mismo orden
+                    for (int celda = 0; celda < lado * lado; ) {
+                        try {
+                            conflictivo.disparar(atacante, match.partidoId(), celda / lado, celda % lado);
+                            aciertos.incrementAndGet();
+                        } catch (IllegalStateException ex) {
+                            if (ex.getMessage().equals("Partida no en curso")) {
+                                return;
+                            }
+                            if (ex.getMessage().equals("No es tu turno")) {
+                                Thread.onSpinWait();
+                                continue;
+                            }
+                        }
+                        celda++;
+                    }
+                } catch (Throwable t) {
+                    errores.add(t);
+                }
+            });
+            hilos[h].start();
+        }
+        salida.countDown();
+        for (Thread t : hilos) {
+            t.join();
+        }
+        pool.shutdown();
+
+        assertTrue(errores.isEmpty(), () -> "Errores: " + errores);
+        Partido partido = repo.getPartido(match.partidoId());
+        assertEquals(EstadoPartido.FINALIZADO, partido.getEstado());
+        assertEquals(match.hostId(), partido.getGanadorId());
+        // anfitrion e invitado alternan sin huecos: cada celda una vez, y la ultima la hunde el anfitrion
+        assertEquals(2 * lado * lado - 1, disparos.size());
+        assertEquals(disparos.size(), aciertos.get());
+        for (int i = 0; i < disparos.size(); i++) {
+            Evento.Disparo d = (Evento.Disparo) disparos.get(i);
+            assertEquals(i % 2 == 0 ? match.hostId() : match.guestId(), d.jugadorId(), "disparo " + i);
+            assertEquals(i / 2, d.fila() * lado + d.columna(), "disparo " + i);
+        }
+    }
+
+    @Test
+    void aplicarIgnoraEventosCuyoEfectoYaEstaEnElRepositorio() {
+        List<Evento> eventos = new ArrayList<>();
+        EventJournal grabador = new EventJournal() {
+            @Override
+            public void registrar(Evento evento) {
+                eventos.add(evento);
+            }
+
+            @Override
+            public void confirmar() {
+                // solo se graba en memoria
+            }
+        };
+        GameService original = new GameService(new InMemoryRepo(), (id, msg) -> { }, grabador);
+        TestMatch match = TestMatch.create(original);
+        original.colocarBarco(match.hostId(), List.of(new int[]{0, 0}));
+        original.colocarBarco(match.guestId(), List.of(new int[]{2, 2}, new int[]{2, 3}));
+        original.disparar(match.hostId(), match.partidoId(), 5, 5);
+        original.disparar(match.guestId(), match.partidoId(), 0, 0);
+
+        InMemoryRepo copia = new InMemoryRepo();
+        GameService reproductor = new GameService(copia, (id, msg) -> { });
+        eventos.forEach(reproductor::aplicar);
+        eventos.forEach(reproductor::aplicar);
+
+        Partido partido = copia.getPartido(match.partidoId());
+        assertEquals(EstadoPartido.FINALIZADO, partido.getEstado());
+        assertEquals(match.guestId(), partido.getGanadorId());
+        assertEquals(1, reproductor.obtenerTablero(match.guestId()).getBarcos());
+        assertEquals(3, copia.crearJugador().getId());
+    }
+
+    @Test
+    void testColocarFlotaRegistraCadaBarcoYConfirmaUnaVez() {
+        List<Evento> eventos = new ArrayList<>();
+        int[] confirmaciones = new int[1];
+        EventJournal grabador = new EventJournal() {
+            @Override
+            public void registrar(Evento evento) {
+                eventos.add(evento);
+            }
+
+            @Override
+            public void confirmar() {
+                confirmaciones[0]++;
+            }
+        };
+        GameService original = new GameService(new InMemoryRepo(), (id, msg) -> { }, grabador);
+        TestMatch match = TestMatch.create(original);
+        eventos.clear();
+        confirmaciones[0] = 0;
+
+        List<Barco> flota = original.colocarFlota(match.hostId(), List.of(
+                List.of(new int[]{0, 0}, new int[]{0, 1}),
+                List.of(new int[]{3, 3})));
+
+        assertEquals(List.of(2, 1), flota.stream().map(Barco::getTamano).toList());
+        assertEquals(2, original.obtenerTablero(match.hostId()).getBarcosAFlote());
+        assertEquals(2, eventos.size());
+        assertTrue(eventos.stream().allMatch(Evento.BarcoColocado.class::isInstance));
+        assertEquals(1, confirmaciones[0]);
+
+        InMemoryRepo copia = new InMemoryRepo();
+        GameService reproductor = new GameService(copia, (id, msg) -> { });
+        TestMatch.create(reproductor);
+        eventos.forEach(reproductor::aplicar);
+        assertEquals(2, reproductor.obtenerTablero(match.hostId()).getBarcosAFlote());
+    }
+
+    @Test
+    void testColocarFlotaInvalidaNoColocaNingunBarco() {
+        TestMatch match = prepareMatch();
+        List<List<int[]>> flota = List.of(
+                List.of(new int[]{0, 0}, new int[]{0, 1}),
+                List.of(new int[]{0, 1}, new int[]{0, 2}));
+
+        assertThrows(IllegalArgumentException.class, () -> service.colocarFlota(match.hostId(), flota));
+        assertEquals(0, service.obtenerTablero(match.hostId()).getBarcosAFlote());
+        assertThrows(IllegalArgumentException.class, () -> service.colocarFlota(123, List.of(List.of(new int[]{0, 0}))));
+    }
+
+    @Test
+    void testSalvaResuelveTodosLosDisparosYCambiaTurnoUnaVez() {
+        TestMatch match = TestMatch.create(service, ModoJuego.SALVA);
+        service.colocarBarco(match.hostId(), List.of(new int[]{0, 0}));
+        service.colocarBarco(match.hostId(), List.of(new int[]{0, 2}));
+        service.colocarBarco(match.hostId(), List.of(new int[]{0, 4}));
+        service.colocarBarco(match.guestId(), List.of(new int[]{5, 5}, new int[]{5, 6}));
+        service.colocarBarco(match.guestId(), List.of(new int[]{7, 7}));
+        notifications.clear();
+
+        List<ResultadoDisparo> resultados = service.dispararSalva(match.hostId(), match.partidoId(),
+                List.of(new int[]{5, 5}, new int[]{7, 7}, new int[]{9, 9}));
+
+        assertEquals(List.of(ResultadoDisparo.TOCADO, ResultadoDisparo.HUNDIDO, ResultadoDisparo.AGUA), resultados);
+        assertEquals(match.guestId(), match.partido().getTurnoJugadorId());
+        assertEquals(List.of(
+                match.hostId() + ":Tu salva: (5,5): TOCADO, (7,7): HUNDIDO (barco id 2), (9,9): AGUA",
+                match.guestId() + ":Salva recibida: (5,5): TOCADO, (7,7): HUNDIDO (barco id 2), (9,9): AGUA. Es tu turno."),
+                notifications);
+        // al invitado le queda un barco: su salva es de un solo disparo
+        assertThrows(IllegalArgumentException.class, () -> service.dispararSalva(match.guestId(), match.partidoId(),
+                List.of(new int[]{1, 1}, new int[]{2, 2})));
+        assertEquals(ResultadoDisparo.HUNDIDO, service.disparar(match.guestId(), match.partidoId(), 0, 0));
+        assertEquals(match.hostId(), match.partido().getTurnoJugadorId());
+    }
+
+    @Test
+    void testSalvaInvalidaNoAplicaNingunDisparo() {
+        TestMatch match = TestMatch.create(service, ModoJuego.SALVA);
+        service.colocarBarco(match.hostId(), List.of(new int[]{0, 0}));
+        service.colocarBarco(match.hostId(), List.of(new int[]{0, 2}));
+        service.colocarBarco(match.guestId(), List.of(new int[]{5, 5}));
+        service.colocarBarco(match.guestId(), List.of(new int[]{6, 6}));
+        int partidoId = match.partidoId();
+
+        assertThrows(IllegalArgumentException.class, () -> service.dispararSalva(match.hostId(), partidoId,
+                List.of(new int[]{5, 5}, new int[]{5, 5})));
+        assertThrows(IllegalArgumentException.class, () -> service.dispararSalva(match.hostId(), partidoId,
+                List.of(new int[]{5, 5}, new int[]{10, 0})));
+        assertThrows(IllegalArgumentException.class, () -> service.dispararSalva(match.hostId(), partidoId, List.of()));
+        assertThrows(IllegalStateException.class, () -> service.dispararSalva(match.guestId(), partidoId,
+                List.of(new int[]{0, 0})));
+
+        assertFalse(service.obtenerTablero(match.guestId()).fueDisparada(5, 5));
+        assertEquals(match.hostId(), match.partido().getTurnoJugadorId());
+
+        TestMatch clasica = prepareMatch();
+        assertThrows(IllegalStateException.class, () -> service.dispararSalva(clasica.hostId(), clasica.partidoId(),
+                List.of(new int[]{0, 0})));
+    }
+
+    @Test
+    void testSalvaQueHundeLaFlotaTerminaYSeReproduceDesdeElJournal() {
+        List<Evento> eventos = new ArrayList<>();
+        EventJournal grabador = new EventJournal() {
+            @Override
+            public void registrar(Evento evento) {
+                eventos.add(evento);
+            }
+
+            @Override
+            public void confirmar() {
+                // solo se graba en memoria
+            }
+        };
+        GameService original = new GameService(new InMemoryRepo(), (id, msg) -> { }, grabador);
+        TestMatch match = TestMatch.create(original, ModoJuego.SALVA);
+        original.colocarBarco(match.hostId(), List.of(new int[]{0, 0}));
+        original.colocarBarco(match.hostId(), List.of(new int[]{0, 2}));
+        original.colocarBarco(match.guestId(), List.of(new int[]{3, 3}));
+        original.colocarBarco(match.guestId(), List.of(new int[]{4, 4}));
+        original.dispararSalva(match.hostId(), match.partidoId(), List.of(new int[]{3, 3}, new int[]{9, 9}));
+        original.dispararSalva(match.guestId(), match.partidoId(), List.of(new int[]{8, 8}));
+        List<ResultadoDisparo> ultima = original.dispararSalva(match.hostId(), match.partidoId(),
+                List.of(new int[]{4, 4}, new int[]{9, 8}));
+
+        assertEquals(List.of(ResultadoDisparo.HUNDIDO, ResultadoDisparo.AGUA), ultima);
+        assertEquals(EstadoPartido.FINALIZADO, match.partido().getEstado());
+        assertEquals(match.hostId(), match.partido().getGanadorId());
+
+        InMemoryRepo copia = new InMemoryRepo();
+        GameService reproductor = new GameService(copia, (id, msg) -> { });
+        eventos.subList(0, eventos.size() - 1).forEach(reproductor::aplicar);
+        Partido enCurso = copia.getPartido(match.partidoId());
+        assertEquals(ModoJuego.SALVA, enCurso.getModo());
+        assertEquals(match.hostId(), enCurso.getTurnoJugadorId());
+        eventos.forEach(reproductor::aplicar);
+
+        Partido partido = copia.getPartido(match.partidoId());
+        assertEquals(EstadoPartido.FINALIZADO, partido.getEstado());
+        assertEquals(match.hostId(), partido.getGanadorId());
+    }
+
     @Test
     void testProcesarDisparoImpactoConsideraCoordenadaHundida() throws Exception {
         Method method = GameService.class.getDeclaredMethod("procesarDisparoImpacto",
@@ -279,7 +706,7 @@ class GameServiceTest {
         Barco barco = mapa.crearBarco(List.of(new int[]{0, 0}, new int[]{0, 1}));
         Coordenada primera = mapa.getCoordenadaById(barco.getCoordenadaIds().get(0));
         Coordenada segunda = mapa.getCoordenadaById(barco.getCoordenadaIds().get(1));
-        primera.setEstado(EstadoCoordenada.HUNDIDO);
+        mapa.marcarTocado(primera);
 
         ResultadoDisparo resultado = (ResultadoDisparo) method.invoke(
                 service, partido, 1, 2, segunda.getFila(), segunda.getColumna(), segunda, mapa);
@@ -290,11 +717,11 @@ class GameServiceTest {
     @Test
     void testNotificarResultadoDisparoHundidoSinBarcoId() throws Exception {
         Method method = GameService.class.getDeclaredMethod("notificarResultadoDisparo",
-                int.class, int.class, int.class, int.class, ResultadoDisparo.class, Integer.class);
+                Partido.class, int.class, int.class, int.class, int.class, ResultadoDisparo.class, Integer.class);
         method.setAccessible(true);
 
         notifications.clear();
-        method.invoke(service, 1, 2, 0, 0, ResultadoDisparo.HUNDIDO, null);
+        method.invoke(service, new Partido(3), 1, 2, 0, 0, ResultadoDisparo.HUNDIDO, null);
 
         assertTrue(notifications.stream().anyMatch(msg -> msg.contains("HUNDIDO")));
     }
@@ -303,11 +730,67 @@ class GameServiceTest {
         return TestMatch.create(service);
     }
 
+    @Test
+    void testRevanchaEmpiezaConTablerosVacios() {
+        Jugador host = service.crearJugador();
+        Jugador guest = service.crearJugador();
+        Partido primera = service.crearPartido(host.getId());
+        service.unirsePartido(primera.getId(), guest.getId());
+        service.colocarBarco(host.getId(), List.of(new int[]{0, 0}));
+        service.colocarBarco(guest.getId(), List.of(new int[]{0, 0}));
+        assertEquals(ResultadoDisparo.HUNDIDO, service.disparar(host.getId(), primera.getId(), 0, 0));
+        assertEquals(EstadoPartido.FINALIZADO, primera.getEstado());
+
+        Partido revancha = service.crearPartido(host.getId());
+        service.colocarBarco(host.getId(), List.of(new int[]{0, 0}, new int[]{0, 1}));
+        service.unirsePartido(revancha.getId(), guest.getId());
+        service.colocarBarco(guest.getId(), List.of(new int[]{0, 0}, new int[]{0, 1}));
+
+        Mapa tableroGuest = repo.getMapa(revancha.getMapaDe(guest.getId()));
+        assertEquals(1, tableroGuest.getBarcos().size());
+        assertFalse(tableroGuest.fueDisparada(0, 0));
+        assertEquals(1, repo.getMapa(revancha.getMapaDe(host.getId())).getBarcos().size());
+        assertEquals(ResultadoDisparo.TOCADO, service.disparar(host.getId(), revancha.getId(), 0, 0));
+        assertEquals(EstadoPartido.EN_CURSO, revancha.getEstado());
+    }
+
+    @Test
+    void testJugadorEnDosPartidasTieneUnTableroPorPartida() {
+        Jugador jugador = service.crearJugador();
+        Jugador rival1 = service.crearJugador();
+        Jugador rival2 = service.crearJugador();
+        Partido primera = service.crearPartido(jugador.getId());
+        service.unirsePartido(primera.getId(), rival1.getId());
+        service.colocarBarco(jugador.getId(), List.of(new int[]{0, 0}));
+        service.colocarBarco(rival1.getId(), List.of(new int[]{5, 5}));
+        Partido segunda = service.crearPartido(rival2.getId());
+        service.unirsePartido(segunda.getId(), jugador.getId());
+        service.colocarBarco(jugador.getId(), List.of(new int[]{9, 9}));
+        service.colocarBarco(rival2.getId(), List.of(new int[]{5, 5}));
+
+        int tableroPrimera = primera.getMapaDe(jugador.getId());
+        int tableroSegunda = segunda.getMapaDe(jugador.getId());
+        assertNotEquals(tableroPrimera, tableroSegunda);
+        assertEquals(tableroSegunda, jugador.getMapaIdAsInt());
+        assertEquals(List.of(primera, segunda), service.partidasActivas(jugador.getId()));
+
+        assertEquals(ResultadoDisparo.AGUA, service.disparar(rival2.getId(), segunda.getId(), 0, 0));
+        assertEquals(ResultadoDisparo.AGUA, service.disparar(jugador.getId(), primera.getId(), 1, 1));
+        assertEquals(ResultadoDisparo.HUNDIDO, service.disparar(rival1.getId(), primera.getId(), 0, 0));
+        assertEquals(EstadoPartido.FINALIZADO, primera.getEstado());
+        assertEquals(EstadoPartido.EN_CURSO, segunda.getEstado());
+        assertEquals(List.of(segunda), service.partidasActivas(jugador.getId()));
+    }
+
     private record TestMatch(Jugador host, Jugador guest, Partido partido) {
         static TestMatch create(GameService service) {
+            return create(service, ModoJuego.CLASICO);
+        }
+
+        static TestMatch create(GameService service, ModoJuego modo) {
             Jugador host = service.crearJugador();
             Jugador guest = service.crearJugador();
-            Partido partido = service.crearPartido(host.getId());
+            Partido partido = service.crearPartido(host.getId(), Partido.TAMANO_POR_DEFECTO, Partido.TAMANO_POR_DEFECTO, modo);
             service.unirsePartido(partido.getId(), guest.getId());
             return new TestMatch(host, guest, partido);
         }
@@ -0,0 +1,104 @@
+package software.sebastian.mondragon.battleship.game.service;
+
+import org.openjdk.jmh.annotations.*;
+import software.sebastian.mondragon.battleship.game.model.Jugador;
+import software.sebastian.mondragon.battleship.game.model.ModoJuego;
+import software.sebastian.mondragon.battleship.game.model.Partido;
+import software.sebastian.mondragon.battleship.game.repo.InMemoryRepo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * K disparos por operacion: K llamadas a {@code disparar} en una partida clasica frente a una
+ * {@code dispararSalva} de K disparos. Cada jugador tiene K barcos en la ultima fila y todos los
+ * disparos son agua, asi que ambos caminos resuelven el mismo trabajo por celda.
+ *
+ * <pre>mvn -Pbench test-compile exec:exec -Dbench="SalvaBenchmark"</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalvaBenchmark {
+    private static final int LADO = 100;
+    private static final int CELDAS_AGUA = (LADO - 1) * LADO;
+
+    @State(Scope.Thread)
+    public static class Partida {
+        @Param({"5", "16"})
+        int disparos;
+
+        GameService service;
+        int host;
+        int guest;
+        int clasica;
+        int salva;
+        int siguienteCelda;
+        boolean turnoHost;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            service = new GameService(new InMemoryRepo(), (id, msg) -> { });
+            nuevas();
+        }
+
+        void nuevas() {
+            Jugador h = service.crearJugador();
+            Jugador g = service.crearJugador();
+            host = h.getId();
+            guest = g.getId();
+            clasica = preparar(ModoJuego.CLASICO);
+            salva = preparar(ModoJuego.SALVA);
+            siguienteCelda = 0;
+            turnoHost = true;
+        }
+
+        private int preparar(ModoJuego modo) {
+            Partido p = service.crearPartido(host, LADO, LADO, modo);
+            service.unirsePartido(p.getId(), guest);
+            for (int c = 0; c < disparos; c++) {
+                service.colocarBarco(host, List.of(new int[]{LADO - 1, c}));
+                service.colocarBarco(guest, List.of(new int[]{LADO - 1, c}));
+            }
+            return p.getId();
+        }
+
+        /* cada partida solo la juega uno de los benchmarks, asi que basta un turno compartido */
+        int atacante() {
+            int atacante = turnoHost ? host : guest;
+            turnoHost = !turnoHost;
+            return atacante;
+        }
+
+        /* K celdas de agua nuevas: ningun indice se repite en la misma partida */
+        List<int[]> siguientes() {
+            if (siguienteCelda + disparos > CELDAS_AGUA) {
+                nuevas();
+            }
+            List<int[]> celdas = new ArrayList<>(disparos);
+            for (int i = 0; i < disparos; i++, siguienteCelda++) {
+                celdas.add(new int[]{siguienteCelda / LADO, siguienteCelda % LADO});
+            }
+            return celdas;
+        }
+    }
+
+    @Benchmark
+    public ResultadoDisparo disparosSueltos(Partida partida) {
+        // en la clasica el agua cede el turno: cada disparo lo hace el otro jugador
+        ResultadoDisparo ultimo = null;
+        for (int[] celda : partida.siguientes()) {
+            ultimo = partida.service.disparar(partida.atacante(), partida.clasica, celda[0], celda[1]);
+        }
+        return ultimo;
+    }
+
+    @Benchmark
+    public List<ResultadoDisparo> salva(Partida partida) {
+        List<int[]> celdas = partida.siguientes();   // antes de leer ids: puede empezar partidas nuevas
+        return partida.service.dispararSalva(partida.atacante(), partida.salva, celdas);
+    }
+}
@@ -20,19 +20,21 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.event.MouseEvent;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class GameBoardFrameTest {
 
     private FrameFixture window;
+    private StubClientSession sessionStub;
     private JButton[][] ownGrid;
     private JButton[][] enemyGrid;
     private JLabel statusLabel;
 
     @BeforeEach
     void setUp() {
-        StubClientSession sessionStub = new StubClientSession();
+        sessionStub = new StubClientSession();
         window = SwingTestSupport.showFrame(() -> new GameBoardFrame(sessionStub, StubClientSession::new));
         GameBoardFrame frame = (GameBoardFrame) window.target();
         ownGrid = extractGrid(frame, "ownGrid");
@@ -89,6 +91,43 @@ class GameBoardFrameTest {
         assertFalse(shipPanel.isEnabled());
     }
 
+    @Test
+    @DisplayName("Listo envía toda la flota en una sola petición")
+    void shouldSendWholeFleetOnReady() throws Exception {
+        selectShip("ship-2");
+        releaseShipOnCell(0, 0);
+        selectShip("ship-3");
+        releaseShipOnCell(2, 0);
+        assertTrue(sessionStub.getFleetRequests().isEmpty());
+
+        JButton readyBtn = window.button(JButtonMatcher.withText("Listo ✔")).target();
+        SwingUtilities.invokeAndWait(readyBtn::doClick);
+
+        assertEquals(1, sessionStub.getFleetRequests().size());
+        List<List<int[]>> fleet = sessionStub.getFleetRequests().get(0);
+        assertEquals(List.of(2, 3), fleet.stream().map(List::size).toList());
+        assertArrayEquals(new int[]{2, 2}, fleet.get(1).get(2));
+        assertFalse(readyBtn.isEnabled());
+        assertTrue(statusLabel.getText().contains("Listo"), statusLabel.getText());
+    }
+
+    @Test
+    @DisplayName("Flota rechazada devuelve los barcos al panel")
+    void shouldRollBackFleetWhenServerRejectsIt() {
+        sessionStub.failFleetWith("Barco invalido");
+        JPanel shipPanel = selectShip("ship-2");
+        releaseShipOnCell(0, 0);
+
+        JButton readyBtn = window.button(JButtonMatcher.withText("Listo ✔")).target();
+        SwingUtilities.invokeLater(readyBtn::doClick);
+        requireMessageAndDismiss("No se pudo colocar la flota: Barco invalido");
+
+        assertTrue(readyBtn.isEnabled());
+        assertTrue(shipPanel.isEnabled());
+        assertTrue(ownGrid[0][0].isEnabled());
+        assertEquals(Color.WHITE, ownGrid[0][1].getBackground());
+    }
+
     @Test
     @DisplayName("Rechaza fuera de límites (horizontal)")
     void shouldRejectShipPlacementOutsideBoundsHorizontal() {
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import software.sebastian.mondragon.battleship.game.client.ClientSession;
 import software.sebastian.mondragon.battleship.game.client.TcpClient.ShipPlacementResult;
 import software.sebastian.mondragon.battleship.game.client.TcpClientException;
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
 import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
 import software.sebastian.mondragon.battleship.ui.support.SwingTestSupport;
 
@@ -158,6 +159,16 @@ class GameJoinFrameTest {
             unsubscribed = true;
         }
 
+        @Override
+        public void agregarSuscriptorEventos(Consumer<EventoPartida> sub) {
+            // not exercised
+        }
+
+        @Override
+        public void quitarSuscriptorEventos(Consumer<EventoPartida> sub) {
+            // not exercised
+        }
+
         @Override
         public int ensureJugador() {
             return 1;
@@ -208,11 +219,26 @@ class GameJoinFrameTest {
             throw new UnsupportedOperationException("Unimplemented method 'crearPartido'");
         }
 
+        @Override
+        public int getFilas() {
+            return 10;
+        }
+
+        @Override
+        public int getColumnas() {
+            return 10;
+        }
+
         @Override
         public ShipPlacementResult colocarBarco(List<int[]> coords) throws IOException, TcpClientException {
             throw new UnsupportedOperationException("Unimplemented method 'colocarBarco'");
         }
 
+        @Override
+        public List<ShipPlacementResult> colocarFlota(List<List<int[]>> barcos) {
+            throw new UnsupportedOperationException("Unimplemented method 'colocarFlota'");
+        }
+
         @Override
         public ResultadoDisparo disparar(int fila, int columna) throws IOException, TcpClientException {
             throw new UnsupportedOperationException("Unimplemented method 'disparar'");
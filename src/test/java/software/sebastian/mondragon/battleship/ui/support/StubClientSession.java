@@ -2,6 +2,8 @@ package software.sebastian.mondragon.battleship.ui.support;
 
 import software.sebastian.mondragon.battleship.game.client.ClientSession;
 import software.sebastian.mondragon.battleship.game.client.TcpClient;
+import software.sebastian.mondragon.battleship.game.client.TcpClientException;
+import software.sebastian.mondragon.battleship.game.service.EventoPartida;
 import software.sebastian.mondragon.battleship.game.service.ResultadoDisparo;
 
 import java.io.IOException;
@@ -15,10 +17,13 @@ import java.util.function.Consumer;
  */
 public class StubClientSession implements ClientSession {
     private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<EventoPartida>> eventListeners = new CopyOnWriteArrayList<>();
     private final List<String> welcomeMessages;
     private int jugadorId;
     private int partidoId;
     private int shipCounter = 0;
+    private final List<List<List<int[]>>> fleetRequests = new CopyOnWriteArrayList<>();
+    private volatile String fleetFailure;
     private boolean connected;
 
     public StubClientSession() {
@@ -62,11 +67,44 @@ public class StubClientSession implements ClientSession {
         return partidoId;
     }
 
+    @Override
+    public int getFilas() {
+        return 10;
+    }
+
+    @Override
+    public int getColumnas() {
+        return 10;
+    }
+
     @Override
     public TcpClient.ShipPlacementResult colocarBarco(List<int[]> coords) {
         return new TcpClient.ShipPlacementResult(++shipCounter, coords.size());
     }
 
+    @Override
+    public List<TcpClient.ShipPlacementResult> colocarFlota(List<List<int[]>> barcos) throws TcpClientException {
+        fleetRequests.add(barcos);
+        if (fleetFailure != null) {
+            throw new TcpClientException(fleetFailure);
+        }
+        List<TcpClient.ShipPlacementResult> flota = new ArrayList<>();
+        for (List<int[]> barco : barcos) {
+            flota.add(new TcpClient.ShipPlacementResult(++shipCounter, barco.size()));
+        }
+        return flota;
+    }
+
+    /* flotas recibidas por colocarFlota, en orden */
+    public List<List<List<int[]>>> getFleetRequests() {
+        return fleetRequests;
+    }
+
+    /* con mensaje, colocarFlota falla como lo haria el servidor */
+    public void failFleetWith(String message) {
+        fleetFailure = message;
+    }
+
     @Override
     public ResultadoDisparo disparar(int fila, int columna) {
         return ResultadoDisparo.AGUA;
@@ -86,6 +124,20 @@ public class StubClientSession implements ClientSession {
         listeners.forEach(listener -> listener.accept(message));
     }
 
+    @Override
+    public void agregarSuscriptorEventos(Consumer<EventoPartida> listener) {
+        eventListeners.add(listener);
+    }
+
+    @Override
+    public void quitarSuscriptorEventos(Consumer<EventoPartida> listener) {
+        eventListeners.remove(listener);
+    }
+
+    public void emitEvent(EventoPartida evento) {
+        eventListeners.forEach(listener -> listener.accept(evento));
+    }
+
     @Override
     public List<String> getWelcomeMessages() {
         return List.copyOf(welcomeMessages);